@@ -0,0 +1,88 @@
+package com.rewixxcloudapp.benchmark;
+
+import com.rewixxcloudapp.util.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sale item totals and tax the way ReportService/PaymentService used to compute
+ * them (BigDecimal per item, {@code new BigDecimal(quantity)}, 0.06 as a double)
+ * against {@link Money} cents. Run with {@code -prof gc} (the profile default) and
+ * compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"1000"})
+    private int items;
+
+    private BigDecimal[] unitPrices;
+    private int[] quantities;
+    private long[] unitCents;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        unitPrices = new BigDecimal[items];
+        quantities = new int[items];
+        unitCents = new long[items];
+        for (int i = 0; i < items; i++) {
+            unitPrices[i] = BigDecimal.valueOf(random.nextInt(100_000), 2);
+            quantities[i] = random.nextInt(40) - 5;
+            unitCents[i] = Money.toCents(unitPrices[i]);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalLoop() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < items; i++) {
+            if (quantities[i] > 0) {
+                total = total.add(unitPrices[i].multiply(new BigDecimal(quantities[i])));
+            }
+        }
+        return total.add(total.multiply(BigDecimal.valueOf(0.06)));
+    }
+
+    /** What the services do now: entity BigDecimals converted per item, summed in cents. */
+    @Benchmark
+    public long centsFromEntities() {
+        long total = 0;
+        for (int i = 0; i < items; i++) {
+            if (quantities[i] > 0) {
+                total += Money.times(unitPrices[i], quantities[i]);
+            }
+        }
+        return total + Money.applyRate(total, 600);
+    }
+
+    /** Amounts already held in cents (e.g. a maintained total). */
+    @Benchmark
+    public long centsOnly() {
+        long total = 0;
+        for (int i = 0; i < items; i++) {
+            if (quantities[i] > 0) {
+                total += Money.times(unitCents[i], quantities[i]);
+            }
+        }
+        return total + Money.applyRate(total, 600);
+    }
+}
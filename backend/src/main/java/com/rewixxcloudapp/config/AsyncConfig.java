@@ -0,0 +1,43 @@
+package com.rewixxcloudapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Background work: scheduled pollers and the bounded pools they hand work to.
+ */
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    @Bean(name = "scanExecutor")
+    public ThreadPoolTaskExecutor scanExecutor(@Value("${scanner.worker.threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        // The worker only claims as many rows as there are idle threads, so no queue is needed
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("scan-worker-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "reportExecutor")
+    public ThreadPoolTaskExecutor reportExecutor(@Value("${reports.worker.threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        // Same claim-only-what-fits scheme as the scan pool
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("report-worker-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,118 @@
+package com.rewixxcloudapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rewixxcloudapp.service.BulkheadService;
+import com.rewixxcloudapp.service.BulkheadService.EndpointClass;
+import com.rewixxcloudapp.service.StreamTicketService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * Runs every /api request through {@link BulkheadService} before it reaches a
+ * controller. Registered after the security chain, so rejections still carry the
+ * CORS headers the frontend needs to read them. Auth and ops endpoints are exempt:
+ * logging in and inspecting the bulkheads must keep working when the API is saturated.
+ */
+@Component
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadFilter.class);
+
+    @Autowired
+    private BulkheadService bulkheadService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private StreamTicketService streamTicketService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${bulkhead.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !enabled
+                || "OPTIONS".equals(request.getMethod())
+                || !path.startsWith("/api/")
+                || path.startsWith("/api/auth/")
+                || path.startsWith("/api/ops/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request.getMethod(), request.getRequestURI());
+        BulkheadService.Permit permit;
+        try {
+            permit = bulkheadService.acquire(endpointClass, tenantOf(request));
+        } catch (BulkheadService.RejectedException e) {
+            logger.warn("{} {} rejected with {}: {}", request.getMethod(), request.getRequestURI(), e.getStatus(), e.getMessage());
+            response.setStatus(e.getStatus());
+            response.setHeader("Retry-After", String.valueOf(e.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), Collections.singletonMap("error", e.getMessage()));
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permit.release();
+        }
+    }
+
+    static EndpointClass classify(String method, String path) {
+        // Report jobs are queued, not computed in the request; polling them is cheap
+        if (path.startsWith("/api/reports/jobs")) {
+            return path.endsWith("/result") ? EndpointClass.EXPORTS : EndpointClass.CRUD;
+        }
+        if (path.startsWith("/api/reports/")) {
+            return EndpointClass.REPORTS;
+        }
+        if (path.contains("/export")) {
+            return EndpointClass.EXPORTS;
+        }
+        if (path.startsWith("/api/logo/upload") || path.startsWith("/api/files/")
+                || ("POST".equals(method) && path.equals("/api/scans"))) {
+            return EndpointClass.UPLOADS;
+        }
+        return EndpointClass.CRUD;
+    }
+
+    // Requests are limited per user, found the way the controllers find it (the change stream
+    // may carry a ticket instead of a JWT); unauthenticated ones (rejected later with 401) per client address
+    private String tenantOf(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            Long userId = jwtUtil.getUserIdFromToken(authHeader.substring(7));
+            if (userId != null) {
+                return "user:" + userId;
+            }
+        }
+        String ticket = request.getParameter("ticket");
+        if (ticket != null && !ticket.isEmpty() && request.getRequestURI().equals("/api/changes/stream")) {
+            // Looked up, not redeemed: the controller still has to use it
+            Long userId = streamTicketService.peek(ticket);
+            if (userId != null) {
+                return "user:" + userId;
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,78 @@
+package com.rewixxcloudapp.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level and query cache regions, held in a Caffeine-backed JCache
+ * manager. Region sizes/TTLs can be overridden with
+ * {@code cache.region.<name>.max-entries} and {@code cache.region.<name>.ttl-minutes}.
+ */
+@Configuration
+public class CacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheConfig.class);
+
+    public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    // region -> {max entries, ttl minutes (0 = no expiry)}
+    private static final Map<String, long[]> DEFAULT_REGIONS = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_REGIONS.put("products", new long[]{20000, 60});
+        DEFAULT_REGIONS.put("currencies", new long[]{500, 0});
+        DEFAULT_REGIONS.put("roles", new long[]{500, 0});
+        DEFAULT_REGIONS.put("users", new long[]{20000, 30});
+        DEFAULT_REGIONS.put("users.roles", new long[]{20000, 30});
+        DEFAULT_REGIONS.put("account_settings", new long[]{10000, 30});
+        DEFAULT_REGIONS.put(QUERY_RESULTS_REGION, new long[]{20000, 10});
+        // Timestamps must outlive any cached query result, so they never expire
+        DEFAULT_REGIONS.put(UPDATE_TIMESTAMPS_REGION, new long[]{10000, 0});
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // Unique URI per application context so parallel contexts (tests) don't share regions
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("rewixx-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        for (Map.Entry<String, long[]> region : DEFAULT_REGIONS.entrySet()) {
+            String name = region.getKey();
+            long maxEntries = environment.getProperty("cache.region." + name + ".max-entries", Long.class, region.getValue()[0]);
+            long ttlMinutes = environment.getProperty("cache.region." + name + ".ttl-minutes", Long.class, region.getValue()[1]);
+
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+            if (ttlMinutes > 0) {
+                configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutes)));
+            }
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(name, configuration);
+            logger.info("Cache region '{}' configured: max {} entries, ttl {} min", name, maxEntries, ttlMinutes);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+    }
+}
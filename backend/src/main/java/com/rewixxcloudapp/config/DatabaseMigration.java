@@ -1,44 +1,84 @@
 package com.rewixxcloudapp.config;
 
+import com.rewixxcloudapp.service.ClusterLockService;
+import com.rewixxcloudapp.util.SearchNormalizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.event.ContextRefreshedEvent;
-import org.springframework.context.event.EventListener;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
 
 /**
  * Database migration component that runs on application startup.
  * Ensures TEXT columns are properly set up for long text fields.
+ * <p>
+ * Runs once every singleton (Hibernate's schema update included) is ready, but
+ * before the web server starts, so no request reaches a half-migrated schema.
+ * Instances starting together take turns under a cluster lock: the first one does
+ * the work, the others wait for it and then find nothing left to change. An
+ * instance that cannot get the lock in time fails to start.
  */
 @Component
-public class DatabaseMigration {
+public class DatabaseMigration implements SmartInitializingSingleton {
 
     private static final Logger logger = LoggerFactory.getLogger(DatabaseMigration.class);
+    public static final String MIGRATION_LOCK = "database-migration";
 
     @Autowired
     private DataSource dataSource;
 
-    private boolean migrationExecuted = false;
+    @Autowired
+    private ClusterLockService clusterLockService;
+
+    @Value("${migration.lock.ttl-minutes:30}")
+    private long lockTtlMinutes;
+
+    @Value("${migration.lock.max-wait-minutes:10}")
+    private long lockMaxWaitMinutes;
 
-    @EventListener(ContextRefreshedEvent.class)
-    @Transactional
-    public void onApplicationEvent(ContextRefreshedEvent event) throws Exception {
-        if (migrationExecuted) {
-            return;
+    private volatile boolean completed;
+
+    // Not in a transaction: the lease must be visible to the other instances while the migration runs
+    @Override
+    public void afterSingletonsInstantiated() {
+        boolean acquired;
+        try {
+            acquired = clusterLockService.acquire(MIGRATION_LOCK, Duration.ofMinutes(lockTtlMinutes),
+                    Duration.ofMinutes(lockMaxWaitMinutes));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the database migration lock", e);
+        }
+        if (!acquired) {
+            // The other node may have died mid-migration; its lease runs out and the next start retries
+            throw new IllegalStateException("Database migration lock still held by "
+                    + clusterLockService.getOwner(MIGRATION_LOCK) + " after " + lockMaxWaitMinutes + " minutes");
+        }
+        try {
+            runMigration();
+            completed = true;
+        } finally {
+            clusterLockService.release(MIGRATION_LOCK);
         }
-        migrationExecuted = true;
-        runMigration();
     }
 
-    public void runMigration() throws Exception {
+    /** Whether this instance has been through the migration (and so may serve requests). */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void runMigration() {
         logger.info("Running database migration checks...");
 
         try (Connection connection = dataSource.getConnection()) {
@@ -69,7 +109,11 @@ public class DatabaseMigration {
                 } else {
                     logger.warn("Unknown database type: {}, skipping column type migration", dbProductName);
                 }
+                migrateMoneyColumns(metaData, stmt, dbProductName);
+                backfillExpenseEmployees(stmt);
+                migrateSyncColumns(metaData, stmt, dbProductName);
             }
+            backfillEmployeeSearchColumns(connection, dbProductName);
 
             logger.info("Database migration checks completed successfully");
         } catch (Exception e) {
@@ -141,4 +185,170 @@ public class DatabaseMigration {
             }
         }
     }
+
+    /**
+     * jobs.job_price and jobs.custom_material_cost were DOUBLE columns; amounts are now
+     * exact NUMERIC(12,2). Only columns still stored as floating point are converted.
+     */
+    private void migrateMoneyColumns(DatabaseMetaData metaData, Statement stmt, String dbProductName) {
+        for (String column : new String[]{"job_price", "custom_material_cost"}) {
+            try {
+                if (!isFloatingPointColumn(metaData, "jobs", column)) {
+                    continue;
+                }
+                if (dbProductName.contains("postgresql")) {
+                    stmt.execute("ALTER TABLE jobs ALTER COLUMN " + column + " TYPE NUMERIC(12,2) USING ROUND(" + column + "::numeric, 2)");
+                } else if (dbProductName.contains("mysql") || dbProductName.contains("mariadb")) {
+                    stmt.execute("ALTER TABLE jobs MODIFY " + column + " DECIMAL(12,2)");
+                } else if (dbProductName.contains("h2")) {
+                    stmt.execute("ALTER TABLE jobs ALTER COLUMN " + column + " SET DATA TYPE NUMERIC(12,2)");
+                } else {
+                    continue;
+                }
+                logger.info("Converted jobs.{} from floating point to NUMERIC(12,2)", column);
+            } catch (Exception e) {
+                logger.warn("jobs.{} money column migration failed: {}", column, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Labor expenses used to reference employees by name only. Links unlinked rows to
+     * the tenant's employee of the same name (case-insensitive, oldest record first);
+     * names with no matching employee stay unlinked.
+     */
+    private void backfillExpenseEmployees(Statement stmt) {
+        try {
+            int linked = stmt.executeUpdate(
+                    "UPDATE expenses SET employee_id = (" +
+                    "SELECT MIN(emp.id) FROM employees emp " +
+                    "WHERE emp.user_id = expenses.user_id AND LOWER(emp.name) = LOWER(TRIM(expenses.employee_name))) " +
+                    "WHERE employee_id IS NULL AND employee_name IS NOT NULL " +
+                    "AND EXISTS (SELECT 1 FROM employees emp " +
+                    "WHERE emp.user_id = expenses.user_id AND LOWER(emp.name) = LOWER(TRIM(expenses.employee_name)))");
+            if (linked > 0) {
+                logger.info("Linked {} labor expenses to employees by name", linked);
+            }
+        } catch (Exception e) {
+            logger.warn("expenses.employee_id backfill failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * employees.search_name/search_phone are maintained by the entity on write; rows
+     * written before the columns existed are filled here (the normalization is done in
+     * Java, so it cannot be a single UPDATE). search_name is then made NOT NULL: it is
+     * the directory's sort key and part of the page cursor. On PostgreSQL a
+     * varchar_pattern_ops index lets prefix LIKE use an index whatever the database collation.
+     */
+    private void backfillEmployeeSearchColumns(Connection connection, String dbProductName) {
+        try (Statement select = connection.createStatement();
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE employees SET search_name = ?, search_phone = ? WHERE id = ?")) {
+            int pending = 0;
+            int total = 0;
+            try (ResultSet rows = select.executeQuery("SELECT id, name, phone FROM employees WHERE search_name IS NULL")) {
+                while (rows.next()) {
+                    update.setString(1, SearchNormalizer.normalize(rows.getString("name")));
+                    update.setString(2, SearchNormalizer.digitsOnly(rows.getString("phone")));
+                    update.setLong(3, rows.getLong("id"));
+                    update.addBatch();
+                    if (++pending == 500) {
+                        update.executeBatch();
+                        total += pending;
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) {
+                update.executeBatch();
+                total += pending;
+            }
+            if (total > 0) {
+                logger.info("Filled search columns for {} employees", total);
+            }
+            if (dbProductName.contains("mysql")) {
+                select.execute("ALTER TABLE employees MODIFY search_name VARCHAR(100) NOT NULL");
+            } else {
+                select.execute("ALTER TABLE employees ALTER COLUMN search_name SET NOT NULL");
+            }
+            if (dbProductName.contains("postgresql")) {
+                select.execute("CREATE INDEX IF NOT EXISTS idx_employees_user_name_prefix ON employees (user_id, search_name varchar_pattern_ops)");
+                select.execute("CREATE INDEX IF NOT EXISTS idx_employees_user_phone_prefix ON employees (user_id, search_phone varchar_pattern_ops)");
+            }
+        } catch (Exception e) {
+            logger.warn("employees search column backfill failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Delta sync (SyncService) reads rows by updated_at and checks offline edits against
+     * version. expenses/employees.updated_at were DATE columns and become timestamps.
+     * Rows written before the columns existed get version 0 and an updated_at of now, so
+     * the next sync sends them once; payments get their job's tenant.
+     */
+    private void migrateSyncColumns(DatabaseMetaData metaData, Statement stmt, String dbProductName) {
+        for (String table : new String[]{"expenses", "employees"}) {
+            try {
+                Integer type = columnType(metaData, table, "updated_at");
+                if (type == null || type != Types.DATE) {
+                    continue;
+                }
+                if (dbProductName.contains("postgresql")) {
+                    stmt.execute("ALTER TABLE " + table + " ALTER COLUMN updated_at TYPE TIMESTAMP");
+                } else if (dbProductName.contains("mysql") || dbProductName.contains("mariadb")) {
+                    stmt.execute("ALTER TABLE " + table + " MODIFY updated_at DATETIME(6)");
+                } else if (dbProductName.contains("h2")) {
+                    stmt.execute("ALTER TABLE " + table + " ALTER COLUMN updated_at SET DATA TYPE TIMESTAMP");
+                } else {
+                    continue;
+                }
+                logger.info("Converted {}.updated_at from DATE to TIMESTAMP", table);
+            } catch (Exception e) {
+                logger.warn("{}.updated_at timestamp migration failed: {}", table, e.getMessage());
+            }
+        }
+
+        try {
+            int filled = stmt.executeUpdate("UPDATE payments SET user_id = " +
+                    "(SELECT j.user_id FROM jobs j WHERE j.id = payments.job_id) WHERE user_id IS NULL");
+            if (filled > 0) {
+                logger.info("Filled user_id for {} payments", filled);
+            }
+        } catch (Exception e) {
+            logger.warn("payments.user_id backfill failed: {}", e.getMessage());
+        }
+        // users holds the version of the whole User hierarchy, customers included
+        for (String table : new String[]{"jobs", "users", "expenses", "payments", "contracts", "employees"}) {
+            try {
+                stmt.executeUpdate("UPDATE " + table + " SET version = 0 WHERE version IS NULL");
+            } catch (Exception e) {
+                logger.warn("{}.version backfill failed: {}", table, e.getMessage());
+            }
+        }
+        for (String table : new String[]{"jobs", "customers", "expenses", "payments", "contracts", "employees"}) {
+            try {
+                stmt.executeUpdate("UPDATE " + table + " SET updated_at = CURRENT_TIMESTAMP WHERE updated_at IS NULL");
+            } catch (Exception e) {
+                logger.warn("{}.updated_at backfill failed: {}", table, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isFloatingPointColumn(DatabaseMetaData metaData, String table, String column) throws SQLException {
+        Integer type = columnType(metaData, table, column);
+        return type != null && (type == Types.DOUBLE || type == Types.FLOAT || type == Types.REAL);
+    }
+
+    // The column's java.sql.Types code, or null when it does not exist
+    private Integer columnType(DatabaseMetaData metaData, String table, String column) throws SQLException {
+        for (String[] names : new String[][]{{table, column}, {table.toUpperCase(), column.toUpperCase()}}) {
+            try (ResultSet columns = metaData.getColumns(null, null, names[0], names[1])) {
+                if (columns.next()) {
+                    return columns.getInt("DATA_TYPE");
+                }
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,93 @@
+package com.rewixxcloudapp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures how far each replica is behind. Every check writes the time into a
+ * one-row {@code replica_heartbeat} table on the primary and reads it back from
+ * each replica; the difference is the replica's lag. A replica that cannot be read
+ * (down, or the table not replicated yet) counts as unmeasured and gets no reads.
+ */
+@Component
+@ConditionalOnProperty(name = "replica.urls")
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate primary;
+    private final Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() throws SQLException {
+        routing = dataSource.unwrap(ReplicaRoutingDataSource.class);
+        primary = new JdbcTemplate(dataSource);
+        for (String replica : routing.getReplicas()) {
+            replicas.put(replica, new JdbcTemplate(routing.getResolvedDataSources().get(replica)));
+        }
+        try {
+            primary.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (" +
+                    "id INT NOT NULL PRIMARY KEY, " +
+                    "beat_at TIMESTAMP NOT NULL)");
+        } catch (DataAccessException e) {
+            // Another instance starting at the same moment created it first
+            logger.debug("replica_heartbeat table not created: {}", e.getMessage());
+        }
+        check();
+    }
+
+    @Scheduled(fixedDelayString = "${replica.lag-check-interval-ms:1000}")
+    public void check() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try {
+            if (primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", now) == 0) {
+                primary.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)", now);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Could not write replica heartbeat: {}", e.getMessage());
+        }
+
+        for (String replica : replicas.keySet()) {
+            Long previous = routing.getLag(replica);
+            long lag;
+            try {
+                List<Timestamp> beats = replicas.get(replica).queryForList(
+                        "SELECT beat_at FROM replica_heartbeat WHERE id = 1", Timestamp.class);
+                lag = beats.isEmpty() ? -1 : Math.max(0, System.currentTimeMillis() - beats.get(0).getTime());
+            } catch (DataAccessException e) {
+                logger.debug("Could not read heartbeat from {}: {}", replica, e.getMessage());
+                lag = -1;
+            }
+            routing.updateLag(replica, lag);
+            boolean usable = lag >= 0 && lag <= routing.getMaxLagMs();
+            boolean wasUsable = previous != null && previous <= routing.getMaxLagMs();
+            if (usable != wasUsable) {
+                if (usable) {
+                    logger.info("Replica {} is caught up ({} ms behind), routing reads to it", replica, lag);
+                } else {
+                    logger.warn("Replica {} is {}, reads go to the primary", replica,
+                            lag < 0 ? "unreachable" : lag + " ms behind");
+                }
+            }
+        }
+        routing.forgetWritesBefore(System.currentTimeMillis() - routing.getMaxLagMs() - routing.getStickinessMs());
+    }
+}
@@ -0,0 +1,155 @@
+package com.rewixxcloudapp.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replicas, switched on by listing them in replica.urls. The application
+ * DataSource becomes a {@link ReplicaRoutingDataSource} over the primary pool and
+ * one pool per replica: read-only transactions of a request (the list, report and
+ * export service methods, Spring Data finders) go to a replica that is caught up,
+ * everything else to the primary. Replica pools are sized like the primary pool and
+ * use its credentials unless replica.username/replica.password are set.
+ */
+@Configuration
+@ConditionalOnProperty(name = "replica.urls")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public static ReplicaRoutingPostProcessor replicaRoutingPostProcessor(Environment environment) {
+        return new ReplicaRoutingPostProcessor(environment);
+    }
+
+    /**
+     * Spring's default (acquire on first use, hold until the session closes) keeps
+     * the first connection for the whole in-view session: after a read-only
+     * transaction on a replica, a request's later writes would run on that replica.
+     * Releasing after each transaction makes every transaction pick its own route.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandling() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION.name());
+    }
+
+    /**
+     * Wraps the "dataSource" bean. Runs after the virtual-thread pool limiter, so the
+     * limiter still sits directly on the primary pool.
+     */
+    public static class ReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered, DisposableBean {
+
+        private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingPostProcessor.class);
+
+        private final Environment environment;
+        private final List<org.apache.tomcat.jdbc.pool.DataSource> replicaPools = new ArrayList<>();
+
+        public ReplicaRoutingPostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+            if (!"dataSource".equals(beanName) || !(bean instanceof DataSource)) {
+                return bean;
+            }
+            DataSource primary = (DataSource) bean;
+            org.apache.tomcat.jdbc.pool.DataSource primaryPool = findPool(primary);
+
+            Map<Object, Object> targets = new HashMap<>();
+            targets.put(ReplicaRoutingDataSource.PRIMARY, primary);
+            List<String> keys = new ArrayList<>();
+            String[] urls = environment.getProperty("replica.urls", String[].class, new String[0]);
+            for (String url : urls) {
+                if (url.isBlank()) {
+                    continue;
+                }
+                String key = "replica-" + (keys.size() + 1);
+                keys.add(key);
+                targets.put(key, replicaDataSource(url.trim(), primaryPool));
+                logger.info("Read replica {}: {}", key, url.trim());
+            }
+            if (keys.isEmpty()) {
+                return bean;
+            }
+
+            ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(keys,
+                    environment.getProperty("replica.max-lag-ms", Long.class, 5000L),
+                    environment.getProperty("replica.stickiness-ms", Long.class, 2000L));
+            routing.setTargetDataSources(targets);
+            routing.setDefaultTargetDataSource(primary);
+            routing.afterPropertiesSet();
+            // The route is picked at the first statement, once the transaction is known to be read-only
+            return new LazyConnectionDataSourceProxy(routing);
+        }
+
+        private DataSource replicaDataSource(String url, org.apache.tomcat.jdbc.pool.DataSource primaryPool) {
+            org.apache.tomcat.jdbc.pool.DataSource pool = new org.apache.tomcat.jdbc.pool.DataSource();
+            pool.setUrl(url);
+            pool.setDriverClassName(environment.getProperty("replica.driver-class-name",
+                    primaryPool != null ? primaryPool.getDriverClassName() : null));
+            pool.setUsername(environment.getProperty("replica.username",
+                    primaryPool != null ? primaryPool.getUsername() : null));
+            pool.setPassword(environment.getProperty("replica.password",
+                    primaryPool != null ? primaryPool.getPoolProperties().getPassword() : null));
+            pool.setDefaultReadOnly(true);
+            if (primaryPool != null) {
+                pool.setInitialSize(primaryPool.getInitialSize());
+                pool.setMaxActive(primaryPool.getMaxActive());
+                pool.setMinIdle(primaryPool.getMinIdle());
+                pool.setMaxIdle(primaryPool.getMaxIdle());
+                pool.setMaxWait(primaryPool.getMaxWait());
+            }
+            pool.setValidationQuery("SELECT 1");
+            pool.setTestOnBorrow(true);
+            pool.setTestWhileIdle(true);
+            replicaPools.add(pool);
+
+            if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+                int reserved = environment.getProperty("virtual-threads.db.reserved-connections", Integer.class, 4);
+                long maxWaitMs = environment.getProperty("virtual-threads.db.max-wait-ms", Long.class, 5000L);
+                return new PoolLimitedDataSource(pool, Math.max(1, pool.getMaxActive() - reserved), maxWaitMs);
+            }
+            return pool;
+        }
+
+        private static org.apache.tomcat.jdbc.pool.DataSource findPool(DataSource dataSource) {
+            DataSource current = dataSource;
+            while (current instanceof DelegatingDataSource) {
+                current = ((DelegatingDataSource) current).getTargetDataSource();
+            }
+            return current instanceof org.apache.tomcat.jdbc.pool.DataSource
+                    ? (org.apache.tomcat.jdbc.pool.DataSource) current : null;
+        }
+
+        @Override
+        public void destroy() {
+            for (org.apache.tomcat.jdbc.pool.DataSource pool : replicaPools) {
+                pool.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.rewixxcloudapp.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy: the transaction manager asks for
+ * a connection before it marks the transaction read-only, so the route is only
+ * decided when the first statement runs. Hibernate must give the connection back
+ * after each transaction (see ReplicaRoutingConfig), or an in-view session would
+ * keep the first route for the rest of the request.
+ * <p>
+ * Only threads bound to a tenant are routed (GET requests, via ReplicaRoutingFilter,
+ * and report jobs); background workers that read and then write the same rows stay
+ * on the primary. A replica is skipped while its measured lag is above the limit,
+ * and for a tenant until it has caught up with the tenant's last write plus the
+ * stickiness margin, so a tenant always reads what it just wrote. Last writes are
+ * remembered per instance: with several instances behind a balancer, a tenant's
+ * next read may land where its write is unknown, so keep replica.max-lag-ms small.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Long> TENANT = new ThreadLocal<>();
+
+    private final List<String> replicas;
+    private final long maxLagMs;
+    private final long stickinessMs;
+    // Unknown until the first check: a replica is not used before its lag has been measured
+    private final Map<String, Long> lagMs = new ConcurrentHashMap<>();
+    private final Map<Long, Long> lastWriteAt = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(List<String> replicas, long maxLagMs, long stickinessMs) {
+        this.replicas = new ArrayList<>(replicas);
+        this.maxLagMs = maxLagMs;
+        this.stickinessMs = stickinessMs;
+    }
+
+    /** Routes this thread's read-only transactions on behalf of the tenant. */
+    public static void bindTenant(Long userId) {
+        TENANT.set(userId);
+    }
+
+    public static void unbindTenant() {
+        TENANT.remove();
+    }
+
+    public List<String> getReplicas() {
+        return Collections.unmodifiableList(replicas);
+    }
+
+    /** Records a replica's lag; a negative value means it could not be measured. */
+    public void updateLag(String replica, long lag) {
+        if (lag < 0) {
+            lagMs.remove(replica);
+        } else {
+            lagMs.put(replica, lag);
+        }
+    }
+
+    public Long getLag(String replica) {
+        return lagMs.get(replica);
+    }
+
+    /** Forgets last writes old enough that any usable replica has them. */
+    public void forgetWritesBefore(long cutoffMillis) {
+        lastWriteAt.values().removeIf(writtenAt -> writtenAt < cutoffMillis);
+    }
+
+    public long getMaxLagMs() {
+        return maxLagMs;
+    }
+
+    public long getStickinessMs() {
+        return stickinessMs;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long tenant = TENANT.get();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Outside a transaction (lazy loading while the response is written) it is a read: primary, no pin
+            if (tenant != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                recordTransactionalWrite(tenant);
+            }
+            return PRIMARY;
+        }
+        if (tenant == null) {
+            return PRIMARY;
+        }
+        String replica = pickReplica(lastWriteAt.get(tenant));
+        return replica != null ? replica : PRIMARY;
+    }
+
+    private String pickReplica(Long tenantWroteAt) {
+        long now = System.currentTimeMillis();
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            String replica = replicas.get((start + i) % size);
+            Long lag = lagMs.get(replica);
+            if (lag == null || lag > maxLagMs) {
+                continue;
+            }
+            if (tenantWroteAt != null && tenantWroteAt + lag + stickinessMs > now) {
+                continue;
+            }
+            return replica;
+        }
+        return null;
+    }
+
+    /** Keeps the tenant's reads on the primary until the replicas have caught up with now. */
+    public void recordWrite(Long tenant) {
+        lastWriteAt.put(tenant, System.currentTimeMillis());
+    }
+
+    // From the start of the write, and again once it commits, since the replica can only have it after that
+    private void recordTransactionalWrite(Long tenant) {
+        recordWrite(tenant);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    recordWrite(tenant);
+                }
+            });
+        }
+    }
+}
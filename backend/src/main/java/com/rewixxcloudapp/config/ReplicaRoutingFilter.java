@@ -0,0 +1,86 @@
+package com.rewixxcloudapp.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Tells {@link ReplicaRoutingDataSource} whose request is running. Only reads
+ * (GET/HEAD, and the POST /list and /search endpoints, which take their filters
+ * in the body) may use a replica: a POST or PUT that loads an entity and then
+ * saves it must load it from the primary, or it could save on top of a stale
+ * version. A modifying request pins its tenant to the primary until the replicas
+ * have it.
+ */
+@Component
+@ConditionalOnProperty(name = "replica.urls")
+public class ReplicaRoutingFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private ReplicaRoutingDataSource routing;
+
+    @PostConstruct
+    public void init() throws SQLException {
+        routing = dataSource.unwrap(ReplicaRoutingDataSource.class);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return "OPTIONS".equals(request.getMethod()) || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Long userId = getUserIdFromRequest(request);
+        if (userId == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (isRead(request.getMethod(), request.getRequestURI())) {
+            ReplicaRoutingDataSource.bindTenant(userId);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                ReplicaRoutingDataSource.unbindTenant();
+            }
+            return;
+        }
+        routing.recordWrite(userId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            routing.recordWrite(userId);
+        }
+    }
+
+    static boolean isRead(String method, String path) {
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            return true;
+        }
+        return "POST".equals(method) && (path.endsWith("/list") || path.endsWith("/search"));
+    }
+
+    private Long getUserIdFromRequest(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return jwtUtil.getUserIdFromToken(authHeader.substring(7));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,89 @@
+package com.rewixxcloudapp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Opt-in virtual-thread execution (spring.threads.virtual.enabled=true, the same
+ * switch Boot 3.2 reads natively). Tomcat request handling and the application
+ * task executor run one virtual thread per task; the JDBC pool is put behind
+ * {@link PoolLimitedDataSource} so thousands of request threads queue for a
+ * connection permit instead of all piling into the pool. Needs a Java 21 runtime
+ * (the Docker image already is); the code is compiled for 17, so the virtual-thread
+ * API is looked up reflectively. Scheduled pollers and the scan worker keep their
+ * bounded platform pools.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) java.util.concurrent.Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            logger.info("Request handling and application tasks run on virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("spring.threads.virtual.enabled=true requires Java 21 or later, running on "
+                    + System.getProperty("java.version"), e);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    /** Picked up by MVC async request handling and by @Async once it is enabled. */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+
+    @Bean
+    public static PoolLimitingPostProcessor poolLimitedDataSourcePostProcessor(Environment environment) {
+        return new PoolLimitingPostProcessor(environment);
+    }
+
+    /** Ordered first, so anything else wrapping the DataSource wraps the limited pool. */
+    public static class PoolLimitingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Environment environment;
+
+        public PoolLimitingPostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+            if (bean instanceof org.apache.tomcat.jdbc.pool.DataSource) {
+                org.apache.tomcat.jdbc.pool.DataSource pool = (org.apache.tomcat.jdbc.pool.DataSource) bean;
+                int reserved = environment.getProperty("virtual-threads.db.reserved-connections", Integer.class, 4);
+                long maxWaitMs = environment.getProperty("virtual-threads.db.max-wait-ms", Long.class, 5000L);
+                return new PoolLimitedDataSource((DataSource) bean, Math.max(1, pool.getMaxActive() - reserved), maxWaitMs);
+            }
+            return bean;
+        }
+    }
+}
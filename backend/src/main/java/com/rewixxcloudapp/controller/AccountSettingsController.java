@@ -2,8 +2,10 @@ package com.rewixxcloudapp.controller;
 
 import com.rewixxcloudapp.config.JwtUtil;
 import com.rewixxcloudapp.dto.AccountSettingsDto;
+import com.rewixxcloudapp.dto.AccountSettingsView;
 import com.rewixxcloudapp.entity.AccountSettings;
 import com.rewixxcloudapp.service.AccountSettingsService;
+import com.rewixxcloudapp.util.HttpCaching;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -46,13 +48,13 @@ public class AccountSettingsController {
             }
             logger.info("✓ Extracted userId from token: {}", userId);
             logger.info("Fetching account settings for userId: {}", userId);
-            AccountSettings settings = accountSettingsService.getAccountSettings(userId);
+            AccountSettingsView settings = accountSettingsService.getSettingsView(userId);
             logger.info("✓ Found account settings:");
             logger.info("  - userId: {}", settings.getUserId());
             logger.info("  - companyName: {}", settings.getCompanyName());
             logger.info("  - email: {}", settings.getEmail());
             logger.info("=== END GET ACCOUNT SETTINGS ===");
-            return ResponseEntity.ok(settings);
+            return HttpCaching.validated("settings-" + settings.contentTag(), settings.getUpdatedAt()).body(settings);
         } catch (IllegalArgumentException e) {
             // User not found - return 401 to trigger re-login
             logger.error("✗ User not found: {}", e.getMessage());
@@ -6,6 +6,7 @@ import com.rewixxcloudapp.entity.AuthUser;
 import com.rewixxcloudapp.entity.AccountSettings;
 import com.rewixxcloudapp.repository.AuthUserRepository;
 import com.rewixxcloudapp.repository.AccountSettingsRepository;
+import com.rewixxcloudapp.service.AccountSettingsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,6 +43,9 @@ public class AuthController {
     @Autowired
     private AccountSettingsRepository accountSettingsRepository;
 
+    @Autowired
+    private AccountSettingsService accountSettingsService;
+
     @Value("${google.oauth.client-id}")
     private String googleClientId;
 
@@ -219,6 +223,11 @@ public class AuthController {
                     }
                 }
             }
+
+            // Login is where the AuthUser email can change; keep account settings in step
+            if (!isNewUser) {
+                accountSettingsService.syncEmail(user.getId(), user.getEmail());
+            }
             
             logger.info("=== GENERATING JWT TOKEN ===");
             logger.info("userId: {}", user.getId());
@@ -277,6 +286,8 @@ public class AuthController {
                 return ResponseEntity.status(401).body(Map.of("error", "Invalid email or password"));
             }
 
+            accountSettingsService.syncEmail(user.getId(), user.getEmail());
+
             String jwt = jwtUtil.generateToken(user.getId(), user.getEmail());
             Map<String, Object> response = new HashMap<>();
             response.put("token", jwt);
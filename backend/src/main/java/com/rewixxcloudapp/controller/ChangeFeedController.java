@@ -0,0 +1,120 @@
+package com.rewixxcloudapp.controller;
+
+import com.rewixxcloudapp.config.JwtUtil;
+import com.rewixxcloudapp.service.ChangeFeedService;
+import com.rewixxcloudapp.service.StreamTicketService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The change feed: an SSE stream of the tenant's committed writes, and the same
+ * events as JSON for clients that poll. Browsers' EventSource cannot send headers,
+ * so the stream also accepts a single-use {@code ticket} parameter from
+ * {@code POST /api/changes/ticket} in place of the JWT, and resumes from the
+ * Last-Event-ID header EventSource sends on reconnect (or a {@code lastEventId}
+ * parameter when the page itself reconnects with a new ticket).
+ */
+@RestController
+@RequestMapping("/api/changes")
+@CrossOrigin(origins = "*")
+public class ChangeFeedController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedController.class);
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private StreamTicketService streamTicketService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private Long getUserIdFromRequest(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+            return jwtUtil.getUserIdFromToken(token);
+        }
+        return null;
+    }
+
+    @PostMapping("/ticket")
+    public ResponseEntity<?> issueTicket(HttpServletRequest request) {
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(createErrorResponse("Unauthorized"));
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("ticket", streamTicketService.issue(userId));
+            response.put("expiresInMs", streamTicketService.getTicketTtlMs());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error issuing change stream ticket", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error issuing ticket: " + e.getMessage()));
+        }
+    }
+
+    // Failures are bare statuses: EventSource exposes no response body, and a non-200 stops its retries
+    @GetMapping("/stream")
+    public ResponseEntity<SseEmitter> stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                             @RequestParam(required = false) String lastEventId,
+                                             @RequestParam(required = false) String ticket,
+                                             HttpServletRequest request) {
+        Long userId = ticket != null && !ticket.isEmpty() ? streamTicketService.redeem(ticket) : getUserIdFromRequest(request);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            String resumeFrom = eventId(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+            return ResponseEntity.ok()
+                    // Tell nginx-style proxies not to buffer the stream
+                    .header("X-Accel-Buffering", "no")
+                    .body(changeFeedService.subscribe(userId, resumeFrom));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejecting change stream for user {}: {}", userId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (IllegalStateException e) {
+            logger.warn("Rejecting change stream for user {}: {}", userId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getChanges(@RequestParam(required = false) String since, HttpServletRequest request) {
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(createErrorResponse("Unauthorized"));
+            }
+            return ResponseEntity.ok(changeFeedService.getChanges(userId, eventId(since)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error fetching changes", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error fetching changes: " + e.getMessage()));
+        }
+    }
+
+    private static String eventId(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    private Map<String, String> createErrorResponse(String message) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", message);
+        return response;
+    }
+}
@@ -3,7 +3,9 @@ package com.rewixxcloudapp.controller;
 import com.rewixxcloudapp.config.JwtUtil;
 import com.rewixxcloudapp.dto.ContractDto;
 import com.rewixxcloudapp.entity.Contract;
+import com.rewixxcloudapp.entity.Job;
 import com.rewixxcloudapp.service.ContractService;
+import com.rewixxcloudapp.util.HttpCaching;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -76,8 +78,16 @@ public class ContractController {
             }
 
             Optional<Contract> contract = contractService.getContractById(id, userId);
-            return contract.map(ResponseEntity::ok)
-                    .orElseGet(() -> ResponseEntity.notFound().build());
+            // Price and status follow the job's financials, and the embedded customer and job carry
+            // their own rows, so all their timestamps are part of the tag
+            return contract.<ResponseEntity<?>>map(c -> {
+                Job job = c.getJob();
+                return HttpCaching.validated("contract-" + c.getId(), c.getUpdatedAt(),
+                        c.getCustomer() != null ? c.getCustomer().getUpdatedAt() : null,
+                        job != null ? job.getUpdatedAt() : null,
+                        job != null && job.getFinancials() != null ? job.getFinancials().getUpdatedAt() : null,
+                        job != null ? job.getEmbeddedUpdatedAt() : null).body(c);
+            }).orElseGet(() -> ResponseEntity.notFound().build());
         } catch (Exception e) {
             logger.error("Error getting contract by id: {}", id, e);
             return ResponseEntity.internalServerError().build();
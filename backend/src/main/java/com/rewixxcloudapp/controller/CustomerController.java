@@ -126,10 +126,50 @@ public class CustomerController {
             if (page < 0) {
                 page = 0;
             }
-            Map<String, Object> result = customerService.getCustomersList(page, pageSize, searchTerm, userId);
+            // With sortBy, the page is ordered by a lifetime stat (see /insights)
+            String sortBy = (String) requestBody.get("sortBy");
+            Map<String, Object> result = sortBy != null
+                    ? customerService.getCustomerInsights(page, pageSize, searchTerm, sortBy,
+                            "asc".equalsIgnoreCase((String) requestBody.get("direction")), userId)
+                    : customerService.getCustomersList(page, pageSize, searchTerm, userId);
             return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    /**
+     * Customers with lifetime revenue, job count, last activity, outstanding balance
+     * and average payment lag. sortBy: lifetimeRevenue, outstandingBalance, jobCount
+     * or lastActivity; direction: asc or desc (default).
+     */
+    @GetMapping("/insights")
+    public ResponseEntity<?> getCustomerInsights(@RequestParam(defaultValue = "lifetimeRevenue") String sortBy,
+                                                 @RequestParam(defaultValue = "desc") String direction,
+                                                 @RequestParam(defaultValue = "0") int page,
+                                                 @RequestParam(defaultValue = "20") int pageSize,
+                                                 @RequestParam(defaultValue = "") String searchTerm,
+                                                 HttpServletRequest request) {
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(Map.of("message", "Unauthorized"));
+            }
+            if (pageSize < 1 || pageSize > 200) {
+                pageSize = 20;
+            }
+            if (page < 0) {
+                page = 0;
+            }
+            return ResponseEntity.ok(customerService.getCustomerInsights(page, pageSize, searchTerm, sortBy,
+                    "asc".equalsIgnoreCase(direction), userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error loading customer insights: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(Map.of("message", "Error loading customer insights: " + e.getMessage()));
+        }
+    }
 }
\ No newline at end of file
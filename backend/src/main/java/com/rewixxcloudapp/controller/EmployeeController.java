@@ -161,6 +161,12 @@ public class EmployeeController {
         }
     }
 
+    /**
+     * Employee directory. With {@code limit}, {@code cursor} or {@code active} in the body
+     * the result is one keyset page ({@code employees}, {@code hasMore}, {@code nextCursor});
+     * pass {@code nextCursor} back as {@code cursor} for the next page. Without them the
+     * full list is returned as before.
+     */
     @PostMapping("/list")
     public ResponseEntity<?> getEmployeesList(@RequestBody Map<String, Object> requestBody, HttpServletRequest request) {
         logger.info("POST /api/employees/list");
@@ -170,6 +176,12 @@ public class EmployeeController {
                 return ResponseEntity.status(401).body(createErrorResponse("Unauthorized"));
             }
             String searchTerm = (String) requestBody.getOrDefault("searchTerm", "");
+            if (requestBody.containsKey("limit") || requestBody.containsKey("cursor") || requestBody.containsKey("active")) {
+                Integer limit = requestBody.get("limit") instanceof Number ? ((Number) requestBody.get("limit")).intValue() : null;
+                Boolean active = requestBody.get("active") instanceof Boolean ? (Boolean) requestBody.get("active") : null;
+                return ResponseEntity.ok(employeeService.getEmployeesPage(
+                        searchTerm, active, (String) requestBody.get("cursor"), limit, userId));
+            }
             List<Employee> employees;
             if (searchTerm != null && !searchTerm.trim().isEmpty()) {
                 employees = employeeService.searchEmployees(searchTerm.trim(), userId);
@@ -180,6 +192,9 @@ public class EmployeeController {
             result.put("employees", employees);
             result.put("totalEmployees", employees.size());
             return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid employees list request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching employees list", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -11,6 +11,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -183,7 +184,10 @@ public class ExpenseController {
             }
             logger.info("Fetching expenses for job ID: {} for user {}", jobId, userId);
             var expenses = expenseService.getExpensesByJob(jobId, userId);
-            var totalAmount = expenseService.getTotalExpensesByJob(jobId, userId);
+            // Summed from the rows already loaded rather than a second query
+            BigDecimal totalAmount = expenses.stream()
+                    .map(Expense::getAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
 
             Map<String, Object> response = new HashMap<>();
             response.put("expenses", expenses);
@@ -3,9 +3,14 @@ package com.rewixxcloudapp.controller;
 import com.rewixxcloudapp.config.JwtUtil;
 import com.rewixxcloudapp.entity.Job;
 import com.rewixxcloudapp.entity.Sale;
+import com.rewixxcloudapp.service.JobProfitabilityService;
 import com.rewixxcloudapp.service.JobService;
 import com.rewixxcloudapp.dto.JobDto;
+import com.rewixxcloudapp.dto.JobProfitView;
+import com.rewixxcloudapp.dto.MaterialBatchDto;
 import com.rewixxcloudapp.dto.MaterialDto;
+import com.rewixxcloudapp.dto.PurchaseDto;
+import com.rewixxcloudapp.util.HttpCaching;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -26,6 +31,9 @@ public class JobController {
     @Autowired
     private JobService jobService;
 
+    @Autowired
+    private JobProfitabilityService jobProfitabilityService;
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -91,7 +99,11 @@ public class JobController {
                 return ResponseEntity.status(401).build();
             }
             Optional<Job> job = jobService.getJobById(id, userId);
-            return job.map(ResponseEntity::ok)
+            // Materials and payments change the financials row, not the job; embedded customer,
+            // payments and products have their own timestamps
+            return job.<ResponseEntity<?>>map(j -> HttpCaching.validated("job-" + j.getId(), j.getUpdatedAt(),
+                            j.getFinancials() != null ? j.getFinancials().getUpdatedAt() : null,
+                            j.getEmbeddedUpdatedAt()).body(j))
                     .orElseGet(() -> ResponseEntity.notFound().build());
         } catch (Exception e) {
             logger.error("Error getting job by id: {}", id, e);
@@ -99,6 +111,26 @@ public class JobController {
         }
     }
 
+    /**
+     * Profit and loss of one job: price, materials used, expenses by type, labor,
+     * payments and margin.
+     */
+    @GetMapping("/{id}/profitability")
+    public ResponseEntity<?> getJobProfitability(@PathVariable Long id, HttpServletRequest request) {
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).build();
+            }
+            Optional<JobProfitView> profitability = jobProfitabilityService.getJobProfitability(id, userId);
+            return profitability.map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            logger.error("Error getting profitability for job: {}", id, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateJob(@PathVariable Long id, @RequestBody JobDto dto, HttpServletRequest request) {
         try {
@@ -161,13 +193,14 @@ public class JobController {
             Integer page = (Integer) requestBody.getOrDefault("page", 0);
             String searchTerm = (String) requestBody.getOrDefault("searchTerm", "");
             String statusFilter = (String) requestBody.getOrDefault("statusFilter", "All");
+            boolean includeProfitability = Boolean.TRUE.equals(requestBody.get("includeProfitability"));
             if (pageSize < 1 || pageSize > 10000) {
                 pageSize = 10;
             }
             if (page < 0) {
                 page = 0;
             }
-            Map<String, Object> result = jobService.getJobsList(page, pageSize, searchTerm, statusFilter, userId);
+            Map<String, Object> result = jobService.getJobsList(page, pageSize, searchTerm, statusFilter, includeProfitability, userId);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             logger.error("Error getting jobs list", e);
@@ -195,6 +228,57 @@ public class JobController {
         }
     }
 
+    @PostMapping("/{id}/materials/batch")
+    public ResponseEntity<?> applyMaterialBatch(@PathVariable Long id, @RequestBody MaterialBatchDto batch, HttpServletRequest request) {
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(Map.of("message", "Unauthorized"));
+            }
+            Map<String, Object> result = jobService.applyMaterialBatch(id, batch, userId);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error applying material batch to job: {}", id, e);
+            return ResponseEntity.internalServerError().body("Error applying material changes: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/purchases")
+    public ResponseEntity<?> addPurchaseToJob(@PathVariable Long id, @RequestBody PurchaseDto purchaseDto, HttpServletRequest request) {
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(Map.of("message", "Unauthorized"));
+            }
+            Sale sale = jobService.addPurchaseToJob(id, purchaseDto, userId);
+            return ResponseEntity.ok(sale);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error adding purchase to job: {}", id, e);
+            return ResponseEntity.internalServerError().body("Error adding purchase to job: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}/materials/{saleId}/items/{itemId}")
+    public ResponseEntity<?> removeMaterialItemFromJob(@PathVariable Long id, @PathVariable Long saleId, @PathVariable Long itemId, HttpServletRequest request) {
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(Map.of("message", "Unauthorized"));
+            }
+            jobService.removeMaterialItemFromJob(id, saleId, itemId, userId);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error removing material item from job: {}", id, e);
+            return ResponseEntity.internalServerError().body("Error removing material from job: " + e.getMessage());
+        }
+    }
+
     @DeleteMapping("/{id}/materials/{materialId}")
     public ResponseEntity<?> removeMaterialFromJob(@PathVariable Long id, @PathVariable Long materialId, HttpServletRequest request) {
         try {
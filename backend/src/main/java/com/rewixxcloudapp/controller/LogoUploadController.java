@@ -1,18 +1,15 @@
 package com.rewixxcloudapp.controller;
 
+import com.rewixxcloudapp.service.FileStorage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -23,9 +20,12 @@ import java.util.UUID;
 public class LogoUploadController {
 
     private static final Logger logger = LoggerFactory.getLogger(LogoUploadController.class);
-    private static final String UPLOAD_DIR = "uploads/logos/";
+    private static final String UPLOAD_DIR = "logos/";
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
 
+    @Autowired
+    private FileStorage fileStorage;
+
     @PostMapping("/upload")
     public ResponseEntity<?> uploadLogo(@RequestParam("file") MultipartFile file) {
         logger.info("POST /api/logo/upload - Uploading logo");
@@ -50,12 +50,6 @@ public class LogoUploadController {
                     .body(createErrorResponse("Only image files are allowed"));
             }
 
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
             // Generate unique filename
             String originalFilename = file.getOriginalFilename();
             String fileExtension = "";
@@ -65,8 +59,7 @@ public class LogoUploadController {
             String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
 
             // Save file
-            Path filePath = uploadPath.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            fileStorage.store(UPLOAD_DIR + uniqueFilename, file.getBytes(), contentType);
 
             // Return the file URL
             String fileUrl = "/uploads/logos/" + uniqueFilename;
@@ -89,9 +82,11 @@ public class LogoUploadController {
     public ResponseEntity<?> deleteLogo(@RequestParam String filename) {
         logger.info("DELETE /api/logo - Deleting logo: {}", filename);
 
+        if (filename.contains("/") || filename.contains("\\")) {
+            return ResponseEntity.badRequest().body(createErrorResponse("Invalid file name"));
+        }
         try {
-            Path filePath = Paths.get(UPLOAD_DIR + filename);
-            Files.deleteIfExists(filePath);
+            fileStorage.delete(UPLOAD_DIR + filename);
 
             Map<String, String> response = new HashMap<>();
             response.put("message", "Logo deleted successfully");
@@ -0,0 +1,177 @@
+package com.rewixxcloudapp.controller;
+
+import com.rewixxcloudapp.config.JwtUtil;
+import com.rewixxcloudapp.config.PoolLimitedDataSource;
+import com.rewixxcloudapp.service.BulkheadService;
+import com.rewixxcloudapp.service.CacheInvalidationBus;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.http.HttpServletRequest;
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Operational endpoints: cache statistics and manual eviction, request bulkheads.
+ */
+@RestController
+@RequestMapping("/api/ops")
+@CrossOrigin(origins = "*")
+public class OpsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpsController.class);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private BulkheadService bulkheadService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    // Eviction empties every tenant's cached entities, so only configured operators may do it
+    @Value("${ops.admin-user-ids:}")
+    private Set<Long> adminUserIds;
+
+    private Long getUserIdFromRequest(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+            return jwtUtil.getUserIdFromToken(token);
+        }
+        return null;
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<?> getCacheStatistics(HttpServletRequest request) {
+        logger.info("GET /api/ops/cache");
+        try {
+            if (getUserIdFromRequest(request) == null) {
+                return ResponseEntity.status(401).body(createErrorResponse("Unauthorized"));
+            }
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+            Map<String, Object> secondLevel = new LinkedHashMap<>();
+            secondLevel.put("hits", statistics.getSecondLevelCacheHitCount());
+            secondLevel.put("misses", statistics.getSecondLevelCacheMissCount());
+            secondLevel.put("puts", statistics.getSecondLevelCachePutCount());
+            secondLevel.put("hitRatio", hitRatio(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount()));
+
+            Map<String, Object> queryCache = new LinkedHashMap<>();
+            queryCache.put("hits", statistics.getQueryCacheHitCount());
+            queryCache.put("misses", statistics.getQueryCacheMissCount());
+            queryCache.put("puts", statistics.getQueryCachePutCount());
+            queryCache.put("hitRatio", hitRatio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+
+            Map<String, Object> regions = new LinkedHashMap<>();
+            for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+                CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+                if (region == null) {
+                    continue;
+                }
+                Map<String, Object> regionStats = new LinkedHashMap<>();
+                regionStats.put("hits", region.getHitCount());
+                regionStats.put("misses", region.getMissCount());
+                regionStats.put("puts", region.getPutCount());
+                regionStats.put("hitRatio", hitRatio(region.getHitCount(), region.getMissCount()));
+                regionStats.put("entries", region.getElementCountInMemory());
+                regions.put(regionName, regionStats);
+            }
+
+            Map<String, Object> invalidation = new LinkedHashMap<>();
+            invalidation.put("channel", cacheInvalidationBus.getChannelName());
+            invalidation.put("nodeId", cacheInvalidationBus.getNodeId());
+            invalidation.put("published", cacheInvalidationBus.getPublishedCount());
+            invalidation.put("received", cacheInvalidationBus.getReceivedCount());
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("statisticsEnabled", statistics.isStatisticsEnabled());
+            response.put("secondLevel", secondLevel);
+            response.put("queryCache", queryCache);
+            response.put("regions", regions);
+            response.put("invalidation", invalidation);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error reading cache statistics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error reading cache statistics: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/cache/evict")
+    public ResponseEntity<?> evictCaches(HttpServletRequest request) {
+        logger.info("POST /api/ops/cache/evict");
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(createErrorResponse("Unauthorized"));
+            }
+            if (!adminUserIds.contains(userId)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(createErrorResponse("Forbidden"));
+            }
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "All cache regions evicted on this instance");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error evicting caches", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error evicting caches: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/bulkheads")
+    public ResponseEntity<?> getBulkheadStatistics(HttpServletRequest request) {
+        logger.info("GET /api/ops/bulkheads");
+        try {
+            if (getUserIdFromRequest(request) == null) {
+                return ResponseEntity.status(401).body(createErrorResponse("Unauthorized"));
+            }
+            Map<String, Object> response = bulkheadService.getStatistics();
+            // Unwrapped: with read replicas the limited primary pool sits behind the router
+            if (dataSource.isWrapperFor(PoolLimitedDataSource.class)) {
+                PoolLimitedDataSource limited = dataSource.unwrap(PoolLimitedDataSource.class);
+                Map<String, Object> connections = new LinkedHashMap<>();
+                connections.put("maxPermits", limited.getMaxPermits());
+                connections.put("available", limited.getAvailablePermits());
+                connections.put("waiting", limited.getWaiting());
+                response.put("connections", connections);
+            }
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error reading bulkhead statistics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error reading bulkhead statistics: " + e.getMessage()));
+        }
+    }
+
+    private double hitRatio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    private Map<String, String> createErrorResponse(String message) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", message);
+        return response;
+    }
+}
@@ -77,14 +77,16 @@ public class PaymentController {
     }
 
     @PostMapping
-    public ResponseEntity<?> createPayment(@RequestBody PaymentDto paymentDto, HttpServletRequest request) {
+    public ResponseEntity<?> createPayment(@RequestBody PaymentDto paymentDto,
+                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                           HttpServletRequest request) {
         logger.info("POST /api/payments - Creating payment for job ID: {}", paymentDto.getJobId());
         try {
             Long userId = getUserIdFromRequest(request);
             if (userId == null) {
                 return ResponseEntity.status(401).body(createErrorResponse("Unauthorized"));
             }
-            Payment payment = paymentService.createPayment(paymentDto, userId);
+            Payment payment = paymentService.createPayment(paymentDto, userId, idempotencyKey);
             return ResponseEntity.status(HttpStatus.CREATED).body(payment);
         } catch (IllegalArgumentException e) {
             logger.warn("Validation error creating payment: {}", e.getMessage());
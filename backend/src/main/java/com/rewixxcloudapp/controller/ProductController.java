@@ -2,13 +2,17 @@ package com.rewixxcloudapp.controller;
 
 import com.rewixxcloudapp.entity.Product;
 import com.rewixxcloudapp.repository.ProductRepository;
+import com.rewixxcloudapp.service.ProductCatalogService;
+import com.rewixxcloudapp.util.HttpCaching;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -21,6 +25,9 @@ public class ProductController {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
     @PostMapping("/list")
     public ResponseEntity<List<Product>> listAllProducts() {
         try {
@@ -38,7 +45,7 @@ public class ProductController {
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
         try {
             Optional<Product> product = productRepository.findById(id);
-            return product.map(ResponseEntity::ok)
+            return product.map(p -> HttpCaching.validated("product-" + p.getId(), p.getUpdatedAt()).body(p))
                     .orElseGet(() -> ResponseEntity.notFound().build());
         } catch (Exception e) {
             logger.error("Error getting product by id: {}", id, e);
@@ -47,16 +54,64 @@ public class ProductController {
     }
 
     @PostMapping
-    public ResponseEntity<Product> createProduct(@RequestBody Product product) {
+    public ResponseEntity<?> createProduct(@RequestBody Product product) {
         try {
-            Product savedProduct = productRepository.save(product);
+            Product savedProduct = productCatalogService.createProduct(product);
             return ResponseEntity.ok(savedProduct);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Validation error creating product: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error creating product", e);
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateProduct(@PathVariable Long id, @RequestBody Product product) {
+        try {
+            Optional<Product> updated = productCatalogService.updateProduct(id, product);
+            if (updated.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(updated.get());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Validation error updating product {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error updating product: {}", id, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Served from the in-memory catalog index; meant to be called on every keystroke
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<Product>> autocomplete(@RequestParam("q") String query,
+                                                      @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(productCatalogService.autocomplete(query, limit));
+        } catch (Exception e) {
+            logger.error("Error autocompleting products for '{}'", query, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/barcode/{barcode}")
+    public ResponseEntity<?> lookupBarcode(@PathVariable String barcode) {
+        logger.info("GET /api/products/barcode/{}", barcode);
+        try {
+            return ResponseEntity.ok(productCatalogService.lookupBarcode(barcode));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            logger.warn("Barcode lookup unavailable for {}: {}", barcode, e.getMessage());
+            return ResponseEntity.status(503).body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error looking up barcode {}", barcode, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @PostMapping("/search")
     public ResponseEntity<List<Product>> searchProductsByName(@RequestBody java.util.Map<String, String> request) {
         try {
@@ -68,21 +123,19 @@ public class ProductController {
             String trimmedName = name.trim();
             logger.info("Searching for products with name: '{}'", trimmedName);
             
-            // First try exact match (case-insensitive)
-            List<Product> exactMatches = productRepository.findByNameIgnoreCase(trimmedName);
-            if (!exactMatches.isEmpty()) {
-                logger.info("Found {} exact matches for '{}'", exactMatches.size(), trimmedName);
-                return ResponseEntity.ok(exactMatches);
-            }
-            
-            // Fall back to partial match if no exact matches
-            List<Product> partialMatches = productRepository.findByNameContainingIgnoreCase(trimmedName);
-            logger.info("Found {} partial matches for '{}'", partialMatches.size(), trimmedName);
-            return ResponseEntity.ok(partialMatches);
+            List<Product> matches = productCatalogService.searchByName(trimmedName, 50);
+            logger.info("Found {} matches for '{}'", matches.size(), trimmedName);
+            return ResponseEntity.ok(matches);
             
         } catch (Exception e) {
             logger.error("Error searching products by name", e);
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    private Map<String, String> createErrorResponse(String message) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", message);
+        return response;
+    }
 }
@@ -1,15 +1,23 @@
 package com.rewixxcloudapp.controller;
 
 import com.rewixxcloudapp.config.JwtUtil;
+import com.rewixxcloudapp.entity.ReportJob;
+import com.rewixxcloudapp.service.LaborAnalyticsService;
+import com.rewixxcloudapp.service.ReportJobService;
 import com.rewixxcloudapp.service.ReportService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDate;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -19,6 +27,12 @@ public class ReportController {
     @Autowired
     private ReportService reportService;
 
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private LaborAnalyticsService laborAnalyticsService;
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -65,6 +79,28 @@ public class ReportController {
         }
     }
 
+    /**
+     * Recorded labor (LABOR expenses) by employee, job, customer and month, with
+     * per-employee cost and utilization.
+     */
+    @GetMapping("/labor/analytics")
+    public ResponseEntity<?> getLaborAnalytics(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletRequest request) {
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+            }
+            return ResponseEntity.ok(laborAnalyticsService.getLaborAnalytics(startDate, endDate, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/expenses")
     public ResponseEntity<?> getExpensesReport(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -122,4 +158,136 @@ public class ReportController {
             return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
         }
     }
+
+    /**
+     * Revenue, payments, expenses by type, labor and job counts by status per
+     * day/week/month/quarter, for charts. Series are aligned with "buckets".
+     */
+    @GetMapping("/trends")
+    public ResponseEntity<?> getTrendReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "month") String granularity,
+            HttpServletRequest request) {
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+            }
+            return ResponseEntity.ok(reportService.generateTrendReport(startDate, endDate, granularity, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Queues a report (any of the types above) for the background workers. Returns
+     * 202 with the job; an identical request already in progress returns that job.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitReportJob(
+            @RequestParam String reportType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletRequest request) {
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+            }
+            ReportJob job = reportJobService.submit(reportType, startDate, endDate, userId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(reportJobService.toResponse(job));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/jobs")
+    public ResponseEntity<?> getReportJobs(@RequestParam(defaultValue = "20") int limit, HttpServletRequest request) {
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+            }
+            return ResponseEntity.ok(reportJobService.getRecentJobs(userId, limit).stream()
+                    .map(reportJobService::toResponse)
+                    .collect(Collectors.toList()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> getReportJob(@PathVariable Long id, HttpServletRequest request) {
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+            }
+            Optional<ReportJob> job = reportJobService.getJob(id, userId);
+            if (job.isEmpty()) {
+                return ResponseEntity.status(404).body(Map.of("error", "Report job not found"));
+            }
+            return ResponseEntity.ok(reportJobService.toResponse(job.get()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/jobs/{id}/cancel")
+    public ResponseEntity<?> cancelReportJob(@PathVariable Long id, HttpServletRequest request) {
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+            }
+            Optional<ReportJob> job = reportJobService.getJob(id, userId);
+            if (job.isEmpty()) {
+                return ResponseEntity.status(404).body(Map.of("error", "Report job not found"));
+            }
+            return ResponseEntity.ok(reportJobService.toResponse(reportJobService.cancel(job.get())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Downloads a completed report as JSON. Clients that accept gzip get the stored
+     * bytes as they are; others get them decompressed.
+     */
+    @GetMapping("/jobs/{id}/result")
+    public ResponseEntity<?> getReportJobResult(@PathVariable Long id, HttpServletRequest request) {
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+            }
+            Optional<ReportJob> job = reportJobService.getJob(id, userId);
+            if (job.isEmpty()) {
+                return ResponseEntity.status(404).body(Map.of("error", "Report job not found"));
+            }
+            Optional<byte[]> compressed = reportJobService.getCompressedResult(job.get());
+            if (compressed.isEmpty()) {
+                return ResponseEntity.status(409).body(Map.of("error", "Report is not ready (status " + job.get().getStatus() + ")"));
+            }
+            String filename = "report-" + job.get().getReportType() + "-" + job.get().getStartDate() + "-" + job.get().getEndDate() + ".json";
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(compressed.get());
+            }
+            return response.body(reportJobService.decompress(compressed.get()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
 }
@@ -0,0 +1,132 @@
+package com.rewixxcloudapp.controller;
+
+import com.rewixxcloudapp.config.JwtUtil;
+import com.rewixxcloudapp.entity.ScanJob;
+import com.rewixxcloudapp.service.ScanService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/scans")
+@CrossOrigin(origins = "*")
+public class ScanController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScanController.class);
+    private static final long MAX_WAIT_MS = 30000;
+
+    @Autowired
+    private ScanService scanService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private Long getUserIdFromRequest(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+            return jwtUtil.getUserIdFromToken(token);
+        }
+        return null;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> submitScan(@RequestParam("file") MultipartFile file,
+                                        @RequestParam(required = false) Long jobId,
+                                        HttpServletRequest request) {
+        logger.info("POST /api/scans - Submitting receipt scan");
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(createErrorResponse("Unauthorized"));
+            }
+            ScanJob scan = scanService.submitScan(file, jobId, userId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(scanService.toResponse(scan));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Validation error submitting scan: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error submitting scan", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error submitting scan: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getRecentScans(@RequestParam(defaultValue = "20") int limit, HttpServletRequest request) {
+        logger.info("GET /api/scans - Fetching recent scans");
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(createErrorResponse("Unauthorized"));
+            }
+            return ResponseEntity.ok(scanService.toResponses(scanService.getRecentScans(userId, limit)));
+        } catch (Exception e) {
+            logger.error("Error fetching scans", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error fetching scans: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getScan(@PathVariable Long id, HttpServletRequest request) {
+        logger.info("GET /api/scans/{}", id);
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(createErrorResponse("Unauthorized"));
+            }
+            Optional<ScanJob> scanOpt = scanService.getScan(id, userId);
+            if (scanOpt.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createErrorResponse("Scan not found"));
+            }
+            return ResponseEntity.ok(scanService.toResponse(scanOpt.get()));
+        } catch (Exception e) {
+            logger.error("Error fetching scan ID: {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error fetching scan: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Long-poll variant of GET /{id}: holds the request (without a servlet thread)
+     * until the scan completes or fails, or returns the current status after timeoutMs.
+     */
+    @GetMapping("/{id}/wait")
+    public DeferredResult<Map<String, Object>> waitForScan(@PathVariable Long id,
+                                                           @RequestParam(defaultValue = "25000") long timeoutMs,
+                                                           HttpServletRequest request) {
+        logger.info("GET /api/scans/{}/wait", id);
+        Long userId = getUserIdFromRequest(request);
+        if (userId == null) {
+            return immediateError(HttpStatus.UNAUTHORIZED, "Unauthorized");
+        }
+        Optional<ScanJob> scanOpt = scanService.getScan(id, userId);
+        if (scanOpt.isEmpty()) {
+            return immediateError(HttpStatus.NOT_FOUND, "Scan not found");
+        }
+        return scanService.awaitScan(scanOpt.get(), Math.max(1000, Math.min(timeoutMs, MAX_WAIT_MS)));
+    }
+
+    private DeferredResult<Map<String, Object>> immediateError(HttpStatus status, String message) {
+        DeferredResult<Map<String, Object>> result = new DeferredResult<>();
+        result.setErrorResult(ResponseEntity.status(status).body(createErrorResponse(message)));
+        return result;
+    }
+
+    private Map<String, String> createErrorResponse(String message) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", message);
+        return response;
+    }
+}
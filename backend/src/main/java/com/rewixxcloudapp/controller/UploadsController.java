@@ -0,0 +1,52 @@
+package com.rewixxcloudapp.controller;
+
+import com.rewixxcloudapp.service.FileStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+/**
+ * Serves uploaded files from {@link FileStorage}, so a file uploaded through one
+ * instance can be fetched from any other.
+ */
+@RestController
+@CrossOrigin(origins = "*")
+public class UploadsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadsController.class);
+    private static final String PREFIX = "/uploads/";
+
+    @Autowired
+    private FileStorage fileStorage;
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    @GetMapping("/uploads/**")
+    public ResponseEntity<byte[]> getUpload(HttpServletRequest request) {
+        String key = urlPathHelper.getPathWithinApplication(request).substring(PREFIX.length());
+        try {
+            byte[] content = fileStorage.read(key);
+            if (content == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                    .body(content);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            logger.error("Error reading upload {}", key, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
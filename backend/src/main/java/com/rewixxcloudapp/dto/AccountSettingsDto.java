@@ -1,11 +1,14 @@
 package com.rewixxcloudapp.dto;
 
+import java.math.BigDecimal;
+
 public class AccountSettingsDto {
     private String companyName;
     private String email;
     private String phone;
     private String address;
     private String logoUrl;
+    private BigDecimal taxRatePercent;
 
     public AccountSettingsDto() {
     }
@@ -50,4 +53,12 @@ public class AccountSettingsDto {
     public void setLogoUrl(String logoUrl) {
         this.logoUrl = logoUrl;
     }
+
+    public BigDecimal getTaxRatePercent() {
+        return taxRatePercent;
+    }
+
+    public void setTaxRatePercent(BigDecimal taxRatePercent) {
+        this.taxRatePercent = taxRatePercent;
+    }
 }
@@ -0,0 +1,96 @@
+package com.rewixxcloudapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.rewixxcloudapp.entity.AccountSettings;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of a tenant's account settings, safe to share between
+ * requests from the in-memory cache. Serializes to the same JSON as the entity.
+ */
+public final class AccountSettingsView {
+
+    private final Long id;
+    private final Long userId;
+    private final String companyName;
+    private final String email;
+    private final String phone;
+    private final String address;
+    private final String logoUrl;
+    private final BigDecimal taxRatePercent;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private final LocalDateTime createdAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private final LocalDateTime updatedAt;
+
+    private AccountSettingsView(AccountSettings settings) {
+        this.id = settings.getId();
+        this.userId = settings.getUserId();
+        this.companyName = settings.getCompanyName();
+        this.email = settings.getEmail();
+        this.phone = settings.getPhone();
+        this.address = settings.getAddress();
+        this.logoUrl = settings.getLogoUrl();
+        this.taxRatePercent = settings.getTaxRatePercent();
+        this.createdAt = settings.getCreatedAt();
+        this.updatedAt = settings.getUpdatedAt();
+    }
+
+    public static AccountSettingsView of(AccountSettings settings) {
+        return new AccountSettingsView(settings);
+    }
+
+    /**
+     * HTTP validator of this view: the tenant plus a hash of the fields it shows.
+     * Defaults shown before the first save have no id or timestamp to tell them apart.
+     */
+    public String contentTag() {
+        return userId + "-" + Integer.toString(
+                Objects.hash(companyName, email, phone, address, logoUrl, taxRatePercent), 36);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getCompanyName() {
+        return companyName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getLogoUrl() {
+        return logoUrl;
+    }
+
+    public BigDecimal getTaxRatePercent() {
+        return taxRatePercent;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
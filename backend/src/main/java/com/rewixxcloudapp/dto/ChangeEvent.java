@@ -0,0 +1,120 @@
+package com.rewixxcloudapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One committed write as seen by the change feed: what changed, not the new state.
+ * Clients refetch the entity (or the lists it appears in) when they receive it.
+ * Payment and expense events carry their job's id, since they change its totals.
+ * {@code origin} and {@code id} identify the event on every instance: the instance
+ * that committed the write assigns them once, and they travel with the event.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChangeEvent {
+
+    public static final String JOB = "job";
+    public static final String PAYMENT = "payment";
+    public static final String EXPENSE = "expense";
+    public static final String CONTRACT = "contract";
+
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+
+    private String origin;
+    private long id;
+    private Long userId;
+    private String type;
+    private String action;
+    private Long entityId;
+    private Long jobId;
+    private long timestamp;
+
+    public ChangeEvent() {
+    }
+
+    public ChangeEvent(Long userId, String type, String action, Long entityId, Long jobId) {
+        this.userId = userId;
+        this.type = type;
+        this.action = action;
+        this.entityId = entityId;
+        this.jobId = jobId;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    /** A copy identified by the instance that committed it. */
+    public ChangeEvent withOrigin(String origin, long id) {
+        ChangeEvent copy = new ChangeEvent(userId, type, action, entityId, jobId);
+        copy.timestamp = timestamp;
+        copy.origin = origin;
+        copy.id = id;
+        return copy;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    // Tenant routing only; every subscriber already knows who they are
+    @JsonIgnore
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(Long jobId) {
+        this.jobId = jobId;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -9,6 +9,7 @@ public class ExpenseDto {
     private String description;
     private LocalDate expenseDate;
     private String employeeName;
+    private Long employeeId;
     private BigDecimal hoursWorked;
     private BigDecimal hourlyRate;
     private Long jobId;
@@ -83,6 +84,14 @@ public class ExpenseDto {
         this.hourlyRate = hourlyRate;
     }
 
+    public Long getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(Long employeeId) {
+        this.employeeId = employeeId;
+    }
+
     public Long getJobId() {
         return jobId;
     }
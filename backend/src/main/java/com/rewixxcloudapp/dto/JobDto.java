@@ -1,5 +1,6 @@
 package com.rewixxcloudapp.dto;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -12,8 +13,8 @@ public class JobDto {
     private LocalDate endDate;
     private Long customerId;
     private List<String> receiptImageUrls;
-    private Double jobPrice;
-    private Double customMaterialCost;
+    private BigDecimal jobPrice;
+    private BigDecimal customMaterialCost;
     private Boolean includeTax;
 
     public JobDto() {
@@ -89,19 +90,19 @@ public class JobDto {
         this.receiptImageUrls = receiptImageUrls;
     }
 
-    public Double getJobPrice() {
+    public BigDecimal getJobPrice() {
         return jobPrice;
     }
 
-    public void setJobPrice(Double jobPrice) {
+    public void setJobPrice(BigDecimal jobPrice) {
         this.jobPrice = jobPrice;
     }
 
-    public Double getCustomMaterialCost() {
+    public BigDecimal getCustomMaterialCost() {
         return customMaterialCost;
     }
 
-    public void setCustomMaterialCost(Double customMaterialCost) {
+    public void setCustomMaterialCost(BigDecimal customMaterialCost) {
         this.customMaterialCost = customMaterialCost;
     }
 
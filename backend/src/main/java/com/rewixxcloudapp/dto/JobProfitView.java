@@ -0,0 +1,134 @@
+package com.rewixxcloudapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.rewixxcloudapp.util.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Profit and loss of one job. Revenue is the billed subtotal (price plus billed
+ * materials, before tax); costs are the materials used (sale items) plus every
+ * expense recorded against the job, labor included. Amounts are held in cents.
+ */
+public final class JobProfitView {
+
+    private final Long jobId;
+    private final long priceCents;
+    private final long billedMaterialsCents;
+    private final long taxCents;
+    private final long materialsCostCents;
+    private final Map<String, Long> expensesByTypeCents;
+    private final BigDecimal laborHours;
+    private final long paidCents;
+
+    public JobProfitView(Long jobId, long priceCents, long billedMaterialsCents, long taxCents, long materialsCostCents,
+                         Map<String, Long> expensesByTypeCents, BigDecimal laborHours, long paidCents) {
+        this.jobId = jobId;
+        this.priceCents = priceCents;
+        this.billedMaterialsCents = billedMaterialsCents;
+        this.taxCents = taxCents;
+        this.materialsCostCents = materialsCostCents;
+        this.expensesByTypeCents = Collections.unmodifiableMap(new TreeMap<>(expensesByTypeCents));
+        this.laborHours = laborHours;
+        this.paidCents = paidCents;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public BigDecimal getPrice() {
+        return Money.toDecimal(priceCents);
+    }
+
+    public BigDecimal getBilledMaterials() {
+        return Money.toDecimal(billedMaterialsCents);
+    }
+
+    public BigDecimal getRevenue() {
+        return Money.toDecimal(getRevenueCents());
+    }
+
+    public BigDecimal getTax() {
+        return Money.toDecimal(taxCents);
+    }
+
+    public BigDecimal getTotal() {
+        return Money.toDecimal(getRevenueCents() + taxCents);
+    }
+
+    public BigDecimal getMaterialsCost() {
+        return Money.toDecimal(materialsCostCents);
+    }
+
+    public Map<String, BigDecimal> getExpensesByType() {
+        Map<String, BigDecimal> amounts = new TreeMap<>();
+        expensesByTypeCents.forEach((type, cents) -> amounts.put(type, Money.toDecimal(cents)));
+        return amounts;
+    }
+
+    public BigDecimal getExpenses() {
+        return Money.toDecimal(getExpensesCents());
+    }
+
+    public BigDecimal getLaborCost() {
+        return Money.toDecimal(expensesByTypeCents.getOrDefault("LABOR", 0L));
+    }
+
+    public BigDecimal getLaborHours() {
+        return laborHours;
+    }
+
+    public BigDecimal getTotalCost() {
+        return Money.toDecimal(getTotalCostCents());
+    }
+
+    public BigDecimal getGrossProfit() {
+        return Money.toDecimal(getGrossProfitCents());
+    }
+
+    // Percent of revenue, one decimal; null when nothing has been billed
+    public BigDecimal getMarginPercent() {
+        long revenueCents = getRevenueCents();
+        if (revenueCents == 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(getGrossProfitCents()).multiply(BigDecimal.valueOf(100))
+                .divide(BigDecimal.valueOf(revenueCents), 1, RoundingMode.HALF_UP);
+    }
+
+    public BigDecimal getPaid() {
+        return Money.toDecimal(paidCents);
+    }
+
+    public BigDecimal getBalance() {
+        return Money.toDecimal(getRevenueCents() + taxCents - paidCents);
+    }
+
+    @JsonIgnore
+    public long getRevenueCents() {
+        return priceCents + billedMaterialsCents;
+    }
+
+    @JsonIgnore
+    public long getTotalCostCents() {
+        return materialsCostCents + getExpensesCents();
+    }
+
+    @JsonIgnore
+    public long getGrossProfitCents() {
+        return getRevenueCents() - getTotalCostCents();
+    }
+
+    private long getExpensesCents() {
+        long total = 0;
+        for (long cents : expensesByTypeCents.values()) {
+            total += cents;
+        }
+        return total;
+    }
+}
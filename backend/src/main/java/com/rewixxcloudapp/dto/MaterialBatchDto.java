@@ -0,0 +1,42 @@
+package com.rewixxcloudapp.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Material changes for one job, applied together in a single transaction.
+ * Updates identify the material by {@link MaterialDto#getSaleId()} (plus
+ * {@link MaterialDto#getSaleItemId()} for multi-line sales); removals are sale ids.
+ */
+public class MaterialBatchDto {
+    private List<MaterialDto> add = new ArrayList<>();
+    private List<MaterialDto> update = new ArrayList<>();
+    private List<Long> remove = new ArrayList<>();
+
+    public MaterialBatchDto() {
+    }
+
+    public List<MaterialDto> getAdd() {
+        return add;
+    }
+
+    public void setAdd(List<MaterialDto> add) {
+        this.add = add;
+    }
+
+    public List<MaterialDto> getUpdate() {
+        return update;
+    }
+
+    public void setUpdate(List<MaterialDto> update) {
+        this.update = update;
+    }
+
+    public List<Long> getRemove() {
+        return remove;
+    }
+
+    public void setRemove(List<Long> remove) {
+        this.remove = remove;
+    }
+}
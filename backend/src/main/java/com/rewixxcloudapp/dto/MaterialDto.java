@@ -3,6 +3,8 @@ package com.rewixxcloudapp.dto;
 import java.math.BigDecimal;
 
 public class MaterialDto {
+    private Long saleId; // Only for batch updates; single updates take it from the path
+    private Long saleItemId; // Which line to update when the sale has several
     private Long productId;
     private Integer quantity;
     private BigDecimal unitPrice;
@@ -17,6 +19,22 @@ public class MaterialDto {
         this.unitPrice = unitPrice;
     }
 
+    public Long getSaleId() {
+        return saleId;
+    }
+
+    public void setSaleId(Long saleId) {
+        this.saleId = saleId;
+    }
+
+    public Long getSaleItemId() {
+        return saleItemId;
+    }
+
+    public void setSaleItemId(Long saleItemId) {
+        this.saleItemId = saleItemId;
+    }
+
     public Long getProductId() {
         return productId;
     }
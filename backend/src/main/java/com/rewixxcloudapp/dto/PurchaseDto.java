@@ -0,0 +1,41 @@
+package com.rewixxcloudapp.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Several materials bought together for a job, stored as one sale with one line per item.
+ */
+public class PurchaseDto {
+    private String description;
+    private LocalDateTime date;
+    private List<MaterialDto> items = new ArrayList<>();
+
+    public PurchaseDto() {
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDateTime date) {
+        this.date = date;
+    }
+
+    public List<MaterialDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<MaterialDto> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,23 @@
+package com.rewixxcloudapp.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Offline edits uploaded together. Each change is applied in its own transaction,
+ * in order, so one conflict does not hold back the rest.
+ */
+public class SyncBatchDto {
+    private List<SyncChangeDto> changes = new ArrayList<>();
+
+    public SyncBatchDto() {
+    }
+
+    public List<SyncChangeDto> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<SyncChangeDto> changes) {
+        this.changes = changes;
+    }
+}
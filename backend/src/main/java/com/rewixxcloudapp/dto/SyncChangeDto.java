@@ -0,0 +1,72 @@
+package com.rewixxcloudapp.dto;
+
+import java.util.Map;
+
+/**
+ * One offline edit in a sync upload. {@code type} is a sync type ("jobs",
+ * "customers", ...); {@code action} is "upsert" (the default) or "delete".
+ * Updates and deletes name the entity by {@code id} and carry the
+ * {@code version} the client last saw; creates have no id and a
+ * {@code clientId} that makes retries safe and lets later changes in the same
+ * upload refer to the new entity (e.g. {@code "jobId": "<clientId>"}).
+ * {@code data} holds the fields to write, as in the matching create/update request.
+ */
+public class SyncChangeDto {
+    private String type;
+    private String action;
+    private Long id;
+    private String clientId;
+    private Long version;
+    private Map<String, Object> data;
+
+    public SyncChangeDto() {
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Map<String, Object> getData() {
+        return data;
+    }
+
+    public void setData(Map<String, Object> data) {
+        this.data = data;
+    }
+}
@@ -1,10 +1,15 @@
 package com.rewixxcloudapp.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import javax.persistence.*;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "account_settings")
 @Table(name = "account_settings")
 public class AccountSettings {
 
@@ -30,6 +35,10 @@ public class AccountSettings {
     @Column(length = 500)
     private String logoUrl;
 
+    // Sales tax applied to taxable jobs, e.g. 6.00; null means the pricing default
+    @Column(name = "tax_rate_percent", precision = 5, scale = 2)
+    private BigDecimal taxRatePercent;
+
     @Column(name = "created_at", updatable = false)
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime createdAt;
@@ -106,6 +115,14 @@ public class AccountSettings {
         this.logoUrl = logoUrl;
     }
 
+    public BigDecimal getTaxRatePercent() {
+        return taxRatePercent;
+    }
+
+    public void setTaxRatePercent(BigDecimal taxRatePercent) {
+        this.taxRatePercent = taxRatePercent;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -5,10 +5,14 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import javax.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
-@Table(name = "contracts")
+@Table(name = "contracts", indexes = {
+        // Delta sync (SyncService): keyset on (updated_at, id) within a tenant
+        @Index(name = "idx_contracts_user_updated", columnList = "user_id, updated_at, id")
+})
 public class Contract {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -57,6 +61,20 @@ public class Contract {
     @Enumerated(EnumType.STRING)
     private ContractStatus status;
 
+    // Set on every write; the basis of the HTTP validators (ETag, Last-Modified)
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Optimistic lock; offline edits are checked against it (see SyncService)
+    @Version
+    private Long version;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
     public Contract() {
     }
 
@@ -228,4 +246,28 @@ public class Contract {
     public void setTermsAndConditions(String termsAndConditions) {
         this.termsAndConditions = termsAndConditions;
     }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getJobId() {
+        return job != null ? job.getId() : null;
+    }
+
+    public Long getCustomerId() {
+        return customer != null ? customer.getId() : null;
+    }
 }
@@ -1,8 +1,13 @@
 package com.rewixxcloudapp.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "currencies")
 @Table(name = "currencies")
 public class Currency {
     @Id
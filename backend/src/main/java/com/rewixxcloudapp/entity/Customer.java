@@ -1,11 +1,16 @@
 package com.rewixxcloudapp.entity;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.rewixxcloudapp.util.JsonSerializer;
 import javax.persistence.*;
+import java.time.LocalDateTime;
 import java.util.Collection;
 
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", indexes = {
+        // Delta sync (SyncService): keyset on (updated_at, id) within a tenant
+        @Index(name = "idx_customers_user_updated", columnList = "user_id, updated_at, id")
+})
 public class Customer extends User {
 
     @Column(name = "user_id", nullable = false)
@@ -13,6 +18,21 @@ public class Customer extends User {
 
     private String name;
 
+    // Set on every write, including ones that only touch the users row
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Lifetime totals, attached to list and insights responses; not persisted with the customer
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private CustomerStats stats;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
     public Customer() {
         super();
     }
@@ -54,4 +74,20 @@ public class Customer extends User {
     public void setUserId(Long userId) {
         this.userId = userId;
     }
-}
\ No newline at end of file
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public CustomerStats getStats() {
+        return stats;
+    }
+
+    public void setStats(CustomerStats stats) {
+        this.stats = stats;
+    }
+}
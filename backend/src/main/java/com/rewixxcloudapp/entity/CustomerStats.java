@@ -0,0 +1,222 @@
+package com.rewixxcloudapp.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.rewixxcloudapp.util.Money;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Lifetime totals of a customer, one row per customer, amounts in cents: revenue
+ * billed (job totals as priced by PricingService), paid, outstanding balance, job
+ * count, last activity and payment lag. Kept up to date by job, material and
+ * payment writes (see CustomerStatsService), so customer lists and insights sort
+ * and page on these columns instead of regrouping every job.
+ */
+@Entity
+@Table(name = "customer_stats", indexes = {
+        @Index(name = "idx_customer_stats_user_revenue", columnList = "user_id, lifetime_revenue_cents"),
+        @Index(name = "idx_customer_stats_user_outstanding", columnList = "user_id, outstanding_cents"),
+        @Index(name = "idx_customer_stats_user_activity", columnList = "user_id, last_activity_date"),
+        @Index(name = "idx_customer_stats_user_jobs", columnList = "user_id, job_count")
+})
+public class CustomerStats {
+
+    // Same id as the customer
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @JsonIgnore
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "lifetime_revenue_cents", nullable = false)
+    private Long lifetimeRevenueCents = 0L;
+
+    @Column(name = "paid_cents", nullable = false)
+    private Long paidCents = 0L;
+
+    // Sum of job balances (total minus paid)
+    @Column(name = "outstanding_cents", nullable = false)
+    private Long outstandingCents = 0L;
+
+    @Column(name = "job_count", nullable = false)
+    private Integer jobCount = 0;
+
+    // Latest job start, payment or material purchase
+    @Column(name = "last_activity_date")
+    private LocalDate lastActivityDate;
+
+    // Days from job end (or start, when it has no end date) to each payment, never
+    // negative; payments on jobs without dates are not counted
+    @JsonIgnore
+    @Column(name = "lag_days_total", nullable = false)
+    private Long lagDaysTotal = 0L;
+
+    @JsonIgnore
+    @Column(name = "lag_payment_count", nullable = false)
+    private Integer lagPaymentCount = 0;
+
+    // Left null until persisted so a new row is inserted (and collides) instead of merged
+    @JsonIgnore
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public CustomerStats() {
+    }
+
+    public CustomerStats(Long customerId, Long userId) {
+        this.customerId = customerId;
+        this.userId = userId;
+    }
+
+    public BigDecimal getLifetimeRevenue() {
+        return Money.toDecimal(lifetimeRevenueCents);
+    }
+
+    public BigDecimal getPaid() {
+        return Money.toDecimal(paidCents);
+    }
+
+    public BigDecimal getOutstandingBalance() {
+        return Money.toDecimal(outstandingCents);
+    }
+
+    // One decimal; null until a dated job has been paid
+    public BigDecimal getAveragePaymentLagDays() {
+        if (lagPaymentCount == 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(lagDaysTotal).divide(BigDecimal.valueOf(lagPaymentCount), 1, RoundingMode.HALF_UP);
+    }
+
+    /** Same totals, ignoring version and timestamps. */
+    public boolean hasSameTotals(CustomerStats other) {
+        return lifetimeRevenueCents.equals(other.lifetimeRevenueCents)
+                && paidCents.equals(other.paidCents)
+                && outstandingCents.equals(other.outstandingCents)
+                && jobCount.equals(other.jobCount)
+                && Objects.equals(lastActivityDate, other.lastActivityDate)
+                && lagDaysTotal.equals(other.lagDaysTotal)
+                && lagPaymentCount.equals(other.lagPaymentCount);
+    }
+
+    /** Copies the totals of {@code other}, keeping id, version and timestamps. */
+    public void copyTotals(CustomerStats other) {
+        lifetimeRevenueCents = other.lifetimeRevenueCents;
+        paidCents = other.paidCents;
+        outstandingCents = other.outstandingCents;
+        jobCount = other.jobCount;
+        lastActivityDate = other.lastActivityDate;
+        lagDaysTotal = other.lagDaysTotal;
+        lagPaymentCount = other.lagPaymentCount;
+    }
+
+    // Getters and Setters
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    @JsonIgnore
+    public Long getLifetimeRevenueCents() {
+        return lifetimeRevenueCents;
+    }
+
+    public void setLifetimeRevenueCents(Long lifetimeRevenueCents) {
+        this.lifetimeRevenueCents = lifetimeRevenueCents;
+    }
+
+    @JsonIgnore
+    public Long getPaidCents() {
+        return paidCents;
+    }
+
+    public void setPaidCents(Long paidCents) {
+        this.paidCents = paidCents;
+    }
+
+    @JsonIgnore
+    public Long getOutstandingCents() {
+        return outstandingCents;
+    }
+
+    public void setOutstandingCents(Long outstandingCents) {
+        this.outstandingCents = outstandingCents;
+    }
+
+    public Integer getJobCount() {
+        return jobCount;
+    }
+
+    public void setJobCount(Integer jobCount) {
+        this.jobCount = jobCount;
+    }
+
+    public LocalDate getLastActivityDate() {
+        return lastActivityDate;
+    }
+
+    public void setLastActivityDate(LocalDate lastActivityDate) {
+        this.lastActivityDate = lastActivityDate;
+    }
+
+    public Long getLagDaysTotal() {
+        return lagDaysTotal;
+    }
+
+    public void setLagDaysTotal(Long lagDaysTotal) {
+        this.lagDaysTotal = lagDaysTotal;
+    }
+
+    public Integer getLagPaymentCount() {
+        return lagPaymentCount;
+    }
+
+    public void setLagPaymentCount(Integer lagPaymentCount) {
+        this.lagPaymentCount = lagPaymentCount;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
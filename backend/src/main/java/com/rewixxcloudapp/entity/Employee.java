@@ -1,11 +1,21 @@
 package com.rewixxcloudapp.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.rewixxcloudapp.util.SearchNormalizer;
 import javax.persistence.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "employees")
+@Table(name = "employees", indexes = {
+        // Directory pages: keyset on (search_name, id) within a tenant, optionally within active/inactive
+        @Index(name = "idx_employees_user_active_name", columnList = "user_id, active, search_name, id"),
+        @Index(name = "idx_employees_user_name", columnList = "user_id, search_name, id"),
+        @Index(name = "idx_employees_user_phone", columnList = "user_id, search_phone"),
+        // Delta sync (SyncService): keyset on (updated_at, id) within a tenant
+        @Index(name = "idx_employees_user_updated", columnList = "user_id, updated_at, id")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Employee {
 
@@ -34,22 +44,44 @@ public class Employee {
     @Column
     private Boolean active = true;
 
+    // Derived from name and phone on every write (see SearchNormalizer) for prefix search.
+    // search_name is NOT NULL; DatabaseMigration adds the constraint once existing rows are filled
+    @Column(name = "search_name", length = 100)
+    @JsonIgnore
+    private String searchName;
+
+    @Column(name = "search_phone", length = 50)
+    @JsonIgnore
+    private String searchPhone;
+
     // Timestamps
     @Column(name = "created_at", updatable = false)
     private LocalDate createdAt;
 
+    // Was a DATE column; sync needs the time of day (see DatabaseMigration)
     @Column(name = "updated_at")
-    private LocalDate updatedAt;
+    private LocalDateTime updatedAt;
+
+    // Optimistic lock; offline edits are checked against it (see SyncService)
+    @Version
+    private Long version;
 
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDate.now();
-        updatedAt = LocalDate.now();
+        updatedAt = LocalDateTime.now();
+        updateSearchColumns();
     }
 
     @PreUpdate
     protected void onUpdate() {
-        updatedAt = LocalDate.now();
+        updatedAt = LocalDateTime.now();
+        updateSearchColumns();
+    }
+
+    private void updateSearchColumns() {
+        searchName = SearchNormalizer.normalize(name);
+        searchPhone = SearchNormalizer.digitsOnly(phone);
     }
 
     // Constructors
@@ -117,6 +149,14 @@ public class Employee {
         this.active = active;
     }
 
+    public String getSearchName() {
+        return searchName;
+    }
+
+    public String getSearchPhone() {
+        return searchPhone;
+    }
+
     public LocalDate getCreatedAt() {
         return createdAt;
     }
@@ -125,14 +165,22 @@ public class Employee {
         this.createdAt = createdAt;
     }
 
-    public LocalDate getUpdatedAt() {
+    public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
 
-    public void setUpdatedAt(LocalDate updatedAt) {
+    public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Long getUserId() {
         return userId;
     }
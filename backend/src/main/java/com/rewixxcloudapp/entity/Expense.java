@@ -1,13 +1,21 @@
 package com.rewixxcloudapp.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import javax.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "expenses")
+@Table(name = "expenses", indexes = {
+        @Index(name = "idx_expenses_user_date", columnList = "user_id, expenseDate"),
+        @Index(name = "idx_expenses_employee_date", columnList = "employee_id, expenseDate"),
+        @Index(name = "idx_expenses_job_type", columnList = "job_id, type"),
+        // Delta sync (SyncService): keyset on (updated_at, id) within a tenant
+        @Index(name = "idx_expenses_user_updated", columnList = "user_id, updated_at, id")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Expense {
 
@@ -31,10 +39,15 @@ public class Expense {
     @Column(nullable = false)
     private LocalDate expenseDate;
 
-    // For labor expenses
+    // For labor expenses. employeeName is kept as the display name; analytics key on employee
     @Column(length = 100)
     private String employeeName;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id")
+    @JsonIgnore
+    private Employee employee;
+
     @Column(precision = 10, scale = 2)
     private BigDecimal hoursWorked;
 
@@ -66,18 +79,23 @@ public class Expense {
     @Column(name = "created_at", updatable = false)
     private LocalDate createdAt;
 
+    // Was a DATE column; sync needs the time of day (see DatabaseMigration)
     @Column(name = "updated_at")
-    private LocalDate updatedAt;
+    private LocalDateTime updatedAt;
+
+    // Optimistic lock; offline edits are checked against it (see SyncService)
+    @Version
+    private Long version;
 
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDate.now();
-        updatedAt = LocalDate.now();
+        updatedAt = LocalDateTime.now();
     }
 
     @PreUpdate
     protected void onUpdate() {
-        updatedAt = LocalDate.now();
+        updatedAt = LocalDateTime.now();
     }
 
     // Constructors
@@ -156,6 +174,19 @@ public class Expense {
         this.hourlyRate = hourlyRate;
     }
 
+    public Employee getEmployee() {
+        return employee;
+    }
+
+    public void setEmployee(Employee employee) {
+        this.employee = employee;
+    }
+
+    // Reading the id of a lazy proxy does not load the employee
+    public Long getEmployeeId() {
+        return employee != null ? employee.getId() : null;
+    }
+
     public Job getJob() {
         return job;
     }
@@ -204,14 +235,22 @@ public class Expense {
         this.createdAt = createdAt;
     }
 
-    public LocalDate getUpdatedAt() {
+    public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
 
-    public void setUpdatedAt(LocalDate updatedAt) {
+    public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // Convenience methods for serialization
     public Long getJobId() {
         return job != null ? job.getId() : null;
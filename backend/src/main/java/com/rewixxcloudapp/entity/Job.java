@@ -1,17 +1,27 @@
 package com.rewixxcloudapp.entity;
 
+import com.rewixxcloudapp.dto.JobProfitView;
 import com.rewixxcloudapp.util.JsonSerializer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import javax.persistence.*;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Collection;
 
 @Entity
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
-@Table(name = "jobs")
+@Table(name = "jobs", indexes = {
+        @Index(name = "idx_jobs_user_start_date", columnList = "user_id, startDate"),
+        @Index(name = "idx_jobs_customer", columnList = "customer_id"),
+        // Delta sync (SyncService): keyset on (updated_at, id) within a tenant
+        @Index(name = "idx_jobs_user_updated", columnList = "user_id, updated_at, id")
+})
 public class Job {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -36,9 +46,12 @@ public class Job {
     
     private Integer actualHours;
 
-    private Double jobPrice;
+    // Exact decimals; these used to be double columns (see DatabaseMigration)
+    @Column(precision = 12, scale = 2)
+    private BigDecimal jobPrice;
 
-    private Double customMaterialCost;
+    @Column(precision = 12, scale = 2)
+    private BigDecimal customMaterialCost;
 
     private Boolean includeTax;
 
@@ -61,9 +74,66 @@ public class Job {
     @Column(name = "image_url", columnDefinition = "TEXT")
     private List<String> receiptImageUrls;
 
+    // Total/paid/balance summary, attached by JobService for list and detail responses
+    @Transient
+    private JobFinancials financials;
+
+    // Profit and loss, attached only when a list asks for it (see JobProfitabilityService)
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private JobProfitView profitability;
+
+    // Set on every write; the basis of the HTTP validators (ETag, Last-Modified)
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Optimistic lock; offline edits are checked against it (see SyncService)
+    @Version
+    private Long version;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
     public Job() {
     }
 
+    /**
+     * Latest updated-at of the rows this job's JSON embeds besides itself: customer,
+     * payments, and each sale's customer, supplier and products. Part of the HTTP
+     * validators, so renaming one of them changes the job's ETag. Null if none has one.
+     */
+    @JsonIgnore
+    public LocalDateTime getEmbeddedUpdatedAt() {
+        LocalDateTime latest = customer != null ? customer.getUpdatedAt() : null;
+        if (payments != null) {
+            for (Payment payment : payments) {
+                latest = later(latest, payment.getUpdatedAt());
+            }
+        }
+        if (sales != null) {
+            for (Sale sale : sales) {
+                latest = later(latest, sale.getCustomer() != null ? sale.getCustomer().getUpdatedAt() : null);
+                latest = later(latest, sale.getSupplier() != null ? sale.getSupplier().getUpdatedAt() : null);
+                if (sale.getSaleItems() != null) {
+                    for (SaleItem item : sale.getSaleItems()) {
+                        latest = later(latest, item.getProduct() != null ? item.getProduct().getUpdatedAt() : null);
+                    }
+                }
+            }
+        }
+        return latest;
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b != null && b.isAfter(a) ? b : a;
+    }
+
     public Job(String title, String description, JobStatus status) {
         this.title = title;
         this.description = description;
@@ -172,6 +242,22 @@ public class Job {
     public void setReceiptImageUrls(List<String> receiptImageUrls) {
         this.receiptImageUrls = receiptImageUrls;
     }
+
+    public JobFinancials getFinancials() {
+        return financials;
+    }
+
+    public void setFinancials(JobFinancials financials) {
+        this.financials = financials;
+    }
+
+    public JobProfitView getProfitability() {
+        return profitability;
+    }
+
+    public void setProfitability(JobProfitView profitability) {
+        this.profitability = profitability;
+    }
     
     public Integer getActualHours() {
         return actualHours;
@@ -181,19 +267,19 @@ public class Job {
         this.actualHours = actualHours;
     }
 
-    public Double getJobPrice() {
+    public BigDecimal getJobPrice() {
         return jobPrice;
     }
 
-    public void setJobPrice(Double jobPrice) {
+    public void setJobPrice(BigDecimal jobPrice) {
         this.jobPrice = jobPrice;
     }
 
-    public Double getCustomMaterialCost() {
+    public BigDecimal getCustomMaterialCost() {
         return customMaterialCost;
     }
 
-    public void setCustomMaterialCost(Double customMaterialCost) {
+    public void setCustomMaterialCost(BigDecimal customMaterialCost) {
         this.customMaterialCost = customMaterialCost;
     }
 
@@ -228,4 +314,25 @@ public class Job {
     public void setUserId(Long userId) {
         this.userId = userId;
     }
-}
\ No newline at end of file
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    // Reading the id of a lazy proxy does not load the customer
+    public Long getCustomerId() {
+        return customer != null ? customer.getId() : null;
+    }
+}
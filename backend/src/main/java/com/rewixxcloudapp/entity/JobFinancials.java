@@ -0,0 +1,155 @@
+package com.rewixxcloudapp.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.rewixxcloudapp.util.Money;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Running totals of a job, one row per job, amounts in cents: total (as priced
+ * by PricingService), paid, and the cost of materials used. Kept up to date by
+ * every job, material and payment write (see JobFinancialsService), so lists and
+ * reports read balances without touching payments or sale items. Payments are
+ * recorded with a single conditional UPDATE against this row, so two concurrent
+ * payments can never both pass the remaining-balance check.
+ */
+@Entity
+@Table(name = "job_financials", indexes = {
+        @Index(name = "idx_job_financials_user", columnList = "user_id"),
+        // Delta sync (SyncService): keyset on (updated_at, job_id) within a tenant
+        @Index(name = "idx_job_financials_user_updated", columnList = "user_id, updated_at, job_id")
+})
+public class JobFinancials {
+
+    // Same id as the job
+    @Id
+    @Column(name = "job_id")
+    private Long jobId;
+
+    @JsonIgnore
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Job total including tax, as priced when the balance last changed
+    @Column(name = "total_cents", nullable = false)
+    private Long totalCents = 0L;
+
+    @Column(name = "paid_cents", nullable = false)
+    private Long paidCents = 0L;
+
+    // Materials used on the job (sale items with a positive quantity); null on rows
+    // created before the column existed, until the consistency check fills it
+    @Column(name = "materials_cents")
+    private Long materialsCents = 0L;
+
+    // Left null until persisted so a new row is inserted (and collides) instead of merged
+    @JsonIgnore
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public JobFinancials() {
+    }
+
+    public JobFinancials(Long jobId, Long userId) {
+        this.jobId = jobId;
+        this.userId = userId;
+    }
+
+    public long getBalanceCents() {
+        return totalCents - paidCents;
+    }
+
+    public BigDecimal getTotal() {
+        return Money.toDecimal(totalCents);
+    }
+
+    public BigDecimal getPaid() {
+        return Money.toDecimal(paidCents);
+    }
+
+    public BigDecimal getBalance() {
+        return Money.toDecimal(getBalanceCents());
+    }
+
+    public BigDecimal getMaterialCost() {
+        return Money.toDecimal(materialsCents != null ? materialsCents : 0);
+    }
+
+    /** Same totals, ignoring version and timestamps. */
+    public boolean hasSameTotals(JobFinancials other) {
+        return totalCents.equals(other.totalCents)
+                && paidCents.equals(other.paidCents)
+                && Objects.equals(materialsCents, other.materialsCents);
+    }
+
+    // Getters and Setters
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(Long jobId) {
+        this.jobId = jobId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getTotalCents() {
+        return totalCents;
+    }
+
+    public void setTotalCents(Long totalCents) {
+        this.totalCents = totalCents;
+    }
+
+    public Long getPaidCents() {
+        return paidCents;
+    }
+
+    public void setPaidCents(Long paidCents) {
+        this.paidCents = paidCents;
+    }
+
+    public Long getMaterialsCents() {
+        return materialsCents;
+    }
+
+    public void setMaterialsCents(Long materialsCents) {
+        this.materialsCents = materialsCents;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -8,7 +8,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_job_date", columnList = "job_id, payment_date"),
+        // Delta sync (SyncService): keyset on (updated_at, id) within a tenant
+        @Index(name = "idx_payments_user_updated", columnList = "user_id, updated_at, id")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Payment {
 
@@ -21,6 +25,11 @@ public class Payment {
     @JsonBackReference("job-payments")
     private Job job;
 
+    // The job's tenant, copied on insert so payments can be synced without joining jobs;
+    // null on rows written before the column existed, until DatabaseMigration fills it
+    @Column(name = "user_id")
+    private Long userId;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private PaymentType paymentType;
@@ -40,10 +49,17 @@ public class Payment {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Optimistic lock; offline edits are checked against it (see SyncService)
+    @Version
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        if (userId == null && job != null) {
+            userId = job.getUserId();
+        }
         if (paymentDate == null) {
             paymentDate = LocalDateTime.now();
         }
@@ -128,4 +144,25 @@ public class Payment {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    // Reading the id of a lazy proxy does not load the job
+    public Long getJobId() {
+        return job != null ? job.getId() : null;
+    }
 }
@@ -1,13 +1,21 @@
 package com.rewixxcloudapp.entity;
 
 import com.rewixxcloudapp.util.JsonSerializer;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Collection;
 
 @Entity
-@Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_barcode", columnList = "barcode"),
+        @Index(name = "idx_products_sku", columnList = "sku")
+})
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,6 +29,23 @@ public class Product {
     
     private String category;
 
+    @Column(length = 100)
+    private String sku;
+
+    // UPC/EAN as printed on the package
+    @Column(length = 64)
+    private String barcode;
+
+    // Set on every write; the basis of the HTTP validators (ETag, Last-Modified)
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
     public Product() {
     }
 
@@ -33,7 +58,7 @@ public class Product {
     // JSON Serialization methods
     private static JsonSerializer serializer() {
         return JsonSerializer.create()
-                .include("id", "name", "description", "unitPrice")
+                .include("id", "name", "description", "unitPrice", "sku", "barcode")
                 .exclude("*");
     }
 
@@ -84,4 +109,28 @@ public class Product {
     public void setCategory(String category) {
         this.category = category;
     }
-}
\ No newline at end of file
+
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
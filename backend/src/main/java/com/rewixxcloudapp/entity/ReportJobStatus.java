@@ -0,0 +1,9 @@
+package com.rewixxcloudapp.entity;
+
+public enum ReportJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
@@ -0,0 +1,75 @@
+package com.rewixxcloudapp.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Output of a completed {@link ReportJob}: the report JSON, gzip-compressed.
+ * Kept apart from the job row so status polls never load the payload.
+ */
+@Entity
+@Table(name = "report_results")
+public class ReportResult {
+
+    @Id
+    @Column(name = "report_job_id")
+    private Long reportJobId;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] payload;
+
+    // Uncompressed JSON size
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public ReportResult() {
+    }
+
+    public ReportResult(Long reportJobId, byte[] payload, Long sizeBytes) {
+        this.reportJobId = reportJobId;
+        this.payload = payload;
+        this.sizeBytes = sizeBytes;
+    }
+
+    // Getters and Setters
+    public Long getReportJobId() {
+        return reportJobId;
+    }
+
+    public void setReportJobId(Long reportJobId) {
+        this.reportJobId = reportJobId;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
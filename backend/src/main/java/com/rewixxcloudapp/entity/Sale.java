@@ -13,7 +13,7 @@ import java.util.Collection;
 
 @Entity
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
-@Table(name = "sales")
+@Table(name = "sales", indexes = @Index(name = "idx_sales_job", columnList = "job_id"))
 public class Sale {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -9,7 +9,7 @@ import java.util.Collection;
 
 @Entity
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
-@Table(name = "sale_items")
+@Table(name = "sale_items", indexes = @Index(name = "idx_sale_items_sale", columnList = "sale_id"))
 public class SaleItem {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
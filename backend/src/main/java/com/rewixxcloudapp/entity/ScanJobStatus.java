@@ -0,0 +1,8 @@
+package com.rewixxcloudapp.entity;
+
+public enum ScanJobStatus {
+    PENDING,
+    PROCESSING,
+    COMPLETED,
+    FAILED
+}
@@ -2,6 +2,7 @@ package com.rewixxcloudapp.entity;
 
 import com.rewixxcloudapp.util.JsonSerializer;
 import javax.persistence.*;
+import java.time.LocalDateTime;
 import java.util.Collection;
 
 @Entity
@@ -10,6 +11,16 @@ public class Supplier extends User {
 
     private String name;
 
+    // Set on every write, including ones that only touch the users row
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
     public Supplier() {
         super();
     }
@@ -43,4 +54,12 @@ public class Supplier extends User {
     public void setName(String name) {
         this.name = name;
     }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.rewixxcloudapp.entity;
 
 import com.rewixxcloudapp.util.JsonSerializer;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,7 +16,10 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.Collections;
 
 // Base User entity with Spring Security integration
+// Cached at the root: Hibernate keeps one region per JOINED hierarchy (suppliers, customers)
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Table(name = "users")
 @Inheritance(strategy = InheritanceType.JOINED)
 public abstract class User implements UserDetails {
@@ -22,6 +27,11 @@ public abstract class User implements UserDetails {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Optimistic lock; JPA keeps it on the hierarchy root. Offline customer edits are
+    // checked against it (see SyncService)
+    @Version
+    private Long version;
+
     private String username;
     private String password;
     private boolean enabled;
@@ -36,6 +46,7 @@ public abstract class User implements UserDetails {
     private String zip;
 
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users.roles")
     @JoinTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"), inverseJoinColumns = @JoinColumn(name = "role_id"))
     private Set<Role> roles = new HashSet<>();
 
@@ -72,6 +83,14 @@ public abstract class User implements UserDetails {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String getUsername() {
         return username;
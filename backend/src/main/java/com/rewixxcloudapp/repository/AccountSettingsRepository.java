@@ -2,11 +2,14 @@ package com.rewixxcloudapp.repository;
 
 import com.rewixxcloudapp.entity.AccountSettings;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.Optional;
 
 @Repository
 public interface AccountSettingsRepository extends JpaRepository<AccountSettings, Long> {
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<AccountSettings> findByUserId(Long userId);
 }
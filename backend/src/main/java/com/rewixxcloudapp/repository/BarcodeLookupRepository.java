@@ -0,0 +1,29 @@
+package com.rewixxcloudapp.repository;
+
+import com.rewixxcloudapp.entity.BarcodeLookup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BarcodeLookupRepository extends JpaRepository<BarcodeLookup, Long> {
+
+    Optional<BarcodeLookup> findByBarcode(String barcode);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE BarcodeLookup b SET b.hitCount = b.hitCount + 1 WHERE b.id = :id")
+    int recordHit(@Param("id") Long id);
+
+    // Drop rows that expired long ago; recently expired rows are kept to serve stale on outages
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM BarcodeLookup b WHERE b.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -3,9 +3,13 @@ package com.rewixxcloudapp.repository;
 import com.rewixxcloudapp.entity.Contract;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,13 +18,28 @@ public interface ContractRepository extends JpaRepository<Contract, Long> {
 
     List<Contract> findByUserIdOrderByContractDateDesc(Long userId);
 
+    // Job and customers are joined into the page query instead of loaded one select per row
+    @EntityGraph(attributePaths = {"job", "job.customer", "customer"})
     Page<Contract> findByUserId(Long userId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"job", "job.customer", "customer"})
     Optional<Contract> findByIdAndUserId(Long id, Long userId);
 
+    @EntityGraph(attributePaths = {"job", "job.customer", "customer"})
     Page<Contract> findByUserIdAndCustomerNameContainingIgnoreCase(Long userId, String customerName, Pageable pageable);
 
-    Optional<Contract> findByJobIdAndUserId(Long jobId, Long userId);
+    // Spelled out: the jobId getter would otherwise be taken for an attribute
+    @EntityGraph(attributePaths = {"job", "job.customer", "customer"})
+    @Query("SELECT c FROM Contract c WHERE c.job.id = :jobId AND c.userId = :userId")
+    Optional<Contract> findByJobIdAndUserId(@Param("jobId") Long jobId, @Param("userId") Long userId);
 
     long countByUserId(Long userId);
+
+    // Delta sync: keyset on (updatedAt, id) within a tenant
+    @EntityGraph(attributePaths = {"job", "job.customer", "customer"})
+    @Query("SELECT c FROM Contract c WHERE c.userId = :userId AND " +
+           "(c.updatedAt > :after OR (c.updatedAt = :after AND c.id > :afterId)) " +
+           "ORDER BY c.updatedAt, c.id")
+    List<Contract> findChangedSince(@Param("userId") Long userId, @Param("after") LocalDateTime after,
+                                    @Param("afterId") Long afterId, Pageable pageable);
 }
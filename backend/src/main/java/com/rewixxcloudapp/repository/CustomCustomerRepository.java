@@ -6,4 +6,8 @@ import java.util.List;
 public interface CustomCustomerRepository {
     List<Customer> findCustomersWithSearch(String searchTerm, int page, int pageSize, Long userId);
     long countCustomersWithSearch(String searchTerm, Long userId);
+
+    // Rows of [Customer, CustomerStats] ordered by a CustomerStats property
+    List<Object[]> findCustomerInsights(String searchTerm, String sortProperty, boolean ascending, int page, int pageSize, Long userId);
+    long countCustomerInsights(String searchTerm, Long userId);
 } 
\ No newline at end of file
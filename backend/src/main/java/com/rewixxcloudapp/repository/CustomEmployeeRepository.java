@@ -0,0 +1,13 @@
+package com.rewixxcloudapp.repository;
+
+import com.rewixxcloudapp.entity.Employee;
+import java.util.List;
+
+public interface CustomEmployeeRepository {
+    /**
+     * One keyset page ordered by (searchName, id), starting after the given position.
+     * Prefixes are already normalized; null arguments are not filtered on.
+     */
+    List<Employee> findEmployeesPage(Boolean active, String namePrefix, String phonePrefix,
+                                     String afterName, Long afterId, int limit, Long userId);
+}
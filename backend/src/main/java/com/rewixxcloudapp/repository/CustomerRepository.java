@@ -1,11 +1,27 @@
 package com.rewixxcloudapp.repository;
 
 import com.rewixxcloudapp.entity.Customer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomCustomerRepository {
     Optional<Customer> findByUsernameAndUserId(String username, Long userId);
     Optional<Customer> findByPhoneAndUserId(String phone, Long userId);
     Optional<Customer> findByIdAndUserId(Long id, Long userId);
+
+    // Keyset paging over all tenants for background checks
+    List<Customer> findByIdGreaterThan(Long id, Pageable pageable);
+
+    // Delta sync: keyset on (updatedAt, id) within a tenant
+    @Query("SELECT c FROM Customer c WHERE c.userId = :userId AND " +
+           "(c.updatedAt > :after OR (c.updatedAt = :after AND c.id > :afterId)) " +
+           "ORDER BY c.updatedAt, c.id")
+    List<Customer> findChangedSince(@Param("userId") Long userId, @Param("after") LocalDateTime after,
+                                    @Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.rewixxcloudapp.repository;
+
+import com.rewixxcloudapp.entity.CustomerStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CustomerStatsRepository extends JpaRepository<CustomerStats, Long> {
+
+    // Held until the recompute commits, so a concurrent payment's delta lands after it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CustomerStats s WHERE s.customerId = :customerId")
+    Optional<CustomerStats> lockByCustomerId(@Param("customerId") Long customerId);
+
+    /** Inserts an empty row unless the customer already has one; a concurrent insert wins. */
+    @Modifying
+    @Query(value = "INSERT INTO customer_stats (customer_id, user_id, lifetime_revenue_cents, paid_cents, outstanding_cents, " +
+                   "job_count, lag_days_total, lag_payment_count, version, updated_at) " +
+                   "VALUES (:customerId, :userId, 0, 0, 0, 0, 0, 0, 0, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("customerId") Long customerId, @Param("userId") Long userId);
+
+    /**
+     * Adds one payment to the customer's totals. {@code lagged} is 1 when the
+     * payment counts toward the payment lag, 0 otherwise. Returns 0 when the row is missing.
+     */
+    @Modifying
+    @Query("UPDATE CustomerStats s SET s.paidCents = s.paidCents + :amountCents, " +
+           "s.outstandingCents = s.outstandingCents - :amountCents, " +
+           "s.lagDaysTotal = s.lagDaysTotal + :lagDays, s.lagPaymentCount = s.lagPaymentCount + :lagged, " +
+           "s.lastActivityDate = CASE WHEN s.lastActivityDate IS NULL OR s.lastActivityDate < :paymentDate " +
+           "THEN :paymentDate ELSE s.lastActivityDate END, " +
+           "s.version = s.version + 1, s.updatedAt = CURRENT_TIMESTAMP WHERE s.customerId = :customerId")
+    int addPayment(@Param("customerId") Long customerId, @Param("amountCents") long amountCents,
+                   @Param("lagDays") long lagDays, @Param("lagged") int lagged,
+                   @Param("paymentDate") LocalDate paymentDate);
+
+    @Query("SELECT s FROM CustomerStats s WHERE s.userId = :userId ORDER BY s.lifetimeRevenueCents DESC, s.customerId ASC")
+    List<CustomerStats> findTopByRevenue(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM CustomerStats s WHERE NOT EXISTS (SELECT c.id FROM Customer c WHERE c.id = s.customerId)")
+    int deleteOrphans();
+}
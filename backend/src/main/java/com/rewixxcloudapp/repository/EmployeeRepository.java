@@ -1,25 +1,38 @@
 package com.rewixxcloudapp.repository;
 
 import com.rewixxcloudapp.entity.Employee;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, CustomEmployeeRepository {
 
     // Find active employees only
     List<Employee> findByActiveTrueAndUserId(Long userId);
 
-    // Find employees by name (case-insensitive)
+    // Substring match on name, email or phone (the unpaged /list search)
     @Query("SELECT e FROM Employee e WHERE e.userId = :userId AND (LOWER(e.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(e.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(e.phone) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
     List<Employee> searchEmployees(@Param("searchTerm") String searchTerm, @Param("userId") Long userId);
 
     List<Employee> findByUserId(Long userId);
     
     Optional<Employee> findByIdAndUserId(Long id, Long userId);
+
+    // Links labor expenses entered by name to the employee record
+    Optional<Employee> findFirstByUserIdAndNameIgnoreCaseOrderByIdAsc(Long userId, String name);
+
+    // Delta sync: keyset on (updatedAt, id) within a tenant
+    @Query("SELECT e FROM Employee e WHERE e.userId = :userId AND " +
+           "(e.updatedAt > :after OR (e.updatedAt = :after AND e.id > :afterId)) " +
+           "ORDER BY e.updatedAt, e.id")
+    List<Employee> findChangedSince(@Param("userId") Long userId, @Param("after") LocalDateTime after,
+                                    @Param("afterId") Long afterId, Pageable pageable);
 }
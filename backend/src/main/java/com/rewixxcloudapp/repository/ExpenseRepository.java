@@ -1,13 +1,17 @@
 package com.rewixxcloudapp.repository;
 
+import com.rewixxcloudapp.entity.Employee;
 import com.rewixxcloudapp.entity.Expense;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +21,9 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long>, CustomE
     @Query("SELECT e FROM Expense e WHERE e.job.id = :jobId AND e.userId = :userId")
     List<Expense> findByJobIdAndUserId(@Param("jobId") Long jobId, @Param("userId") Long userId);
 
+    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM Expense e WHERE e.job.id = :jobId AND e.userId = :userId")
+    BigDecimal sumAmountByJobIdAndUserId(@Param("jobId") Long jobId, @Param("userId") Long userId);
+
     @Query("SELECT e FROM Expense e WHERE e.customer.id = :customerId AND e.userId = :userId")
     List<Expense> findByCustomerIdAndUserId(@Param("customerId") Long customerId, @Param("userId") Long userId);
 
@@ -26,10 +33,37 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long>, CustomE
     @Query("SELECT e FROM Expense e WHERE e.userId = :userId AND e.type = :type")
     List<Expense> findByTypeAndUserId(@Param("type") com.rewixxcloudapp.entity.ExpenseType type, @Param("userId") Long userId);
 
-    // Delete all expenses associated with a given employee name (used when deleting an employee)
+    // Delete all expenses linked to an employee (used when deleting an employee)
+    @Modifying
+    @Query("DELETE FROM Expense e WHERE e.userId = :userId AND e.employee.id = :employeeId")
+    int deleteByEmployeeIdAndUserId(@Param("employeeId") Long employeeId, @Param("userId") Long userId);
+
+    // Legacy labor expenses that could not be linked to an employee still match by name
+    @Modifying
+    @Query("DELETE FROM Expense e WHERE e.userId = :userId AND e.employee IS NULL AND e.employeeName = :employeeName")
+    int deleteUnlinkedByEmployeeNameAndUserId(@Param("employeeName") String employeeName, @Param("userId") Long userId);
+
+    // Labor entered by name before the employee record existed. Bulk updates skip
+    // @PreUpdate and @Version, so these bump both themselves for sync
+    @Modifying
+    @Query("UPDATE Expense e SET e.employee = :employee, e.updatedAt = :now, e.version = e.version + 1 " +
+           "WHERE e.userId = :userId AND e.employee IS NULL AND LOWER(e.employeeName) = LOWER(:employeeName)")
+    int linkUnlinkedByEmployeeName(@Param("employee") Employee employee, @Param("employeeName") String employeeName,
+                                   @Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    // Keep the display name on linked expenses in step with the employee record
     @Modifying
-    @Query("DELETE FROM Expense e WHERE e.userId = :userId AND e.employeeName = :employeeName")
-    void deleteByEmployeeNameAndUserId(@Param("employeeName") String employeeName, @Param("userId") Long userId);
+    @Query("UPDATE Expense e SET e.employeeName = :employeeName, e.updatedAt = :now, e.version = e.version + 1 " +
+           "WHERE e.userId = :userId AND e.employee.id = :employeeId")
+    int renameEmployee(@Param("employeeId") Long employeeId, @Param("employeeName") String employeeName,
+                       @Param("userId") Long userId, @Param("now") LocalDateTime now);
     
     Optional<Expense> findByIdAndUserId(Long id, Long userId);
+
+    // Delta sync: keyset on (updatedAt, id) within a tenant
+    @Query("SELECT e FROM Expense e WHERE e.userId = :userId AND " +
+           "(e.updatedAt > :after OR (e.updatedAt = :after AND e.id > :afterId)) " +
+           "ORDER BY e.updatedAt, e.id")
+    List<Expense> findChangedSince(@Param("userId") Long userId, @Param("after") LocalDateTime after,
+                                   @Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,71 @@
+package com.rewixxcloudapp.repository;
+
+import com.rewixxcloudapp.entity.JobFinancials;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface JobFinancialsRepository extends JpaRepository<JobFinancials, Long> {
+
+    Optional<JobFinancials> findByJobIdAndUserId(Long jobId, Long userId);
+
+    /**
+     * Adds a payment only if it fits in the remaining balance, refreshing the total
+     * in the same statement. Returns 0 when the row is missing or the payment is too large.
+     */
+    @Modifying
+    @Query("UPDATE JobFinancials f SET f.paidCents = f.paidCents + :amountCents, f.totalCents = :totalCents, " +
+           "f.version = f.version + 1, f.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE f.jobId = :jobId AND f.userId = :userId AND f.paidCents + :amountCents <= :totalCents")
+    int addPayment(@Param("jobId") Long jobId, @Param("userId") Long userId,
+                   @Param("amountCents") long amountCents, @Param("totalCents") long totalCents);
+
+    @Modifying
+    @Query("UPDATE JobFinancials f SET f.paidCents = f.paidCents - :amountCents, " +
+           "f.version = f.version + 1, f.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE f.jobId = :jobId")
+    int removePayment(@Param("jobId") Long jobId, @Param("amountCents") long amountCents);
+
+    /**
+     * Inserts the row unless the job already has one. A concurrent insert of the same
+     * row makes this wait for it to commit and then do nothing. Returns 0 when the row existed.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO job_financials (job_id, user_id, total_cents, paid_cents, materials_cents, version, updated_at) " +
+                   "VALUES (:jobId, :userId, :totalCents, :paidCents, :materialsCents, 0, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("jobId") Long jobId, @Param("userId") Long userId, @Param("totalCents") long totalCents,
+                       @Param("paidCents") long paidCents, @Param("materialsCents") long materialsCents);
+
+    /** Re-prices the job without touching the paid amount. Returns 0 when the row is missing. */
+    @Modifying
+    @Query("UPDATE JobFinancials f SET f.totalCents = :totalCents, f.materialsCents = :materialsCents, " +
+           "f.version = f.version + 1, f.updatedAt = CURRENT_TIMESTAMP WHERE f.jobId = :jobId")
+    int updateTotals(@Param("jobId") Long jobId, @Param("totalCents") long totalCents,
+                     @Param("materialsCents") long materialsCents);
+
+    // Rows of [jobId, materials used]; only positive quantities count, jobs without materials are absent
+    @Query("SELECT s.job.id, SUM(i.unitPrice * i.quantity) FROM SaleItem i JOIN i.sale s " +
+           "WHERE s.job.id IN :jobIds AND i.quantity > 0 GROUP BY s.job.id")
+    List<Object[]> getMaterialsCostByJobIds(@Param("jobIds") Collection<Long> jobIds);
+
+    @Modifying
+    @Query("DELETE FROM JobFinancials f WHERE NOT EXISTS (SELECT j.id FROM Job j WHERE j.id = f.jobId)")
+    int deleteOrphans();
+
+    // Delta sync: keyset on (updatedAt, jobId) within a tenant
+    @Query("SELECT f FROM JobFinancials f WHERE f.userId = :userId AND " +
+           "(f.updatedAt > :after OR (f.updatedAt = :after AND f.jobId > :afterId)) " +
+           "ORDER BY f.updatedAt, f.jobId")
+    List<JobFinancials> findChangedSince(@Param("userId") Long userId, @Param("after") LocalDateTime after,
+                                         @Param("afterId") Long afterId, Pageable pageable);
+}
@@ -1,18 +1,43 @@
 package com.rewixxcloudapp.repository;
 
 import com.rewixxcloudapp.entity.Job;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface JobRepository extends JpaRepository<Job, Long>, CustomJobRepository {
-    List<Job> findByCustomerIdAndUserId(Long customerId, Long userId);
+    // Spelled out: the customerId getter would otherwise be taken for an attribute
+    @Query("SELECT j FROM Job j WHERE j.customer.id = :customerId AND j.userId = :userId")
+    List<Job> findByCustomerIdAndUserId(@Param("customerId") Long customerId, @Param("userId") Long userId);
     
     @Query("SELECT j FROM Job j WHERE j.userId = :userId AND ((j.startDate BETWEEN :startDate AND :endDate) OR (j.endDate BETWEEN :startDate AND :endDate) OR (j.startDate <= :startDate AND j.endDate >= :endDate))")
     List<Job> findByDateRangeAndUserId(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, @Param("userId") Long userId);
     
     Optional<Job> findByIdAndUserId(Long id, Long userId);
+
+    // Jobs whose totals follow the tenant's tax rate
+    List<Job> findByUserIdAndIncludeTaxTrue(Long userId);
+
+    // Keyset paging over all tenants for background checks
+    List<Job> findByIdGreaterThan(Long id, Pageable pageable);
+
+    @Query("SELECT j FROM Job j WHERE j.customer.id IN :customerIds")
+    List<Job> findByCustomerIds(@Param("customerIds") Collection<Long> customerIds);
+
+    // Delta sync: keyset on (updatedAt, id) within a tenant
+    @Query("SELECT j FROM Job j LEFT JOIN FETCH j.customer WHERE j.userId = :userId AND " +
+           "(j.updatedAt > :after OR (j.updatedAt = :after AND j.id > :afterId)) " +
+           "ORDER BY j.updatedAt, j.id")
+    List<Job> findChangedSince(@Param("userId") Long userId, @Param("after") LocalDateTime after,
+                               @Param("afterId") Long afterId, Pageable pageable);
+
+    // Loads the receipt image lists of jobs already in the persistence context in one query
+    @Query("SELECT DISTINCT j FROM Job j LEFT JOIN FETCH j.receiptImageUrls WHERE j IN :jobs")
+    List<Job> fetchReceiptImages(@Param("jobs") Collection<Job> jobs);
 }
@@ -1,12 +1,15 @@
 package com.rewixxcloudapp.repository;
 
 import com.rewixxcloudapp.entity.Payment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,4 +20,20 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.job.id = :jobId")
     BigDecimal getTotalPaidByJobId(@Param("jobId") Long jobId);
+
+    // Rows of [jobId, total paid]; jobs without payments are absent
+    @Query("SELECT p.job.id, SUM(p.amount) FROM Payment p WHERE p.job.id IN :jobIds GROUP BY p.job.id")
+    List<Object[]> getTotalPaidByJobIds(@Param("jobIds") Collection<Long> jobIds);
+
+    // Rows of [customerId, payment date, job end date, job start date], one per payment
+    @Query("SELECT j.customer.id, p.paymentDate, j.endDate, j.startDate FROM Payment p JOIN p.job j " +
+           "WHERE j.customer.id IN :customerIds")
+    List<Object[]> getPaymentDatesByCustomerIds(@Param("customerIds") Collection<Long> customerIds);
+
+    // Delta sync: keyset on (updatedAt, id) within a tenant
+    @Query("SELECT p FROM Payment p WHERE p.userId = :userId AND " +
+           "(p.updatedAt > :after OR (p.updatedAt = :after AND p.id > :afterId)) " +
+           "ORDER BY p.updatedAt, p.id")
+    List<Payment> findChangedSince(@Param("userId") Long userId, @Param("after") LocalDateTime after,
+                                   @Param("afterId") Long afterId, Pageable pageable);
 }
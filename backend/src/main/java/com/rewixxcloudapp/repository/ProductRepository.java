@@ -3,8 +3,11 @@ package com.rewixxcloudapp.repository;
 import com.rewixxcloudapp.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -14,5 +17,15 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     // Add exact name match for better duplicate prevention
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) = LOWER(:name)")
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Product> findByNameIgnoreCase(@Param("name") String name);
+
+    // Exact matches for several names at once; pass the names lower-cased
+    @Query("SELECT p FROM Product p WHERE LOWER(p.name) IN :names ORDER BY p.id")
+    List<Product> findByLowerNameIn(@Param("names") Collection<String> names);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Product> findByBarcode(String barcode);
+
+    List<Product> findBySku(String sku);
 }
@@ -0,0 +1,107 @@
+package com.rewixxcloudapp.repository;
+
+import com.rewixxcloudapp.entity.ReportJob;
+import com.rewixxcloudapp.entity.ReportJobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, Long> {
+
+    Optional<ReportJob> findByIdAndUserId(Long id, Long userId);
+
+    Optional<ReportJob> findByActiveKey(String activeKey);
+
+    // Held until the final status commits, so a stale release cannot interleave with it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ReportJob r WHERE r.id = :id")
+    Optional<ReportJob> lockById(@Param("id") Long id);
+
+    @Query("SELECT r FROM ReportJob r WHERE r.userId = :userId ORDER BY r.createdAt DESC")
+    List<ReportJob> findRecentByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT r.id FROM ReportJob r WHERE r.status = :status ORDER BY r.createdAt ASC")
+    List<Long> findReadyIds(@Param("status") ReportJobStatus status, Pageable pageable);
+
+    @Query("SELECT r.cancelRequested FROM ReportJob r WHERE r.id = :id")
+    Boolean isCancelRequested(@Param("id") Long id);
+
+    // Claim a pending row for one worker; returns 0 if another worker got there first
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob r SET r.status = :running, r.lockedBy = :workerId, r.startedAt = :now, " +
+           "r.attempts = r.attempts + 1, r.updatedAt = :now WHERE r.id = :id AND r.status = :pending")
+    int claim(@Param("id") Long id, @Param("workerId") String workerId, @Param("now") LocalDateTime now,
+              @Param("pending") ReportJobStatus pending, @Param("running") ReportJobStatus running);
+
+    // Undo a claim the pool could not take
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob r SET r.status = :pending, r.lockedBy = NULL, r.startedAt = NULL, r.attempts = r.attempts - 1, " +
+           "r.updatedAt = :now WHERE r.id = :id AND r.status = :running")
+    int unclaim(@Param("id") Long id, @Param("now") LocalDateTime now,
+                @Param("pending") ReportJobStatus pending, @Param("running") ReportJobStatus running);
+
+    // Also a heartbeat; returns 0 once the row is no longer this worker's
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob r SET r.progress = :progress, r.updatedAt = :now " +
+           "WHERE r.id = :id AND r.lockedBy = :workerId AND r.status = :running")
+    int updateProgress(@Param("id") Long id, @Param("workerId") String workerId, @Param("progress") int progress,
+                       @Param("now") LocalDateTime now, @Param("running") ReportJobStatus running);
+
+    // Marks every job the worker is still running as alive
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob r SET r.updatedAt = :now WHERE r.lockedBy = :workerId AND r.status = :running")
+    int heartbeat(@Param("workerId") String workerId, @Param("now") LocalDateTime now,
+                  @Param("running") ReportJobStatus running);
+
+    // A pending job is cancelled outright; a running one is flagged and stopped by its worker
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob r SET r.status = :cancelled, r.activeKey = NULL, r.cancelRequested = true, " +
+           "r.completedAt = :now, r.updatedAt = :now WHERE r.id = :id AND r.status = :pending")
+    int cancelPending(@Param("id") Long id, @Param("now") LocalDateTime now,
+                      @Param("pending") ReportJobStatus pending, @Param("cancelled") ReportJobStatus cancelled);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob r SET r.cancelRequested = true, r.updatedAt = :now WHERE r.id = :id AND r.status = :running")
+    int requestCancel(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("running") ReportJobStatus running);
+
+    // Put rows whose worker stopped sending heartbeats back on the queue, unless they used up their attempts
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob r SET r.status = :pending, r.lockedBy = NULL, r.progress = 0, r.updatedAt = :now " +
+           "WHERE r.status = :running AND r.updatedAt < :cutoff AND r.attempts < :maxAttempts")
+    int releaseStale(@Param("cutoff") LocalDateTime cutoff, @Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts,
+                     @Param("pending") ReportJobStatus pending, @Param("running") ReportJobStatus running);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob r SET r.status = :failed, r.lockedBy = NULL, r.activeKey = NULL, r.lastError = :error, " +
+           "r.completedAt = :now, r.updatedAt = :now " +
+           "WHERE r.status = :running AND r.updatedAt < :cutoff AND r.attempts >= :maxAttempts")
+    int failStale(@Param("cutoff") LocalDateTime cutoff, @Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts,
+                  @Param("error") String error, @Param("running") ReportJobStatus running, @Param("failed") ReportJobStatus failed);
+
+    @Query("SELECT r.id FROM ReportJob r WHERE r.completedAt < :cutoff")
+    List<Long> findFinishedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ReportJob r WHERE r.id IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+}
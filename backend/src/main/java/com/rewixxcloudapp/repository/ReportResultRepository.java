@@ -0,0 +1,20 @@
+package com.rewixxcloudapp.repository;
+
+import com.rewixxcloudapp.entity.ReportResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface ReportResultRepository extends JpaRepository<ReportResult, Long> {
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ReportResult r WHERE r.reportJobId IN :ids")
+    int deleteByReportJobIds(@Param("ids") List<Long> ids);
+}
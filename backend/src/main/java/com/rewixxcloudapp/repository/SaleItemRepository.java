@@ -0,0 +1,19 @@
+package com.rewixxcloudapp.repository;
+
+import com.rewixxcloudapp.entity.Sale;
+import com.rewixxcloudapp.entity.SaleItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface SaleItemRepository extends JpaRepository<SaleItem, Long> {
+
+    @Modifying
+    @Query("UPDATE SaleItem i SET i.sale = :target WHERE i.sale.id IN :saleIds")
+    int moveToSale(@Param("target") Sale target, @Param("saleIds") Collection<Long> saleIds);
+}
@@ -0,0 +1,46 @@
+package com.rewixxcloudapp.repository;
+
+import com.rewixxcloudapp.entity.Sale;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SaleRepository extends JpaRepository<Sale, Long> {
+
+    /**
+     * Sales of a job with their items, only if the job belongs to the user. Sales that
+     * are missing, on another job or owned by another tenant are simply not returned.
+     */
+    @Query("SELECT DISTINCT s FROM Sale s JOIN FETCH s.job j LEFT JOIN FETCH s.saleItems " +
+           "WHERE s.id IN :saleIds AND j.id = :jobId AND j.userId = :userId")
+    List<Sale> findOwnedWithItems(@Param("saleIds") Collection<Long> saleIds,
+                                  @Param("jobId") Long jobId, @Param("userId") Long userId);
+
+    // Keyset paging over jobs that have sales, for background maintenance
+    @Query("SELECT DISTINCT s.job.id FROM Sale s WHERE s.job.id > :afterJobId ORDER BY s.job.id")
+    List<Long> findJobIdsWithSales(@Param("afterJobId") Long afterJobId, Pageable pageable);
+
+    /**
+     * Rows of [saleId, jobId, date, customerId, supplierId] for sales of the given jobs
+     * that hold exactly one item and no tenders, oldest first per job.
+     */
+    @Query("SELECT s.id, s.job.id, s.date, c.id, sp.id FROM Sale s LEFT JOIN s.customer c LEFT JOIN s.supplier sp " +
+           "WHERE s.job.id IN :jobIds AND SIZE(s.saleItems) = 1 AND SIZE(s.tenders) = 0 " +
+           "ORDER BY s.job.id, s.date, s.id")
+    List<Object[]> findSingleItemSales(@Param("jobIds") Collection<Long> jobIds);
+
+    @Modifying
+    @Query("DELETE FROM Sale s WHERE s.id IN :saleIds")
+    int deleteByIds(@Param("saleIds") Collection<Long> saleIds);
+
+    // Rows of [customerId, latest sale date] for sales on the customers' jobs
+    @Query("SELECT j.customer.id, MAX(s.date) FROM Sale s JOIN s.job j WHERE j.customer.id IN :customerIds GROUP BY j.customer.id")
+    List<Object[]> getLastSaleDateByCustomerIds(@Param("customerIds") Collection<Long> customerIds);
+}
@@ -0,0 +1,47 @@
+package com.rewixxcloudapp.repository;
+
+import com.rewixxcloudapp.entity.ScanJob;
+import com.rewixxcloudapp.entity.ScanJobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScanJobRepository extends JpaRepository<ScanJob, Long> {
+
+    Optional<ScanJob> findByIdAndUserId(Long id, Long userId);
+
+    @Query("SELECT s FROM ScanJob s WHERE s.userId = :userId ORDER BY s.createdAt DESC")
+    List<ScanJob> findRecentByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT s.id FROM ScanJob s WHERE s.status = :status AND s.nextAttemptAt <= :now ORDER BY s.nextAttemptAt ASC")
+    List<Long> findReadyIds(@Param("status") ScanJobStatus status, @Param("now") LocalDateTime now, Pageable pageable);
+
+    // Only earlier scans count, so of two identical scans claimed together the lower id goes ahead
+    @Query("SELECT COUNT(s) > 0 FROM ScanJob s WHERE s.contentHash = :contentHash AND s.status = :status AND s.id < :id")
+    boolean existsEarlierWithHashAndStatus(@Param("contentHash") String contentHash, @Param("status") ScanJobStatus status, @Param("id") Long id);
+
+    // Claim a pending row for one worker; returns 0 if another worker got there first
+    @Modifying
+    @Transactional
+    @Query("UPDATE ScanJob s SET s.status = :processing, s.lockedBy = :workerId, s.startedAt = :now, " +
+           "s.attempts = s.attempts + 1, s.updatedAt = :now WHERE s.id = :id AND s.status = :pending")
+    int claim(@Param("id") Long id, @Param("workerId") String workerId, @Param("now") LocalDateTime now,
+              @Param("pending") ScanJobStatus pending, @Param("processing") ScanJobStatus processing);
+
+    // Put rows whose worker died mid-scan back on the queue
+    @Modifying
+    @Transactional
+    @Query("UPDATE ScanJob s SET s.status = :pending, s.lockedBy = NULL, s.nextAttemptAt = :now, s.updatedAt = :now " +
+           "WHERE s.status = :processing AND s.startedAt < :cutoff")
+    int releaseStale(@Param("cutoff") LocalDateTime cutoff, @Param("now") LocalDateTime now,
+                     @Param("pending") ScanJobStatus pending, @Param("processing") ScanJobStatus processing);
+}
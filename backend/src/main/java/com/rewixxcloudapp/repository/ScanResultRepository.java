@@ -0,0 +1,27 @@
+package com.rewixxcloudapp.repository;
+
+import com.rewixxcloudapp.entity.ScanResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScanResultRepository extends JpaRepository<ScanResult, Long> {
+
+    Optional<ScanResult> findByContentHash(String contentHash);
+
+    List<ScanResult> findByContentHashIn(Collection<String> contentHashes);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ScanResult r SET r.hitCount = r.hitCount + 1, r.lastHitAt = :now WHERE r.contentHash = :contentHash")
+    int recordHit(@Param("contentHash") String contentHash, @Param("now") LocalDateTime now);
+}
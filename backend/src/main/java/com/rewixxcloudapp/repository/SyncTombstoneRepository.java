@@ -0,0 +1,44 @@
+package com.rewixxcloudapp.repository;
+
+import com.rewixxcloudapp.entity.SyncTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+
+    // Delta sync: keyset on (deletedAt, id) within a tenant
+    @Query("SELECT t FROM SyncTombstone t WHERE t.userId = :userId AND " +
+           "(t.deletedAt > :after OR (t.deletedAt = :after AND t.id > :afterId)) " +
+           "ORDER BY t.deletedAt, t.id")
+    List<SyncTombstone> findChangedSince(@Param("userId") Long userId, @Param("after") LocalDateTime after,
+                                         @Param("afterId") Long afterId, Pageable pageable);
+
+    // Bulk deletes bypass the entity listener (see SyncService); these record the rows they are about to remove
+    @Modifying
+    @Query(value = "INSERT INTO sync_tombstones (user_id, entity_type, entity_id, deleted_at) " +
+                   "SELECT e.user_id, 'expenses', e.id, :deletedAt FROM expenses e " +
+                   "WHERE e.user_id = :userId AND e.employee_id = :employeeId", nativeQuery = true)
+    int recordExpensesOfEmployee(@Param("employeeId") Long employeeId, @Param("userId") Long userId,
+                                 @Param("deletedAt") LocalDateTime deletedAt);
+
+    @Modifying
+    @Query(value = "INSERT INTO sync_tombstones (user_id, entity_type, entity_id, deleted_at) " +
+                   "SELECT e.user_id, 'expenses', e.id, :deletedAt FROM expenses e " +
+                   "WHERE e.user_id = :userId AND e.employee_id IS NULL AND e.employee_name = :employeeName", nativeQuery = true)
+    int recordUnlinkedExpensesOfEmployeeName(@Param("employeeName") String employeeName, @Param("userId") Long userId,
+                                             @Param("deletedAt") LocalDateTime deletedAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SyncTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -36,4 +36,33 @@ public class CustomCustomerRepositoryImpl implements CustomCustomerRepository {
         query.setParameter("searchTerm", searchTerm);
         return query.getSingleResult();
     }
-} 
\ No newline at end of file
+
+    @Override
+    public List<Object[]> findCustomerInsights(String searchTerm, String sortProperty, boolean ascending, int page, int pageSize, Long userId) {
+        String direction = ascending ? " ASC" : " DESC";
+        StringBuilder jpql = new StringBuilder("SELECT c, s FROM CustomerStats s, Customer c ")
+                .append("WHERE c.id = s.customerId AND s.userId = :userId ")
+                .append("AND (:searchTerm = '' OR LOWER(c.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) ")
+                .append("ORDER BY s.").append(sortProperty).append(direction);
+        if ("lastActivityDate".equals(sortProperty)) {
+            jpql.append(" NULLS LAST");
+        }
+        jpql.append(", s.customerId").append(direction);
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        query.setParameter("userId", userId);
+        query.setParameter("searchTerm", searchTerm);
+        query.setFirstResult(page * pageSize);
+        query.setMaxResults(pageSize);
+        return query.getResultList();
+    }
+
+    @Override
+    public long countCustomerInsights(String searchTerm, Long userId) {
+        String countQuery = "SELECT COUNT(s) FROM CustomerStats s, Customer c WHERE c.id = s.customerId AND s.userId = :userId " +
+                "AND (:searchTerm = '' OR LOWER(c.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')))";
+        TypedQuery<Long> query = entityManager.createQuery(countQuery, Long.class);
+        query.setParameter("userId", userId);
+        query.setParameter("searchTerm", searchTerm);
+        return query.getSingleResult();
+    }
+}
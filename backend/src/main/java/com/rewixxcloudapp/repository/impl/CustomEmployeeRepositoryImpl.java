@@ -0,0 +1,60 @@
+package com.rewixxcloudapp.repository.impl;
+
+import com.rewixxcloudapp.entity.Employee;
+import com.rewixxcloudapp.repository.CustomEmployeeRepository;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+public class CustomEmployeeRepositoryImpl implements CustomEmployeeRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Employee> findEmployeesPage(Boolean active, String namePrefix, String phonePrefix,
+                                            String afterName, Long afterId, int limit, Long userId) {
+        StringBuilder queryBuilder = new StringBuilder("SELECT e FROM Employee e WHERE e.userId = :userId");
+
+        // Equality on active keeps the scan inside the (user_id, active, search_name, id) index
+        if (active != null) {
+            queryBuilder.append(" AND e.active = :active");
+        }
+
+        // A name matches at its start (an index range) or at the start of a later word ("smith" in "john smith")
+        if (namePrefix != null && phonePrefix != null) {
+            queryBuilder.append(" AND (e.searchName LIKE :namePrefix OR e.searchName LIKE :wordPrefix OR e.searchPhone LIKE :phonePrefix)");
+        } else if (namePrefix != null) {
+            queryBuilder.append(" AND (e.searchName LIKE :namePrefix OR e.searchName LIKE :wordPrefix)");
+        } else if (phonePrefix != null) {
+            queryBuilder.append(" AND e.searchPhone LIKE :phonePrefix");
+        }
+
+        if (afterName != null && afterId != null) {
+            queryBuilder.append(" AND (e.searchName > :afterName OR (e.searchName = :afterName AND e.id > :afterId))");
+        }
+
+        queryBuilder.append(" ORDER BY e.searchName ASC, e.id ASC");
+
+        TypedQuery<Employee> query = entityManager.createQuery(queryBuilder.toString(), Employee.class);
+        query.setParameter("userId", userId);
+        if (active != null) {
+            query.setParameter("active", active);
+        }
+        // Normalized values contain only [a-z0-9 ], so there are no LIKE wildcards to escape
+        if (namePrefix != null) {
+            query.setParameter("namePrefix", namePrefix + "%");
+            query.setParameter("wordPrefix", "% " + namePrefix + "%");
+        }
+        if (phonePrefix != null) {
+            query.setParameter("phonePrefix", phonePrefix + "%");
+        }
+        if (afterName != null && afterId != null) {
+            query.setParameter("afterName", afterName);
+            query.setParameter("afterId", afterId);
+        }
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+}
@@ -1,22 +1,34 @@
 package com.rewixxcloudapp.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.rewixxcloudapp.dto.AccountSettingsDto;
+import com.rewixxcloudapp.dto.AccountSettingsView;
 import com.rewixxcloudapp.entity.AccountSettings;
 import com.rewixxcloudapp.entity.AuthUser;
 import com.rewixxcloudapp.repository.AccountSettingsRepository;
 import com.rewixxcloudapp.repository.AuthUserRepository;
+import com.rewixxcloudapp.util.Money;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.List;
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Optional;
 
 @Service
 public class AccountSettingsService {
 
     private static final Logger logger = LoggerFactory.getLogger(AccountSettingsService.class);
+    public static final String VIEW_CACHE = "account-settings-view";
 
     @Autowired
     private AccountSettingsRepository accountSettingsRepository;
@@ -24,42 +36,82 @@ public class AccountSettingsService {
     @Autowired
     private AuthUserRepository authUserRepository;
 
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${account-settings.view-cache.max-entries:10000}")
+    private long viewCacheMaxEntries;
+
+    @Value("${account-settings.view-cache.ttl-minutes:30}")
+    private long viewCacheTtlMinutes;
+
+    private Cache<Long, AccountSettingsView> viewCache;
+
+    @PostConstruct
+    public void init() {
+        viewCache = Caffeine.newBuilder()
+                .maximumSize(viewCacheMaxEntries)
+                .expireAfterWrite(Duration.ofMinutes(viewCacheTtlMinutes))
+                .build();
+        cacheInvalidationBus.register(VIEW_CACHE, key -> viewCache.invalidate(Long.valueOf(key)));
+    }
+
+    /**
+     * Settings as read on every page load (branding) and by pricing. Served from
+     * memory; the database is only read on a cache miss and never written: a tenant
+     * without a settings row sees the defaults until it first saves its settings.
+     */
+    public AccountSettingsView getSettingsView(Long userId) {
+        return viewCache.get(userId, id -> AccountSettingsView.of(
+                accountSettingsRepository.findByUserId(id).orElseGet(() -> defaultSettings(id))));
+    }
+
     public AccountSettings getAccountSettings(Long userId) {
         logger.info("Fetching account settings for user {}", userId);
-        
-        // First, get the authenticated user's email to ensure sync
-        Optional<AuthUser> authUserOpt = authUserRepository.findById(userId);
-        if (authUserOpt.isEmpty()) {
-            logger.error("User {} not found in auth_users table - user may have been deleted or database was reset", userId);
-            throw new IllegalArgumentException("User not found. Please log in again.");
-        }
-        AuthUser authUser = authUserOpt.get();
-        String userEmail = authUser.getEmail();
-        
-        Optional<AccountSettings> settingsOpt = accountSettingsRepository.findByUserId(userId);
 
-        AccountSettings settings;
-        if (settingsOpt.isEmpty()) {
-            // Create default settings if none exist
-            logger.info("No account settings found for user {}, creating default", userId);
-            settings = new AccountSettings("My Company");
-            settings.setUserId(userId);
-            settings.setEmail(userEmail); // Always use authenticated user's email
-            settings = accountSettingsRepository.save(settings);
-        } else {
-            settings = settingsOpt.get();
-            // CRITICAL: Always sync email with authenticated user's email
-            if (!userEmail.equals(settings.getEmail())) {
-                logger.warn("Account settings email ({}) doesn't match authenticated user email ({}). Syncing...", 
-                    settings.getEmail(), userEmail);
-                settings.setEmail(userEmail);
-                settings = accountSettingsRepository.save(settings);
-            }
+        Optional<AccountSettings> settingsOpt = accountSettingsRepository.findByUserId(userId);
+        if (settingsOpt.isPresent()) {
+            return settingsOpt.get();
         }
 
-        return settings;
+        // Create default settings if none exist
+        logger.info("No account settings found for user {}, creating default", userId);
+        return accountSettingsRepository.save(defaultSettings(userId));
+    }
+
+    /**
+     * Keeps the read-only email field in line with the login email. Called from the
+     * login paths, which are the only places the AuthUser email can change. The view
+     * is evicted even for a tenant without a settings row: its cached defaults carry
+     * the email too.
+     */
+    public void syncEmail(Long userId, String email) {
+        if (email == null) {
+            return;
+        }
+        AccountSettingsView cached = viewCache.getIfPresent(userId);
+        if (cached != null && email.equals(cached.getEmail())) {
+            return;
+        }
+        Optional<AccountSettings> settingsOpt = accountSettingsRepository.findByUserId(userId);
+        if (settingsOpt.isPresent() && !email.equals(settingsOpt.get().getEmail())) {
+            AccountSettings settings = settingsOpt.get();
+            logger.info("Syncing account settings email for user {} from {} to {}", userId, settings.getEmail(), email);
+            settings.setEmail(email);
+            accountSettingsRepository.save(settings);
+        }
+        invalidateView(userId);
     }
 
+    /**
+     * Saves the settings. A tax rate change re-prices the tenant's taxable jobs and
+     * their customers' stats in the same transaction (see {@link TaxRateChanged}), so
+     * balances, contracts and the payment guard never see totals at the old rate.
+     */
+    @Transactional
     public AccountSettings updateAccountSettings(AccountSettingsDto dto, Long userId) {
         logger.info("Updating account settings for user {}", userId);
 
@@ -72,6 +124,7 @@ public class AccountSettingsService {
         String userEmail = authUserOpt.get().getEmail();
 
         AccountSettings settings = getAccountSettings(userId);
+        BigDecimal previousTaxRate = settings.getTaxRatePercent();
         // Only override fields that are provided; keep existing values otherwise
         if (dto.getCompanyName() != null && !dto.getCompanyName().trim().isEmpty()) {
             settings.setCompanyName(dto.getCompanyName().trim());
@@ -87,9 +140,74 @@ public class AccountSettingsService {
         }
         // logoUrl may legitimately be null (to clear the logo), so always set it
         settings.setLogoUrl(dto.getLogoUrl());
+        if (dto.getTaxRatePercent() != null) {
+            if (dto.getTaxRatePercent().signum() < 0 || dto.getTaxRatePercent().compareTo(BigDecimal.valueOf(100)) > 0) {
+                throw new IllegalArgumentException("Tax rate must be between 0 and 100 percent");
+            }
+            settings.setTaxRatePercent(dto.getTaxRatePercent().setScale(2, Money.ROUNDING));
+        }
 
         AccountSettings savedSettings = accountSettingsRepository.save(settings);
+        BigDecimal taxRate = savedSettings.getTaxRatePercent();
+        if (taxRate != null && (previousTaxRate == null || previousTaxRate.compareTo(taxRate) != 0)) {
+            logger.info("Tax rate for user {} changed from {} to {}, re-pricing taxable jobs", userId, previousTaxRate, taxRate);
+            eventPublisher.publishEvent(new TaxRateChanged(userId, taxRate));
+        }
+        invalidateView(userId);
         logger.info("Account settings updated successfully for user {} - email synced to: {}", userId, userEmail);
         return savedSettings;
     }
+
+    // Inside a transaction, evict once it commits: a reader in between would cache the old row again
+    private void invalidateView(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cacheInvalidationBus.invalidate(VIEW_CACHE, String.valueOf(userId));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cacheInvalidationBus.invalidate(VIEW_CACHE, String.valueOf(userId));
+            }
+        });
+    }
+
+    private AccountSettings defaultSettings(Long userId) {
+        AccountSettings settings = new AccountSettings("My Company");
+        settings.setUserId(userId);
+        settings.setEmail(requireAuthUser(userId).getEmail()); // Always use authenticated user's email
+        return settings;
+    }
+
+    private AuthUser requireAuthUser(Long userId) {
+        Optional<AuthUser> authUserOpt = authUserRepository.findById(userId);
+        if (authUserOpt.isEmpty()) {
+            logger.error("User {} not found in auth_users table - user may have been deleted or database was reset", userId);
+            throw new IllegalArgumentException("User not found. Please log in again.");
+        }
+        return authUserOpt.get();
+    }
+
+    /**
+     * Published inside {@link #updateAccountSettings} when a tenant's tax rate changes.
+     * Listeners run synchronously in that transaction and re-price the stored totals.
+     */
+    public static final class TaxRateChanged {
+
+        private final Long userId;
+        private final BigDecimal taxRatePercent;
+
+        public TaxRateChanged(Long userId, BigDecimal taxRatePercent) {
+            this.userId = userId;
+            this.taxRatePercent = taxRatePercent;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public BigDecimal getTaxRatePercent() {
+            return taxRatePercent;
+        }
+    }
 }
@@ -0,0 +1,244 @@
+package com.rewixxcloudapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for API requests. Each tenant has a token bucket (heavier
+ * endpoint classes cost more tokens) and a cap on its own in-flight requests per
+ * class; each class has its own semaphore, so a burst of reports cannot take the
+ * threads and connections that CRUD requests need. Requests wait up to the class's
+ * max-wait for a slot and are rejected straight away when the queue is already full.
+ * Limits come from the {@code bulkhead.*} properties.
+ */
+@Service
+public class BulkheadService {
+
+    public enum EndpointClass {
+        REPORTS("reports", 4, 2, 2000, 8, 5),
+        EXPORTS("exports", 2, 1, 2000, 4, 5),
+        UPLOADS("uploads", 4, 2, 1000, 8, 2),
+        CRUD("crud", 40, 20, 500, 40, 1);
+
+        private final String key;
+        private final int defaultMaxConcurrent;
+        private final int defaultMaxPerTenant;
+        private final long defaultMaxWaitMs;
+        private final int defaultMaxQueue;
+        private final int defaultCost;
+
+        EndpointClass(String key, int maxConcurrent, int maxPerTenant, long maxWaitMs, int maxQueue, int cost) {
+            this.key = key;
+            this.defaultMaxConcurrent = maxConcurrent;
+            this.defaultMaxPerTenant = maxPerTenant;
+            this.defaultMaxWaitMs = maxWaitMs;
+            this.defaultMaxQueue = maxQueue;
+            this.defaultCost = cost;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /** Thrown when a request is not admitted; the filter turns it into a 429 or 503. */
+    public static class RejectedException extends RuntimeException {
+        private final int status;
+        private final long retryAfterSeconds;
+
+        RejectedException(int status, long retryAfterSeconds, String message) {
+            super(message);
+            this.status = status;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    /** A slot held for the duration of one request; release exactly once. */
+    public static class Permit {
+        private final Bulkhead bulkhead;
+        private final AtomicInteger tenantInFlight;
+        private boolean released;
+
+        Permit(Bulkhead bulkhead, AtomicInteger tenantInFlight) {
+            this.bulkhead = bulkhead;
+            this.tenantInFlight = tenantInFlight;
+        }
+
+        public void release() {
+            if (!released) {
+                released = true;
+                tenantInFlight.decrementAndGet();
+                bulkhead.semaphore.release();
+            }
+        }
+    }
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${bulkhead.rate.tokens-per-second:10}")
+    private double tokensPerSecond;
+
+    @Value("${bulkhead.rate.burst:100}")
+    private int burst;
+
+    @Value("${bulkhead.tenants.max-entries:10000}")
+    private int maxTenants;
+
+    private final Map<EndpointClass, Bulkhead> bulkheads = new EnumMap<>(EndpointClass.class);
+    private Cache<String, TenantState> tenants;
+
+    @PostConstruct
+    public void init() {
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            bulkheads.put(endpointClass, new Bulkhead(endpointClass, environment));
+        }
+        // Idle tenants are dropped; a returning tenant starts with a full bucket
+        tenants = Caffeine.newBuilder()
+                .maximumSize(maxTenants)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    /**
+     * Admits a request for the tenant (a user id, or the client address when
+     * unauthenticated) or throws {@link RejectedException}: 429 when the tenant is
+     * over its rate or its own concurrency share, 503 when the class stays full
+     * for longer than its max-wait.
+     */
+    public Permit acquire(EndpointClass endpointClass, String tenant) {
+        Bulkhead bulkhead = bulkheads.get(endpointClass);
+        TenantState state = tenants.get(tenant, key -> new TenantState(burst));
+
+        long waitNanos = state.tryConsume(bulkhead.cost, tokensPerSecond, burst);
+        if (waitNanos > 0) {
+            bulkhead.throttled.increment();
+            throw new RejectedException(429, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1),
+                    "Rate limit exceeded, retry later");
+        }
+
+        AtomicInteger inFlight = state.inFlight.get(endpointClass);
+        if (inFlight.incrementAndGet() > bulkhead.maxPerTenant) {
+            inFlight.decrementAndGet();
+            bulkhead.throttled.increment();
+            throw new RejectedException(429, 1, "Too many concurrent " + endpointClass.key + " requests");
+        }
+
+        boolean acquired = false;
+        try {
+            if (bulkhead.semaphore.getQueueLength() < bulkhead.maxQueue) {
+                acquired = bulkhead.semaphore.tryAcquire(bulkhead.maxWaitMs, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!acquired) {
+            inFlight.decrementAndGet();
+            bulkhead.rejected.increment();
+            throw new RejectedException(503, 1, "Server busy, retry later");
+        }
+        bulkhead.admitted.increment();
+        return new Permit(bulkhead, inFlight);
+    }
+
+    /** Limits and counters per endpoint class, for /api/ops/bulkheads. */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> classes = new LinkedHashMap<>();
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("maxConcurrent", bulkhead.maxConcurrent);
+            stats.put("maxPerTenant", bulkhead.maxPerTenant);
+            stats.put("maxWaitMs", bulkhead.maxWaitMs);
+            stats.put("maxQueue", bulkhead.maxQueue);
+            stats.put("cost", bulkhead.cost);
+            stats.put("active", bulkhead.maxConcurrent - bulkhead.semaphore.availablePermits());
+            stats.put("waiting", bulkhead.semaphore.getQueueLength());
+            stats.put("admitted", bulkhead.admitted.sum());
+            stats.put("throttled", bulkhead.throttled.sum());
+            stats.put("rejected", bulkhead.rejected.sum());
+            classes.put(bulkhead.endpointClass.key, stats);
+        }
+
+        Map<String, Object> rate = new LinkedHashMap<>();
+        rate.put("tokensPerSecond", tokensPerSecond);
+        rate.put("burst", burst);
+        rate.put("trackedTenants", tenants.estimatedSize());
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("rate", rate);
+        statistics.put("classes", classes);
+        return statistics;
+    }
+
+    private static class Bulkhead {
+        private final EndpointClass endpointClass;
+        private final int maxConcurrent;
+        private final int maxPerTenant;
+        private final long maxWaitMs;
+        private final int maxQueue;
+        private final int cost;
+        private final Semaphore semaphore;
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        Bulkhead(EndpointClass endpointClass, Environment environment) {
+            String prefix = "bulkhead." + endpointClass.key + ".";
+            this.endpointClass = endpointClass;
+            this.maxConcurrent = environment.getProperty(prefix + "max-concurrent", Integer.class, endpointClass.defaultMaxConcurrent);
+            this.maxPerTenant = environment.getProperty(prefix + "max-per-tenant", Integer.class, endpointClass.defaultMaxPerTenant);
+            this.maxWaitMs = environment.getProperty(prefix + "max-wait-ms", Long.class, endpointClass.defaultMaxWaitMs);
+            this.maxQueue = environment.getProperty(prefix + "max-queue", Integer.class, endpointClass.defaultMaxQueue);
+            this.cost = environment.getProperty(prefix + "cost", Integer.class, endpointClass.defaultCost);
+            // Fair, so queued requests are served in arrival order
+            this.semaphore = new Semaphore(maxConcurrent, true);
+        }
+    }
+
+    private static class TenantState {
+        private final Map<EndpointClass, AtomicInteger> inFlight = new EnumMap<>(EndpointClass.class);
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        TenantState(int burst) {
+            this.tokens = burst;
+            for (EndpointClass endpointClass : EndpointClass.values()) {
+                inFlight.put(endpointClass, new AtomicInteger());
+            }
+        }
+
+        // Returns 0 when the tokens were taken, otherwise how long until enough have refilled
+        synchronized long tryConsume(int cost, double tokensPerSecond, int burst) {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerSecond / 1_000_000_000d);
+            refilledAt = now;
+            if (tokens >= cost) {
+                tokens -= cost;
+                return 0;
+            }
+            return (long) Math.ceil((cost - tokens) / tokensPerSecond * 1_000_000_000d);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.rewixxcloudapp.service;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Keeps node-local caches coherent across instances. Committed changes to
+ * second-level-cached entities are broadcast on the configured
+ * {@link CacheInvalidationChannel}; receivers evict the entity, its collections and
+ * the query cache. Application caches register their own evictors by name.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+    private static final String ENTITY_PREFIX = "entity:";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheInvalidationChannel channel;
+
+    private final Map<String, List<Consumer<String>>> evictors = new ConcurrentHashMap<>();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private SessionFactoryImplementor sessionFactory;
+
+    @PostConstruct
+    public void init() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        EntityChangeListener listener = new EntityChangeListener();
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+        channel.setListener(this::applyRemote);
+        logger.info("Cache invalidation bus using '{}' channel (node {})", channel.getName(), channel.getNodeId());
+    }
+
+    /**
+     * Registers how to evict one key of an application-level cache. Several caches
+     * derived from the same data may register under the same name.
+     */
+    public void register(String cacheName, Consumer<String> evictor) {
+        evictors.computeIfAbsent(cacheName, name -> new CopyOnWriteArrayList<>()).add(evictor);
+    }
+
+    /** Evicts locally and on every other instance. */
+    public void invalidate(String cacheName, String key) {
+        evictLocal(cacheName, key);
+        broadcast(cacheName, key);
+    }
+
+    public String getChannelName() {
+        return channel.getName();
+    }
+
+    public String getNodeId() {
+        return channel.getNodeId();
+    }
+
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    private void broadcast(String cacheName, String key) {
+        published.incrementAndGet();
+        channel.publish(cacheName, key);
+    }
+
+    private void applyRemote(String cacheName, String key) {
+        received.incrementAndGet();
+        if (cacheName.startsWith(ENTITY_PREFIX)) {
+            evictEntity(cacheName.substring(ENTITY_PREFIX.length()), key);
+            return;
+        }
+        evictLocal(cacheName, key);
+    }
+
+    private void evictLocal(String cacheName, String key) {
+        for (Consumer<String> evictor : evictors.getOrDefault(cacheName, Collections.emptyList())) {
+            evictor.accept(key);
+        }
+    }
+
+    private void evictEntity(String entityName, String key) {
+        EntityPersister persister = sessionFactory.getMetamodel().entityPersister(entityName);
+        Serializable id = Long.class.equals(persister.getIdentifierType().getReturnedClass()) ? Long.valueOf(key) : key;
+        sessionFactory.getCache().evictEntityData(entityName, id);
+        for (CollectionPersister collection : sessionFactory.getMetamodel().collectionPersisters().values()) {
+            if (collection.hasCache() && collection.getOwnerEntityPersister().isSubclassEntityName(entityName)) {
+                sessionFactory.getCache().evictCollectionData(collection.getRole(), id);
+            }
+        }
+        // Remote query results may reference (or miss) the changed row
+        sessionFactory.getCache().evictQueryRegions();
+    }
+
+    private class EntityChangeListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+            PostCommitDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            announce(event.getPersister(), event.getId());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            announce(event.getPersister(), event.getId());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            announce(event.getPersister(), event.getId());
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        }
+
+        // Only entities that live in the second-level cache need to be announced
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return persister.canWriteToCache();
+        }
+
+        private void announce(EntityPersister persister, Serializable id) {
+            if (persister.canWriteToCache()) {
+                broadcast(ENTITY_PREFIX + persister.getEntityName(), String.valueOf(id));
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.rewixxcloudapp.service;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Carries cache invalidations between app instances. Selected with
+ * {@code cache.invalidation.channel}: {@code local} (single instance, the default)
+ * or {@code jdbc} (a shared table polled by every instance).
+ */
+public interface CacheInvalidationChannel {
+
+    String getName();
+
+    String getNodeId();
+
+    /** Sends (cacheName, key) to every other instance. */
+    void publish(String cacheName, String key);
+
+    /** Receives invalidations published by other instances. */
+    void setListener(BiConsumer<String, String> listener);
+}
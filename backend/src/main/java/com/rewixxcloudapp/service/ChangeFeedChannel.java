@@ -0,0 +1,24 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.dto.ChangeEvent;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries change-feed events between app instances. Selected with
+ * {@code changes.channel}: {@code local} (single instance, the default) or
+ * {@code postgres} (LISTEN/NOTIFY on the shared database).
+ */
+public interface ChangeFeedChannel {
+
+    String getName();
+
+    /** Sends an event committed on this instance, with its origin and id, to every other instance. */
+    void publish(ChangeEvent event);
+
+    /**
+     * Receives events published by other instances. {@code onGap} runs when events
+     * may have been lost (a dropped connection), so resuming streams start over.
+     */
+    void setListener(Consumer<ChangeEvent> listener, Runnable onGap);
+}
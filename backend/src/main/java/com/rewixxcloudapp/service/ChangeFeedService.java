@@ -0,0 +1,388 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.dto.ChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-tenant feed of committed job, payment, expense and contract writes, so
+ * clients refresh what changed instead of polling lists. Services publish from
+ * their write paths; events are released after the transaction commits (dropped
+ * on rollback), kept in a bounded per-tenant ring buffer for resuming, pushed to
+ * the tenant's open SSE streams and sent to other instances on the
+ * {@link ChangeFeedChannel}.
+ * <p>
+ * The instance that commits a write gives the event its origin and id, and other
+ * instances buffer it under the same ones. Instances receive each other's events
+ * in different orders, though, so a stream's position (its SSE id, and the client's
+ * Last-Event-ID) is this instance's buffer position, prefixed with this instance's
+ * id. A resume from another instance (or from before a restart), or from before what
+ * the buffer still holds, gets a {@code reset} event instead, and the client reloads.
+ * <p>
+ * Each stream has its own send queue, so a slow client holds up only itself; one
+ * that falls {@code changes.max-queued-per-stream} events behind is dropped and
+ * resumes from its Last-Event-ID when it reconnects.
+ */
+@Service
+public class ChangeFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedService.class);
+
+    @Autowired
+    private ChangeFeedChannel channel;
+
+    @Value("${changes.buffer-size:1000}")
+    private int bufferSize;
+
+    @Value("${changes.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${changes.max-streams-per-user:10}")
+    private int maxStreamsPerUser;
+
+    @Value("${changes.max-queued-per-stream:256}")
+    private int maxQueuedPerStream;
+
+    @Value("${changes.reconnect-ms:3000}")
+    private long reconnectMs;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<Long, TenantFeed> feeds = new ConcurrentHashMap<>();
+    // Ids of the events committed here
+    private final AtomicLong lastOriginId = new AtomicLong();
+    // Buffer positions of every event seen here, local or not
+    private final AtomicLong lastPosition = new AtomicLong();
+
+    // Drains the streams' queues; a stream is drained by one thread at a time, so it stays in order
+    private ExecutorService sender;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threads = new AtomicInteger();
+        sender = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        channel.setListener(this::receive, this::resetAll);
+        logger.info("Change feed using '{}' channel (node {}), {} events buffered per tenant",
+                channel.getName(), nodeId, bufferSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (TenantFeed feed : feeds.values()) {
+            for (Stream stream : feed.streams) {
+                stream.emitter.complete();
+            }
+        }
+        sender.shutdown();
+    }
+
+    /**
+     * Records a change. Inside a transaction the event is released when it commits,
+     * and never if it rolls back; outside one it is released immediately.
+     */
+    public void publish(Long userId, String type, String action, Long entityId, Long jobId) {
+        if (userId == null || entityId == null) {
+            return;
+        }
+        ChangeEvent event = new ChangeEvent(userId, type, action, entityId, jobId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release(event);
+                }
+            });
+        } else {
+            release(event);
+        }
+    }
+
+    public void publish(Long userId, String type, String action, Long entityId) {
+        publish(userId, type, action, entityId, null);
+    }
+
+    /**
+     * Opens a stream for the tenant. With a Last-Event-ID the buffered events after
+     * it are replayed first, or a {@code reset} is sent when some are no longer
+     * buffered or it came from another instance; without one the stream starts with
+     * a {@code ready} event whose id is the point to resume from.
+     *
+     * @throws IllegalArgumentException when the Last-Event-ID is malformed
+     * @throws IllegalStateException when the tenant already has too many streams open
+     */
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        long resumeFrom = lastEventId != null ? position(lastEventId) : 0;
+        TenantFeed feed = feed(userId);
+        Stream stream = new Stream(feed, new SseEmitter(emitterTimeoutMs));
+        synchronized (feed) {
+            if (feed.streams.size() >= maxStreamsPerUser) {
+                throw new IllegalStateException("Too many open change streams");
+            }
+            List<Buffered> replay = lastEventId != null ? feed.since(resumeFrom) : Collections.emptyList();
+            String position = cursor(lastPosition.get());
+            // Queued under the feed's lock, so nothing published meanwhile can overtake the replay
+            if (replay == null) {
+                stream.enqueue(SseEmitter.event().name("reset").id(position).reconnectTime(reconnectMs)
+                        .data(Collections.singletonMap("lastEventId", position)));
+            } else if (lastEventId == null) {
+                stream.enqueue(SseEmitter.event().name("ready").id(position).reconnectTime(reconnectMs)
+                        .data(Collections.singletonMap("lastEventId", position)));
+            } else {
+                for (Buffered buffered : replay) {
+                    stream.enqueue(change(buffered));
+                }
+            }
+            feed.streams.add(stream);
+        }
+        stream.emitter.onCompletion(stream::close);
+        stream.emitter.onTimeout(stream::close);
+        stream.emitter.onError(e -> stream.close());
+        return stream.emitter;
+    }
+
+    /**
+     * The buffered events after {@code since}, for clients that poll instead of
+     * streaming. {@code reset} is true when some of them are no longer buffered
+     * (or {@code since} came from another instance); {@code lastEventId} is where
+     * the next poll continues.
+     *
+     * @throws IllegalArgumentException when {@code since} is malformed
+     */
+    public Map<String, Object> getChanges(Long userId, String since) {
+        long resumeFrom = since != null ? position(since) : 0;
+        TenantFeed feed = feed(userId);
+        List<Buffered> buffered;
+        long position;
+        synchronized (feed) {
+            buffered = since != null ? feed.since(resumeFrom) : Collections.emptyList();
+            position = lastPosition.get();
+        }
+        List<ChangeEvent> events = new ArrayList<>();
+        if (buffered != null) {
+            buffered.forEach(entry -> events.add(entry.event));
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("events", events);
+        result.put("reset", buffered == null);
+        result.put("lastEventId", cursor(position));
+        return result;
+    }
+
+    public int getOpenStreams() {
+        int open = 0;
+        for (TenantFeed feed : feeds.values()) {
+            open += feed.streams.size();
+        }
+        return open;
+    }
+
+    // Proxies close idle connections; a comment line keeps them open and finds dead clients
+    @Scheduled(fixedDelayString = "${changes.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        for (TenantFeed feed : feeds.values()) {
+            for (Stream stream : feed.streams) {
+                stream.enqueue(SseEmitter.event().comment("ping"));
+            }
+        }
+    }
+
+    // A committed local write: identify it, buffer, push, and tell the other instances
+    private void release(ChangeEvent event) {
+        ChangeEvent identified = event.withOrigin(nodeId, lastOriginId.incrementAndGet());
+        append(identified);
+        channel.publish(identified);
+    }
+
+    // Another instance's write, already identified there
+    private void receive(ChangeEvent event) {
+        append(event);
+    }
+
+    private void append(ChangeEvent event) {
+        TenantFeed feed = feed(event.getUserId());
+        synchronized (feed) {
+            Buffered buffered = new Buffered(lastPosition.incrementAndGet(), event);
+            feed.add(buffered, bufferSize);
+            for (Stream stream : feed.streams) {
+                stream.enqueue(change(buffered));
+            }
+        }
+    }
+
+    // Events may have been missed: resumes from before now must reload, and so must open streams
+    private void resetAll() {
+        for (TenantFeed feed : feeds.values()) {
+            synchronized (feed) {
+                long floor = lastPosition.incrementAndGet();
+                String position = cursor(floor);
+                feed.floor = floor;
+                feed.events.clear();
+                for (Stream stream : feed.streams) {
+                    stream.enqueue(SseEmitter.event().name("reset").id(position)
+                            .data(Collections.singletonMap("lastEventId", position)));
+                }
+            }
+        }
+    }
+
+    private TenantFeed feed(Long userId) {
+        return feeds.computeIfAbsent(userId, id -> new TenantFeed());
+    }
+
+    private String cursor(long position) {
+        return nodeId + "-" + position;
+    }
+
+    // The buffer position a cursor names, or -1 (before any buffer) for another instance's
+    private long position(String cursor) {
+        String value = cursor.trim();
+        if (!value.startsWith(nodeId + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.substring(nodeId.length() + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid event id: " + cursor);
+        }
+    }
+
+    private SseEmitter.SseEventBuilder change(Buffered buffered) {
+        return SseEmitter.event().name("change").id(cursor(buffered.position)).data(buffered.event);
+    }
+
+    /** An event and where it sits in this instance's buffers. */
+    private static class Buffered {
+
+        private final long position;
+        private final ChangeEvent event;
+
+        Buffered(long position, ChangeEvent event) {
+            this.position = position;
+            this.event = event;
+        }
+    }
+
+    /** One tenant's ring buffer and open streams. Guarded by its own monitor. */
+    private static class TenantFeed {
+
+        private final ArrayDeque<Buffered> events = new ArrayDeque<>();
+        private final List<Stream> streams = new CopyOnWriteArrayList<>();
+        // Events up to this position may be missing from the buffer (evicted, or lost in a channel gap)
+        private long floor;
+
+        void add(Buffered event, int capacity) {
+            if (events.size() >= capacity) {
+                floor = events.removeFirst().position;
+            }
+            events.addLast(event);
+        }
+
+        // The events after position, or null when some of them are no longer buffered
+        List<Buffered> since(long position) {
+            if (position < floor) {
+                return null;
+            }
+            List<Buffered> result = new ArrayList<>();
+            for (Buffered event : events) {
+                if (event.position > position) {
+                    result.add(event);
+                }
+            }
+            return result;
+        }
+    }
+
+    /** One open SSE stream and the events waiting to be written to it. Guarded by its own monitor. */
+    private class Stream {
+
+        private final TenantFeed feed;
+        private final SseEmitter emitter;
+        private final ArrayDeque<SseEmitter.SseEventBuilder> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        Stream(TenantFeed feed, SseEmitter emitter) {
+            this.feed = feed;
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (queue.size() < maxQueuedPerStream) {
+                    queue.addLast(event);
+                    if (!draining) {
+                        draining = true;
+                        sender.execute(this::drain);
+                    }
+                    return;
+                }
+            }
+            // Too far behind: it resumes from its Last-Event-ID on reconnect, from the buffer or with a reset
+            logger.debug("Dropping change stream with {} events queued", maxQueuedPerStream);
+            close();
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                logger.debug("Change stream already completed: {}", e.getMessage());
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                closed = true;
+                queue.clear();
+            }
+            feed.streams.remove(this);
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    event = queue.pollFirst();
+                    if (event == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away; the container completes the emitter
+                    close();
+                    logger.debug("Dropping change stream: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
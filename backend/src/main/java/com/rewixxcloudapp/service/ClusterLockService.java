@@ -0,0 +1,129 @@
+package com.rewixxcloudapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Named leases in a shared {@code cluster_locks} table, so work that must run on
+ * one instance at a time (startup migrations, whole-table background jobs) is done
+ * by whichever node holds the lease. A lease expires after its ttl, so a node that
+ * dies while holding one only delays the others; the ttl must therefore outlast the
+ * work, and the instances' clocks must agree to well within it.
+ */
+@Component
+public class ClusterLockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterLockService.class);
+    private static final long POLL_INTERVAL_MS = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @PostConstruct
+    public void init() {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS cluster_locks (" +
+                    "name VARCHAR(100) NOT NULL PRIMARY KEY, " +
+                    "owner VARCHAR(64), " +
+                    "acquired_at TIMESTAMP, " +
+                    "expires_at TIMESTAMP NOT NULL)");
+        } catch (DataAccessException e) {
+            // Another instance starting at the same moment created it first
+            logger.debug("cluster_locks table not created: {}", e.getMessage());
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Takes the lease if it is free, expired or already ours (which extends it).
+     * Never waits.
+     */
+    public boolean tryAcquire(String name, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp expiresAt = Timestamp.valueOf(now.plus(ttl));
+        int updated = jdbcTemplate.update("UPDATE cluster_locks SET owner = ?, acquired_at = ?, expires_at = ? " +
+                        "WHERE name = ? AND (owner IS NULL OR owner = ? OR expires_at < ?)",
+                nodeId, Timestamp.valueOf(now), expiresAt, name, nodeId, Timestamp.valueOf(now));
+        if (updated == 1) {
+            return true;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO cluster_locks (name, owner, acquired_at, expires_at) VALUES (?, ?, ?, ?)",
+                    name, nodeId, Timestamp.valueOf(now), expiresAt);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // The row exists and someone else holds it
+            return false;
+        }
+    }
+
+    /**
+     * Waits up to {@code maxWait} for the lease.
+     *
+     * @return false if another instance still held it when the wait ran out
+     */
+    public boolean acquire(String name, Duration ttl, Duration maxWait) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + maxWait.toMillis();
+        boolean announced = false;
+        while (!tryAcquire(name, ttl)) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            if (!announced) {
+                logger.info("Waiting for lock '{}' held by {}", name, getOwner(name));
+                announced = true;
+            }
+            Thread.sleep(POLL_INTERVAL_MS);
+        }
+        return true;
+    }
+
+    /** Gives the lease up if this node holds it. */
+    public void release(String name) {
+        jdbcTemplate.update("UPDATE cluster_locks SET owner = NULL, expires_at = ? WHERE name = ? AND owner = ?",
+                Timestamp.valueOf(LocalDateTime.now()), name, nodeId);
+    }
+
+    /**
+     * Runs the task if this node gets the lease, then releases it.
+     *
+     * @return false if another instance holds the lease and the task was skipped
+     */
+    public boolean runExclusively(String name, Duration ttl, Runnable task) {
+        if (!tryAcquire(name, ttl)) {
+            logger.debug("Skipping '{}': held by {}", name, getOwner(name));
+            return false;
+        }
+        try {
+            task.run();
+        } finally {
+            release(name);
+        }
+        return true;
+    }
+
+    /** The node holding an unexpired lease, or null. */
+    public String getOwner(String name) {
+        List<String> owners = jdbcTemplate.queryForList(
+                "SELECT owner FROM cluster_locks WHERE name = ? AND expires_at >= ?", String.class,
+                name, Timestamp.valueOf(LocalDateTime.now()));
+        return owners.isEmpty() ? null : owners.get(0);
+    }
+}
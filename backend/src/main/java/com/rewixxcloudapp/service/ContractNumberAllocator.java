@@ -0,0 +1,194 @@
+package com.rewixxcloudapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out contract sequence numbers per tenant and year from the
+ * {@code contract_sequences} counter table. Each reservation is one atomic
+ * increment in the caller's transaction, so numbers are never handed out twice
+ * and never reused after a delete, and a rolled-back create gives its number back.
+ * Tenants that create contracts quickly get growing blocks reserved; the rest of a
+ * block is kept in memory only once the reservation has committed. Unused numbers
+ * of a block are skipped on restart, never reissued.
+ */
+@Component
+public class ContractNumberAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContractNumberAllocator.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${contracts.number.max-block-size:64}")
+    private int maxBlockSize;
+
+    // A block used up faster than this counts as high volume and the next one doubles
+    @Value("${contracts.number.block-window-ms:60000}")
+    private long blockWindowMs;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+    private String incrementSql;
+    private boolean incrementReturnsValue;
+    private String seedSql;
+
+    @PostConstruct
+    public void init() throws SQLException {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS contract_sequences (" +
+                "user_id BIGINT NOT NULL, " +
+                "seq_year INT NOT NULL, " +
+                "next_value BIGINT NOT NULL, " +
+                "PRIMARY KEY (user_id, seq_year))");
+
+        String update = "UPDATE contract_sequences SET next_value = next_value + ? WHERE user_id = ? AND seq_year = ?";
+        String insert = "INSERT INTO contract_sequences (user_id, seq_year, next_value) VALUES (?, ?, ?)";
+        String dbProductName;
+        try (Connection connection = dataSource.getConnection()) {
+            dbProductName = connection.getMetaData().getDatabaseProductName().toLowerCase();
+        }
+        if (dbProductName.contains("postgresql")) {
+            incrementSql = update + " RETURNING next_value";
+            incrementReturnsValue = true;
+            seedSql = insert + " ON CONFLICT DO NOTHING";
+        } else if (dbProductName.contains("h2")) {
+            incrementSql = "SELECT next_value FROM FINAL TABLE (" + update + ")";
+            incrementReturnsValue = true;
+            // Runs in PostgreSQL mode, which accepts ON CONFLICT
+            seedSql = insert + " ON CONFLICT DO NOTHING";
+        } else {
+            // No RETURNING: the row lock taken by the UPDATE makes the follow-up SELECT safe
+            incrementSql = update;
+            incrementReturnsValue = false;
+            seedSql = insert;
+        }
+        logger.info("Contract number allocator using {} increments", incrementReturnsValue ? "single-statement" : "update+select");
+    }
+
+    /**
+     * Next sequence number for the tenant and year, starting after the highest
+     * {@code CTR-<year>-NNNN} number the tenant already has. Call inside the
+     * transaction that stores the number.
+     */
+    public long next(Long userId, int year) {
+        Block block = blocks.computeIfAbsent(userId + ":" + year, key -> new Block());
+        int size;
+        synchronized (block) {
+            if (block.next < block.end) {
+                return block.next++;
+            }
+            long now = System.currentTimeMillis();
+            if (block.size == 0) {
+                block.size = 1;
+            } else if (now - block.reservedAt < blockWindowMs) {
+                block.size = Math.min(block.size * 2, maxBlockSize);
+            } else {
+                block.size = 1;
+            }
+            block.reservedAt = now;
+            size = block.size;
+        }
+        // Outside the lock: the increment waits for other transactions holding the counter row
+        long end = reserve(userId, year, size);
+        long first = end - size;
+        if (size > 1) {
+            publishAfterCommit(block, first + 1, end);
+        }
+        return first;
+    }
+
+    // The rest of the block must not be handed out if the reservation rolls back
+    private void publishAfterCommit(Block block, long next, long end) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            block.publish(next, end);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                block.publish(next, end);
+            }
+        });
+    }
+
+    /** Atomically advances the counter by {@code count}; returns the new (exclusive) end. */
+    private long reserve(Long userId, int year, int count) {
+        Long end = increment(userId, year, count);
+        if (end == null) {
+            seed(userId, year);
+            end = increment(userId, year, count);
+        }
+        if (end == null) {
+            throw new IllegalStateException("Could not reserve contract numbers for user " + userId);
+        }
+        return end;
+    }
+
+    private Long increment(Long userId, int year, int count) {
+        if (incrementReturnsValue) {
+            List<Long> values = jdbcTemplate.queryForList(incrementSql, Long.class, count, userId, year);
+            return values.isEmpty() ? null : values.get(0);
+        }
+        if (jdbcTemplate.update(incrementSql, count, userId, year) == 0) {
+            return null;
+        }
+        return jdbcTemplate.queryForObject(
+                "SELECT next_value FROM contract_sequences WHERE user_id = ? AND seq_year = ?", Long.class, userId, year);
+    }
+
+    // First reservation for a tenant/year: continue after contracts numbered before the counter existed
+    private void seed(Long userId, int year) {
+        String prefix = "CTR-" + year + "-";
+        long highest = 0;
+        for (String number : jdbcTemplate.queryForList(
+                "SELECT contract_number FROM contracts WHERE user_id = ? AND contract_number LIKE ?",
+                String.class, userId, prefix + "%")) {
+            try {
+                highest = Math.max(highest, Long.parseLong(number.substring(prefix.length())));
+            } catch (NumberFormatException e) {
+                // Hand-entered number that only shares the prefix
+            }
+        }
+        long first = highest + 1;
+        try {
+            // A concurrent seed wins: the insert waits for it to commit and then does nothing
+            if (jdbcTemplate.update(seedSql, userId, year, first) > 0) {
+                logger.info("Contract sequence for user {} / {} starts at {}", userId, year, first);
+            }
+        } catch (DuplicateKeyException e) {
+            // Another instance seeded it first (databases without ON CONFLICT)
+        }
+    }
+
+    private static class Block {
+        long next;
+        long end;
+        int size;
+        long reservedAt;
+
+        // Kept only if the block has run out meanwhile; otherwise these numbers are skipped
+        synchronized void publish(long next, long end) {
+            if (this.next >= this.end) {
+                this.next = next;
+                this.end = end;
+            }
+        }
+    }
+}
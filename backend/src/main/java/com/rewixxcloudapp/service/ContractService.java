@@ -1,28 +1,33 @@
 package com.rewixxcloudapp.service;
 
+import com.rewixxcloudapp.dto.ChangeEvent;
 import com.rewixxcloudapp.dto.ContractDto;
 import com.rewixxcloudapp.entity.Contract;
 import com.rewixxcloudapp.entity.ContractStatus;
 import com.rewixxcloudapp.entity.Customer;
 import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.entity.JobFinancials;
 import com.rewixxcloudapp.entity.Payment;
 import com.rewixxcloudapp.repository.ContractRepository;
 import com.rewixxcloudapp.repository.CustomerRepository;
 import com.rewixxcloudapp.repository.JobRepository;
-import com.rewixxcloudapp.repository.PaymentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class ContractService {
@@ -37,8 +42,15 @@ public class ContractService {
     private JobRepository jobRepository;
 
     @Autowired
-    private PaymentRepository paymentRepository;
+    private ContractNumberAllocator contractNumberAllocator;
 
+    @Autowired
+    private JobFinancialsService jobFinancialsService;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Transactional
     public Contract createContract(ContractDto dto, Long userId) {
         Contract contract = new Contract();
         contract.setUserId(userId);
@@ -111,9 +123,12 @@ public class ContractService {
             }
         }
 
-        return contractRepository.save(contract);
+        Contract savedContract = contractRepository.save(contract);
+        publish(savedContract, ChangeEvent.CREATED);
+        return savedContract;
     }
 
+    @Transactional(readOnly = true)
     public Optional<Contract> getContractById(Long id, Long userId) {
         Optional<Contract> contractOpt = contractRepository.findByIdAndUserId(id, userId);
         if (contractOpt.isPresent()) {
@@ -124,10 +139,12 @@ public class ContractService {
         return contractOpt;
     }
 
+    @Transactional(readOnly = true)
     public List<Contract> getAllContracts(Long userId) {
         return contractRepository.findByUserIdOrderByContractDateDesc(userId);
     }
 
+    @Transactional(readOnly = true)
     public Map<String, Object> getContractsList(int page, int pageSize, String searchTerm, Long userId) {
         PageRequest pageRequest = PageRequest.of(page, pageSize, Sort.by(Sort.Direction.DESC, "contractDate"));
 
@@ -138,11 +155,9 @@ public class ContractService {
             contractPage = contractRepository.findByUserId(userId, pageRequest);
         }
 
-        // Sync contract price and status with connected job
+        // Sync contract price and status with connected job (one financials lookup for the page)
         List<Contract> contracts = contractPage.getContent();
-        for (Contract contract : contracts) {
-            syncContractWithJob(contract);
-        }
+        syncContractsWithJobs(contracts);
 
         Map<String, Object> result = new HashMap<>();
         result.put("contracts", contracts);
@@ -154,32 +169,37 @@ public class ContractService {
     }
 
     private void syncContractWithJob(Contract contract) {
-        if (contract.getJob() == null) {
+        syncContractsWithJobs(Collections.singletonList(contract));
+    }
+
+    private void syncContractsWithJobs(List<Contract> contracts) {
+        Set<Job> jobs = new HashSet<>();
+        for (Contract contract : contracts) {
+            if (contract.getJob() != null) {
+                jobs.add(contract.getJob());
+            }
+        }
+        if (jobs.isEmpty()) {
             return; // No job connected, keep contract values as-is
         }
 
-        Job job = contract.getJob();
-
-        // Calculate total job cost (material cost + job price + tax)
-        BigDecimal materialCost = job.getCustomMaterialCost() != null ?
-            BigDecimal.valueOf(job.getCustomMaterialCost()) : BigDecimal.ZERO;
-        BigDecimal jobPrice = job.getJobPrice() != null ?
-            BigDecimal.valueOf(job.getJobPrice()) : BigDecimal.ZERO;
+        Map<Long, JobFinancials> financialsByJob = jobFinancialsService.getFinancials(jobs);
+        for (Contract contract : contracts) {
+            if (contract.getJob() != null) {
+                contract.getJob().setFinancials(financialsByJob.get(contract.getJob().getId()));
+                applyJobTotals(contract, financialsByJob.get(contract.getJob().getId()));
+            }
+        }
+    }
 
-        BigDecimal subtotal = materialCost.add(jobPrice);
-        BigDecimal tax = (job.getIncludeTax() != null && job.getIncludeTax()) ?
-            subtotal.multiply(BigDecimal.valueOf(0.06)) : BigDecimal.ZERO;
-        BigDecimal totalJobCost = subtotal.add(tax);
+    private void applyJobTotals(Contract contract, JobFinancials financials) {
+        // Total job cost (material cost + job price + tenant tax) and payments, as maintained on write
+        BigDecimal totalJobCost = financials.getTotal();
+        BigDecimal totalPaid = financials.getPaid();
 
         // Update contract price to match job total cost
         contract.setTotalPrice(totalJobCost);
 
-        // Calculate payment status from job payments
-        BigDecimal totalPaid = paymentRepository.getTotalPaidByJobId(job.getId());
-        if (totalPaid == null) {
-            totalPaid = BigDecimal.ZERO;
-        }
-
         // Determine contract status based on payment status
         ContractStatus contractStatus = ContractStatus.UNPAID;
         if (totalJobCost.compareTo(BigDecimal.ZERO) > 0) {
@@ -194,6 +214,7 @@ public class ContractService {
         contract.setStatus(contractStatus);
     }
 
+    @Transactional
     public Contract updateContract(Long id, ContractDto dto, Long userId) {
         Optional<Contract> contractOpt = contractRepository.findByIdAndUserId(id, userId);
         if (contractOpt.isEmpty()) {
@@ -263,14 +284,27 @@ public class ContractService {
             }
         }
 
-        return contractRepository.save(contract);
+        Contract savedContract = contractRepository.save(contract);
+        publish(savedContract, ChangeEvent.UPDATED);
+        return savedContract;
     }
 
+    @Transactional
     public void deleteContract(Long id, Long userId) {
         Optional<Contract> contract = contractRepository.findByIdAndUserId(id, userId);
-        contract.ifPresent(contractRepository::delete);
+        contract.ifPresent(c -> {
+            contractRepository.delete(c);
+            publish(c, ChangeEvent.DELETED);
+        });
+    }
+
+    // Carries the linked job's id: a contract write may also have synced the job's description
+    private void publish(Contract contract, String action) {
+        changeFeedService.publish(contract.getUserId(), ChangeEvent.CONTRACT, action, contract.getId(),
+                contract.getJob() != null ? contract.getJob().getId() : null);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Contract> getContractByJobId(Long jobId, Long userId) {
         Optional<Contract> contractOpt = contractRepository.findByJobIdAndUserId(jobId, userId);
         if (contractOpt.isPresent()) {
@@ -284,7 +318,6 @@ public class ContractService {
     private String generateContractNumber(Long userId) {
         // Format: CTR-YYYY-XXXX where XXXX is sequential per user
         int year = LocalDate.now().getYear();
-        long count = contractRepository.countByUserId(userId) + 1;
-        return String.format("CTR-%d-%04d", year, count);
+        return String.format("CTR-%d-%04d", year, contractNumberAllocator.next(userId, year));
     }
 }
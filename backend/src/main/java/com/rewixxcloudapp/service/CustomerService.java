@@ -1,6 +1,7 @@
 package com.rewixxcloudapp.service;
 
 import com.rewixxcloudapp.entity.Customer;
+import com.rewixxcloudapp.entity.CustomerStats;
 import com.rewixxcloudapp.entity.Job;
 import com.rewixxcloudapp.repository.CustomerRepository;
 import com.rewixxcloudapp.repository.JobRepository;
@@ -8,6 +9,7 @@ import com.rewixxcloudapp.dto.CustomerDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 import org.slf4j.Logger;
@@ -27,6 +29,9 @@ public class CustomerService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CustomerStatsService customerStatsService;
+
     public Optional<Customer> getCustomerById(Long id, Long userId) {
         return customerRepository.findByIdAndUserId(id, userId);
     }
@@ -35,6 +40,7 @@ public class CustomerService {
         return customerRepository.save(customer);
     }
 
+    @Transactional
     public Customer createCustomer(CustomerDto dto, Long userId) {
         if (customerRepository.findByUsernameAndUserId(dto.getUsername(), userId).isPresent()) {
             throw new RuntimeException("Email already exists");
@@ -61,9 +67,12 @@ public class CustomerService {
         customer.setCity(dto.getCity());
         customer.setState(dto.getState());
         customer.setZip(dto.getZip());
-        return customerRepository.save(customer);
+        Customer savedCustomer = customerRepository.save(customer);
+        customerStatsService.create(savedCustomer);
+        return savedCustomer;
     }
 
+    @Transactional
     public Customer updateCustomerFromDto(Customer customer, CustomerDto dto) {
         if (dto.getUsername() != null) {
             // Check if username is being changed and if it already exists
@@ -100,6 +109,7 @@ public class CustomerService {
         return customerRepository.save(customer);
     }
 
+    @Transactional
     public void deleteCustomerById(Long id, Long userId) {
         try {
             Optional<Customer> customerOpt = customerRepository.findByIdAndUserId(id, userId);
@@ -118,6 +128,7 @@ public class CustomerService {
             
             // Now delete the customer
             customerRepository.deleteById(id);
+            customerStatsService.delete(id);
             logger.info("Customer with ID {} deleted successfully", id);
         } catch (Exception e) {
             logger.error("Error deleting customer with ID {}: {}", id, e.getMessage(), e);
@@ -125,9 +136,40 @@ public class CustomerService {
         }
     }
 
+    @Transactional(readOnly = true)
     public Map<String, Object> getCustomersList(int page, int pageSize, String searchTerm, Long userId) {
         List<Customer> customers = customerRepository.findCustomersWithSearch(searchTerm, page, pageSize, userId);
         long totalCustomers = customerRepository.countCustomersWithSearch(searchTerm, userId);
+        customerStatsService.attach(customers);
+        return pageResult(customers, totalCustomers, page, pageSize);
+    }
+
+    /**
+     * Customers with their lifetime stats, ordered by one of
+     * {@link CustomerStatsService#SORT_PROPERTIES} (descending unless {@code ascending}).
+     * Sorting and paging run on the indexed customer_stats columns.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getCustomerInsights(int page, int pageSize, String searchTerm, String sortBy,
+                                                   boolean ascending, Long userId) {
+        String sortProperty = CustomerStatsService.SORT_PROPERTIES.get(sortBy);
+        if (sortProperty == null) {
+            throw new IllegalArgumentException("sortBy must be one of " + new TreeSet<>(CustomerStatsService.SORT_PROPERTIES.keySet()));
+        }
+        List<Customer> customers = new ArrayList<>();
+        for (Object[] row : customerRepository.findCustomerInsights(searchTerm, sortProperty, ascending, page, pageSize, userId)) {
+            Customer customer = (Customer) row[0];
+            customer.setStats((CustomerStats) row[1]);
+            customers.add(customer);
+        }
+        long totalCustomers = customerRepository.countCustomerInsights(searchTerm, userId);
+        Map<String, Object> result = pageResult(customers, totalCustomers, page, pageSize);
+        result.put("sortBy", sortBy);
+        result.put("direction", ascending ? "asc" : "desc");
+        return result;
+    }
+
+    private static Map<String, Object> pageResult(List<Customer> customers, long totalCustomers, int page, int pageSize) {
         int totalPages = (int) Math.ceil((double) totalCustomers / pageSize);
 
         Map<String, Object> result = new HashMap<>();
@@ -0,0 +1,328 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.entity.Customer;
+import com.rewixxcloudapp.entity.CustomerStats;
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.entity.JobFinancials;
+import com.rewixxcloudapp.entity.Payment;
+import com.rewixxcloudapp.repository.CustomerRepository;
+import com.rewixxcloudapp.repository.CustomerStatsRepository;
+import com.rewixxcloudapp.repository.JobRepository;
+import com.rewixxcloudapp.repository.PaymentRepository;
+import com.rewixxcloudapp.repository.SaleRepository;
+import com.rewixxcloudapp.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Maintains the {@link CustomerStats} rows. Payments add to their customer's row
+ * with one UPDATE; job and material writes, whose effect on the totals is not a
+ * simple delta (re-pricing, a job moving to another customer), recompute that one
+ * customer's row from the job financials summary. Both run in the transaction of
+ * the write. {@link #checkConsistency()} recomputes every row and repairs drift.
+ */
+@Service
+public class CustomerStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerStatsService.class);
+
+    // Sort keys accepted by the insights API, and the CustomerStats property each orders by
+    public static final Map<String, String> SORT_PROPERTIES = Map.of(
+            "lifetimeRevenue", "lifetimeRevenueCents",
+            "outstandingBalance", "outstandingCents",
+            "jobCount", "jobCount",
+            "lastActivity", "lastActivityDate");
+
+    @Autowired
+    private CustomerStatsRepository customerStatsRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private JobFinancialsService jobFinancialsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${customer-stats.checker.batch-size:200}")
+    private int checkerBatchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /** Creates the empty row of a new customer, so it shows up in insights before its first job. */
+    public void create(Customer customer) {
+        customerStatsRepository.save(new CustomerStats(customer.getId(), customer.getUserId()));
+    }
+
+    /**
+     * Recomputes one customer's row after a job or material write. Call inside the
+     * transaction that made the change (after the job's financials were refreshed).
+     * Does nothing for jobs without a customer.
+     */
+    public void refresh(Customer customer) {
+        if (customer == null) {
+            return;
+        }
+        refresh(Collections.singletonList(customer));
+    }
+
+    /**
+     * Recomputes the rows of the tenant's customers with taxable jobs once their
+     * financials were re-priced at the new tax rate, in the same transaction.
+     */
+    @EventListener
+    @Order(2)
+    public void onTaxRateChanged(AccountSettingsService.TaxRateChanged event) {
+        Map<Long, Customer> customers = new LinkedHashMap<>();
+        for (Job job : jobRepository.findByUserIdAndIncludeTaxTrue(event.getUserId())) {
+            if (job.getCustomer() != null) {
+                customers.putIfAbsent(job.getCustomer().getId(), job.getCustomer());
+            }
+        }
+        if (!customers.isEmpty()) {
+            refresh(customers.values());
+        }
+    }
+
+    // Locks the rows before computing, so a concurrent payment lands either before or after the recompute
+    private void refresh(Collection<Customer> customers) {
+        Map<Long, CustomerStats> rows = new LinkedHashMap<>();
+        for (Customer customer : customers) {
+            Optional<CustomerStats> locked = customerStatsRepository.lockByCustomerId(customer.getId());
+            if (locked.isEmpty()) {
+                seed(customer);
+                locked = customerStatsRepository.lockByCustomerId(customer.getId());
+                if (locked.isEmpty()) {
+                    // Removed with the customer meanwhile
+                    logger.info("Customer {} stats row gone, skipping refresh", customer.getId());
+                    continue;
+                }
+            }
+            rows.put(customer.getId(), locked.get());
+        }
+        Map<Long, CustomerStats> computed = compute(customers);
+        for (CustomerStats row : rows.values()) {
+            row.copyTotals(computed.get(row.getCustomerId()));
+            customerStatsRepository.save(row);
+        }
+    }
+
+    /**
+     * Adds a payment just recorded in the current transaction to its customer's row.
+     * Falls back to a recompute (which sees the new payment) when the row is missing.
+     */
+    public void addPayment(Payment payment) {
+        Job job = payment.getJob();
+        Customer customer = job.getCustomer();
+        if (customer == null) {
+            return;
+        }
+        LocalDate paymentDate = payment.getPaymentDate().toLocalDate();
+        Long lagDays = lagDays(paymentDate, job.getEndDate(), job.getStartDate());
+        int updated = customerStatsRepository.addPayment(customer.getId(), Money.toCents(payment.getAmount()),
+                lagDays != null ? lagDays : 0, lagDays != null ? 1 : 0, paymentDate);
+        if (updated == 0) {
+            refresh(customer);
+        }
+    }
+
+    public void delete(Long customerId) {
+        customerStatsRepository.findById(customerId).ifPresent(customerStatsRepository::delete);
+    }
+
+    // Inserts an empty row in the caller's transaction; losing the race to a concurrent writer is fine
+    private void seed(Customer customer) {
+        customerStatsRepository.insertIfAbsent(customer.getId(), customer.getUserId());
+    }
+
+    /**
+     * Rows of the given customers by id. Customers without a row yet get one computed
+     * on the fly (not stored; the consistency check backfills them).
+     */
+    public Map<Long, CustomerStats> getStats(Collection<Customer> customers) {
+        if (customers.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Customer> byId = new LinkedHashMap<>();
+        for (Customer customer : customers) {
+            byId.put(customer.getId(), customer);
+        }
+        Map<Long, CustomerStats> stats = new HashMap<>();
+        for (CustomerStats row : customerStatsRepository.findAllById(byId.keySet())) {
+            stats.put(row.getCustomerId(), row);
+        }
+        if (stats.size() < byId.size()) {
+            List<Customer> missing = new ArrayList<>();
+            for (Customer customer : byId.values()) {
+                if (!stats.containsKey(customer.getId())) {
+                    missing.add(customer);
+                }
+            }
+            stats.putAll(compute(missing));
+        }
+        return stats;
+    }
+
+    /** Sets {@link Customer#getStats()} on each customer for list responses. */
+    public void attach(Collection<Customer> customers) {
+        Map<Long, CustomerStats> stats = getStats(customers);
+        for (Customer customer : customers) {
+            customer.setStats(stats.get(customer.getId()));
+        }
+    }
+
+    /**
+     * Recomputes every row from jobs, job financials, payments and sales and repairs
+     * the ones that differ (or are missing). Rows changed concurrently are skipped and
+     * picked up by the next run. Returns the number of rows repaired.
+     */
+    public int checkConsistency() {
+        long started = System.currentTimeMillis();
+        int checked = 0;
+        int repaired = 0;
+        long lastId = 0;
+        List<Customer> customers;
+        do {
+            customers = customerRepository.findByIdGreaterThan(lastId, PageRequest.of(0, checkerBatchSize, Sort.by("id")));
+            if (customers.isEmpty()) {
+                break;
+            }
+            List<Long> customerIds = new ArrayList<>();
+            for (Customer customer : customers) {
+                customerIds.add(customer.getId());
+            }
+            // Rows are read before the source totals: a write landing in between bumps the
+            // row version, so the repair below fails instead of overwriting it
+            Map<Long, CustomerStats> actual = new HashMap<>();
+            for (CustomerStats row : customerStatsRepository.findAllById(customerIds)) {
+                actual.put(row.getCustomerId(), row);
+            }
+            Map<Long, CustomerStats> expected = compute(customers);
+
+            for (Customer customer : customers) {
+                CustomerStats row = actual.get(customer.getId());
+                CustomerStats truth = expected.get(customer.getId());
+                if (row == null || !row.hasSameTotals(truth)) {
+                    if (row != null) {
+                        logger.warn("Customer {} stats drifted: revenue {} paid {} outstanding {} jobs {}, expected revenue {} paid {} outstanding {} jobs {}",
+                                customer.getId(), row.getLifetimeRevenueCents(), row.getPaidCents(), row.getOutstandingCents(), row.getJobCount(),
+                                truth.getLifetimeRevenueCents(), truth.getPaidCents(), truth.getOutstandingCents(), truth.getJobCount());
+                    }
+                    if (repair(row, truth)) {
+                        repaired++;
+                    }
+                }
+            }
+            checked += customers.size();
+            lastId = customers.get(customers.size() - 1).getId();
+        } while (customers.size() == checkerBatchSize);
+
+        Integer orphans = transactionTemplate.execute(status -> customerStatsRepository.deleteOrphans());
+        logger.info("Customer stats check: {} customers checked, {} rows repaired, {} orphaned rows removed in {} ms",
+                checked, repaired, orphans, System.currentTimeMillis() - started);
+        return repaired;
+    }
+
+    private boolean repair(CustomerStats row, CustomerStats truth) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (row == null) {
+                    customerStatsRepository.saveAndFlush(truth);
+                } else {
+                    row.copyTotals(truth);
+                    customerStatsRepository.saveAndFlush(row);
+                }
+            });
+            return true;
+        } catch (DataIntegrityViolationException | ObjectOptimisticLockingFailureException e) {
+            // Written concurrently; the next run checks it again
+            logger.info("Customer {} stats changed during the check, skipping", truth.getCustomerId());
+            return false;
+        }
+    }
+
+    // Totals computed from the source tables: four queries for the whole batch
+    private Map<Long, CustomerStats> compute(Collection<Customer> customers) {
+        Map<Long, CustomerStats> stats = new HashMap<>();
+        for (Customer customer : customers) {
+            stats.put(customer.getId(), new CustomerStats(customer.getId(), customer.getUserId()));
+        }
+
+        List<Job> jobs = jobRepository.findByCustomerIds(stats.keySet());
+        Map<Long, JobFinancials> financials = jobFinancialsService.getFinancials(jobs);
+        for (Job job : jobs) {
+            CustomerStats row = stats.get(job.getCustomer().getId());
+            JobFinancials jobFinancials = financials.get(job.getId());
+            row.setJobCount(row.getJobCount() + 1);
+            row.setLifetimeRevenueCents(row.getLifetimeRevenueCents() + jobFinancials.getTotalCents());
+            row.setPaidCents(row.getPaidCents() + jobFinancials.getPaidCents());
+            row.setOutstandingCents(row.getOutstandingCents() + jobFinancials.getBalanceCents());
+            row.setLastActivityDate(latest(row.getLastActivityDate(), job.getStartDate()));
+        }
+
+        for (Object[] payment : paymentRepository.getPaymentDatesByCustomerIds(stats.keySet())) {
+            CustomerStats row = stats.get((Long) payment[0]);
+            LocalDate paymentDate = ((LocalDateTime) payment[1]).toLocalDate();
+            Long lagDays = lagDays(paymentDate, (LocalDate) payment[2], (LocalDate) payment[3]);
+            if (lagDays != null) {
+                row.setLagDaysTotal(row.getLagDaysTotal() + lagDays);
+                row.setLagPaymentCount(row.getLagPaymentCount() + 1);
+            }
+            row.setLastActivityDate(latest(row.getLastActivityDate(), paymentDate));
+        }
+
+        for (Object[] sale : saleRepository.getLastSaleDateByCustomerIds(stats.keySet())) {
+            CustomerStats row = stats.get((Long) sale[0]);
+            row.setLastActivityDate(latest(row.getLastActivityDate(), ((LocalDateTime) sale[1]).toLocalDate()));
+        }
+        return stats;
+    }
+
+    // Days from the job's end (or start) date to the payment; null when the job has neither
+    private static Long lagDays(LocalDate paymentDate, LocalDate jobEndDate, LocalDate jobStartDate) {
+        LocalDate due = jobEndDate != null ? jobEndDate : jobStartDate;
+        if (due == null) {
+            return null;
+        }
+        return Math.max(0, ChronoUnit.DAYS.between(due, paymentDate));
+    }
+
+    private static LocalDate latest(LocalDate current, LocalDate candidate) {
+        if (candidate == null || (current != null && !candidate.isAfter(current))) {
+            return current;
+        }
+        return candidate;
+    }
+}
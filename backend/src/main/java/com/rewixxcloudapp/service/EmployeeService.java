@@ -4,13 +4,21 @@ import com.rewixxcloudapp.dto.EmployeeDto;
 import com.rewixxcloudapp.entity.Employee;
 import com.rewixxcloudapp.repository.EmployeeRepository;
 import com.rewixxcloudapp.repository.ExpenseRepository;
+import com.rewixxcloudapp.repository.SyncTombstoneRepository;
+import com.rewixxcloudapp.util.SearchNormalizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -18,12 +26,21 @@ public class EmployeeService {
 
     private static final Logger logger = LoggerFactory.getLogger(EmployeeService.class);
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    // Search terms with at least this many digits also match phone numbers
+    private static final int MIN_PHONE_DIGITS = 3;
+
     @Autowired
     private EmployeeRepository employeeRepository;
 
     @Autowired
     private ExpenseRepository expenseRepository;
 
+    @Autowired
+    private SyncTombstoneRepository syncTombstoneRepository;
+
     public List<Employee> getAllEmployees(Long userId) {
         logger.info("Fetching all employees for user {}", userId);
         return employeeRepository.findByUserId(userId);
@@ -34,6 +51,7 @@ public class EmployeeService {
         return employeeRepository.findByActiveTrueAndUserId(userId);
     }
 
+    @Transactional(readOnly = true)
     public List<Employee> searchEmployees(String searchTerm, Long userId) {
         logger.info("Searching employees with term: {} for user {}", searchTerm, userId);
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
@@ -42,11 +60,73 @@ public class EmployeeService {
         return employeeRepository.searchEmployees(searchTerm.trim(), userId);
     }
 
+    /**
+     * One page of the employee directory, ordered by name. {@code cursor} is the
+     * {@code nextCursor} of the previous page (null for the first); the search term
+     * matches the start of any word of the normalized name, or of the phone digits.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getEmployeesPage(String searchTerm, Boolean active, String cursor, Integer limit, Long userId) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String afterName = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = decoded.indexOf('\n');
+                afterId = Long.parseLong(decoded.substring(0, separator));
+                afterName = decoded.substring(separator + 1);
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        List<Employee> employees;
+        boolean searching = searchTerm != null && !searchTerm.trim().isEmpty();
+        String namePrefix = searching ? namePrefix(searchTerm) : null;
+        String phonePrefix = searching ? phonePrefix(searchTerm) : null;
+        if (searching && namePrefix == null && phonePrefix == null) {
+            employees = new ArrayList<>();
+        } else {
+            // One extra row tells whether another page follows
+            employees = employeeRepository.findEmployeesPage(active, namePrefix, phonePrefix, afterName, afterId, pageSize + 1, userId);
+        }
+
+        boolean hasMore = employees.size() > pageSize;
+        if (hasMore) {
+            employees = employees.subList(0, pageSize);
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            Employee last = employees.get(employees.size() - 1);
+            String position = last.getId() + "\n" + last.getSearchName();
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("employees", employees);
+        page.put("hasMore", hasMore);
+        page.put("nextCursor", nextCursor);
+        page.put("limit", pageSize);
+        return page;
+    }
+
+    private static String namePrefix(String searchTerm) {
+        String normalized = SearchNormalizer.normalize(searchTerm);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    private static String phonePrefix(String searchTerm) {
+        String digits = SearchNormalizer.digitsOnly(searchTerm);
+        return digits.length() >= MIN_PHONE_DIGITS ? digits : null;
+    }
+
     public Optional<Employee> getEmployeeById(Long id, Long userId) {
         logger.info("Fetching employee by ID: {} for user {}", id, userId);
         return employeeRepository.findByIdAndUserId(id, userId);
     }
 
+    @Transactional
     public Employee createEmployee(EmployeeDto dto, Long userId) {
         logger.info("Creating employee with name: {}", dto.getName());
 
@@ -65,10 +145,13 @@ public class EmployeeService {
         employee.setActive(dto.getActive() != null ? dto.getActive() : true);
 
         Employee savedEmployee = employeeRepository.save(employee);
-        logger.info("Employee created successfully with ID: {}", savedEmployee.getId());
+        int linked = expenseRepository.linkUnlinkedByEmployeeName(savedEmployee, savedEmployee.getName(), userId,
+                LocalDateTime.now());
+        logger.info("Employee created successfully with ID: {} ({} existing labor expenses linked)", savedEmployee.getId(), linked);
         return savedEmployee;
     }
 
+    @Transactional
     public Employee updateEmployee(Long id, EmployeeDto dto, Long userId) {
         logger.info("Updating employee with ID: {} for user {}", id, userId);
 
@@ -80,8 +163,9 @@ public class EmployeeService {
         Employee employee = employeeOpt.get();
 
         // Update fields if provided
-        if (dto.getName() != null && !dto.getName().trim().isEmpty()) {
+        if (dto.getName() != null && !dto.getName().trim().isEmpty() && !dto.getName().trim().equals(employee.getName())) {
             employee.setName(dto.getName().trim());
+            expenseRepository.renameEmployee(id, employee.getName(), userId, LocalDateTime.now());
         }
         if (dto.getPhone() != null) {
             employee.setPhone(dto.getPhone());
@@ -108,17 +192,21 @@ public class EmployeeService {
     public void deleteEmployee(Long id, Long userId) {
         logger.info("Deleting employee with ID: {} for user {}", id, userId);
 
-        // Fetch employee to get name used in labor expenses
         Employee employee = employeeRepository.findByIdAndUserId(id, userId)
                 .orElseThrow(() -> new IllegalArgumentException("Employee not found with ID: " + id));
 
-        // First delete all expenses associated with this employee (labor expenses reference employeeName)
+        // First delete the employee's labor expenses: those linked by employee_id, plus
+        // legacy rows that only carry the name because they predate the link
         try {
+            LocalDateTime now = LocalDateTime.now();
+            syncTombstoneRepository.recordExpensesOfEmployee(id, userId, now);
+            int deleted = expenseRepository.deleteByEmployeeIdAndUserId(id, userId);
             String employeeName = employee.getName();
             if (employeeName != null && !employeeName.trim().isEmpty()) {
-                logger.info("Deleting expenses associated with employee '{}' for user {}", employeeName, userId);
-                expenseRepository.deleteByEmployeeNameAndUserId(employeeName.trim(), userId);
+                syncTombstoneRepository.recordUnlinkedExpensesOfEmployeeName(employeeName.trim(), userId, now);
+                deleted += expenseRepository.deleteUnlinkedByEmployeeNameAndUserId(employeeName.trim(), userId);
             }
+            logger.info("Deleted {} expenses associated with employee {} for user {}", deleted, id, userId);
         } catch (Exception e) {
             logger.error("Error deleting expenses for employee ID {}: {}", id, e.getMessage(), e);
             throw new IllegalStateException("Failed to delete expenses for employee: " + e.getMessage(), e);
@@ -129,6 +217,7 @@ public class EmployeeService {
         logger.info("Employee deleted successfully: {}", id);
     }
 
+    @Transactional
     public Employee toggleEmployeeStatus(Long id, Long userId) {
         logger.info("Toggling active status for employee ID: {} for user {}", id, userId);
 
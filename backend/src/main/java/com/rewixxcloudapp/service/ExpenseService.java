@@ -1,17 +1,21 @@
 package com.rewixxcloudapp.service;
 
+import com.rewixxcloudapp.dto.ChangeEvent;
 import com.rewixxcloudapp.dto.ExpenseDto;
 import com.rewixxcloudapp.entity.Customer;
+import com.rewixxcloudapp.entity.Employee;
 import com.rewixxcloudapp.entity.Expense;
 import com.rewixxcloudapp.entity.ExpenseType;
 import com.rewixxcloudapp.entity.Job;
 import com.rewixxcloudapp.repository.CustomerRepository;
+import com.rewixxcloudapp.repository.EmployeeRepository;
 import com.rewixxcloudapp.repository.ExpenseRepository;
 import com.rewixxcloudapp.repository.JobRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -34,11 +38,18 @@ public class ExpenseService {
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
     public Optional<Expense> getExpenseById(Long id, Long userId) {
         logger.info("Fetching expense by ID: {} for user {}", id, userId);
         return expenseRepository.findByIdAndUserId(id, userId);
     }
 
+    @Transactional
     public Expense createExpense(ExpenseDto dto, Long userId) {
         logger.info("Creating expense with type: {}, amount: {}, date: {}",
                    dto.getType(), dto.getAmount(), dto.getExpenseDate());
@@ -63,7 +74,7 @@ public class ExpenseService {
         }
 
         if (type == ExpenseType.LABOR) {
-            if (dto.getEmployeeName() == null || dto.getEmployeeName().trim().isEmpty()) {
+            if (dto.getEmployeeId() == null && (dto.getEmployeeName() == null || dto.getEmployeeName().trim().isEmpty())) {
                 throw new IllegalArgumentException("Employee name is required for labor expenses");
             }
             if (dto.getHoursWorked() == null || dto.getHoursWorked().compareTo(BigDecimal.ZERO) <= 0) {
@@ -77,7 +88,7 @@ public class ExpenseService {
         expense.setAmount(dto.getAmount());
         expense.setDescription(dto.getDescription());
         expense.setExpenseDate(dto.getExpenseDate());
-        expense.setEmployeeName(dto.getEmployeeName());
+        setEmployee(expense, dto, userId);
         expense.setHoursWorked(dto.getHoursWorked());
         expense.setHourlyRate(dto.getHourlyRate());
         expense.setVendor(dto.getVendor());
@@ -110,9 +121,11 @@ public class ExpenseService {
 
         Expense savedExpense = expenseRepository.save(expense);
         logger.info("Expense created successfully with ID: {}", savedExpense.getId());
+        publish(savedExpense, ChangeEvent.CREATED);
         return savedExpense;
     }
 
+    @Transactional
     public Expense updateExpenseFromDto(Expense expense, ExpenseDto dto) {
         logger.info("Updating expense {} with data from DTO", expense.getId());
 
@@ -125,7 +138,7 @@ public class ExpenseService {
 
                 // Validate labor-specific fields if type is LABOR
                 if (type == ExpenseType.LABOR) {
-                    if (dto.getEmployeeName() == null || dto.getEmployeeName().trim().isEmpty()) {
+                    if (dto.getEmployeeId() == null && (dto.getEmployeeName() == null || dto.getEmployeeName().trim().isEmpty())) {
                         throw new IllegalArgumentException("Employee name is required for labor expenses");
                     }
                     if (dto.getHoursWorked() == null || dto.getHoursWorked().compareTo(BigDecimal.ZERO) <= 0) {
@@ -159,9 +172,9 @@ public class ExpenseService {
         }
 
         // Update labor fields
-        if (dto.getEmployeeName() != null) {
-            logger.info("Setting employee name to: {}", dto.getEmployeeName());
-            expense.setEmployeeName(dto.getEmployeeName());
+        if (dto.getEmployeeId() != null || dto.getEmployeeName() != null) {
+            setEmployee(expense, dto, expense.getUserId());
+            logger.info("Setting employee to: {} ({})", expense.getEmployeeName(), expense.getEmployeeId());
         }
         if (dto.getHoursWorked() != null) {
             logger.info("Setting hours worked to: {}", dto.getHoursWorked());
@@ -210,9 +223,27 @@ public class ExpenseService {
         logger.info("Saving expense to database...");
         Expense savedExpense = expenseRepository.save(expense);
         logger.info("Expense saved successfully with ID: {}", savedExpense.getId());
+        publish(savedExpense, ChangeEvent.UPDATED);
         return savedExpense;
     }
 
+    /**
+     * Links the expense to an employee: by id when given, otherwise by a case-insensitive
+     * name match. A name with no matching employee is kept as entered, unlinked.
+     */
+    private void setEmployee(Expense expense, ExpenseDto dto, Long userId) {
+        Employee employee = null;
+        if (dto.getEmployeeId() != null) {
+            employee = employeeRepository.findByIdAndUserId(dto.getEmployeeId(), userId)
+                    .orElseThrow(() -> new IllegalArgumentException("Employee not found or does not belong to you"));
+        } else if (dto.getEmployeeName() != null && !dto.getEmployeeName().trim().isEmpty()) {
+            employee = employeeRepository.findFirstByUserIdAndNameIgnoreCaseOrderByIdAsc(userId, dto.getEmployeeName().trim()).orElse(null);
+        }
+        expense.setEmployee(employee);
+        expense.setEmployeeName(employee != null ? employee.getName() : dto.getEmployeeName());
+    }
+
+    @Transactional
     public void deleteExpenseById(Long id, Long userId) {
         logger.info("Deleting expense with ID: {} for user {}", id, userId);
         Optional<Expense> expenseOpt = expenseRepository.findByIdAndUserId(id, userId);
@@ -220,8 +251,15 @@ public class ExpenseService {
             throw new IllegalArgumentException("Expense not found");
         }
         expenseRepository.deleteById(id);
+        publish(expenseOpt.get(), ChangeEvent.DELETED);
+    }
+
+    private void publish(Expense expense, String action) {
+        changeFeedService.publish(expense.getUserId(), ChangeEvent.EXPENSE, action, expense.getId(),
+                expense.getJob() != null ? expense.getJob().getId() : null);
     }
 
+    @Transactional(readOnly = true)
     public Map<String, Object> getExpensesList(int page, int pageSize, String searchTerm, String typeFilter, Long jobId, Long userId) {
         logger.info("Fetching expenses list - page: {}, pageSize: {}, searchTerm: '{}', typeFilter: '{}', jobId: {}, userId: {}",
                    page, pageSize, searchTerm, typeFilter, jobId, userId);
@@ -257,9 +295,6 @@ public class ExpenseService {
 
     public BigDecimal getTotalExpensesByJob(Long jobId, Long userId) {
         logger.info("Calculating total expenses for job ID: {} for user {}", jobId, userId);
-        List<Expense> expenses = expenseRepository.findByJobIdAndUserId(jobId, userId);
-        return expenses.stream()
-                .map(Expense::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return expenseRepository.sumAmountByJobIdAndUserId(jobId, userId);
     }
 }
@@ -0,0 +1,26 @@
+package com.rewixxcloudapp.service;
+
+import java.io.IOException;
+
+/**
+ * Where uploaded files (logos, receipt scans) are kept, addressed by keys such as
+ * {@code logos/<uuid>.png} and served under {@code /uploads/<key>}. Selected with
+ * {@code storage.type}: {@code local} (a directory, the default; with several
+ * instances it must be a shared volume) or {@code s3} (a bucket every instance
+ * reads and writes).
+ */
+public interface FileStorage {
+
+    String getName();
+
+    /** Writes the file, replacing any file already stored under the key. */
+    void store(String key, byte[] content, String contentType) throws IOException;
+
+    /** The stored bytes, or null if there is no such file. */
+    byte[] read(String key) throws IOException;
+
+    boolean exists(String key) throws IOException;
+
+    /** Removes the file; a missing file is not an error. */
+    void delete(String key) throws IOException;
+}
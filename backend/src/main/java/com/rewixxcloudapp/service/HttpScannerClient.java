@@ -0,0 +1,95 @@
+package com.rewixxcloudapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Calls the FastAPI scanning service over HTTP. This is the default client.
+ */
+@Component
+@ConditionalOnProperty(name = "scanner.client", havingValue = "http", matchIfMissing = true)
+public class HttpScannerClient implements ScannerClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpScannerClient.class);
+
+    private final RestTemplate restTemplate;
+
+    private final String baseUrl;
+
+    public HttpScannerClient(@Value("${scanner.api.base-url:http://localhost:8000}") String baseUrl,
+                             @Value("${scanner.api.connect-timeout-ms:5000}") int connectTimeoutMs,
+                             @Value("${scanner.api.read-timeout-ms:60000}") int readTimeoutMs) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> processReceipt(byte[] image, String filename, String contentType) {
+        logger.info("Sending receipt {} ({} bytes) to scanning service", filename, image.length);
+
+        HttpHeaders partHeaders = new HttpHeaders();
+        partHeaders.setContentType(contentType != null ? MediaType.parseMediaType(contentType) : MediaType.APPLICATION_OCTET_STREAM);
+        ByteArrayResource resource = new ByteArrayResource(image) {
+            @Override
+            public String getFilename() {
+                return filename != null ? filename : "receipt";
+            }
+        };
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", new HttpEntity<>(resource, partHeaders));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+
+        try {
+            Map<String, Object> response = restTemplate.postForObject(
+                    baseUrl + "/api/receipts/process", new HttpEntity<>(body, headers), Map.class);
+            if (response == null) {
+                throw new IllegalStateException("Scanning service returned an empty response");
+            }
+            if (response.containsKey("error")) {
+                throw new IllegalStateException("Scanning service error: " + response.get("error"));
+            }
+            return response;
+        } catch (RestClientException e) {
+            throw new IllegalStateException("Scanning service unavailable: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> lookupBarcode(String barcode) {
+        logger.info("Looking up barcode {} via scanning service", barcode);
+        String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/api/materials/barcode-lookup")
+                .queryParam("barcode", barcode)
+                .toUriString();
+        try {
+            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
+            if (response == null) {
+                throw new IllegalStateException("Scanning service returned an empty response");
+            }
+            return response;
+        } catch (RestClientException e) {
+            throw new IllegalStateException("Scanning service unavailable: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.rewixxcloudapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
+
+/**
+ * Invalidation through a shared {@code cache_invalidations} table. Publishes are
+ * queued and written by the poll loop, which also applies rows written by other
+ * instances, so a remote node converges within one poll interval.
+ * <p>
+ * Ids are handed out at insert but become visible at commit, so a row from another
+ * node can appear below an id already seen. Each poll therefore also re-reads the
+ * rows created within the last overlap-ms and skips the ids it has applied.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.invalidation.channel", havingValue = "jdbc")
+public class JdbcCacheInvalidationChannel implements CacheInvalidationChannel {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcCacheInvalidationChannel.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${cache.invalidation.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Value("${cache.invalidation.overlap-ms:10000}")
+    private long overlapMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentLinkedQueue<String[]> outbox = new ConcurrentLinkedQueue<>();
+    private volatile BiConsumer<String, String> listener = (cacheName, key) -> { };
+    private long lastSeenId;
+    // Ids read within the overlap window, with their created_at, so a re-read row is applied once
+    private final Map<Long, Timestamp> seenIds = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS cache_invalidations (" +
+                "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "node_id VARCHAR(64) NOT NULL, " +
+                "cache_name VARCHAR(255) NOT NULL, " +
+                "cache_key VARCHAR(255), " +
+                "created_at TIMESTAMP NOT NULL)");
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cache_invalidations", Long.class);
+        lastSeenId = maxId != null ? maxId : 0L;
+        logger.info("JDBC cache invalidation channel started (node {}, from id {})", nodeId, lastSeenId);
+    }
+
+    @Override
+    public String getName() {
+        return "jdbc";
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(String cacheName, String key) {
+        outbox.add(new String[]{cacheName, key});
+    }
+
+    @Override
+    public void setListener(BiConsumer<String, String> listener) {
+        this.listener = listener;
+    }
+
+    @Scheduled(fixedDelayString = "${cache.invalidation.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        flushOutbox();
+
+        Timestamp windowStart = new Timestamp(System.currentTimeMillis() - overlapMs);
+        seenIds.values().removeIf(createdAt -> createdAt.before(windowStart));
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, node_id, cache_name, cache_key, created_at FROM cache_invalidations " +
+                "WHERE id > ? OR created_at >= ? ORDER BY id",
+                lastSeenId, windowStart);
+        for (Map<String, Object> row : rows) {
+            long id = ((Number) row.get("id")).longValue();
+            if (seenIds.containsKey(id)) {
+                continue;
+            }
+            seenIds.put(id, (Timestamp) row.get("created_at"));
+            lastSeenId = Math.max(lastSeenId, id);
+            if (nodeId.equals(row.get("node_id"))) {
+                continue;
+            }
+            try {
+                listener.accept((String) row.get("cache_name"), (String) row.get("cache_key"));
+            } catch (Exception e) {
+                logger.warn("Failed to apply cache invalidation {}:{}", row.get("cache_name"), row.get("cache_key"), e);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.invalidation.purge-interval-ms:600000}")
+    public void purge() {
+        jdbcTemplate.update("DELETE FROM cache_invalidations WHERE created_at < ?",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(retentionMinutes)));
+    }
+
+    private void flushOutbox() {
+        List<Object[]> batch = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String[] message;
+        while ((message = outbox.poll()) != null) {
+            batch.add(new Object[]{nodeId, message[0], message[1], now});
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO cache_invalidations (node_id, cache_name, cache_key, created_at) VALUES (?, ?, ?, ?)", batch);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.rewixxcloudapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Periodically compares the job financials summary with payments and sale items
+ * and repairs drift, then does the same for the customer stats built on it. The
+ * first run shortly after startup also backfills jobs and customers created before
+ * the summaries existed. With several instances, one of them does each run.
+ */
+@Component
+@ConditionalOnProperty(name = "job-financials.checker.enabled", havingValue = "true", matchIfMissing = true)
+public class JobFinancialsChecker {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobFinancialsChecker.class);
+
+    @Autowired
+    private JobFinancialsService jobFinancialsService;
+
+    @Autowired
+    private CustomerStatsService customerStatsService;
+
+    @Autowired
+    private ClusterLockService clusterLockService;
+
+    @Value("${job-financials.checker.lock-ttl-minutes:30}")
+    private long lockTtlMinutes;
+
+    @Scheduled(initialDelayString = "${job-financials.checker.initial-delay-ms:60000}",
+               fixedDelayString = "${job-financials.checker.interval-ms:3600000}")
+    public void check() {
+        clusterLockService.runExclusively("job-financials-checker", Duration.ofMinutes(lockTtlMinutes), this::repair);
+    }
+
+    private void repair() {
+        int repaired = jobFinancialsService.checkConsistency();
+        if (repaired > 0) {
+            logger.warn("Repaired {} job financials rows", repaired);
+        }
+        int repairedCustomers = customerStatsService.checkConsistency();
+        if (repairedCustomers > 0) {
+            logger.warn("Repaired {} customer stats rows", repairedCustomers);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.entity.JobFinancials;
+import com.rewixxcloudapp.repository.JobFinancialsRepository;
+import com.rewixxcloudapp.repository.JobRepository;
+import com.rewixxcloudapp.repository.PaymentRepository;
+import com.rewixxcloudapp.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the {@link JobFinancials} summary rows. Job, material and payment
+ * writes update the row in the same transaction as the change; readers (job list,
+ * contracts, reports) look totals up by job id instead of summing payments and
+ * sale items. {@link #checkConsistency()} recomputes every row from the source
+ * tables and repairs any that drifted.
+ */
+@Service
+public class JobFinancialsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobFinancialsService.class);
+
+    @Autowired
+    private JobFinancialsRepository jobFinancialsRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${job-financials.checker.batch-size:200}")
+    private int checkerBatchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Re-prices a job after its price, tax flag or materials changed, leaving the
+     * paid amount alone. Call inside the transaction that made the change so the
+     * summary commits or rolls back with it. Attaches the updated row to the job.
+     */
+    public JobFinancials refresh(Job job) {
+        long totalCents = pricingService.priceJob(job).getTotalCents();
+        long materialsCents = materialsCentsByJob(Collections.singleton(job.getId())).getOrDefault(job.getId(), 0L);
+        updateTotals(job, totalCents, materialsCents);
+        // The bulk update bypasses the persistence context; reload a row it already holds
+        JobFinancials financials = entityManager.find(JobFinancials.class, job.getId());
+        if (financials != null) {
+            entityManager.refresh(financials);
+        }
+        job.setFinancials(financials);
+        return financials;
+    }
+
+    /**
+     * Re-prices every taxable job of the tenant at its new tax rate, in the
+     * transaction that saved the rate. Runs before the customer stats listener,
+     * which sums these rows.
+     */
+    @EventListener
+    @Order(1)
+    public void onTaxRateChanged(AccountSettingsService.TaxRateChanged event) {
+        long taxRateBasisPoints = Money.percentToBasisPoints(event.getTaxRatePercent());
+        List<Job> jobs = jobRepository.findByUserIdAndIncludeTaxTrue(event.getUserId());
+        if (jobs.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> materialsCents = materialsCentsByJob(jobs.stream().map(Job::getId).toList());
+        for (Job job : jobs) {
+            updateTotals(job, pricingService.priceJob(job, taxRateBasisPoints).getTotalCents(),
+                    materialsCents.getOrDefault(job.getId(), 0L));
+        }
+        logger.info("Re-priced {} taxable jobs of user {} at {} bps", jobs.size(), event.getUserId(), taxRateBasisPoints);
+    }
+
+    /**
+     * Creates the row for a job that has none yet (new job, or one created before
+     * the summary existed), starting from the payments and materials already recorded.
+     * Runs in the caller's transaction; a row inserted concurrently is kept as is.
+     */
+    public void seed(Job job, long totalCents) {
+        jobFinancialsRepository.insertIfAbsent(job.getId(), job.getUserId(), totalCents,
+                Money.toCents(paymentRepository.getTotalPaidByJobId(job.getId())),
+                materialsCentsByJob(Collections.singleton(job.getId())).getOrDefault(job.getId(), 0L));
+    }
+
+    public void delete(Long jobId) {
+        jobFinancialsRepository.findById(jobId).ifPresent(jobFinancialsRepository::delete);
+    }
+
+    /**
+     * Summaries for the given jobs in one lookup. Jobs without a complete row yet
+     * are computed on the fly (not stored; the consistency check backfills them).
+     */
+    public Map<Long, JobFinancials> getFinancials(Collection<Job> jobs) {
+        Map<Long, Job> jobsById = new LinkedHashMap<>();
+        for (Job job : jobs) {
+            jobsById.put(job.getId(), job);
+        }
+        if (jobsById.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Long, JobFinancials> financials = new HashMap<>();
+        for (JobFinancials row : jobFinancialsRepository.findAllById(jobsById.keySet())) {
+            if (row.getMaterialsCents() != null) {
+                financials.put(row.getJobId(), row);
+            }
+        }
+        if (financials.size() < jobsById.size()) {
+            List<Job> missing = new ArrayList<>();
+            for (Job job : jobsById.values()) {
+                if (!financials.containsKey(job.getId())) {
+                    missing.add(job);
+                }
+            }
+            financials.putAll(compute(missing));
+        }
+        return financials;
+    }
+
+    /** Sets {@link Job#getFinancials()} on each job for list and detail responses. */
+    public void attach(Collection<Job> jobs) {
+        Map<Long, JobFinancials> financials = getFinancials(jobs);
+        for (Job job : jobs) {
+            job.setFinancials(financials.get(job.getId()));
+        }
+    }
+
+    /**
+     * Recomputes every row from jobs, payments and sale items and repairs the ones
+     * that differ (or are missing). Rows changed concurrently are skipped and picked
+     * up by the next run. Returns the number of rows repaired.
+     */
+    public int checkConsistency() {
+        long started = System.currentTimeMillis();
+        int checked = 0;
+        int repaired = 0;
+        long lastId = 0;
+        List<Job> jobs;
+        do {
+            jobs = jobRepository.findByIdGreaterThan(lastId, PageRequest.of(0, checkerBatchSize, Sort.by("id")));
+            if (jobs.isEmpty()) {
+                break;
+            }
+            List<Long> jobIds = new ArrayList<>();
+            for (Job job : jobs) {
+                jobIds.add(job.getId());
+            }
+            // Rows are read before the source sums: a payment landing in between bumps the
+            // row version, so the repair below fails instead of overwriting it
+            Map<Long, JobFinancials> actual = new HashMap<>();
+            for (JobFinancials row : jobFinancialsRepository.findAllById(jobIds)) {
+                actual.put(row.getJobId(), row);
+            }
+            Map<Long, JobFinancials> expected = compute(jobs);
+
+            for (Job job : jobs) {
+                JobFinancials row = actual.get(job.getId());
+                JobFinancials truth = expected.get(job.getId());
+                if (row == null || !row.hasSameTotals(truth)) {
+                    if (row != null) {
+                        logger.warn("Job {} financials drifted: total {} paid {} materials {}, expected total {} paid {} materials {}",
+                                job.getId(), row.getTotalCents(), row.getPaidCents(), row.getMaterialsCents(),
+                                truth.getTotalCents(), truth.getPaidCents(), truth.getMaterialsCents());
+                    }
+                    if (repair(row, truth)) {
+                        repaired++;
+                    }
+                }
+            }
+            checked += jobs.size();
+            lastId = jobs.get(jobs.size() - 1).getId();
+        } while (jobs.size() == checkerBatchSize);
+
+        Integer orphans = transactionTemplate.execute(status -> jobFinancialsRepository.deleteOrphans());
+        logger.info("Job financials check: {} jobs checked, {} rows repaired, {} orphaned rows removed in {} ms",
+                checked, repaired, orphans, System.currentTimeMillis() - started);
+        return repaired;
+    }
+
+    private boolean repair(JobFinancials row, JobFinancials truth) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (row == null) {
+                    jobFinancialsRepository.saveAndFlush(truth);
+                } else {
+                    row.setTotalCents(truth.getTotalCents());
+                    row.setPaidCents(truth.getPaidCents());
+                    row.setMaterialsCents(truth.getMaterialsCents());
+                    jobFinancialsRepository.saveAndFlush(row);
+                }
+            });
+            return true;
+        } catch (DataIntegrityViolationException | ObjectOptimisticLockingFailureException e) {
+            // Written concurrently; the next run checks it again
+            logger.info("Job {} financials changed during the check, skipping", truth.getJobId());
+            return false;
+        }
+    }
+
+    // Summaries computed from the source tables: two grouped queries for the whole batch
+    private Map<Long, JobFinancials> compute(Collection<Job> jobs) {
+        List<Long> jobIds = new ArrayList<>();
+        for (Job job : jobs) {
+            jobIds.add(job.getId());
+        }
+        Map<Long, Long> paidCents = new HashMap<>();
+        for (Object[] row : paymentRepository.getTotalPaidByJobIds(jobIds)) {
+            paidCents.put((Long) row[0], toCents(row[1]));
+        }
+        Map<Long, Long> materialsCents = materialsCentsByJob(jobIds);
+
+        Map<Long, JobFinancials> financials = new HashMap<>();
+        for (Job job : jobs) {
+            JobFinancials computed = new JobFinancials(job.getId(), job.getUserId());
+            computed.setTotalCents(pricingService.priceJob(job).getTotalCents());
+            computed.setPaidCents(paidCents.getOrDefault(job.getId(), 0L));
+            computed.setMaterialsCents(materialsCents.getOrDefault(job.getId(), 0L));
+            financials.put(job.getId(), computed);
+        }
+        return financials;
+    }
+
+    private void updateTotals(Job job, long totalCents, long materialsCents) {
+        if (jobFinancialsRepository.updateTotals(job.getId(), totalCents, materialsCents) == 0) {
+            seed(job, totalCents);
+            jobFinancialsRepository.updateTotals(job.getId(), totalCents, materialsCents);
+        }
+    }
+
+    private Map<Long, Long> materialsCentsByJob(Collection<Long> jobIds) {
+        Map<Long, Long> materialsCents = new HashMap<>();
+        for (Object[] row : jobFinancialsRepository.getMaterialsCostByJobIds(jobIds)) {
+            materialsCents.put((Long) row[0], toCents(row[1]));
+        }
+        return materialsCents;
+    }
+
+    private static long toCents(Object amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return Money.toCents(amount instanceof BigDecimal ? (BigDecimal) amount : new BigDecimal(amount.toString()));
+    }
+}
@@ -0,0 +1,123 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.dto.JobProfitView;
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.repository.JobRepository;
+import com.rewixxcloudapp.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Job profit and loss. Price and tax come from {@link PricingService}; materials
+ * used, payments and expenses by type are aggregated in the database, all three
+ * in one query per batch of jobs (pre-grouped per job so the joins cannot multiply
+ * rows), over the job_id indexes of sales, payments and expenses.
+ */
+@Service
+public class JobProfitabilityService {
+
+    private static final int JOB_ID_CHUNK = 250;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public Optional<JobProfitView> getJobProfitability(Long jobId, Long userId) {
+        return jobRepository.findByIdAndUserId(jobId, userId)
+                .map(job -> getProfitability(List.of(job)).get(job.getId()));
+    }
+
+    /** Sets {@link Job#getProfitability()} on each job, for list responses that show margin per row. */
+    public void attach(Collection<Job> jobs) {
+        Map<Long, JobProfitView> profitability = getProfitability(jobs);
+        for (Job job : jobs) {
+            job.setProfitability(profitability.get(job.getId()));
+        }
+    }
+
+    /** P&L of each job; the jobs must belong to one tenant. */
+    public Map<Long, JobProfitView> getProfitability(Collection<Job> jobs) {
+        if (jobs.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Long userId = jobs.iterator().next().getUserId();
+        List<Long> ids = new ArrayList<>();
+        for (Job job : jobs) {
+            ids.add(job.getId());
+        }
+
+        Map<Long, Long> materialsCents = new HashMap<>();
+        Map<Long, Long> paidCents = new HashMap<>();
+        Map<Long, Map<String, Long>> expensesCents = new HashMap<>();
+        Map<Long, BigDecimal> laborHours = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += JOB_ID_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + JOB_ID_CHUNK, ids.size()));
+            String in = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            List<Object> args = new ArrayList<>();
+            args.addAll(chunk);
+            args.addAll(chunk);
+            args.addAll(chunk);
+            args.add(userId);
+            args.addAll(chunk);
+            args.add(userId);
+            for (Map<String, Object> row : jdbcTemplate.queryForList(
+                    "SELECT j.id AS job_id, m.materials AS materials, p.paid AS paid, " +
+                    "x.type AS type, x.amount AS amount, x.hours AS hours " +
+                    "FROM jobs j " +
+                    "LEFT JOIN (SELECT s.job_id AS job_id, SUM(i.unit_price * i.quantity) AS materials " +
+                    "FROM sales s JOIN sale_items i ON i.sale_id = s.id " +
+                    "WHERE s.job_id IN (" + in + ") AND i.quantity > 0 GROUP BY s.job_id) m ON m.job_id = j.id " +
+                    "LEFT JOIN (SELECT job_id, SUM(amount) AS paid FROM payments " +
+                    "WHERE job_id IN (" + in + ") GROUP BY job_id) p ON p.job_id = j.id " +
+                    "LEFT JOIN (SELECT job_id, type, SUM(amount) AS amount, SUM(hours_worked) AS hours FROM expenses " +
+                    "WHERE job_id IN (" + in + ") AND user_id = ? GROUP BY job_id, type) x ON x.job_id = j.id " +
+                    "WHERE j.id IN (" + in + ") AND j.user_id = ?",
+                    args.toArray())) {
+                // One row per job and expense type; the materials and paid columns repeat on each
+                Long jobId = ((Number) row.get("job_id")).longValue();
+                materialsCents.put(jobId, toCents(row.get("materials")));
+                paidCents.put(jobId, toCents(row.get("paid")));
+                Map<String, Long> byType = expensesCents.computeIfAbsent(jobId, id -> new HashMap<>());
+                if (row.get("type") != null) {
+                    String type = row.get("type").toString();
+                    byType.merge(type, toCents(row.get("amount")), Long::sum);
+                    if ("LABOR".equals(type) && row.get("hours") != null) {
+                        laborHours.merge(jobId, new BigDecimal(row.get("hours").toString()), BigDecimal::add);
+                    }
+                }
+            }
+        }
+
+        long taxRateBasisPoints = pricingService.taxRateBasisPoints(userId);
+        Map<Long, JobProfitView> profitability = new HashMap<>();
+        for (Job job : jobs) {
+            PricingService.JobPrice price = pricingService.priceJob(job, taxRateBasisPoints);
+            profitability.put(job.getId(), new JobProfitView(
+                    job.getId(),
+                    price.getPriceCents(),
+                    price.getMaterialsCents(),
+                    price.getTaxCents(),
+                    materialsCents.getOrDefault(job.getId(), 0L),
+                    expensesCents.getOrDefault(job.getId(), Collections.emptyMap()),
+                    laborHours.getOrDefault(job.getId(), BigDecimal.ZERO),
+                    paidCents.getOrDefault(job.getId(), 0L)));
+        }
+        return profitability;
+    }
+
+    private static long toCents(Object amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return Money.toCents(amount instanceof BigDecimal ? (BigDecimal) amount : new BigDecimal(amount.toString()));
+    }
+}
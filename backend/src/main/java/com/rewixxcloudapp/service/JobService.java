@@ -3,6 +3,7 @@ package com.rewixxcloudapp.service;
 import com.rewixxcloudapp.entity.Job;
 import com.rewixxcloudapp.entity.Customer;
 import com.rewixxcloudapp.entity.Contract;
+import com.rewixxcloudapp.entity.JobFinancials;
 import com.rewixxcloudapp.entity.JobStatus;
 import com.rewixxcloudapp.entity.Sale;
 import com.rewixxcloudapp.entity.SaleItem;
@@ -11,11 +12,21 @@ import com.rewixxcloudapp.repository.JobRepository;
 import com.rewixxcloudapp.repository.CustomerRepository;
 import com.rewixxcloudapp.repository.ProductRepository;
 import com.rewixxcloudapp.repository.ContractRepository;
+import com.rewixxcloudapp.repository.SaleItemRepository;
+import com.rewixxcloudapp.repository.SaleRepository;
+import com.rewixxcloudapp.dto.ChangeEvent;
 import com.rewixxcloudapp.dto.JobDto;
+import com.rewixxcloudapp.dto.MaterialBatchDto;
 import com.rewixxcloudapp.dto.MaterialDto;
+import com.rewixxcloudapp.dto.PurchaseDto;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,14 +48,42 @@ public class JobService {
     @Autowired
     private ContractRepository contractRepository;
 
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private SaleItemRepository saleItemRepository;
+
+    @Autowired
+    private JobFinancialsService jobFinancialsService;
+
+    @Autowired
+    private JobProfitabilityService jobProfitabilityService;
+
+    @Autowired
+    private CustomerStatsService customerStatsService;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
     public Optional<Job> getJobById(Long id, Long userId) {
-        return jobRepository.findByIdAndUserId(id, userId);
+        Optional<Job> job = jobRepository.findByIdAndUserId(id, userId);
+        job.ifPresent(j -> jobFinancialsService.attach(Collections.singletonList(j)));
+        return job;
     }
 
     public Job saveJob(Job job) {
         return jobRepository.save(job);
     }
 
+    @Transactional
     public Job createJob(JobDto dto, Long userId) {
         if (dto.getTitle() == null || dto.getTitle().trim().isEmpty()) {
             throw new IllegalArgumentException("Title cannot be empty");
@@ -119,14 +158,16 @@ public class JobService {
         }
 
         logger.info("Saving job to database...");
-        Job savedJob = jobRepository.save(job);
+        Job savedJob = saveAndRefreshFinancials(job);
         logger.info("Job saved successfully with ID: {}", savedJob.getId());
         return savedJob;
     }
 
+    @Transactional
     public Job updateJobFromDto(Job job, JobDto dto) {
         logger.info("Updating job {} with DTO: title={}, description={}, jobPrice={}, customMaterialCost={}, includeTax={}, status={}", 
                    job.getId(), dto.getTitle(), dto.getDescription(), dto.getJobPrice(), dto.getCustomMaterialCost(), dto.getIncludeTax(), dto.getStatus());
+        Customer previousCustomer = job.getCustomer();
         
         if (dto.getTitle() != null && !dto.getTitle().trim().isEmpty()) {
             logger.info("Setting title to: {}", dto.getTitle());
@@ -143,6 +184,7 @@ public class JobService {
                 logger.info("Syncing job description to contract {} scope of work", contract.getId());
                 contract.setScopeOfWork(dto.getDescription());
                 contractRepository.save(contract);
+                changeFeedService.publish(contract.getUserId(), ChangeEvent.CONTRACT, ChangeEvent.UPDATED, contract.getId(), job.getId());
             }
         }
         if (dto.getWorkSiteAddress() != null) {
@@ -197,23 +239,39 @@ public class JobService {
         }
         
         logger.info("Saving job to database...");
-        Job savedJob = jobRepository.save(job);
+        Job savedJob = saveAndRefreshFinancials(job, previousCustomer);
         logger.info("Job saved successfully with ID: {}", savedJob.getId());
         return savedJob;
     }
 
+    @Transactional
     public void deleteJobById(Long id, Long userId) {
         Optional<Job> jobOpt = jobRepository.findByIdAndUserId(id, userId);
         if (jobOpt.isEmpty()) {
             throw new IllegalArgumentException("Job not found");
         }
         jobRepository.deleteById(id);
+        jobFinancialsService.delete(id);
+        customerStatsService.refresh(jobOpt.get().getCustomer());
+        changeFeedService.publish(userId, ChangeEvent.JOB, ChangeEvent.DELETED, id);
     }
 
+    @Transactional(readOnly = true)
     public Map<String, Object> getJobsList(int page, int pageSize, String searchTerm, String statusFilter, Long userId) {
+        return getJobsList(page, pageSize, searchTerm, statusFilter, false, userId);
+    }
+
+    /** As above; with {@code includeProfitability} each job also carries its P&L (one extra aggregate query per page). */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getJobsList(int page, int pageSize, String searchTerm, String statusFilter,
+                                           boolean includeProfitability, Long userId) {
         List<Job> jobs = jobRepository.findJobsWithSearch(searchTerm, statusFilter, page, pageSize, userId);
         long totalJobs = jobRepository.countJobsWithSearch(searchTerm, statusFilter, userId);
         int totalPages = (int) Math.ceil((double) totalJobs / pageSize);
+        jobFinancialsService.attach(jobs);
+        if (includeProfitability) {
+            jobProfitabilityService.attach(jobs);
+        }
 
         Map<String, Object> result = new HashMap<>();
         result.put("jobs", jobs);
@@ -227,152 +285,310 @@ public class JobService {
         return result;
     }
 
+    @Transactional
     public Sale addMaterialToJob(Long jobId, MaterialDto materialDto, Long userId) {
-        Optional<Job> jobOpt = jobRepository.findByIdAndUserId(jobId, userId);
-        if (!jobOpt.isPresent()) {
-            throw new IllegalArgumentException("Job not found or does not belong to you");
-        }
+        Job job = requireJob(jobId, userId);
 
         Optional<Product> productOpt = productRepository.findById(materialDto.getProductId());
         if (!productOpt.isPresent()) {
             throw new IllegalArgumentException("Product not found");
         }
 
-        Job job = jobOpt.get();
-        Product product = productOpt.get();
+        // Insert the sale and its item directly; the rest of the job's sales are not touched
+        Sale savedSale = saleRepository.save(newMaterialSale(job, productOpt.get(), materialDto));
+        refreshSummaries(job);
+        logger.info("Material added successfully. Sale ID: {}, SaleItem ID: {}",
+                   savedSale.getId(), savedSale.getSaleItems().iterator().next().getId());
+        return savedSale;
+    }
+
+    @Transactional
+    public void removeMaterialFromJob(Long jobId, Long saleId, Long userId) {
+        logger.info("Removing sale {} from job {} for user {}", saleId, jobId, userId);
+
+        Sale sale = requireOwnedSales(Collections.singleton(saleId), jobId, userId).get(saleId);
+        Job job = sale.getJob();
+        removeSale(job, sale);
+        refreshSummaries(job);
+        logger.info("Removed sale with ID: {} from job {}", saleId, jobId);
+    }
+
+    @Transactional
+    public Sale updateMaterialInJob(Long jobId, Long saleId, MaterialDto materialDto, Long userId) {
+        logger.info("Updating sale {} in job {} with new quantity: {} for user {}", saleId, jobId, materialDto.getQuantity(), userId);
+
+        Sale sale = requireOwnedSales(Collections.singleton(saleId), jobId, userId).get(saleId);
+        updateSaleItem(sale, materialDto);
+        refreshSummaries(sale.getJob());
+        logger.info("Sale updated successfully in job: {}", jobId);
+        return sale;
+    }
+
+    /** Removes one line of a multi-line purchase; removing the last line removes the sale. */
+    @Transactional
+    public void removeMaterialItemFromJob(Long jobId, Long saleId, Long saleItemId, Long userId) {
+        logger.info("Removing item {} of sale {} from job {} for user {}", saleItemId, saleId, jobId, userId);
+
+        Sale sale = requireOwnedSales(Collections.singleton(saleId), jobId, userId).get(saleId);
+        SaleItem saleItem = requireSaleItem(sale, saleItemId);
+        if (sale.getSaleItems().size() == 1) {
+            removeSale(sale.getJob(), sale);
+        } else {
+            sale.getSaleItems().remove(saleItem);
+            saleItemRepository.delete(saleItem);
+        }
+        refreshSummaries(sale.getJob());
+    }
+
+    /**
+     * Records materials bought together as one sale with a line per item. The lines
+     * go in with a single JDBC batch rather than one INSERT (and generated-id round
+     * trip) per item, which is what Hibernate does for IDENTITY ids.
+     */
+    @Transactional
+    public Sale addPurchaseToJob(Long jobId, PurchaseDto purchaseDto, Long userId) {
+        List<MaterialDto> items = purchaseDto.getItems() != null ? purchaseDto.getItems() : Collections.emptyList();
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("A purchase needs at least one item");
+        }
+        Set<Long> productIds = new HashSet<>();
+        for (MaterialDto item : items) {
+            if (item.getProductId() == null || item.getQuantity() == null) {
+                throw new IllegalArgumentException("Product ID and quantity are required");
+            }
+            productIds.add(item.getProductId());
+        }
+        logger.info("Adding purchase with {} items to job {} for user {}", items.size(), jobId, userId);
+
+        Job job = requireJob(jobId, userId);
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(productIds)) {
+            products.put(product.getId(), product);
+        }
 
-        // Create a new sale for this material addition
         Sale sale = new Sale();
-        sale.setDate(java.time.LocalDateTime.now());
-        sale.setDescription("Material added to job: " + job.getTitle());
+        sale.setDate(purchaseDto.getDate() != null ? purchaseDto.getDate() : java.time.LocalDateTime.now());
+        sale.setDescription(purchaseDto.getDescription() != null && !purchaseDto.getDescription().trim().isEmpty()
+                ? purchaseDto.getDescription().trim() : "Materials purchased for job: " + job.getTitle());
         sale.setJob(job);
         sale.setCustomer(job.getCustomer());
+        sale.setSaleItems(new HashSet<>());
+        Sale savedSale = saleRepository.saveAndFlush(sale);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (MaterialDto item : items) {
+            Product product = products.get(item.getProductId());
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found: " + item.getProductId());
+            }
+            rows.add(new Object[]{savedSale.getId(), product.getId(), item.getQuantity(),
+                    item.getUnitPrice() != null ? item.getUnitPrice() : product.getUnitPrice()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO sale_items (sale_id, product_id, quantity, unit_price) VALUES (?, ?, ?, ?)", rows);
 
-        // Create sale item for the material
-        SaleItem saleItem = new SaleItem();
-        saleItem.setSale(sale);
-        saleItem.setProduct(product);
-        saleItem.setQuantity(materialDto.getQuantity());
-        saleItem.setUnitPrice(materialDto.getUnitPrice() != null ? materialDto.getUnitPrice() : product.getUnitPrice());
+        // Load the inserted lines (with their ids) into the managed sale
+        entityManager.refresh(savedSale);
+        if (job.getSales() != null && Hibernate.isInitialized(job.getSales())) {
+            job.getSales().add(savedSale);
+        }
+        refreshSummaries(job);
+        logger.info("Purchase added to job {} as sale {} with {} items", jobId, savedSale.getId(), rows.size());
+        return savedSale;
+    }
 
-        // Set the sale items
-        sale.setSaleItems(java.util.Collections.singleton(saleItem));
+    /**
+     * Adds, updates and removes material lines of one job in a single transaction:
+     * either every change applies or none does. Ownership of the job and of all
+     * referenced sales is checked with one query, and the job's financials are
+     * refreshed once for the whole batch.
+     */
+    @Transactional
+    public Map<String, Object> applyMaterialBatch(Long jobId, MaterialBatchDto batch, Long userId) {
+        List<MaterialDto> adds = batch.getAdd() != null ? batch.getAdd() : Collections.emptyList();
+        List<MaterialDto> updates = batch.getUpdate() != null ? batch.getUpdate() : Collections.emptyList();
+        List<Long> removes = batch.getRemove() != null ? batch.getRemove() : Collections.emptyList();
+
+        Set<Long> saleIds = new HashSet<>();
+        for (MaterialDto dto : adds) {
+            if (dto.getProductId() == null || dto.getQuantity() == null) {
+                throw new IllegalArgumentException("Product ID and quantity are required");
+            }
+        }
+        for (MaterialDto dto : updates) {
+            if (dto.getSaleId() == null) {
+                throw new IllegalArgumentException("Sale ID is required for each update");
+            }
+            if (dto.getQuantity() == null || dto.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be greater than 0");
+            }
+            if (!saleIds.add(dto.getSaleId())) {
+                throw new IllegalArgumentException("Sale " + dto.getSaleId() + " appears more than once in the batch");
+            }
+        }
+        for (Long saleId : removes) {
+            if (saleId == null) {
+                throw new IllegalArgumentException("Sale ID is required for each removal");
+            }
+            if (!saleIds.add(saleId)) {
+                throw new IllegalArgumentException("Sale " + saleId + " appears more than once in the batch");
+            }
+        }
+        logger.info("Applying material batch to job {} for user {}: {} adds, {} updates, {} removals",
+                   jobId, userId, adds.size(), updates.size(), removes.size());
+
+        Job job = requireJob(jobId, userId);
+        Map<Long, Sale> sales = saleIds.isEmpty() ? Collections.emptyMap() : requireOwnedSales(saleIds, jobId, userId);
 
-        // Add the sale to the job's sales list
-        if (job.getSales() == null) {
-            job.setSales(new java.util.ArrayList<>());
+        List<Sale> updated = new ArrayList<>();
+        for (MaterialDto dto : updates) {
+            Sale sale = sales.get(dto.getSaleId());
+            updateSaleItem(sale, dto);
+            updated.add(sale);
         }
-        job.getSales().add(sale);
 
-        // Save the job (this will cascade to save the sale and sale item)
-        Job savedJob = jobRepository.save(job);
+        for (Long saleId : removes) {
+            removeSale(job, sales.get(saleId));
+        }
 
-        // Find and return the persisted sale with its ID populated
-        // The saved sale will be the last one in the list
-        Sale savedSale = savedJob.getSales().get(savedJob.getSales().size() - 1);
-        logger.info("Material added successfully. Sale ID: {}, SaleItem ID: {}",
-                   savedSale.getId(),
-                   savedSale.getSaleItems().isEmpty() ? "N/A" : savedSale.getSaleItems().iterator().next().getId());
+        Map<Long, Product> products = new HashMap<>();
+        if (!adds.isEmpty()) {
+            Set<Long> productIds = new HashSet<>();
+            for (MaterialDto dto : adds) {
+                productIds.add(dto.getProductId());
+            }
+            for (Product product : productRepository.findAllById(productIds)) {
+                products.put(product.getId(), product);
+            }
+        }
+        List<Sale> added = new ArrayList<>();
+        for (MaterialDto dto : adds) {
+            Product product = products.get(dto.getProductId());
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found: " + dto.getProductId());
+            }
+            added.add(newMaterialSale(job, product, dto));
+        }
+        added = saleRepository.saveAll(added);
 
-        return savedSale;
+        Map<String, Object> result = new HashMap<>();
+        result.put("added", added);
+        result.put("updated", updated);
+        result.put("removed", removes);
+        result.put("financials", refreshSummaries(job));
+        return result;
     }
 
-    public void removeMaterialFromJob(Long jobId, Long saleId, Long userId) {
-        logger.info("Removing sale {} from job {} for user {}", saleId, jobId, userId);
-        
+    private Job requireJob(Long jobId, Long userId) {
         Optional<Job> jobOpt = jobRepository.findByIdAndUserId(jobId, userId);
         if (!jobOpt.isPresent()) {
             logger.error("Job not found with ID: {} for user {}", jobId, userId);
             throw new IllegalArgumentException("Job not found or does not belong to you");
         }
+        return jobOpt.get();
+    }
 
-        Job job = jobOpt.get();
-        logger.info("Found job: {} with {} sales", job.getTitle(), job.getSales() != null ? job.getSales().size() : 0);
-        
-        // Find and remove the specific sale by ID
-        if (job.getSales() != null) {
-            Sale saleToRemove = null;
-            
-            for (Sale sale : job.getSales()) {
-                if (sale.getId().equals(saleId)) {
-                    saleToRemove = sale;
-                    logger.info("Found sale to remove with ID: {}", saleId);
-                    break;
-                }
-            }
-            
-            if (saleToRemove != null) {
-                // Set the sale's job reference to null to break the relationship
-                // This helps Hibernate understand the removal with orphanRemoval
-                saleToRemove.setJob(null);
-                job.getSales().remove(saleToRemove);
-                logger.info("Removed sale with ID: {} from job collection", saleToRemove.getId());
-                
-                // Save the updated job (orphanRemoval=true will delete the sale)
-                jobRepository.save(job);
-                logger.info("Job updated successfully, new sales count: {}", job.getSales() != null ? job.getSales().size() : 0);
-            } else {
+    // One joined query checks the job's owner and loads the sales with their items
+    private Map<Long, Sale> requireOwnedSales(Collection<Long> saleIds, Long jobId, Long userId) {
+        Map<Long, Sale> sales = new HashMap<>();
+        for (Sale sale : saleRepository.findOwnedWithItems(saleIds, jobId, userId)) {
+            sales.put(sale.getId(), sale);
+        }
+        for (Long saleId : saleIds) {
+            if (!sales.containsKey(saleId)) {
+                requireJob(jobId, userId);
                 logger.warn("Sale with ID {} not found in job {}", saleId, jobId);
                 throw new IllegalArgumentException("Sale not found in this job");
             }
-        } else {
-            logger.warn("Job has no sales to remove from");
-            throw new IllegalArgumentException("Job has no sales");
         }
+        return sales;
     }
 
-    public Sale updateMaterialInJob(Long jobId, Long saleId, MaterialDto materialDto, Long userId) {
-        logger.info("Updating sale {} in job {} with new quantity: {} for user {}", saleId, jobId, materialDto.getQuantity(), userId);
+    private Sale newMaterialSale(Job job, Product product, MaterialDto materialDto) {
+        Sale sale = new Sale();
+        sale.setDate(java.time.LocalDateTime.now());
+        sale.setDescription("Material added to job: " + job.getTitle());
+        sale.setJob(job);
+        sale.setCustomer(job.getCustomer());
 
-        Optional<Job> jobOpt = jobRepository.findByIdAndUserId(jobId, userId);
-        if (!jobOpt.isPresent()) {
-            logger.error("Job not found with ID: {} for user {}", jobId, userId);
-            throw new IllegalArgumentException("Job not found or does not belong to you");
-        }
+        SaleItem saleItem = new SaleItem();
+        saleItem.setSale(sale);
+        saleItem.setProduct(product);
+        saleItem.setQuantity(materialDto.getQuantity());
+        saleItem.setUnitPrice(materialDto.getUnitPrice() != null ? materialDto.getUnitPrice() : product.getUnitPrice());
+        sale.setSaleItems(new HashSet<>(Collections.singleton(saleItem)));
 
-        Job job = jobOpt.get();
-        logger.info("Found job: {} with {} sales", job.getTitle(), job.getSales() != null ? job.getSales().size() : 0);
+        // Keep an already loaded sales collection in step (nothing is loaded otherwise)
+        if (job.getSales() != null && Hibernate.isInitialized(job.getSales())) {
+            job.getSales().add(sale);
+        }
+        return sale;
+    }
 
-        // Find the specific sale by ID
-        if (job.getSales() != null) {
-            Sale saleToUpdate = null;
+    // Single-material sales need no item id; purchases with several lines do
+    private void updateSaleItem(Sale sale, MaterialDto materialDto) {
+        SaleItem saleItem = requireSaleItem(sale, materialDto.getSaleItemId());
+        logger.info("Updating sale item quantity from {} to {}", saleItem.getQuantity(), materialDto.getQuantity());
+        saleItem.setQuantity(materialDto.getQuantity());
+        if (materialDto.getUnitPrice() != null) {
+            logger.info("Updating unit price from {} to {}", saleItem.getUnitPrice(), materialDto.getUnitPrice());
+            saleItem.setUnitPrice(materialDto.getUnitPrice());
+        }
+        saleItemRepository.save(saleItem);
+    }
 
-            for (Sale sale : job.getSales()) {
-                if (sale.getId().equals(saleId)) {
-                    saleToUpdate = sale;
-                    logger.info("Found sale to update with ID: {}", saleId);
-                    break;
-                }
+    private SaleItem requireSaleItem(Sale sale, Long saleItemId) {
+        if (sale.getSaleItems() == null || sale.getSaleItems().isEmpty()) {
+            logger.error("Sale {} has no sale items to update", sale.getId());
+            throw new IllegalArgumentException("Sale has no items");
+        }
+        if (saleItemId == null) {
+            if (sale.getSaleItems().size() > 1) {
+                throw new IllegalArgumentException("Sale has several items; saleItemId is required");
             }
-
-            if (saleToUpdate != null) {
-                // Update the quantity in the first sale item (materials are stored as sale items)
-                if (saleToUpdate.getSaleItems() != null && !saleToUpdate.getSaleItems().isEmpty()) {
-                    SaleItem saleItem = saleToUpdate.getSaleItems().iterator().next();
-                    logger.info("Updating sale item quantity from {} to {}", saleItem.getQuantity(), materialDto.getQuantity());
-                    saleItem.setQuantity(materialDto.getQuantity());
-
-                    // Update unit price if provided
-                    if (materialDto.getUnitPrice() != null) {
-                        logger.info("Updating unit price from {} to {}", saleItem.getUnitPrice(), materialDto.getUnitPrice());
-                        saleItem.setUnitPrice(materialDto.getUnitPrice());
-                    }
-
-                    // Save the updated job (cascades to sale and sale items)
-                    jobRepository.save(job);
-                    logger.info("Sale updated successfully in job: {}", jobId);
-                    return saleToUpdate;
-                } else {
-                    logger.error("Sale has no sale items to update");
-                    throw new IllegalArgumentException("Sale has no items");
-                }
-            } else {
-                logger.warn("Sale with ID {} not found in job {}", saleId, jobId);
-                throw new IllegalArgumentException("Sale not found in this job");
+            return sale.getSaleItems().iterator().next();
+        }
+        for (SaleItem item : sale.getSaleItems()) {
+            if (item.getId().equals(saleItemId)) {
+                return item;
             }
-        } else {
-            logger.warn("Job has no sales to update");
-            throw new IllegalArgumentException("Job has no sales");
         }
+        throw new IllegalArgumentException("Sale item not found in this sale");
+    }
+
+    private void removeSale(Job job, Sale sale) {
+        // A loaded sales collection would otherwise re-save the sale on flush
+        if (job.getSales() != null && Hibernate.isInitialized(job.getSales())) {
+            job.getSales().remove(sale);
+        }
+        saleRepository.delete(sale);
+    }
+
+    private Job saveAndRefreshFinancials(Job job) {
+        return saveAndRefreshFinancials(job, null);
+    }
+
+    // A job moved to another customer also leaves its previous customer's totals.
+    // Callers are @Transactional, so the job and its summaries commit together
+    private Job saveAndRefreshFinancials(Job job, Customer previousCustomer) {
+        String action = job.getId() == null ? ChangeEvent.CREATED : ChangeEvent.UPDATED;
+        Job savedJob = jobRepository.save(job);
+        refreshSummaries(savedJob, action);
+        if (previousCustomer != null && (savedJob.getCustomer() == null
+                || !previousCustomer.getId().equals(savedJob.getCustomer().getId()))) {
+            customerStatsService.refresh(previousCustomer);
+        }
+        return savedJob;
+    }
+
+    private JobFinancials refreshSummaries(Job job) {
+        return refreshSummaries(job, ChangeEvent.UPDATED);
+    }
+
+    // The job's financials row, then its customer's stats (which read that row); the change is announced on commit
+    private JobFinancials refreshSummaries(Job job, String action) {
+        JobFinancials financials = jobFinancialsService.refresh(job);
+        customerStatsService.refresh(job.getCustomer());
+        changeFeedService.publish(job.getUserId(), ChangeEvent.JOB, action, job.getId());
+        return financials;
     }
 }
@@ -0,0 +1,247 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Labor analytics over LABOR expenses: the hours and cost actually recorded per
+ * employee, rather than job hours at a flat rate. Each breakdown (employee, job,
+ * customer, month) is a single grouped query. Expenses are keyed on employee_id;
+ * labor entered under a name that matches no employee is reported under that name.
+ */
+@Service
+public class LaborAnalyticsService {
+
+    private static final String LABOR_IN_RANGE =
+            "e.user_id = ? AND e.type = 'LABOR' AND e.expense_date BETWEEN ? AND ?";
+
+    private static final int JOB_ID_CHUNK = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Hours an employee is available per weekday, the denominator for utilization
+    @Value("${labor.standard-hours-per-day:8}")
+    private BigDecimal standardHoursPerDay;
+
+    /** Recorded labor cost and hours of one job. */
+    public static class JobLabor {
+        private final long costCents;
+        private final BigDecimal hours;
+
+        JobLabor(long costCents, BigDecimal hours) {
+            this.costCents = costCents;
+            this.hours = hours;
+        }
+
+        public long getCostCents() {
+            return costCents;
+        }
+
+        public BigDecimal getHours() {
+            return hours;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getLaborAnalytics(LocalDate startDate, LocalDate endDate, Long userId) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start date and end date are required");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        BigDecimal capacityHours = capacityHours(startDate, endDate);
+
+        List<Map<String, Object>> byEmployee = getLaborByEmployee(startDate, endDate, userId);
+        long totalCost = 0;
+        BigDecimal totalHours = BigDecimal.ZERO;
+        for (Map<String, Object> employee : byEmployee) {
+            totalCost += Money.toCents((BigDecimal) employee.get("laborCost"));
+            totalHours = totalHours.add((BigDecimal) employee.get("hours"));
+        }
+
+        List<Map<String, Object>> byJob = new ArrayList<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "SELECT e.job_id AS job_id, j.title AS title, j.estimated_hours AS estimated_hours, " +
+                "COUNT(DISTINCT COALESCE(CAST(e.employee_id AS VARCHAR(40)), e.employee_name)) AS employees, " +
+                "COALESCE(SUM(e.hours_worked), 0) AS hours, SUM(e.amount) AS cost " +
+                "FROM expenses e JOIN jobs j ON j.id = e.job_id " +
+                "WHERE " + LABOR_IN_RANGE + " " +
+                "GROUP BY e.job_id, j.title, j.estimated_hours " +
+                "ORDER BY cost DESC",
+                userId, startDate, endDate)) {
+            long cost = Money.toCents(decimal(row.get("cost")));
+            Map<String, Object> job = new LinkedHashMap<>();
+            job.put("jobId", row.get("job_id"));
+            job.put("title", row.get("title"));
+            job.put("estimatedHours", row.get("estimated_hours"));
+            job.put("employees", ((Number) row.get("employees")).longValue());
+            job.put("hours", decimal(row.get("hours")));
+            job.put("laborCost", Money.toDecimal(cost));
+            byJob.add(job);
+        }
+
+        // An expense's own customer wins over its job's customer
+        List<Map<String, Object>> byCustomer = new ArrayList<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "SELECT c.id AS customer_id, c.name AS name, " +
+                "COALESCE(SUM(e.hours_worked), 0) AS hours, SUM(e.amount) AS cost " +
+                "FROM expenses e LEFT JOIN jobs j ON j.id = e.job_id " +
+                "JOIN customers c ON c.id = COALESCE(e.customer_id, j.customer_id) " +
+                "WHERE " + LABOR_IN_RANGE + " " +
+                "GROUP BY c.id, c.name " +
+                "ORDER BY cost DESC",
+                userId, startDate, endDate)) {
+            Map<String, Object> customer = new LinkedHashMap<>();
+            customer.put("customerId", row.get("customer_id"));
+            customer.put("name", row.get("name"));
+            customer.put("hours", decimal(row.get("hours")));
+            customer.put("laborCost", Money.toDecimal(Money.toCents(decimal(row.get("cost")))));
+            byCustomer.add(customer);
+        }
+
+        String month = "CAST(DATE_TRUNC('month', CAST(e.expense_date AS TIMESTAMP)) AS DATE)";
+        List<Map<String, Object>> byMonth = new ArrayList<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "SELECT " + month + " AS bucket, COUNT(DISTINCT COALESCE(CAST(e.employee_id AS VARCHAR(40)), e.employee_name)) AS employees, " +
+                "COALESCE(SUM(e.hours_worked), 0) AS hours, SUM(e.amount) AS cost " +
+                "FROM expenses e WHERE " + LABOR_IN_RANGE + " " +
+                "GROUP BY " + month + " ORDER BY " + month,
+                userId, startDate, endDate)) {
+            Map<String, Object> period = new LinkedHashMap<>();
+            period.put("month", toLocalDate(row.get("bucket")));
+            period.put("employees", ((Number) row.get("employees")).longValue());
+            period.put("hours", decimal(row.get("hours")));
+            period.put("laborCost", Money.toDecimal(Money.toCents(decimal(row.get("cost")))));
+            byMonth.add(period);
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("totalHours", totalHours);
+        summary.put("totalLaborCost", Money.toDecimal(totalCost));
+        summary.put("averageHourlyRate", hourlyRate(totalCost, totalHours));
+        summary.put("employees", byEmployee.size());
+        summary.put("capacityHoursPerEmployee", capacityHours);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("period", Map.of("startDate", startDate, "endDate", endDate));
+        report.put("summary", summary);
+        report.put("byEmployee", byEmployee);
+        report.put("byJob", byJob);
+        report.put("byCustomer", byCustomer);
+        report.put("byMonth", byMonth);
+        return report;
+    }
+
+    /**
+     * Hours, cost and utilization per employee in one query. Utilization is logged
+     * hours over the weekday capacity of the period ({@code labor.standard-hours-per-day}).
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getLaborByEmployee(LocalDate startDate, LocalDate endDate, Long userId) {
+        BigDecimal capacityHours = capacityHours(startDate, endDate);
+        List<Map<String, Object>> byEmployee = new ArrayList<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "SELECT e.employee_id AS employee_id, COALESCE(emp.name, e.employee_name) AS name, emp.active AS active, " +
+                "COUNT(*) AS entries, COUNT(DISTINCT e.expense_date) AS days_worked, COUNT(DISTINCT e.job_id) AS jobs, " +
+                "COALESCE(SUM(e.hours_worked), 0) AS hours, SUM(e.amount) AS cost, " +
+                "COALESCE(SUM(CASE WHEN e.billable = TRUE THEN e.amount ELSE 0 END), 0) AS billable_cost " +
+                "FROM expenses e LEFT JOIN employees emp ON emp.id = e.employee_id " +
+                "WHERE " + LABOR_IN_RANGE + " " +
+                "GROUP BY e.employee_id, COALESCE(emp.name, e.employee_name), emp.active " +
+                "ORDER BY cost DESC",
+                userId, startDate, endDate)) {
+            long cost = Money.toCents(decimal(row.get("cost")));
+            BigDecimal hours = decimal(row.get("hours"));
+
+            Map<String, Object> employee = new LinkedHashMap<>();
+            employee.put("employeeId", row.get("employee_id"));
+            employee.put("name", row.get("name"));
+            employee.put("active", row.get("active"));
+            employee.put("entries", ((Number) row.get("entries")).longValue());
+            employee.put("daysWorked", ((Number) row.get("days_worked")).longValue());
+            employee.put("jobs", ((Number) row.get("jobs")).longValue());
+            employee.put("hours", hours);
+            employee.put("laborCost", Money.toDecimal(cost));
+            employee.put("billableCost", Money.toDecimal(Money.toCents(decimal(row.get("billable_cost")))));
+            employee.put("averageHourlyRate", hourlyRate(cost, hours));
+            employee.put("utilization", percent(hours, capacityHours));
+            byEmployee.add(employee);
+        }
+        return byEmployee;
+    }
+
+    /** Labor recorded against each of the given jobs, whatever the expense date. */
+    public Map<Long, JobLabor> getLaborByJob(Collection<Long> jobIds, Long userId) {
+        Map<Long, JobLabor> labor = new HashMap<>();
+        List<Long> ids = new ArrayList<>(jobIds);
+        for (int from = 0; from < ids.size(); from += JOB_ID_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + JOB_ID_CHUNK, ids.size()));
+            List<Object> args = new ArrayList<>(chunk);
+            args.add(userId);
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            for (Map<String, Object> row : jdbcTemplate.queryForList(
+                    "SELECT e.job_id AS job_id, COALESCE(SUM(e.hours_worked), 0) AS hours, SUM(e.amount) AS cost " +
+                    "FROM expenses e WHERE e.job_id IN (" + placeholders + ") AND e.user_id = ? AND e.type = 'LABOR' " +
+                    "GROUP BY e.job_id",
+                    args.toArray())) {
+                labor.put(((Number) row.get("job_id")).longValue(),
+                        new JobLabor(Money.toCents(decimal(row.get("cost"))), decimal(row.get("hours"))));
+            }
+        }
+        return labor;
+    }
+
+    private BigDecimal capacityHours(LocalDate startDate, LocalDate endDate) {
+        return standardHoursPerDay.multiply(BigDecimal.valueOf(countWeekdays(startDate, endDate)));
+    }
+
+    static long countWeekdays(LocalDate startDate, LocalDate endDate) {
+        long days = endDate.toEpochDay() - startDate.toEpochDay() + 1;
+        long weekdays = days / 7 * 5;
+        LocalDate date = startDate.plusDays(days / 7 * 7);
+        for (; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                weekdays++;
+            }
+        }
+        return weekdays;
+    }
+
+    static BigDecimal hourlyRate(long costCents, BigDecimal hours) {
+        return hours.signum() > 0 ? Money.toDecimal(costCents).divide(hours, 2, Money.ROUNDING) : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal percent(BigDecimal hours, BigDecimal capacity) {
+        return capacity.signum() > 0
+                ? hours.multiply(BigDecimal.valueOf(100)).divide(capacity, 1, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal decimal(Object value) {
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).toLocalDate();
+        }
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime().toLocalDate();
+        }
+        return value == null ? null : LocalDate.parse(value.toString().substring(0, 10));
+    }
+}
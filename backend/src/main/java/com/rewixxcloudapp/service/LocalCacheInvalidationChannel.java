@@ -0,0 +1,37 @@
+package com.rewixxcloudapp.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Single-instance deployments: there is nobody else to tell.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.invalidation.channel", havingValue = "local", matchIfMissing = true)
+public class LocalCacheInvalidationChannel implements CacheInvalidationChannel {
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Override
+    public String getName() {
+        return "local";
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(String cacheName, String key) {
+        // no other instances
+    }
+
+    @Override
+    public void setListener(BiConsumer<String, String> listener) {
+        // no other instances
+    }
+}
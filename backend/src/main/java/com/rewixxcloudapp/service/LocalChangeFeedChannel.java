@@ -0,0 +1,30 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.dto.ChangeEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Single-instance deployments: every subscriber is connected to this node.
+ */
+@Component
+@ConditionalOnProperty(name = "changes.channel", havingValue = "local", matchIfMissing = true)
+public class LocalChangeFeedChannel implements ChangeFeedChannel {
+
+    @Override
+    public String getName() {
+        return "local";
+    }
+
+    @Override
+    public void publish(ChangeEvent event) {
+        // no other instances
+    }
+
+    @Override
+    public void setListener(Consumer<ChangeEvent> listener, Runnable onGap) {
+        // no other instances
+    }
+}
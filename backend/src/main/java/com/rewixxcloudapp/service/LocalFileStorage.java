@@ -0,0 +1,79 @@
+package com.rewixxcloudapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Files under {@code storage.local.root}. Only visible to other instances when that
+ * directory is a volume they all mount.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalFileStorage implements FileStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalFileStorage.class);
+
+    @Value("${storage.local.root:uploads}")
+    private String rootDirectory;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() {
+        root = Paths.get(rootDirectory).toAbsolutePath().normalize();
+        logger.info("Storing uploads in {}", root);
+    }
+
+    @Override
+    public String getName() {
+        return "local";
+    }
+
+    @Override
+    public void store(String key, byte[] content, String contentType) throws IOException {
+        Path path = resolve(key);
+        Files.createDirectories(path.getParent());
+        // Written aside and moved into place, so readers never see half a file
+        Path temporary = Files.createTempFile(path.getParent(), ".upload-", ".tmp");
+        try {
+            Files.write(temporary, content);
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Override
+    public byte[] read(String key) throws IOException {
+        Path path = resolve(key);
+        return Files.isRegularFile(path) ? Files.readAllBytes(path) : null;
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (key.isEmpty() || !path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid file name: " + key);
+        }
+        return path;
+    }
+}
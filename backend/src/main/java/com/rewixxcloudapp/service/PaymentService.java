@@ -1,17 +1,32 @@
 package com.rewixxcloudapp.service;
 
+import com.rewixxcloudapp.dto.ChangeEvent;
 import com.rewixxcloudapp.dto.PaymentDto;
+import com.rewixxcloudapp.entity.IdempotencyKey;
 import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.entity.JobFinancials;
 import com.rewixxcloudapp.entity.Payment;
 import com.rewixxcloudapp.entity.PaymentType;
+import com.rewixxcloudapp.repository.IdempotencyKeyRepository;
+import com.rewixxcloudapp.repository.JobFinancialsRepository;
 import com.rewixxcloudapp.repository.JobRepository;
 import com.rewixxcloudapp.repository.PaymentRepository;
+import com.rewixxcloudapp.util.Money;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +34,7 @@ import java.util.Optional;
 public class PaymentService {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
+    private static final String IDEMPOTENCY_SCOPE = "payment";
 
     @Autowired
     private PaymentRepository paymentRepository;
@@ -26,6 +42,38 @@ public class PaymentService {
     @Autowired
     private JobRepository jobRepository;
 
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private JobFinancialsRepository jobFinancialsRepository;
+
+    @Autowired
+    private JobFinancialsService jobFinancialsService;
+
+    @Autowired
+    private CustomerStatsService customerStatsService;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${payments.idempotency.retention-hours:48}")
+    private long idempotencyRetentionHours;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional(readOnly = true)
     public List<Payment> getPaymentsByJobId(Long jobId, Long userId) {
         logger.info("Fetching payments for job ID: {} for user {}", jobId, userId);
         // Verify job belongs to user
@@ -36,6 +84,7 @@ public class PaymentService {
         return paymentRepository.findByJobId(jobId);
     }
 
+    @Transactional(readOnly = true)
     public BigDecimal getTotalPaidByJobId(Long jobId, Long userId) {
         logger.info("Calculating total paid for job ID: {} for user {}", jobId, userId);
         // Verify job belongs to user
@@ -43,29 +92,25 @@ public class PaymentService {
         if (!jobOpt.isPresent()) {
             throw new IllegalArgumentException("Job not found or does not belong to you");
         }
+        Optional<JobFinancials> financials = jobFinancialsRepository.findById(jobId);
+        if (financials.isPresent()) {
+            return financials.get().getPaid();
+        }
         BigDecimal total = paymentRepository.getTotalPaidByJobId(jobId);
         return total != null ? total : BigDecimal.ZERO;
     }
 
-    private BigDecimal calculateJobTotalCost(Job job) {
-        // Calculate total cost: customMaterialCost + jobPrice + tax
-        BigDecimal materialCost = job.getCustomMaterialCost() != null ?
-            BigDecimal.valueOf(job.getCustomMaterialCost()) : BigDecimal.ZERO;
-        BigDecimal jobPrice = job.getJobPrice() != null ?
-            BigDecimal.valueOf(job.getJobPrice()) : BigDecimal.ZERO;
-
-        BigDecimal subtotal = materialCost.add(jobPrice);
-
-        // Add 6% tax if includeTax is true
-        if (job.getIncludeTax() != null && job.getIncludeTax()) {
-            BigDecimal tax = subtotal.multiply(BigDecimal.valueOf(0.06));
-            subtotal = subtotal.add(tax);
-        }
-
-        return subtotal;
+    public Payment createPayment(PaymentDto dto, Long userId) {
+        return createPayment(dto, userId, null);
     }
 
-    public Payment createPayment(PaymentDto dto, Long userId) {
+    /**
+     * Records a payment. The balance check and the paid total move together in one
+     * conditional update of the job's {@link JobFinancials} row, so concurrent
+     * payments cannot overpay a job. With an Idempotency-Key, a retried request
+     * returns the payment created by the first attempt.
+     */
+    public Payment createPayment(PaymentDto dto, Long userId, String idempotencyKey) {
         logger.info("Creating payment for job ID: {} for user {}", dto.getJobId(), userId);
 
         // Validate required fields
@@ -86,28 +131,61 @@ public class PaymentService {
             }
         }
 
+        String key = idempotencyKey != null && !idempotencyKey.trim().isEmpty() ? idempotencyKey.trim() : null;
+        if (key != null && key.length() > 100) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most 100 characters");
+        }
+        String requestHash = key != null ? requestHash(dto) : null;
+        if (key != null) {
+            Optional<Payment> replay = findReplay(userId, key, requestHash);
+            if (replay.isPresent()) {
+                logger.info("Payment request with Idempotency-Key {} replayed, returning payment {}", key, replay.get().getId());
+                return replay.get();
+            }
+        }
+
+        try {
+            Payment savedPayment = transactionTemplate.execute(status -> recordPayment(dto, userId, key, requestHash));
+            logger.info("Payment created successfully with ID: {}", savedPayment.getId());
+            return savedPayment;
+        } catch (DataIntegrityViolationException | IllegalArgumentException e) {
+            // A concurrent retry with the same key committed first (and may have used up the
+            // balance); its payment is the answer
+            if (key != null) {
+                Optional<Payment> replay = findReplay(userId, key, requestHash);
+                if (replay.isPresent()) {
+                    logger.info("Concurrent payment request with Idempotency-Key {} resolved to payment {}", key, replay.get().getId());
+                    return replay.get();
+                }
+            }
+            throw e;
+        }
+    }
+
+    private Payment recordPayment(PaymentDto dto, Long userId, String key, String requestHash) {
         // Verify job exists and belongs to user
         Optional<Job> jobOpt = jobRepository.findByIdAndUserId(dto.getJobId(), userId);
         if (!jobOpt.isPresent()) {
             throw new IllegalArgumentException("Job not found or does not belong to you");
         }
-
         Job job = jobOpt.get();
 
-        // Calculate total cost and validate payment doesn't exceed remaining balance
-        BigDecimal totalCost = calculateJobTotalCost(job);
-        BigDecimal totalPaid = getTotalPaidByJobId(dto.getJobId(), userId);
-        BigDecimal remainingBalance = totalCost.subtract(totalPaid);
-
-        if (dto.getAmount().compareTo(remainingBalance) > 0) {
-            throw new IllegalArgumentException(
-                String.format("Payment amount ($%s) exceeds remaining balance ($%s). Total cost: $%s, Already paid: $%s",
-                    dto.getAmount(), remainingBalance, totalCost, totalPaid)
-            );
+        long totalCents = pricingService.priceJob(job).getTotalCents();
+        long amountCents = Money.toCents(dto.getAmount());
+        if (jobFinancialsRepository.addPayment(job.getId(), userId, amountCents, totalCents) == 0) {
+            jobFinancialsService.seed(job, totalCents);
+            // Retry once: the row now exists, seeded here or by a concurrent payment that has committed
+            if (jobFinancialsRepository.addPayment(job.getId(), userId, amountCents, totalCents) == 0) {
+                long paidCents = jobFinancialsRepository.findById(job.getId()).map(JobFinancials::getPaidCents).orElse(0L);
+                throw new IllegalArgumentException(
+                    String.format("Payment amount ($%s) exceeds remaining balance ($%s). Total cost: $%s, Already paid: $%s",
+                        dto.getAmount(), Money.toDecimal(totalCents - paidCents), Money.toDecimal(totalCents), Money.toDecimal(paidCents))
+                );
+            }
         }
 
         Payment payment = new Payment();
-        payment.setJob(jobOpt.get());
+        payment.setJob(job);
         payment.setPaymentType(dto.getPaymentType());
         payment.setAmount(dto.getAmount());
         payment.setCheckNumber(dto.getCheckNumber());
@@ -117,25 +195,67 @@ public class PaymentService {
         }
 
         Payment savedPayment = paymentRepository.save(payment);
-        logger.info("Payment created successfully with ID: {}", savedPayment.getId());
+        customerStatsService.addPayment(savedPayment);
+        changeFeedService.publish(userId, ChangeEvent.PAYMENT, ChangeEvent.CREATED, savedPayment.getId(), job.getId());
+        if (key != null) {
+            // Unique per (user, scope, key): a concurrent duplicate fails here and rolls back
+            idempotencyKeyRepository.saveAndFlush(
+                    new IdempotencyKey(userId, IDEMPOTENCY_SCOPE, key, requestHash, savedPayment.getId()));
+        }
         return savedPayment;
     }
 
+    private Optional<Payment> findReplay(Long userId, String key, String requestHash) {
+        Optional<IdempotencyKey> existing = idempotencyKeyRepository.findByUserIdAndScopeAndIdempotencyKey(userId, IDEMPOTENCY_SCOPE, key);
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+        if (!existing.get().getRequestHash().equals(requestHash)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different payment");
+        }
+        Optional<Payment> payment = paymentRepository.findById(existing.get().getResourceId());
+        if (payment.isEmpty()) {
+            throw new IllegalArgumentException("The payment created with this Idempotency-Key has been deleted");
+        }
+        return payment;
+    }
+
+    private String requestHash(PaymentDto dto) {
+        String canonical = dto.getJobId() + "|" + dto.getPaymentType() + "|" + Money.toCents(dto.getAmount()) + "|"
+                + (dto.getCheckNumber() != null ? dto.getCheckNumber().trim() : "") + "|"
+                + (dto.getPaymentDate() != null ? dto.getPaymentDate() : "");
+        return ScanService.sha256(canonical.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Scheduled(cron = "${payments.idempotency.purge-cron:0 15 3 * * *}")
+    public void purgeIdempotencyKeys() {
+        int deleted = idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(idempotencyRetentionHours));
+        if (deleted > 0) {
+            logger.info("Purged {} expired payment idempotency keys", deleted);
+        }
+    }
+
     public void deletePayment(Long id, Long userId) {
         logger.info("Deleting payment with ID: {} for user {}", id, userId);
 
-        Optional<Payment> paymentOpt = paymentRepository.findById(id);
-        if (!paymentOpt.isPresent()) {
-            throw new IllegalArgumentException("Payment not found with ID: " + id);
-        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Optional<Payment> paymentOpt = paymentRepository.findById(id);
+            if (!paymentOpt.isPresent()) {
+                throw new IllegalArgumentException("Payment not found with ID: " + id);
+            }
 
-        Payment payment = paymentOpt.get();
-        // Verify the payment's job belongs to the user
-        if (payment.getJob() == null || !payment.getJob().getUserId().equals(userId)) {
-            throw new IllegalArgumentException("Payment does not belong to you");
-        }
+            Payment payment = paymentOpt.get();
+            // Verify the payment's job belongs to the user
+            if (payment.getJob() == null || !payment.getJob().getUserId().equals(userId)) {
+                throw new IllegalArgumentException("Payment does not belong to you");
+            }
 
-        paymentRepository.deleteById(id);
+            paymentRepository.deleteById(id);
+            jobFinancialsRepository.removePayment(payment.getJob().getId(), Money.toCents(payment.getAmount()));
+            // Recomputed rather than reversed: the payment may have been the customer's last activity
+            customerStatsService.refresh(payment.getJob().getCustomer());
+            changeFeedService.publish(userId, ChangeEvent.PAYMENT, ChangeEvent.DELETED, id, payment.getJob().getId());
+        });
         logger.info("Payment deleted successfully: {}", id);
     }
 }
@@ -0,0 +1,166 @@
+package com.rewixxcloudapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rewixxcloudapp.dto.ChangeEvent;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Fan-out through PostgreSQL LISTEN/NOTIFY. Publishing is one {@code pg_notify} on
+ * any pooled connection; a background thread holds one connection LISTENing and
+ * hands other instances' events to the feed. Notifications are not stored, so
+ * while that connection is down events are lost; the feed is told about the gap
+ * and sends its subscribers a reset instead of a silently incomplete replay.
+ */
+@Component
+@ConditionalOnProperty(name = "changes.channel", havingValue = "postgres")
+public class PostgresChangeFeedChannel implements ChangeFeedChannel {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresChangeFeedChannel.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Interpolated into LISTEN, which takes no bind parameters
+    @Value("${changes.postgres.channel-name:change_feed}")
+    private String channelName;
+
+    @Value("${changes.postgres.poll-timeout-ms:1000}")
+    private int pollTimeoutMs;
+
+    @Value("${changes.postgres.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile Consumer<ChangeEvent> listener = event -> { };
+    private volatile Runnable onGap = () -> { };
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @PostConstruct
+    public void start() {
+        if (!channelName.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalStateException("Invalid changes.postgres.channel-name: " + channelName);
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "change-feed-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        listenerThread.interrupt();
+        listenerThread.join(pollTimeoutMs * 2L);
+    }
+
+    @Override
+    public String getName() {
+        return "postgres";
+    }
+
+    @Override
+    public void publish(ChangeEvent event) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("nodeId", nodeId);
+        message.put("origin", event.getOrigin());
+        message.put("id", event.getId());
+        message.put("userId", event.getUserId());
+        message.put("type", event.getType());
+        message.put("action", event.getAction());
+        message.put("entityId", event.getEntityId());
+        message.put("jobId", event.getJobId());
+        message.put("timestamp", event.getTimestamp());
+        try {
+            String payload = objectMapper.writeValueAsString(message);
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, channelName, payload);
+        } catch (JsonProcessingException | RuntimeException e) {
+            // The write itself has committed; only other nodes' subscribers miss this one
+            logger.warn("Failed to publish change {} {} {}", event.getType(), event.getEntityId(), event.getAction(), e);
+        }
+    }
+
+    @Override
+    public void setListener(Consumer<ChangeEvent> listener, Runnable onGap) {
+        this.listener = listener;
+        this.onGap = onGap;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channelName);
+                }
+                logger.info("Change feed listening on '{}' (node {})", channelName, nodeId);
+                // Anything sent while we were not listening is gone
+                onGap.run();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Change feed listener connection lost, reconnecting in {} ms", reconnectDelayMs, e);
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void apply(String payload) {
+        try {
+            Map<?, ?> message = objectMapper.readValue(payload, Map.class);
+            if (nodeId.equals(message.get("nodeId"))) {
+                return;
+            }
+            ChangeEvent event = new ChangeEvent(toLong(message.get("userId")), (String) message.get("type"),
+                    (String) message.get("action"), toLong(message.get("entityId")), toLong(message.get("jobId")));
+            event.setTimestamp(toLong(message.get("timestamp")));
+            listener.accept(event.withOrigin((String) message.get("origin"), toLong(message.get("id"))));
+        } catch (Exception e) {
+            logger.warn("Ignoring malformed change notification: {}", payload, e);
+        }
+    }
+
+    private static Long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : null;
+    }
+}
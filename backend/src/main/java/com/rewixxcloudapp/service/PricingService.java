@@ -0,0 +1,115 @@
+package com.rewixxcloudapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rewixxcloudapp.dto.AccountSettingsView;
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * The one place job totals are computed: material cost + job price, plus the
+ * tenant's sales tax when the job is taxable. Contracts, payments and reports all
+ * price jobs through here, in cents, with {@link Money} rounding.
+ */
+@Service
+public class PricingService {
+
+    @Autowired
+    private AccountSettingsService accountSettingsService;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${pricing.default-tax-rate-percent:6}")
+    private BigDecimal defaultTaxRatePercent;
+
+    // Tenant -> tax rate in basis points; follows account settings invalidations
+    private Cache<Long, Long> taxRates;
+    private long defaultTaxRateBasisPoints;
+
+    @PostConstruct
+    public void init() {
+        defaultTaxRateBasisPoints = Money.percentToBasisPoints(defaultTaxRatePercent);
+        taxRates = Caffeine.newBuilder()
+                .maximumSize(10000)
+                .expireAfterWrite(Duration.ofMinutes(30))
+                .build();
+        cacheInvalidationBus.register(AccountSettingsService.VIEW_CACHE, key -> taxRates.invalidate(Long.valueOf(key)));
+    }
+
+    public long taxRateBasisPoints(Long userId) {
+        if (userId == null) {
+            return defaultTaxRateBasisPoints;
+        }
+        return taxRates.get(userId, this::loadTaxRate);
+    }
+
+    public JobPrice priceJob(Job job) {
+        return priceJob(job, taxRateBasisPoints(job.getUserId()));
+    }
+
+    public JobPrice priceJob(Job job, long taxRateBasisPoints) {
+        long materialsCents = Money.toCents(job.getCustomMaterialCost());
+        long priceCents = Money.toCents(job.getJobPrice());
+        long subtotalCents = Math.addExact(materialsCents, priceCents);
+        long taxCents = Boolean.TRUE.equals(job.getIncludeTax()) ? Money.applyRate(subtotalCents, taxRateBasisPoints) : 0;
+        return new JobPrice(materialsCents, priceCents, taxCents);
+    }
+
+    private long loadTaxRate(Long userId) {
+        try {
+            AccountSettingsView settings = accountSettingsService.getSettingsView(userId);
+            if (settings.getTaxRatePercent() != null) {
+                return Money.percentToBasisPoints(settings.getTaxRatePercent());
+            }
+        } catch (IllegalArgumentException e) {
+            // Tenant without a login (e.g. the admin account) prices with the default rate
+        }
+        return defaultTaxRateBasisPoints;
+    }
+
+    /** A priced job, all amounts in cents. */
+    public static final class JobPrice {
+
+        private final long materialsCents;
+        private final long priceCents;
+        private final long taxCents;
+
+        private JobPrice(long materialsCents, long priceCents, long taxCents) {
+            this.materialsCents = materialsCents;
+            this.priceCents = priceCents;
+            this.taxCents = taxCents;
+        }
+
+        public long getMaterialsCents() {
+            return materialsCents;
+        }
+
+        public long getPriceCents() {
+            return priceCents;
+        }
+
+        public long getSubtotalCents() {
+            return materialsCents + priceCents;
+        }
+
+        public long getTaxCents() {
+            return taxCents;
+        }
+
+        public long getTotalCents() {
+            return materialsCents + priceCents + taxCents;
+        }
+
+        public BigDecimal getTotal() {
+            return Money.toDecimal(getTotalCents());
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.entity.Product;
+import com.rewixxcloudapp.util.SearchNormalizer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory name index over the product catalog. Word prefixes live in a sorted map
+ * so "2x4 st" is two range scans; a trigram index catches typos and mid-word matches
+ * when the prefix pass doesn't fill the result. Entries are detached copies, updated
+ * one product at a time by {@link ProductCatalogService} on every write.
+ */
+@Component
+public class ProductCatalogIndex {
+
+    private static final int GRAM_SIZE = 3;
+    private static final double MIN_TRIGRAM_SIMILARITY = 0.5;
+
+    private final Map<Long, Product> products = new HashMap<>();
+    private final Map<Long, String> normalizedNames = new HashMap<>();
+    private final Map<String, Set<Long>> exactNames = new HashMap<>();
+    private final Map<String, Long> barcodes = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> words = new TreeMap<>();
+    private final Map<String, Set<Long>> trigrams = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void rebuild(Collection<Product> all) {
+        lock.writeLock().lock();
+        try {
+            products.clear();
+            normalizedNames.clear();
+            exactNames.clear();
+            barcodes.clear();
+            words.clear();
+            trigrams.clear();
+            for (Product product : all) {
+                add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsert(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeEntry(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return products.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Product> findByExactName(String name) {
+        lock.readLock().lock();
+        try {
+            List<Product> result = new ArrayList<>();
+            for (Long id : exactNames.getOrDefault(SearchNormalizer.normalize(name), Set.of())) {
+                result.add(copy(products.get(id)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Product findByBarcode(String barcode) {
+        lock.readLock().lock();
+        try {
+            Long id = barcodes.get(barcode);
+            return id != null ? copy(products.get(id)) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked autocomplete: exact name, then whole-name prefix, then every query word
+     * prefixing some name word, then trigram similarity.
+     */
+    public List<Product> search(String query, int limit) {
+        String normalizedQuery = SearchNormalizer.normalize(query);
+        if (normalizedQuery.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<String> queryWords = SearchNormalizer.tokens(query);
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = new HashMap<>();
+
+            Set<Long> candidates = null;
+            for (String word : queryWords) {
+                Set<Long> matches = new HashSet<>();
+                for (Set<Long> ids : words.subMap(word, true, word + Character.MAX_VALUE, true).values()) {
+                    matches.addAll(ids);
+                }
+                if (candidates == null) {
+                    candidates = matches;
+                } else {
+                    candidates.retainAll(matches);
+                }
+                if (candidates.isEmpty()) {
+                    break;
+                }
+            }
+            if (candidates != null) {
+                for (Long id : candidates) {
+                    String name = normalizedNames.get(id);
+                    double score = name.equals(normalizedQuery) ? 3.0 : name.startsWith(normalizedQuery) ? 2.0 : 1.0;
+                    scores.put(id, score);
+                }
+            }
+
+            if (scores.size() < limit && normalizedQuery.length() >= GRAM_SIZE) {
+                Set<String> queryGrams = grams(normalizedQuery);
+                Map<Long, Integer> overlap = new HashMap<>();
+                for (String gram : queryGrams) {
+                    for (Long id : trigrams.getOrDefault(gram, Set.of())) {
+                        overlap.merge(id, 1, Integer::sum);
+                    }
+                }
+                for (Map.Entry<Long, Integer> entry : overlap.entrySet()) {
+                    double similarity = (double) entry.getValue() / queryGrams.size();
+                    if (similarity >= MIN_TRIGRAM_SIMILARITY) {
+                        scores.putIfAbsent(entry.getKey(), similarity);
+                    }
+                }
+            }
+
+            List<Long> ranked = new ArrayList<>(scores.keySet());
+            ranked.sort(Comparator.<Long>comparingDouble(id -> -scores.get(id))
+                    .thenComparingInt(id -> normalizedNames.get(id).length())
+                    .thenComparing(normalizedNames::get));
+
+            List<Product> result = new ArrayList<>();
+            for (Long id : ranked.subList(0, Math.min(limit, ranked.size()))) {
+                result.add(copy(products.get(id)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Product product) {
+        Long id = product.getId();
+        String name = SearchNormalizer.normalize(product.getName());
+        products.put(id, copy(product));
+        normalizedNames.put(id, name);
+        exactNames.computeIfAbsent(name, k -> new HashSet<>()).add(id);
+        if (product.getBarcode() != null && !product.getBarcode().isBlank()) {
+            barcodes.put(product.getBarcode().trim(), id);
+        }
+        for (String word : SearchNormalizer.tokens(product.getName())) {
+            words.computeIfAbsent(word, k -> new HashSet<>()).add(id);
+        }
+        for (String gram : grams(name)) {
+            trigrams.computeIfAbsent(gram, k -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void removeEntry(Long id) {
+        Product existing = products.remove(id);
+        String name = normalizedNames.remove(id);
+        if (existing == null) {
+            return;
+        }
+        removeFrom(exactNames, name, id);
+        if (existing.getBarcode() != null) {
+            barcodes.remove(existing.getBarcode().trim(), id);
+        }
+        for (String word : SearchNormalizer.tokens(existing.getName())) {
+            removeFrom(words, word, id);
+        }
+        for (String gram : grams(name)) {
+            removeFrom(trigrams, gram, id);
+        }
+    }
+
+    private static void removeFrom(Map<String, Set<Long>> index, String key, Long id) {
+        Set<Long> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static Set<String> grams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        String padded = " " + normalized + " ";
+        for (int i = 0; i + GRAM_SIZE <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private static Product copy(Product source) {
+        Product copy = new Product(source.getName(), source.getDescription(), source.getUnitPrice());
+        copy.setId(source.getId());
+        copy.setCategory(source.getCategory());
+        copy.setSku(source.getSku());
+        copy.setBarcode(source.getBarcode());
+        return copy;
+    }
+}
@@ -0,0 +1,274 @@
+package com.rewixxcloudapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rewixxcloudapp.entity.BarcodeLookup;
+import com.rewixxcloudapp.entity.Product;
+import com.rewixxcloudapp.repository.BarcodeLookupRepository;
+import com.rewixxcloudapp.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Product catalog: writes go to the {@code products} table and the in-memory
+ * {@link ProductCatalogIndex}; name search and autocomplete are served from the index.
+ * Barcode lookups check the catalog, then the {@code barcode_lookups} cache, and only
+ * then the external scanner API.
+ */
+@Service
+public class ProductCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCatalogService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private BarcodeLookupRepository barcodeLookupRepository;
+
+    @Autowired
+    private ProductCatalogIndex productCatalogIndex;
+
+    @Autowired
+    private ScannerClient scannerClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${catalog.barcode.ttl-hours:720}")
+    private long barcodeTtlHours;
+
+    @Value("${catalog.barcode.negative-ttl-hours:24}")
+    private long barcodeNegativeTtlHours;
+
+    // One external call per barcode at a time; concurrent scans of the same code share it
+    private final Map<String, CompletableFuture<BarcodeLookup>> inFlightLookups = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        rebuildIndex();
+    }
+
+    // Safety net for catalog rows written outside this service (SQL scripts, other instances)
+    @Scheduled(initialDelayString = "${catalog.index.refresh-interval-ms:600000}",
+               fixedDelayString = "${catalog.index.refresh-interval-ms:600000}")
+    public void rebuildIndex() {
+        long start = System.currentTimeMillis();
+        List<Product> products = productRepository.findAll();
+        productCatalogIndex.rebuild(products);
+        logger.info("Product catalog index built with {} products in {} ms", products.size(), System.currentTimeMillis() - start);
+    }
+
+    public Product createProduct(Product product) {
+        if (product.getName() == null || product.getName().trim().isEmpty()) {
+            throw new IllegalArgumentException("Product name is required");
+        }
+        product.setId(null);
+        product.setName(product.getName().trim());
+        product.setBarcode(trimToNull(product.getBarcode()));
+        product.setSku(trimToNull(product.getSku()));
+        validateUniqueBarcode(product.getBarcode(), null);
+
+        Product saved = productRepository.save(product);
+        productCatalogIndex.upsert(saved);
+        logger.info("Product created with ID: {}", saved.getId());
+        return saved;
+    }
+
+    public Optional<Product> updateProduct(Long id, Product changes) {
+        Optional<Product> productOpt = productRepository.findById(id);
+        if (productOpt.isEmpty()) {
+            return Optional.empty();
+        }
+        Product product = productOpt.get();
+        if (changes.getName() != null && !changes.getName().trim().isEmpty()) {
+            product.setName(changes.getName().trim());
+        }
+        if (changes.getDescription() != null) {
+            product.setDescription(changes.getDescription());
+        }
+        if (changes.getUnitPrice() != null) {
+            product.setUnitPrice(changes.getUnitPrice());
+        }
+        if (changes.getCategory() != null) {
+            product.setCategory(changes.getCategory());
+        }
+        if (changes.getSku() != null) {
+            product.setSku(trimToNull(changes.getSku()));
+        }
+        if (changes.getBarcode() != null) {
+            String barcode = trimToNull(changes.getBarcode());
+            validateUniqueBarcode(barcode, id);
+            product.setBarcode(barcode);
+        }
+
+        Product saved = productRepository.save(product);
+        productCatalogIndex.upsert(saved);
+        logger.info("Product updated with ID: {}", saved.getId());
+        return Optional.of(saved);
+    }
+
+    public List<Product> autocomplete(String query, int limit) {
+        return productCatalogIndex.search(query, Math.max(1, Math.min(limit, 50)));
+    }
+
+    /**
+     * Exact (case/accent-insensitive) name matches first, else ranked partial matches.
+     */
+    public List<Product> searchByName(String name, int limit) {
+        List<Product> exactMatches = productCatalogIndex.findByExactName(name);
+        if (!exactMatches.isEmpty()) {
+            return exactMatches;
+        }
+        return productCatalogIndex.search(name, limit);
+    }
+
+    public Map<String, Object> lookupBarcode(String rawBarcode) {
+        String barcode = rawBarcode != null ? rawBarcode.trim() : "";
+        if (barcode.isEmpty() || barcode.length() > 64) {
+            throw new IllegalArgumentException("A barcode of 1-64 characters is required");
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("barcode", barcode);
+
+        Product catalogProduct = productCatalogIndex.findByBarcode(barcode);
+        if (catalogProduct != null) {
+            response.put("source", "catalog");
+            response.put("found", true);
+            response.put("product", catalogProduct);
+            return response;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Optional<BarcodeLookup> cachedOpt = barcodeLookupRepository.findByBarcode(barcode);
+        if (cachedOpt.isPresent() && !cachedOpt.get().isExpired(now)) {
+            barcodeLookupRepository.recordHit(cachedOpt.get().getId());
+            return toLookupResponse(response, cachedOpt.get(), "cache");
+        }
+
+        try {
+            BarcodeLookup fresh = fetchSingleFlight(barcode);
+            return toLookupResponse(response, fresh, "external");
+        } catch (RuntimeException e) {
+            // Scanner down: an expired entry is still better than nothing
+            if (cachedOpt.isPresent()) {
+                logger.warn("Barcode lookup for {} failed, serving stale cache entry: {}", barcode, e.getMessage());
+                return toLookupResponse(response, cachedOpt.get(), "stale-cache");
+            }
+            throw e;
+        }
+    }
+
+    @Scheduled(cron = "${catalog.barcode.purge-cron:0 30 3 * * *}")
+    public void purgeExpiredLookups() {
+        int deleted = barcodeLookupRepository.deleteExpiredBefore(LocalDateTime.now().minusDays(30));
+        if (deleted > 0) {
+            logger.info("Purged {} expired barcode lookups", deleted);
+        }
+    }
+
+    private BarcodeLookup fetchSingleFlight(String barcode) {
+        CompletableFuture<BarcodeLookup> future = new CompletableFuture<>();
+        CompletableFuture<BarcodeLookup> existing = inFlightLookups.putIfAbsent(barcode, future);
+        if (existing != null) {
+            try {
+                return existing.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for barcode lookup", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Barcode lookup failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        try {
+            BarcodeLookup lookup = fetchAndStore(barcode);
+            future.complete(lookup);
+            return lookup;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLookups.remove(barcode, future);
+        }
+    }
+
+    private BarcodeLookup fetchAndStore(String barcode) {
+        Map<String, Object> result = scannerClient.lookupBarcode(barcode);
+        // The scanning API answers misses with a placeholder from supplier "Unknown"
+        boolean found = result.get("name") != null && !"Unknown".equals(result.get("supplier"));
+        LocalDateTime now = LocalDateTime.now();
+
+        BarcodeLookup lookup = barcodeLookupRepository.findByBarcode(barcode).orElseGet(() -> new BarcodeLookup(barcode));
+        lookup.setFound(found);
+        lookup.setPayload(writeJson(result));
+        lookup.setFetchedAt(now);
+        lookup.setExpiresAt(now.plusHours(found ? barcodeTtlHours : barcodeNegativeTtlHours));
+        try {
+            return barcodeLookupRepository.save(lookup);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance cached the same barcode first; theirs is as good as ours
+            logger.info("Barcode {} was cached concurrently", barcode);
+            return barcodeLookupRepository.findByBarcode(barcode).orElse(lookup);
+        }
+    }
+
+    private Map<String, Object> toLookupResponse(Map<String, Object> response, BarcodeLookup lookup, String source) {
+        response.put("source", source);
+        response.put("found", lookup.getFound());
+        response.put("fetchedAt", lookup.getFetchedAt());
+        response.put("lookup", lookup.getPayload() != null ? readJson(lookup.getPayload()) : null);
+        return response;
+    }
+
+    private void validateUniqueBarcode(String barcode, Long productId) {
+        if (barcode == null) {
+            return;
+        }
+        for (Product existing : productRepository.findByBarcode(barcode)) {
+            if (!existing.getId().equals(productId)) {
+                throw new IllegalArgumentException("Barcode " + barcode + " is already used by product " + existing.getName());
+            }
+        }
+    }
+
+    private String writeJson(Map<String, Object> value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Barcode lookup could not be serialized", e);
+        }
+    }
+
+    private Map<String, Object> readJson(String payload) {
+        try {
+            return objectMapper.readValue(payload, new TypeReference<Map<String, Object>>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cached barcode lookup is not valid JSON", e);
+        }
+    }
+
+    private String trimToNull(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return value.trim();
+    }
+}
@@ -0,0 +1,305 @@
+package com.rewixxcloudapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rewixxcloudapp.config.ReplicaRoutingDataSource;
+import com.rewixxcloudapp.entity.ReportJob;
+import com.rewixxcloudapp.entity.ReportJobStatus;
+import com.rewixxcloudapp.entity.ReportResult;
+import com.rewixxcloudapp.repository.ReportJobRepository;
+import com.rewixxcloudapp.repository.ReportResultRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Background report runs. A submission becomes a {@code report_jobs} row that
+ * {@code ReportWorker} picks up; identical requests from the same user while one is
+ * pending or running get that job back instead of a second run. The worker builds
+ * the report section by section, recording progress and checking for cancellation
+ * between sections, and stores the JSON gzip-compressed in {@code report_results}.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    public static final List<String> REPORT_TYPES = Arrays.asList("revenue", "labor", "expenses", "insights", "comprehensive");
+    private static final List<String> COMPREHENSIVE_SECTIONS = Arrays.asList("revenue", "labor", "expenses", "insights");
+
+    @Autowired
+    private ReportJobRepository reportJobRepository;
+
+    @Autowired
+    private ReportResultRepository reportResultRepository;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate readOnlyTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate.setReadOnly(true);
+    }
+
+    public ReportJob submit(String reportType, LocalDate startDate, LocalDate endDate, Long userId) {
+        if (reportType == null || !REPORT_TYPES.contains(reportType)) {
+            throw new IllegalArgumentException("Report type must be one of " + REPORT_TYPES);
+        }
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start date and end date are required");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+
+        String activeKey = userId + ":" + reportType + ":" + startDate + ":" + endDate;
+        Optional<ReportJob> existing = reportJobRepository.findByActiveKey(activeKey);
+        if (existing.isPresent()) {
+            logger.info("Report request {} joined running job {}", activeKey, existing.get().getId());
+            return existing.get();
+        }
+
+        try {
+            ReportJob saved = reportJobRepository.save(newJob(reportType, startDate, endDate, userId, activeKey));
+            logger.info("Report job {} queued ({})", saved.getId(), activeKey);
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            // Submitted concurrently; the other request's job is the one to follow. If it
+            // already finished, the key is free again and this request gets its own run
+            return reportJobRepository.findByActiveKey(activeKey).orElseGet(() ->
+                    reportJobRepository.save(newJob(reportType, startDate, endDate, userId, activeKey)));
+        }
+    }
+
+    public Optional<ReportJob> getJob(Long id, Long userId) {
+        return reportJobRepository.findByIdAndUserId(id, userId);
+    }
+
+    public List<ReportJob> getRecentJobs(Long userId, int limit) {
+        return reportJobRepository.findRecentByUserId(userId, PageRequest.of(0, Math.max(1, Math.min(limit, 100))));
+    }
+
+    /**
+     * Stops a job: a pending one is cancelled at once, a running one after the
+     * section it is working on. Applies to everyone who joined the same run.
+     */
+    public ReportJob cancel(ReportJob job) {
+        LocalDateTime now = LocalDateTime.now();
+        if (reportJobRepository.cancelPending(job.getId(), now, ReportJobStatus.PENDING, ReportJobStatus.CANCELLED) == 0
+                && reportJobRepository.requestCancel(job.getId(), now, ReportJobStatus.RUNNING) == 0) {
+            throw new IllegalArgumentException("Report job has already finished");
+        }
+        logger.info("Cancellation requested for report job {}", job.getId());
+        return reportJobRepository.findById(job.getId()).orElse(job);
+    }
+
+    public Map<String, Object> toResponse(ReportJob job) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("reportJobId", job.getId());
+        response.put("reportType", job.getReportType());
+        response.put("startDate", job.getStartDate());
+        response.put("endDate", job.getEndDate());
+        response.put("status", job.getStatus());
+        response.put("progress", job.getProgress());
+        response.put("cancelRequested", job.getCancelRequested());
+        response.put("createdAt", job.getCreatedAt());
+        response.put("startedAt", job.getStartedAt());
+        response.put("completedAt", job.getCompletedAt());
+        if (job.getStatus() == ReportJobStatus.FAILED) {
+            response.put("error", job.getLastError());
+        }
+        if (job.getStatus() == ReportJobStatus.COMPLETED) {
+            response.put("resultUrl", "/api/reports/jobs/" + job.getId() + "/result");
+        }
+        return response;
+    }
+
+    /** Gzip-compressed report JSON of a completed job. */
+    public Optional<byte[]> getCompressedResult(ReportJob job) {
+        if (job.getStatus() != ReportJobStatus.COMPLETED) {
+            return Optional.empty();
+        }
+        return reportResultRepository.findById(job.getId()).map(ReportResult::getPayload);
+    }
+
+    public byte[] decompress(byte[] compressed) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Stored report result is not valid gzip", e);
+        }
+    }
+
+    public boolean claim(Long id, String workerId) {
+        return reportJobRepository.claim(id, workerId, LocalDateTime.now(), ReportJobStatus.PENDING, ReportJobStatus.RUNNING) == 1;
+    }
+
+    public void unclaim(Long id) {
+        reportJobRepository.unclaim(id, LocalDateTime.now(), ReportJobStatus.PENDING, ReportJobStatus.RUNNING);
+    }
+
+    /**
+     * Builds the report for a job claimed by {@link #claim}. Stops without storing
+     * anything if the claim was lost meanwhile (the job was released as stale).
+     */
+    public void run(Long id, String workerId) {
+        Optional<ReportJob> jobOpt = reportJobRepository.findById(id);
+        if (jobOpt.isEmpty()) {
+            return;
+        }
+        ReportJob job = jobOpt.get();
+        long started = System.currentTimeMillis();
+        try {
+            List<String> sections = "comprehensive".equals(job.getReportType())
+                    ? COMPREHENSIVE_SECTIONS : List.of(job.getReportType());
+            Map<String, Object> report = new LinkedHashMap<>();
+            for (int i = 0; i < sections.size(); i++) {
+                if (Boolean.TRUE.equals(reportJobRepository.isCancelRequested(id))) {
+                    finish(id, workerId, ReportJobStatus.CANCELLED, null, null);
+                    logger.info("Report job {} cancelled after {} of {} sections", id, i, sections.size());
+                    return;
+                }
+                String section = sections.get(i);
+                // Sections may be read from a replica; progress and status writes stay on the primary
+                ReplicaRoutingDataSource.bindTenant(job.getUserId());
+                try {
+                    report.put(section, readOnlyTemplate.execute(status -> generate(section, job)));
+                } finally {
+                    ReplicaRoutingDataSource.unbindTenant();
+                }
+                if (i < sections.size() - 1 && reportJobRepository.updateProgress(id, workerId,
+                        (i + 1) * 100 / sections.size(), LocalDateTime.now(), ReportJobStatus.RUNNING) == 0) {
+                    logger.warn("Report job {} is no longer claimed by {}, stopping", id, workerId);
+                    return;
+                }
+            }
+
+            Object result = report;
+            if (sections.size() == 1) {
+                result = report.get(job.getReportType());
+            } else {
+                report.put("generatedAt", LocalDateTime.now());
+                report.put("period", Map.of("startDate", job.getStartDate(), "endDate", job.getEndDate()));
+            }
+            byte[] json = objectMapper.writeValueAsBytes(result);
+            if (finish(id, workerId, ReportJobStatus.COMPLETED, new ReportResult(id, compress(json), (long) json.length), null)) {
+                logger.info("Report job {} completed in {} ms ({} bytes)", id, System.currentTimeMillis() - started, json.length);
+            }
+        } catch (Exception e) {
+            logger.error("Report job {} failed", id, e);
+            finish(id, workerId, ReportJobStatus.FAILED, null, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    /** Deletes finished jobs (and their results) older than the cutoff. */
+    public int purgeFinishedBefore(LocalDateTime cutoff) {
+        int purged = 0;
+        List<Long> ids;
+        do {
+            ids = reportJobRepository.findFinishedBefore(cutoff, PageRequest.of(0, 500));
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<Long> batch = ids;
+            transactionTemplate.executeWithoutResult(status -> {
+                reportResultRepository.deleteByReportJobIds(batch);
+                reportJobRepository.deleteByIds(batch);
+            });
+            purged += ids.size();
+        } while (ids.size() == 500);
+        return purged;
+    }
+
+    private ReportJob newJob(String reportType, LocalDate startDate, LocalDate endDate, Long userId, String activeKey) {
+        ReportJob job = new ReportJob();
+        job.setUserId(userId);
+        job.setReportType(reportType);
+        job.setStartDate(startDate);
+        job.setEndDate(endDate);
+        job.setActiveKey(activeKey);
+        return job;
+    }
+
+    private Map<String, Object> generate(String section, ReportJob job) {
+        switch (section) {
+            case "revenue":
+                return reportService.generateRevenueReport(job.getStartDate(), job.getEndDate(), job.getUserId());
+            case "labor":
+                return reportService.generateLaborReport(job.getStartDate(), job.getEndDate(), job.getUserId());
+            case "expenses":
+                return reportService.generateExpensesReport(job.getStartDate(), job.getEndDate(), job.getUserId());
+            case "insights":
+                return reportService.generateBusinessInsightsReport(job.getStartDate(), job.getEndDate(), job.getUserId());
+            default:
+                throw new IllegalArgumentException("Unknown report type: " + section);
+        }
+    }
+
+    // Result row and final status commit together; the active key is released so a new request starts a new run.
+    // Only the worker still holding the claim may finish; returns false for any other
+    private boolean finish(Long id, String workerId, ReportJobStatus status, ReportResult result, String error) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(tx -> {
+            ReportJob job = reportJobRepository.lockById(id).orElse(null);
+            if (job == null || job.getStatus() != ReportJobStatus.RUNNING || !workerId.equals(job.getLockedBy())) {
+                logger.warn("Report job {} is no longer claimed by {}, discarding its {} result", id, workerId, status);
+                return false;
+            }
+            if (result != null) {
+                reportResultRepository.save(result);
+            }
+            job.setStatus(status);
+            job.setProgress(status == ReportJobStatus.COMPLETED ? 100 : job.getProgress());
+            job.setActiveKey(null);
+            job.setLockedBy(null);
+            job.setCompletedAt(LocalDateTime.now());
+            job.setLastError(error == null ? null : truncate(error));
+            reportJobRepository.save(job);
+            return true;
+        }));
+    }
+
+    private static byte[] compress(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private String truncate(String message) {
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
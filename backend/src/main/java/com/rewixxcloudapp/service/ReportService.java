@@ -2,36 +2,65 @@ package com.rewixxcloudapp.service;
 
 import com.rewixxcloudapp.entity.*;
 import com.rewixxcloudapp.repository.*;
+import com.rewixxcloudapp.util.Money;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class ReportService {
 
+    public static final List<String> TREND_GRANULARITIES = Arrays.asList("day", "week", "month", "quarter");
+    private static final int MAX_TREND_BUCKETS = 1000;
+
     @Autowired
     private JobRepository jobRepository;
 
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private JobFinancialsService jobFinancialsService;
+
+    @Autowired
+    private CustomerStatsRepository customerStatsRepository;
+
+    @Autowired
+    private LaborAnalyticsService laborAnalyticsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     // ProductRepository not currently used but available for future enhancements
 
     // Revenue Report
+    @Transactional(readOnly = true)
     public Map<String, Object> generateRevenueReport(LocalDate startDate, LocalDate endDate, Long userId) {
         List<Job> jobs = jobRepository.findByDateRangeAndUserId(startDate, endDate, userId);
+        Map<Long, JobFinancials> financials = jobFinancialsService.getFinancials(jobs);
+        Map<Long, LaborAnalyticsService.JobLabor> labor = getLabor(jobs, userId);
         
-        BigDecimal totalRevenue = BigDecimal.ZERO;
-        BigDecimal totalMaterials = BigDecimal.ZERO;
-        BigDecimal totalLabor = BigDecimal.ZERO;
+        long totalRevenue = 0;
+        long totalMaterials = 0;
+        long totalLabor = 0;
+        long totalPaid = 0;
+        long outstandingBalance = 0;
         int totalJobs = jobs.size();
         int completedJobs = 0;
         
-        Map<String, BigDecimal> revenueByCustomer = new HashMap<>();
+        Map<String, Long> revenueByCustomer = new HashMap<>();
         Map<String, Integer> jobsByStatus = new HashMap<>();
         
         for (Job job : jobs) {
@@ -43,49 +72,54 @@ public class ReportService {
             String status = job.getStatus().toString();
             jobsByStatus.put(status, jobsByStatus.getOrDefault(status, 0) + 1);
             
-            // Calculate job revenue
-            BigDecimal jobRevenue = calculateJobRevenue(job);
-            totalRevenue = totalRevenue.add(jobRevenue);
+            // Calculate job revenue (cents)
+            JobFinancials jobFinancials = financials.get(job.getId());
+            long jobRevenue = calculateJobRevenue(jobFinancials);
+            totalRevenue += jobRevenue;
+            totalPaid += jobFinancials.getPaidCents();
+            outstandingBalance += Math.max(0, jobFinancials.getBalanceCents());
             
             // Revenue by customer
             if (job.getCustomer() != null) {
-                String customerName = job.getCustomer().getName();
-                revenueByCustomer.put(customerName, 
-                    revenueByCustomer.getOrDefault(customerName, BigDecimal.ZERO).add(jobRevenue));
+                revenueByCustomer.merge(job.getCustomer().getName(), jobRevenue, Long::sum);
             }
             
             // Calculate materials and labor costs
-            BigDecimal materialsCost = calculateMaterialsCost(job);
-            BigDecimal laborCost = calculateLaborCost(job);
-            totalMaterials = totalMaterials.add(materialsCost);
-            totalLabor = totalLabor.add(laborCost);
+            totalMaterials += calculateMaterialsCost(jobFinancials);
+            totalLabor += calculateLaborCost(labor.get(job.getId()));
         }
         
         Map<String, Object> report = new HashMap<>();
         report.put("period", Map.of("startDate", startDate, "endDate", endDate));
         report.put("summary", Map.of(
-            "totalRevenue", totalRevenue,
-            "totalMaterials", totalMaterials,
-            "totalLabor", totalLabor,
+            "totalRevenue", Money.toDecimal(totalRevenue),
+            "totalMaterials", Money.toDecimal(totalMaterials),
+            "totalLabor", Money.toDecimal(totalLabor),
+            "totalPaid", Money.toDecimal(totalPaid),
+            "outstandingBalance", Money.toDecimal(outstandingBalance),
             "totalJobs", totalJobs,
             "completedJobs", completedJobs,
             "completionRate", totalJobs > 0 ? (double) completedJobs / totalJobs * 100 : 0
         ));
-        report.put("revenueByCustomer", revenueByCustomer);
+        report.put("revenueByCustomer", toDecimals(revenueByCustomer));
         report.put("jobsByStatus", jobsByStatus);
         
         return report;
     }
     
     // Labor Report
+    // Labor cost is what LABOR expenses recorded against each job; hours are the job's estimated and actual hours
+    @Transactional(readOnly = true)
     public Map<String, Object> generateLaborReport(LocalDate startDate, LocalDate endDate, Long userId) {
         List<Job> jobs = jobRepository.findByDateRangeAndUserId(startDate, endDate, userId);
+        Map<Long, LaborAnalyticsService.JobLabor> labor = getLabor(jobs, userId);
         
         int totalEstimatedHours = 0;
         int totalActualHours = 0;
-        BigDecimal totalLaborCost = BigDecimal.ZERO;
+        long totalLaborCost = 0;
+        BigDecimal totalLoggedHours = BigDecimal.ZERO;
         Map<String, Integer> hoursByStatus = new HashMap<>();
-        Map<String, BigDecimal> laborCostByCustomer = new HashMap<>();
+        Map<String, Long> laborCostByCustomer = new HashMap<>();
         
         for (Job job : jobs) {
             int estimatedHours = job.getEstimatedHours() != null ? job.getEstimatedHours() : 0;
@@ -94,10 +128,11 @@ public class ReportService {
             totalEstimatedHours += estimatedHours;
             totalActualHours += actualHours;
             
-            // Labor cost calculation (assuming $50/hour rate)
-            BigDecimal hourlyRate = new BigDecimal("50.00");
-            BigDecimal jobLaborCost = hourlyRate.multiply(new BigDecimal(actualHours));
-            totalLaborCost = totalLaborCost.add(jobLaborCost);
+            long jobLaborCost = calculateLaborCost(labor.get(job.getId()));
+            totalLaborCost += jobLaborCost;
+            if (labor.containsKey(job.getId())) {
+                totalLoggedHours = totalLoggedHours.add(labor.get(job.getId()).getHours());
+            }
             
             // Hours by status
             String status = job.getStatus().toString();
@@ -105,9 +140,7 @@ public class ReportService {
             
             // Labor cost by customer
             if (job.getCustomer() != null) {
-                String customerName = job.getCustomer().getName();
-                laborCostByCustomer.put(customerName, 
-                    laborCostByCustomer.getOrDefault(customerName, BigDecimal.ZERO).add(jobLaborCost));
+                laborCostByCustomer.merge(job.getCustomer().getName(), jobLaborCost, Long::sum);
             }
         }
         
@@ -118,50 +151,50 @@ public class ReportService {
         report.put("summary", Map.of(
             "totalEstimatedHours", totalEstimatedHours,
             "totalActualHours", totalActualHours,
+            "totalLoggedHours", totalLoggedHours,
             "efficiency", efficiency,
-            "totalLaborCost", totalLaborCost,
-            "averageHourlyRate", totalActualHours > 0 ? totalLaborCost.divide(new BigDecimal(totalActualHours), 2, java.math.RoundingMode.HALF_UP) : BigDecimal.ZERO
+            "totalLaborCost", Money.toDecimal(totalLaborCost),
+            "averageHourlyRate", LaborAnalyticsService.hourlyRate(totalLaborCost, totalLoggedHours)
         ));
         report.put("hoursByStatus", hoursByStatus);
-        report.put("laborCostByCustomer", laborCostByCustomer);
+        report.put("laborCostByCustomer", toDecimals(laborCostByCustomer));
+        report.put("byEmployee", laborAnalyticsService.getLaborByEmployee(startDate, endDate, userId));
         
         return report;
     }
     
     // Expenses Report
+    @Transactional(readOnly = true)
     public Map<String, Object> generateExpensesReport(LocalDate startDate, LocalDate endDate, Long userId) {
         List<Job> jobs = jobRepository.findByDateRangeAndUserId(startDate, endDate, userId);
         
-        BigDecimal totalBillableExpenses = BigDecimal.ZERO;
-        BigDecimal totalNonBillableExpenses = BigDecimal.ZERO;
-        Map<String, BigDecimal> expensesByCategory = new HashMap<>();
-        Map<String, BigDecimal> expensesBySupplier = new HashMap<>();
+        long billableCents = 0;
+        long nonBillableCents = 0;
+        Map<String, Long> expensesByCategory = new HashMap<>();
+        Map<String, Long> expensesBySupplier = new HashMap<>();
         
         for (Job job : jobs) {
             if (job.getSales() != null) {
                 for (Sale sale : job.getSales()) {
                     if (sale.getSaleItems() != null) {
                         for (SaleItem item : sale.getSaleItems()) {
-                            BigDecimal itemCost = item.getUnitPrice().multiply(new BigDecimal(item.getQuantity()));
+                            long itemCost = Money.times(item.getUnitPrice(), item.getQuantity());
                             
                             // Determine if billable (positive quantity) or non-billable (negative quantity)
                             if (item.getQuantity() > 0) {
-                                totalBillableExpenses = totalBillableExpenses.add(itemCost);
+                                billableCents += itemCost;
                             } else {
-                                totalNonBillableExpenses = totalNonBillableExpenses.add(itemCost.abs());
+                                nonBillableCents += Math.abs(itemCost);
                             }
                             
                             // Expenses by category (using product category if available)
                             String category = item.getProduct() != null ? 
                                 (item.getProduct().getCategory() != null ? item.getProduct().getCategory() : "General") : "General";
-                            expensesByCategory.put(category, 
-                                expensesByCategory.getOrDefault(category, BigDecimal.ZERO).add(itemCost.abs()));
+                            expensesByCategory.merge(category, Math.abs(itemCost), Long::sum);
                             
                             // Expenses by supplier
                             if (sale.getSupplier() != null) {
-                                String supplierName = sale.getSupplier().getName();
-                                expensesBySupplier.put(supplierName, 
-                                    expensesBySupplier.getOrDefault(supplierName, BigDecimal.ZERO).add(itemCost.abs()));
+                                expensesBySupplier.merge(sale.getSupplier().getName(), Math.abs(itemCost), Long::sum);
                             }
                         }
                     }
@@ -169,6 +202,9 @@ public class ReportService {
             }
         }
         
+        BigDecimal totalBillableExpenses = Money.toDecimal(billableCents);
+        BigDecimal totalNonBillableExpenses = Money.toDecimal(nonBillableCents);
+
         Map<String, Object> report = new HashMap<>();
         report.put("period", Map.of("startDate", startDate, "endDate", endDate));
         report.put("summary", Map.of(
@@ -178,15 +214,17 @@ public class ReportService {
             "billableRatio", totalBillableExpenses.add(totalNonBillableExpenses).compareTo(BigDecimal.ZERO) > 0 ? 
                 totalBillableExpenses.divide(totalBillableExpenses.add(totalNonBillableExpenses), 4, java.math.RoundingMode.HALF_UP).multiply(new BigDecimal("100")) : BigDecimal.ZERO
         ));
-        report.put("expensesByCategory", expensesByCategory);
-        report.put("expensesBySupplier", expensesBySupplier);
+        report.put("expensesByCategory", toDecimals(expensesByCategory));
+        report.put("expensesBySupplier", toDecimals(expensesBySupplier));
         
         return report;
     }
     
     // Business Insights Report
+    @Transactional(readOnly = true)
     public Map<String, Object> generateBusinessInsightsReport(LocalDate startDate, LocalDate endDate, Long userId) {
         List<Job> jobs = jobRepository.findByDateRangeAndUserId(startDate, endDate, userId);
+        Map<Long, JobFinancials> financials = jobFinancialsService.getFinancials(jobs);
         
         // Key metrics
         int totalJobs = jobs.size();
@@ -195,9 +233,10 @@ public class ReportService {
         int pendingJobs = (int) jobs.stream().filter(j -> j.getStatus() == JobStatus.PENDING).count();
         
         // Revenue metrics
-        BigDecimal totalRevenue = jobs.stream()
-            .map(this::calculateJobRevenue)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long totalRevenue = 0;
+        for (Job job : jobs) {
+            totalRevenue += calculateJobRevenue(financials.get(job.getId()));
+        }
         
         // Customer metrics - get unique customers from jobs (already filtered by userId through jobs)
         Map<Long, Long> customerJobCounts = jobs.stream()
@@ -219,17 +258,50 @@ public class ReportService {
         
         double efficiency = totalEstimatedHours > 0 ? (double) totalActualHours / totalEstimatedHours * 100 : 0;
         
-        // Top customers by revenue
-        Map<String, BigDecimal> topCustomers = jobs.stream()
-            .filter(j -> j.getCustomer() != null)
-            .collect(Collectors.groupingBy(
-                j -> j.getCustomer().getName(),
-                Collectors.reducing(BigDecimal.ZERO, this::calculateJobRevenue, BigDecimal::add)
-            ))
-            .entrySet().stream()
-            .sorted(Map.Entry.<String, BigDecimal>comparingByValue().reversed())
+        // Top customers by revenue in the period, keyed by customer id (names are not unique)
+        Map<Long, Customer> customersById = new HashMap<>();
+        Map<Long, Long> revenueByCustomer = new HashMap<>();
+        for (Job job : jobs) {
+            if (job.getCustomer() != null) {
+                customersById.put(job.getCustomer().getId(), job.getCustomer());
+                revenueByCustomer.merge(job.getCustomer().getId(), calculateJobRevenue(financials.get(job.getId())), Long::sum);
+            }
+        }
+        List<Map<String, Object>> topCustomers = revenueByCustomer.entrySet().stream()
+            .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
             .limit(5)
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (e1, e2) -> e1, LinkedHashMap::new));
+            .map(e -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("customerId", e.getKey());
+                row.put("name", customersById.get(e.getKey()).getName());
+                row.put("revenue", Money.toDecimal(e.getValue()));
+                row.put("jobs", customerJobCounts.get(e.getKey()));
+                return row;
+            })
+            .collect(Collectors.toList());
+
+        // All-time leaders come straight from the maintained customer stats
+        List<CustomerStats> lifetimeLeaders = customerStatsRepository.findTopByRevenue(userId, PageRequest.of(0, 5));
+        Map<Long, Customer> leaderCustomers = new HashMap<>();
+        for (Customer customer : customerRepository.findAllById(
+                lifetimeLeaders.stream().map(CustomerStats::getCustomerId).collect(Collectors.toList()))) {
+            leaderCustomers.put(customer.getId(), customer);
+        }
+        List<Map<String, Object>> topCustomersLifetime = new ArrayList<>();
+        for (CustomerStats stats : lifetimeLeaders) {
+            Customer customer = leaderCustomers.get(stats.getCustomerId());
+            if (customer == null || stats.getLifetimeRevenueCents() == 0) {
+                continue;
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("customerId", stats.getCustomerId());
+            row.put("name", customer.getName());
+            row.put("lifetimeRevenue", stats.getLifetimeRevenue());
+            row.put("jobs", stats.getJobCount());
+            row.put("outstandingBalance", stats.getOutstandingBalance());
+            row.put("lastActivityDate", stats.getLastActivityDate());
+            topCustomersLifetime.add(row);
+        }
         
         Map<String, Object> report = new HashMap<>();
         report.put("period", Map.of("startDate", startDate, "endDate", endDate));
@@ -238,7 +310,7 @@ public class ReportService {
             "completedJobs", completedJobs,
             "inProgressJobs", inProgressJobs,
             "pendingJobs", pendingJobs,
-            "totalRevenue", totalRevenue,
+            "totalRevenue", Money.toDecimal(totalRevenue),
             "activeCustomers", activeCustomers,
             "totalCustomers", totalCustomers
         ));
@@ -248,34 +320,207 @@ public class ReportService {
             "efficiency", efficiency
         ));
         report.put("topCustomers", topCustomers);
+        report.put("topCustomersLifetime", topCustomersLifetime);
         
         return report;
     }
     
-    // Helper methods
-    private BigDecimal calculateJobRevenue(Job job) {
-        if (job.getSales() == null) return BigDecimal.ZERO;
-        
-        return job.getSales().stream()
-            .flatMap(sale -> sale.getSaleItems().stream())
-            .filter(item -> item.getQuantity() > 0) // Only positive quantities (sales)
-            .map(item -> item.getUnitPrice().multiply(new BigDecimal(item.getQuantity())))
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    // Trend Report
+    /**
+     * Series per day/week/month/quarter bucket, each a list aligned with
+     * {@code buckets} (bucket start dates, gaps zero-filled). Jobs are bucketed by
+     * start date, payments by payment date and expenses by expense date; each source
+     * is one grouped query, so the cost does not grow with the number of buckets.
+     * Labor hours and cost are the LABOR expenses of each bucket. Weeks start on Monday.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> generateTrendReport(LocalDate startDate, LocalDate endDate, String granularity, Long userId) {
+        if (granularity == null || !TREND_GRANULARITIES.contains(granularity)) {
+            throw new IllegalArgumentException("Granularity must be one of " + TREND_GRANULARITIES);
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        List<LocalDate> buckets = new ArrayList<>();
+        for (LocalDate bucket = truncate(startDate, granularity); !bucket.isAfter(endDate); bucket = nextBucket(bucket, granularity)) {
+            if (buckets.size() == MAX_TREND_BUCKETS) {
+                throw new IllegalArgumentException("Too many " + granularity + " buckets for this period; use a coarser granularity");
+            }
+            buckets.add(bucket);
+        }
+        Map<LocalDate, Integer> index = new HashMap<>();
+        for (int i = 0; i < buckets.size(); i++) {
+            index.put(buckets.get(i), i);
+        }
+        // Granularity is one of the fixed values above, so it is safe to inline. Databases
+        // disagree on which day a week starts, so weeks are grouped by day here and folded
+        // into Monday-based buckets in Java
+        String sqlUnit = "week".equals(granularity) ? "day" : granularity;
+        String bucketSql = "CAST(DATE_TRUNC('" + sqlUnit + "', CAST(%s AS TIMESTAMP)) AS DATE)";
+
+        long[] revenue = new long[buckets.size()];
+        long[] jobTotals = new long[buckets.size()];
+        long[] jobCounts = new long[buckets.size()];
+        Map<String, long[]> jobsByStatus = new LinkedHashMap<>();
+        for (JobStatus status : JobStatus.values()) {
+            jobsByStatus.put(status.name(), new long[buckets.size()]);
+        }
+        String jobBucket = String.format(bucketSql, "j.start_date");
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "SELECT " + jobBucket + " AS bucket, j.status AS status, COUNT(*) AS job_count, " +
+                "COALESCE(SUM(f.materials_cents), 0) AS materials_cents, COALESCE(SUM(f.total_cents), 0) AS total_cents " +
+                "FROM jobs j LEFT JOIN job_financials f ON f.job_id = j.id " +
+                "WHERE j.user_id = ? AND j.start_date BETWEEN ? AND ? " +
+                "GROUP BY " + jobBucket + ", j.status",
+                userId, startDate, endDate)) {
+            Integer i = index.get(truncate(toLocalDate(row.get("bucket")), granularity));
+            if (i == null) {
+                continue;
+            }
+            long count = ((Number) row.get("job_count")).longValue();
+            revenue[i] += ((Number) row.get("materials_cents")).longValue();
+            jobTotals[i] += ((Number) row.get("total_cents")).longValue();
+            jobCounts[i] += count;
+            Object status = row.get("status");
+            if (status != null && jobsByStatus.containsKey(status.toString())) {
+                jobsByStatus.get(status.toString())[i] += count;
+            }
+        }
+
+        long[] payments = new long[buckets.size()];
+        String paymentBucket = String.format(bucketSql, "p.payment_date");
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "SELECT " + paymentBucket + " AS bucket, SUM(p.amount) AS amount " +
+                "FROM payments p JOIN jobs j ON j.id = p.job_id " +
+                "WHERE j.user_id = ? AND p.payment_date >= ? AND p.payment_date < ? " +
+                "GROUP BY " + paymentBucket,
+                userId, Timestamp.valueOf(startDate.atStartOfDay()), Timestamp.valueOf(endDate.plusDays(1).atStartOfDay()))) {
+            Integer i = index.get(truncate(toLocalDate(row.get("bucket")), granularity));
+            if (i != null) {
+                payments[i] += Money.toCents((BigDecimal) row.get("amount"));
+            }
+        }
+
+        long[] expenseTotals = new long[buckets.size()];
+        Map<String, long[]> expensesByType = new TreeMap<>();
+        long[] laborCost = new long[buckets.size()];
+        // Hundredths of an hour, so the series can reuse toDecimalSeries
+        long[] laborHours = new long[buckets.size()];
+        String expenseBucket = String.format(bucketSql, "e.expense_date");
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "SELECT " + expenseBucket + " AS bucket, e.type AS type, SUM(e.amount) AS amount, " +
+                "COALESCE(SUM(e.hours_worked), 0) AS hours " +
+                "FROM expenses e WHERE e.user_id = ? AND e.expense_date BETWEEN ? AND ? " +
+                "GROUP BY " + expenseBucket + ", e.type",
+                userId, startDate, endDate)) {
+            Integer i = index.get(truncate(toLocalDate(row.get("bucket")), granularity));
+            if (i == null) {
+                continue;
+            }
+            long amount = Money.toCents((BigDecimal) row.get("amount"));
+            expenseTotals[i] += amount;
+            expensesByType.computeIfAbsent(row.get("type").toString(), type -> new long[buckets.size()])[i] += amount;
+            if (ExpenseType.LABOR.name().equals(row.get("type").toString())) {
+                laborCost[i] += amount;
+                laborHours[i] += Money.toCents(new BigDecimal(row.get("hours").toString()));
+            }
+        }
+
+        Map<String, Object> expenses = new LinkedHashMap<>();
+        expenses.put("total", toDecimalSeries(expenseTotals));
+        Map<String, Object> byType = new LinkedHashMap<>();
+        for (Map.Entry<String, long[]> entry : expensesByType.entrySet()) {
+            byType.put(entry.getKey(), toDecimalSeries(entry.getValue()));
+        }
+        expenses.put("byType", byType);
+        Map<String, Object> jobs = new LinkedHashMap<>();
+        jobs.put("total", jobCounts);
+        jobs.put("byStatus", jobsByStatus);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("period", Map.of("startDate", startDate, "endDate", endDate));
+        report.put("granularity", granularity);
+        report.put("buckets", buckets);
+        report.put("revenue", toDecimalSeries(revenue));
+        report.put("jobTotals", toDecimalSeries(jobTotals));
+        report.put("paymentsReceived", toDecimalSeries(payments));
+        report.put("expenses", expenses);
+        report.put("laborHours", toDecimalSeries(laborHours));
+        report.put("laborCost", toDecimalSeries(laborCost));
+        report.put("jobs", jobs);
+        return report;
+    }
+
+    private static LocalDate truncate(LocalDate date, String granularity) {
+        switch (granularity) {
+            case "week":
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case "month":
+                return date.withDayOfMonth(1);
+            case "quarter":
+                return LocalDate.of(date.getYear(), (date.getMonthValue() - 1) / 3 * 3 + 1, 1);
+            default:
+                return date;
+        }
+    }
+
+    private static LocalDate nextBucket(LocalDate bucket, String granularity) {
+        switch (granularity) {
+            case "week":
+                return bucket.plus(1, ChronoUnit.WEEKS);
+            case "month":
+                return bucket.plusMonths(1);
+            case "quarter":
+                return bucket.plusMonths(3);
+            default:
+                return bucket.plusDays(1);
+        }
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).toLocalDate();
+        }
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime().toLocalDate();
+        }
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        return value == null ? null : LocalDate.parse(value.toString().substring(0, 10));
+    }
+
+    private static List<BigDecimal> toDecimalSeries(long[] cents) {
+        List<BigDecimal> series = new ArrayList<>(cents.length);
+        for (long value : cents) {
+            series.add(Money.toDecimal(value));
+        }
+        return series;
+    }
+
+    // Helper methods (amounts in cents, see Money)
+    // Materials sold/used (positive quantities), maintained in the job's financials summary
+    private long calculateJobRevenue(JobFinancials financials) {
+        return financials.getMaterialsCents();
     }
     
-    private BigDecimal calculateMaterialsCost(Job job) {
-        if (job.getSales() == null) return BigDecimal.ZERO;
-        
-        return job.getSales().stream()
-            .flatMap(sale -> sale.getSaleItems().stream())
-            .filter(item -> item.getQuantity() > 0) // Only positive quantities (materials used)
-            .map(item -> item.getUnitPrice().multiply(new BigDecimal(item.getQuantity())))
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private long calculateMaterialsCost(JobFinancials financials) {
+        return financials.getMaterialsCents();
     }
     
-    private BigDecimal calculateLaborCost(Job job) {
-        int actualHours = job.getActualHours() != null ? job.getActualHours() : 0;
-        BigDecimal hourlyRate = new BigDecimal("50.00"); // Default hourly rate
-        return hourlyRate.multiply(new BigDecimal(actualHours));
+    private long calculateLaborCost(LaborAnalyticsService.JobLabor labor) {
+        return labor != null ? labor.getCostCents() : 0;
+    }
+
+    private Map<Long, LaborAnalyticsService.JobLabor> getLabor(List<Job> jobs, Long userId) {
+        return laborAnalyticsService.getLaborByJob(jobs.stream().map(Job::getId).collect(Collectors.toList()), userId);
+    }
+
+    private Map<String, BigDecimal> toDecimals(Map<String, Long> cents) {
+        Map<String, BigDecimal> amounts = new HashMap<>();
+        for (Map.Entry<String, Long> entry : cents.entrySet()) {
+            amounts.put(entry.getKey(), Money.toDecimal(entry.getValue()));
+        }
+        return amounts;
     }
 }
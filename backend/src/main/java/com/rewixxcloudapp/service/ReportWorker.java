@@ -0,0 +1,103 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.entity.ReportJobStatus;
+import com.rewixxcloudapp.repository.ReportJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Drains the {@code report_jobs} queue into the bounded report pool, claiming only
+ * as many rows as there are idle threads, and purges finished jobs after the
+ * retention period. Jobs this worker is running get a heartbeat in
+ * {@code updated_at}; a running job without one for stale-after-ms is put back on
+ * the queue, or failed once it has used up max-attempts.
+ */
+@Component
+@ConditionalOnProperty(name = "reports.worker.enabled", havingValue = "true", matchIfMissing = true)
+public class ReportWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportWorker.class);
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private ReportJobRepository reportJobRepository;
+
+    @Autowired
+    @Qualifier("reportExecutor")
+    private ThreadPoolTaskExecutor reportExecutor;
+
+    @Value("${reports.worker.stale-after-ms:1800000}")
+    private long staleAfterMs;
+
+    @Value("${reports.worker.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${reports.jobs.retention-hours:24}")
+    private long retentionHours;
+
+    private final String workerId = "report-" + UUID.randomUUID().toString().substring(0, 8);
+
+    @Scheduled(fixedDelayString = "${reports.worker.poll-interval-ms:1000}")
+    public void poll() {
+        int idle = reportExecutor.getMaxPoolSize() - reportExecutor.getActiveCount();
+        if (idle <= 0) {
+            return;
+        }
+        List<Long> readyIds = reportJobRepository.findReadyIds(ReportJobStatus.PENDING, PageRequest.of(0, idle));
+        for (Long id : readyIds) {
+            if (!reportJobService.claim(id, workerId)) {
+                continue; // claimed by another worker
+            }
+            try {
+                reportExecutor.execute(() -> reportJobService.run(id, workerId));
+            } catch (TaskRejectedException e) {
+                logger.warn("Report pool full, returning report job {} to the queue", id);
+                reportJobService.unclaim(id);
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reports.worker.heartbeat-interval-ms:60000}")
+    public void heartbeat() {
+        reportJobRepository.heartbeat(workerId, LocalDateTime.now(), ReportJobStatus.RUNNING);
+    }
+
+    @Scheduled(fixedDelayString = "${reports.worker.stale-check-interval-ms:60000}")
+    public void releaseStaleJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minusNanos(staleAfterMs * 1_000_000L);
+        int failed = reportJobRepository.failStale(cutoff, now, maxAttempts,
+                "Worker stopped responding " + maxAttempts + " times", ReportJobStatus.RUNNING, ReportJobStatus.FAILED);
+        if (failed > 0) {
+            logger.error("Failed {} stale report jobs that used up their {} attempts", failed, maxAttempts);
+        }
+        int released = reportJobRepository.releaseStale(cutoff, now, maxAttempts, ReportJobStatus.PENDING, ReportJobStatus.RUNNING);
+        if (released > 0) {
+            logger.warn("Returned {} stale report jobs to the queue", released);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reports.jobs.purge-interval-ms:3600000}")
+    public void purgeFinishedJobs() {
+        int purged = reportJobService.purgeFinishedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (purged > 0) {
+            logger.info("Purged {} finished report jobs", purged);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.rewixxcloudapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * Files in an S3 bucket, under an optional key prefix. Credentials come from the
+ * SDK's default chain (AWS_ACCESS_KEY_ID / AWS_SECRET_ACCESS_KEY, an instance role, ...).
+ */
+@Component
+@ConditionalOnProperty(name = "storage.type", havingValue = "s3")
+public class S3FileStorage implements FileStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3FileStorage.class);
+
+    @Value("${storage.s3.bucket}")
+    private String bucket;
+
+    @Value("${storage.s3.region:}")
+    private String region;
+
+    @Value("${storage.s3.prefix:}")
+    private String prefix;
+
+    private S3Client s3Client;
+
+    @PostConstruct
+    public void init() {
+        S3ClientBuilder builder = S3Client.builder();
+        if (!region.isEmpty()) {
+            builder.region(Region.of(region));
+        }
+        s3Client = builder.build();
+        logger.info("Storing uploads in s3://{}/{}", bucket, prefix);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        s3Client.close();
+    }
+
+    @Override
+    public String getName() {
+        return "s3";
+    }
+
+    @Override
+    public void store(String key, byte[] content, String contentType) {
+        s3Client.putObject(PutObjectRequest.builder().bucket(bucket).key(objectKey(key)).contentType(contentType).build(),
+                RequestBody.fromBytes(content));
+    }
+
+    @Override
+    public byte[] read(String key) {
+        try {
+            return s3Client.getObjectAsBytes(GetObjectRequest.builder().bucket(bucket).key(objectKey(key)).build())
+                    .asByteArray();
+        } catch (NoSuchKeyException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        try {
+            s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(objectKey(key)).build());
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(objectKey(key)).build());
+    }
+
+    private String objectKey(String key) {
+        if (key.isEmpty() || key.startsWith("/") || key.contains("..")) {
+            throw new IllegalArgumentException("Invalid file name: " + key);
+        }
+        return prefix + key;
+    }
+}
@@ -0,0 +1,94 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.repository.SaleItemRepository;
+import com.rewixxcloudapp.repository.SaleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges the single-item sales created by per-material adds into one multi-line
+ * sale per job, day, customer and supplier. Items are moved with one UPDATE per
+ * group and the emptied sales deleted; amounts do not change, so job financials
+ * stay valid. Sales with tenders are left alone.
+ */
+@Service
+public class SaleConsolidationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SaleConsolidationService.class);
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private SaleItemRepository saleItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${sales.consolidation.batch-size:100}")
+    private int batchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /** Consolidates every job, one transaction per batch of jobs. Returns the number of sales merged away. */
+    public int consolidate() {
+        long started = System.currentTimeMillis();
+        int merged = 0;
+        long lastJobId = 0;
+        List<Long> jobIds;
+        do {
+            jobIds = saleRepository.findJobIdsWithSales(lastJobId, PageRequest.of(0, batchSize));
+            if (jobIds.isEmpty()) {
+                break;
+            }
+            List<Long> batch = jobIds;
+            merged += transactionTemplate.execute(status -> consolidateJobs(batch));
+            lastJobId = jobIds.get(jobIds.size() - 1);
+        } while (jobIds.size() == batchSize);
+
+        logger.info("Sale consolidation merged {} single-item sales in {} ms", merged, System.currentTimeMillis() - started);
+        return merged;
+    }
+
+    private int consolidateJobs(List<Long> jobIds) {
+        // [jobId, day, customerId, supplierId] -> sale ids, oldest first
+        Map<List<Object>, List<Long>> groups = new LinkedHashMap<>();
+        for (Object[] row : saleRepository.findSingleItemSales(jobIds)) {
+            LocalDateTime date = (LocalDateTime) row[2];
+            List<Object> key = Arrays.asList(row[1], date != null ? date.toLocalDate() : null, row[3], row[4]);
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add((Long) row[0]);
+        }
+
+        int merged = 0;
+        for (List<Long> saleIds : groups.values()) {
+            if (saleIds.size() < 2) {
+                continue;
+            }
+            Long target = saleIds.get(0);
+            List<Long> others = saleIds.subList(1, saleIds.size());
+            saleItemRepository.moveToSale(saleRepository.getReferenceById(target), others);
+            saleRepository.deleteByIds(others);
+            merged += others.size();
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,36 @@
+package com.rewixxcloudapp.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Background migration of old one-sale-per-material data into multi-line sales.
+ * Off by default: after consolidation, removing a material by sale id removes the
+ * whole purchase, so clients must use the per-item endpoints first. With several
+ * instances, one of them does each run.
+ */
+@Component
+@ConditionalOnProperty(name = "sales.consolidation.enabled", havingValue = "true")
+public class SaleConsolidationWorker {
+
+    @Autowired
+    private SaleConsolidationService saleConsolidationService;
+
+    @Autowired
+    private ClusterLockService clusterLockService;
+
+    @Value("${sales.consolidation.lock-ttl-minutes:120}")
+    private long lockTtlMinutes;
+
+    @Scheduled(initialDelayString = "${sales.consolidation.initial-delay-ms:300000}",
+               fixedDelayString = "${sales.consolidation.interval-ms:86400000}")
+    public void run() {
+        clusterLockService.runExclusively("sale-consolidation", Duration.ofMinutes(lockTtlMinutes),
+                saleConsolidationService::consolidate);
+    }
+}
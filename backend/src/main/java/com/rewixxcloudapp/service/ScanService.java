@@ -0,0 +1,394 @@
+package com.rewixxcloudapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rewixxcloudapp.dto.ExpenseDto;
+import com.rewixxcloudapp.entity.ExpenseType;
+import com.rewixxcloudapp.entity.Product;
+import com.rewixxcloudapp.entity.ScanJob;
+import com.rewixxcloudapp.entity.ScanJobStatus;
+import com.rewixxcloudapp.entity.ScanResult;
+import com.rewixxcloudapp.repository.JobRepository;
+import com.rewixxcloudapp.repository.ProductRepository;
+import com.rewixxcloudapp.repository.ScanJobRepository;
+import com.rewixxcloudapp.repository.ScanResultRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Service
+public class ScanService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScanService.class);
+    private static final String SCAN_DIR = "scans/";
+    // Scans stored before FileStorage recorded their path relative to the working directory
+    private static final String LEGACY_PREFIX = "uploads/";
+    private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+
+    @Autowired
+    private ScanJobRepository scanJobRepository;
+
+    @Autowired
+    private ScanResultRepository scanResultRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FileStorage fileStorage;
+
+    // Long-poll requests waiting on a scan, completed by notifyScanFinished
+    private final Map<Long, List<DeferredResult<Map<String, Object>>>> waiters = new ConcurrentHashMap<>();
+
+    public ScanJob submitScan(MultipartFile file, Long jobId, Long userId) throws IOException {
+        logger.info("Submitting receipt scan for user {} (job {})", userId, jobId);
+
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        if (file.getSize() > MAX_FILE_SIZE) {
+            throw new IllegalArgumentException("File size exceeds 10MB limit");
+        }
+        String contentType = file.getContentType();
+        if (contentType == null || !(contentType.startsWith("image/") || contentType.equals("application/pdf"))) {
+            throw new IllegalArgumentException("Only image or PDF files can be scanned");
+        }
+        if (jobId != null && jobRepository.findByIdAndUserId(jobId, userId).isEmpty()) {
+            throw new IllegalArgumentException("Job not found or does not belong to you");
+        }
+
+        byte[] bytes = file.getBytes();
+        String contentHash = sha256(bytes);
+
+        ScanJob scan = new ScanJob();
+        scan.setUserId(userId);
+        scan.setJobId(jobId);
+        scan.setContentHash(contentHash);
+        scan.setOriginalFilename(file.getOriginalFilename());
+        scan.setContentType(contentType);
+
+        // Same image scanned before: answer from the cache without queueing any work
+        if (scanResultRepository.findByContentHash(contentHash).isPresent()) {
+            scanResultRepository.recordHit(contentHash, LocalDateTime.now());
+            scan.setStatus(ScanJobStatus.COMPLETED);
+            scan.setCached(true);
+            scan.setCompletedAt(LocalDateTime.now());
+            ScanJob saved = scanJobRepository.save(scan);
+            logger.info("Scan {} served from cache (hash {})", saved.getId(), contentHash);
+            return saved;
+        }
+
+        scan.setImagePath(storeImage(bytes, contentHash, file.getOriginalFilename(), contentType));
+        scan.setStatus(ScanJobStatus.PENDING);
+        ScanJob saved = scanJobRepository.save(scan);
+        logger.info("Scan {} queued (hash {})", saved.getId(), contentHash);
+        return saved;
+    }
+
+    public Optional<ScanJob> getScan(Long id, Long userId) {
+        return scanJobRepository.findByIdAndUserId(id, userId);
+    }
+
+    public List<ScanJob> getRecentScans(Long userId, int limit) {
+        return scanJobRepository.findRecentByUserId(userId, PageRequest.of(0, Math.max(1, Math.min(limit, 100))));
+    }
+
+    /**
+     * Status view of a scan. Completed scans include the parsed receipt and the
+     * expense/material drafts built from it.
+     */
+    public Map<String, Object> toResponse(ScanJob scan) {
+        return toResponses(List.of(scan)).get(0);
+    }
+
+    /**
+     * Status views of several scans, loading their stored results and the catalog
+     * products their receipt lines match with one query each.
+     */
+    public List<Map<String, Object>> toResponses(List<ScanJob> scans) {
+        Set<String> hashes = new HashSet<>();
+        for (ScanJob scan : scans) {
+            if (scan.getStatus() == ScanJobStatus.COMPLETED) {
+                hashes.add(scan.getContentHash());
+            }
+        }
+        Map<String, Map<String, Object>> receipts = new HashMap<>();
+        if (!hashes.isEmpty()) {
+            for (ScanResult result : scanResultRepository.findByContentHashIn(hashes)) {
+                receipts.put(result.getContentHash(), readPayload(result.getPayload()));
+            }
+        }
+        Map<String, Long> productIds = findProductIds(receipts.values());
+
+        List<Map<String, Object>> responses = new ArrayList<>(scans.size());
+        for (ScanJob scan : scans) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("scanId", scan.getId());
+            response.put("status", scan.getStatus());
+            response.put("jobId", scan.getJobId());
+            response.put("cached", scan.getCached());
+            response.put("attempts", scan.getAttempts());
+            response.put("originalFilename", scan.getOriginalFilename());
+            response.put("createdAt", scan.getCreatedAt());
+            response.put("completedAt", scan.getCompletedAt());
+            if (scan.getStatus() == ScanJobStatus.FAILED) {
+                response.put("error", scan.getLastError());
+            }
+            Map<String, Object> receipt = scan.getStatus() == ScanJobStatus.COMPLETED
+                    ? receipts.get(scan.getContentHash()) : null;
+            if (receipt != null) {
+                response.put("receipt", receipt);
+                response.put("expenseDraft", buildExpenseDraft(scan, receipt));
+                response.put("materialDrafts", buildMaterialDrafts(receipt, productIds));
+            }
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    /**
+     * Long-poll for a scan to finish. Resolves immediately if the scan is already
+     * done, otherwise when the worker finishes it or with the current status on timeout.
+     */
+    public DeferredResult<Map<String, Object>> awaitScan(ScanJob scan, long timeoutMs) {
+        DeferredResult<Map<String, Object>> result = new DeferredResult<>(timeoutMs);
+        if (isFinished(scan.getStatus())) {
+            result.setResult(toResponse(scan));
+            return result;
+        }
+
+        Long scanId = scan.getId();
+        List<DeferredResult<Map<String, Object>>> list = waiters.computeIfAbsent(scanId, k -> new CopyOnWriteArrayList<>());
+        list.add(result);
+        result.onTimeout(() -> result.setResult(scanJobRepository.findById(scanId).map(this::toResponse).orElse(toResponse(scan))));
+        result.onCompletion(() -> removeWaiter(scanId, result));
+
+        // The worker may have finished between the caller's read and registering the waiter
+        scanJobRepository.findById(scanId)
+                .filter(current -> isFinished(current.getStatus()))
+                .ifPresent(current -> result.setResult(toResponse(current)));
+        return result;
+    }
+
+    public void notifyScanFinished(ScanJob scan) {
+        List<DeferredResult<Map<String, Object>>> list = waiters.remove(scan.getId());
+        if (list == null || list.isEmpty()) {
+            return;
+        }
+        Map<String, Object> response = toResponse(scan);
+        for (DeferredResult<Map<String, Object>> waiter : list) {
+            waiter.setResult(response);
+        }
+    }
+
+    public Map<String, Object> readPayload(String payload) {
+        try {
+            return objectMapper.readValue(payload, new TypeReference<Map<String, Object>>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored scan result is not valid JSON", e);
+        }
+    }
+
+    public String writePayload(Map<String, Object> receipt) {
+        try {
+            return objectMapper.writeValueAsString(receipt);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Scan result could not be serialized", e);
+        }
+    }
+
+    public byte[] readImage(ScanJob scan) throws IOException {
+        if (scan.getImagePath() == null) {
+            throw new IllegalStateException("Scan " + scan.getId() + " has no stored image");
+        }
+        String key = scan.getImagePath().startsWith(LEGACY_PREFIX)
+                ? scan.getImagePath().substring(LEGACY_PREFIX.length()) : scan.getImagePath();
+        byte[] image = fileStorage.read(key);
+        if (image == null) {
+            throw new IOException("Stored image " + key + " of scan " + scan.getId() + " is missing");
+        }
+        return image;
+    }
+
+    private ExpenseDto buildExpenseDraft(ScanJob scan, Map<String, Object> receipt) {
+        BigDecimal total = toBigDecimal(receipt.get("total"));
+        ExpenseDto draft = new ExpenseDto(ExpenseType.MATERIAL.name(), total, parseReceiptDate(receipt.get("date"), scan));
+        Object vendor = receipt.get("vendor");
+        if (vendor != null) {
+            draft.setVendor(vendor.toString());
+            draft.setDescription("Receipt from " + vendor);
+        }
+        Object receiptNumber = receipt.get("receipt_number");
+        if (receiptNumber != null) {
+            draft.setReceiptNumber(receiptNumber.toString());
+        }
+        draft.setJobId(scan.getJobId());
+        return draft;
+    }
+
+    private List<Map<String, Object>> buildMaterialDrafts(Map<String, Object> receipt, Map<String, Long> productIds) {
+        List<Map<String, Object>> drafts = new ArrayList<>();
+        for (Map<?, ?> item : receiptItems(receipt)) {
+            String name = itemName(item);
+            if (name.isEmpty()) {
+                continue;
+            }
+            BigDecimal quantity = toBigDecimal(item.get("quantity"));
+            int wholeQuantity = quantity != null && quantity.signum() > 0
+                    ? quantity.setScale(0, RoundingMode.CEILING).intValue() : 1;
+            BigDecimal unitPrice = toBigDecimal(item.get("price"));
+            BigDecimal lineTotal = toBigDecimal(item.get("total"));
+            if (unitPrice == null && lineTotal != null) {
+                unitPrice = lineTotal.divide(BigDecimal.valueOf(wholeQuantity), 2, RoundingMode.HALF_UP);
+            }
+
+            Map<String, Object> draft = new HashMap<>();
+            draft.put("name", name);
+            draft.put("quantity", wholeQuantity);
+            draft.put("unitPrice", unitPrice);
+            draft.put("total", lineTotal);
+            // Link to an existing catalog product when the receipt line matches one by name
+            draft.put("productId", productIds.get(name.toLowerCase()));
+            drafts.add(draft);
+        }
+        return drafts;
+    }
+
+    // Lower-cased receipt line name -> first catalog product with that name
+    private Map<String, Long> findProductIds(Collection<Map<String, Object>> receipts) {
+        Set<String> names = new HashSet<>();
+        for (Map<String, Object> receipt : receipts) {
+            for (Map<?, ?> item : receiptItems(receipt)) {
+                String name = itemName(item);
+                if (!name.isEmpty()) {
+                    names.add(name.toLowerCase());
+                }
+            }
+        }
+        Map<String, Long> productIds = new HashMap<>();
+        if (!names.isEmpty()) {
+            for (Product product : productRepository.findByLowerNameIn(names)) {
+                productIds.putIfAbsent(product.getName().toLowerCase(), product.getId());
+            }
+        }
+        return productIds;
+    }
+
+    private List<Map<?, ?>> receiptItems(Map<String, Object> receipt) {
+        List<Map<?, ?>> result = new ArrayList<>();
+        Object items = receipt.get("items");
+        if (items instanceof List) {
+            for (Object entry : (List<?>) items) {
+                if (entry instanceof Map) {
+                    result.add((Map<?, ?>) entry);
+                }
+            }
+        }
+        return result;
+    }
+
+    private String itemName(Map<?, ?> item) {
+        return item.get("name") != null ? item.get("name").toString().trim() : "";
+    }
+
+    private LocalDate parseReceiptDate(Object value, ScanJob scan) {
+        if (value != null) {
+            String text = value.toString().trim();
+            try {
+                return LocalDate.parse(text.length() >= 10 ? text.substring(0, 10) : text);
+            } catch (DateTimeParseException e) {
+                logger.warn("Could not parse receipt date '{}' for scan {}", text, scan.getId());
+            }
+        }
+        return scan.getCreatedAt() != null ? scan.getCreatedAt().toLocalDate() : LocalDate.now();
+    }
+
+    private BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return new BigDecimal(value.toString());
+        }
+        String text = value.toString().replace("$", "").replace(",", "").trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String storeImage(byte[] bytes, String contentHash, String originalFilename, String contentType) throws IOException {
+        String extension = "";
+        if (originalFilename != null && originalFilename.contains(".")) {
+            extension = originalFilename.substring(originalFilename.lastIndexOf(".")).toLowerCase();
+        }
+        String key = SCAN_DIR + contentHash + extension;
+        // Content-addressed, so an identical upload that is still queued can share the file
+        if (!fileStorage.exists(key)) {
+            fileStorage.store(key, bytes, contentType);
+        }
+        return key;
+    }
+
+    private void removeWaiter(Long scanId, DeferredResult<Map<String, Object>> result) {
+        List<DeferredResult<Map<String, Object>>> list = waiters.get(scanId);
+        if (list != null) {
+            list.remove(result);
+            if (list.isEmpty()) {
+                waiters.remove(scanId, list);
+            }
+        }
+    }
+
+    private boolean isFinished(ScanJobStatus status) {
+        return status == ScanJobStatus.COMPLETED || status == ScanJobStatus.FAILED;
+    }
+
+    static String sha256(byte[] bytes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(bytes);
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
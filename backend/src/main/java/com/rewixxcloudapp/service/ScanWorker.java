@@ -0,0 +1,162 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.entity.ScanJob;
+import com.rewixxcloudapp.entity.ScanJobStatus;
+import com.rewixxcloudapp.entity.ScanResult;
+import com.rewixxcloudapp.repository.ScanJobRepository;
+import com.rewixxcloudapp.repository.ScanResultRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Drains the {@code scan_jobs} queue. Each poll claims at most as many rows as there
+ * are idle threads in the scan pool, so a slow scanner never piles up claimed work.
+ */
+@Component
+@ConditionalOnProperty(name = "scanner.worker.enabled", havingValue = "true", matchIfMissing = true)
+public class ScanWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScanWorker.class);
+
+    @Autowired
+    private ScanJobRepository scanJobRepository;
+
+    @Autowired
+    private ScanResultRepository scanResultRepository;
+
+    @Autowired
+    private ScannerClient scannerClient;
+
+    @Autowired
+    private ScanService scanService;
+
+    @Autowired
+    @Qualifier("scanExecutor")
+    private ThreadPoolTaskExecutor scanExecutor;
+
+    @Value("${scanner.worker.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${scanner.worker.retry-backoff-ms:5000}")
+    private long retryBackoffMs;
+
+    @Value("${scanner.worker.stale-after-ms:300000}")
+    private long staleAfterMs;
+
+    private final String workerId = "scan-" + UUID.randomUUID().toString().substring(0, 8);
+
+    @Scheduled(fixedDelayString = "${scanner.worker.poll-interval-ms:1000}")
+    public void poll() {
+        int idle = scanExecutor.getMaxPoolSize() - scanExecutor.getActiveCount();
+        if (idle <= 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> readyIds = scanJobRepository.findReadyIds(ScanJobStatus.PENDING, now, PageRequest.of(0, idle));
+        for (Long id : readyIds) {
+            if (scanJobRepository.claim(id, workerId, now, ScanJobStatus.PENDING, ScanJobStatus.PROCESSING) != 1) {
+                continue; // claimed by another worker
+            }
+            try {
+                scanExecutor.execute(() -> process(id));
+            } catch (TaskRejectedException e) {
+                logger.warn("Scan pool full, returning scan {} to the queue", id);
+                scanJobRepository.findById(id).ifPresent(scan -> requeue(scan, LocalDateTime.now(), false));
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${scanner.worker.stale-check-interval-ms:60000}")
+    public void releaseStaleScans() {
+        LocalDateTime now = LocalDateTime.now();
+        int released = scanJobRepository.releaseStale(now.minusNanos(staleAfterMs * 1_000_000L), now,
+                ScanJobStatus.PENDING, ScanJobStatus.PROCESSING);
+        if (released > 0) {
+            logger.warn("Returned {} stale scans to the queue", released);
+        }
+    }
+
+    void process(Long scanId) {
+        Optional<ScanJob> scanOpt = scanJobRepository.findById(scanId);
+        if (scanOpt.isEmpty()) {
+            return;
+        }
+        ScanJob scan = scanOpt.get();
+        try {
+            // An earlier scan of this image is in progress; wait for its cached result
+            if (scanJobRepository.existsEarlierWithHashAndStatus(scan.getContentHash(), ScanJobStatus.PROCESSING, scan.getId())) {
+                requeue(scan, LocalDateTime.now().plusNanos(retryBackoffMs * 1_000_000L), false);
+                return;
+            }
+
+            boolean cached = scanResultRepository.findByContentHash(scan.getContentHash()).isPresent();
+            if (cached) {
+                scanResultRepository.recordHit(scan.getContentHash(), LocalDateTime.now());
+            } else {
+                byte[] image = scanService.readImage(scan);
+                Map<String, Object> receipt = scannerClient.processReceipt(image, scan.getOriginalFilename(), scan.getContentType());
+                try {
+                    scanResultRepository.save(new ScanResult(scan.getContentHash(), scanService.writePayload(receipt)));
+                } catch (DataIntegrityViolationException e) {
+                    logger.info("Scan result for hash {} was stored concurrently", scan.getContentHash());
+                }
+            }
+
+            scan.setStatus(ScanJobStatus.COMPLETED);
+            scan.setCached(cached);
+            scan.setCompletedAt(LocalDateTime.now());
+            scan.setLockedBy(null);
+            scan.setLastError(null);
+            ScanJob saved = scanJobRepository.save(scan);
+            logger.info("Scan {} completed (cached: {})", scanId, cached);
+            scanService.notifyScanFinished(saved);
+        } catch (Exception e) {
+            logger.error("Scan {} failed on attempt {}", scanId, scan.getAttempts(), e);
+            scan.setLastError(truncate(e.getMessage()));
+            if (scan.getAttempts() >= maxAttempts) {
+                scan.setStatus(ScanJobStatus.FAILED);
+                scan.setCompletedAt(LocalDateTime.now());
+                scan.setLockedBy(null);
+                scanService.notifyScanFinished(scanJobRepository.save(scan));
+            } else {
+                // Exponential backoff: 1x, 2x, 4x ... the configured delay
+                long delayMs = retryBackoffMs * (1L << Math.max(0, scan.getAttempts() - 1));
+                requeue(scan, LocalDateTime.now().plusNanos(delayMs * 1_000_000L), true);
+            }
+        }
+    }
+
+    private void requeue(ScanJob scan, LocalDateTime nextAttemptAt, boolean countAttempt) {
+        if (!countAttempt) {
+            scan.setAttempts(Math.max(0, scan.getAttempts() - 1));
+        }
+        scan.setStatus(ScanJobStatus.PENDING);
+        scan.setLockedBy(null);
+        scan.setNextAttemptAt(nextAttemptAt);
+        scanJobRepository.save(scan);
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return "Unknown error";
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
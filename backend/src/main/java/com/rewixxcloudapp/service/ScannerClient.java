@@ -0,0 +1,23 @@
+package com.rewixxcloudapp.service;
+
+import java.util.Map;
+
+/**
+ * Client for the receipt/barcode scanning service ({@code scripts/scanning_api.py}).
+ * Implementations are selected with the {@code scanner.client} property.
+ */
+public interface ScannerClient {
+
+    /**
+     * Runs OCR on a receipt image. The returned map follows the scanning API's
+     * {@code /api/receipts/process} response: vendor, date, total, subtotal, tax,
+     * receipt_number and an {@code items} list of name/price/quantity/total.
+     */
+    Map<String, Object> processReceipt(byte[] image, String filename, String contentType);
+
+    /**
+     * Looks up a product by barcode. Follows the {@code /api/materials/barcode-lookup}
+     * response: name, price, category, sku, supplier, url, image_url, description.
+     */
+    Map<String, Object> lookupBarcode(String barcode);
+}
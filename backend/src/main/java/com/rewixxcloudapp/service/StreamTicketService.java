@@ -0,0 +1,93 @@
+package com.rewixxcloudapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Short-lived, single-use tickets for opening the change stream. Browsers'
+ * EventSource cannot send an Authorization header, and a JWT in the URL ends up
+ * in access logs and browser history; a ticket there is worthless once used or
+ * a few seconds old. Tickets live in a shared {@code stream_tickets} table, so
+ * one issued by any instance is redeemed by whichever serves the stream.
+ */
+@Service
+public class StreamTicketService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamTicketService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${changes.ticket-ttl-ms:30000}")
+    private long ticketTtlMs;
+
+    private final SecureRandom random = new SecureRandom();
+
+    @PostConstruct
+    public void init() {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS stream_tickets (" +
+                    "ticket VARCHAR(64) NOT NULL PRIMARY KEY, " +
+                    "user_id BIGINT NOT NULL, " +
+                    "expires_at TIMESTAMP NOT NULL)");
+        } catch (DataAccessException e) {
+            // Another instance starting at the same moment created it first
+            logger.debug("stream_tickets table not created: {}", e.getMessage());
+        }
+    }
+
+    public long getTicketTtlMs() {
+        return ticketTtlMs;
+    }
+
+    /** A new ticket for the user, valid once within the ttl. */
+    public String issue(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        // Expired tickets were never redeemed; nothing else removes them
+        jdbcTemplate.update("DELETE FROM stream_tickets WHERE expires_at < ?", Timestamp.valueOf(now));
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        jdbcTemplate.update("INSERT INTO stream_tickets (ticket, user_id, expires_at) VALUES (?, ?, ?)",
+                ticket, userId, Timestamp.valueOf(now.plusNanos(ticketTtlMs * 1_000_000)));
+        return ticket;
+    }
+
+    /**
+     * The user a still-valid ticket was issued to, without using it up; for
+     * attributing the request (rate limits) before the controller redeems it.
+     */
+    public Long peek(String ticket) {
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "SELECT user_id FROM stream_tickets WHERE ticket = ? AND expires_at >= ?",
+                Long.class, ticket, Timestamp.valueOf(LocalDateTime.now()));
+        return userIds.isEmpty() ? null : userIds.get(0);
+    }
+
+    /**
+     * Uses the ticket up.
+     *
+     * @return the user it was issued to, or null if it is unknown, expired or already used
+     */
+    public Long redeem(String ticket) {
+        Long userId = peek(ticket);
+        if (userId == null) {
+            return null;
+        }
+        // Of two concurrent redemptions only the one that deletes the row wins
+        int deleted = jdbcTemplate.update("DELETE FROM stream_tickets WHERE ticket = ?", ticket);
+        return deleted == 1 ? userId : null;
+    }
+}
@@ -0,0 +1,82 @@
+package com.rewixxcloudapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Offline scanner used for tests and local development ({@code scanner.client=stub}).
+ * Returns a fixed receipt/product so the pipeline can run without the Python service.
+ */
+@Component
+@ConditionalOnProperty(name = "scanner.client", havingValue = "stub")
+public class StubScannerClient implements ScannerClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(StubScannerClient.class);
+
+    private final AtomicInteger receiptCalls = new AtomicInteger();
+
+    private final AtomicInteger barcodeCalls = new AtomicInteger();
+
+    @Override
+    public Map<String, Object> processReceipt(byte[] image, String filename, String contentType) {
+        receiptCalls.incrementAndGet();
+        logger.info("Stub scanner processing receipt {} ({} bytes)", filename, image.length);
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        items.add(createItem("2x4 Stud 8ft", 3.98, 10));
+        items.add(createItem("Drywall Screws 1lb", 8.47, 2));
+
+        Map<String, Object> receipt = new HashMap<>();
+        receipt.put("vendor", "Stub Hardware");
+        receipt.put("date", LocalDate.now().toString() + " 00:00:00");
+        receipt.put("subtotal", 56.74);
+        receipt.put("tax", 3.40);
+        receipt.put("total", 60.14);
+        receipt.put("receipt_number", "STUB-" + image.length);
+        receipt.put("currency", "USD");
+        receipt.put("items", items);
+        return receipt;
+    }
+
+    @Override
+    public Map<String, Object> lookupBarcode(String barcode) {
+        barcodeCalls.incrementAndGet();
+        logger.info("Stub scanner looking up barcode {}", barcode);
+
+        Map<String, Object> product = new HashMap<>();
+        product.put("name", "Stub Product " + barcode);
+        product.put("price", "9.99");
+        product.put("category", "Hardware");
+        product.put("sku", barcode);
+        product.put("supplier", "Stub Hardware");
+        product.put("description", "Stub product for barcode " + barcode);
+        product.put("availability", "In Stock");
+        return product;
+    }
+
+    public int getReceiptCalls() {
+        return receiptCalls.get();
+    }
+
+    public int getBarcodeCalls() {
+        return barcodeCalls.get();
+    }
+
+    private Map<String, Object> createItem(String name, double price, int quantity) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("name", name);
+        item.put("price", price);
+        item.put("quantity", quantity);
+        item.put("total", Math.round(price * quantity * 100) / 100.0);
+        return item;
+    }
+}
@@ -0,0 +1,729 @@
+package com.rewixxcloudapp.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rewixxcloudapp.dto.ContractDto;
+import com.rewixxcloudapp.dto.CustomerDto;
+import com.rewixxcloudapp.dto.EmployeeDto;
+import com.rewixxcloudapp.dto.ExpenseDto;
+import com.rewixxcloudapp.dto.JobDto;
+import com.rewixxcloudapp.dto.PaymentDto;
+import com.rewixxcloudapp.dto.SyncBatchDto;
+import com.rewixxcloudapp.dto.SyncChangeDto;
+import com.rewixxcloudapp.entity.Contract;
+import com.rewixxcloudapp.entity.Customer;
+import com.rewixxcloudapp.entity.Employee;
+import com.rewixxcloudapp.entity.Expense;
+import com.rewixxcloudapp.entity.IdempotencyKey;
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.entity.JobFinancials;
+import com.rewixxcloudapp.entity.Payment;
+import com.rewixxcloudapp.entity.SyncTombstone;
+import com.rewixxcloudapp.repository.ContractRepository;
+import com.rewixxcloudapp.repository.CustomerRepository;
+import com.rewixxcloudapp.repository.EmployeeRepository;
+import com.rewixxcloudapp.repository.ExpenseRepository;
+import com.rewixxcloudapp.repository.IdempotencyKeyRepository;
+import com.rewixxcloudapp.repository.JobFinancialsRepository;
+import com.rewixxcloudapp.repository.JobRepository;
+import com.rewixxcloudapp.repository.PaymentRepository;
+import com.rewixxcloudapp.repository.SyncTombstoneRepository;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceContext;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Delta sync for offline-capable clients.
+ * <p>
+ * Reads return the rows of each type written since the client's watermark, plus
+ * tombstones of deleted rows. The watermark is an opaque token holding one
+ * keyset position, (updated_at, id), per type, so every type is read with an index
+ * range scan on (user_id, updated_at, id) and pages independently. A caught-up type
+ * does not move past {@code sync.overlap-ms} before the read: a transaction that
+ * stamped its rows earlier but committed later is still picked up, at the cost of
+ * some rows arriving twice (clients upsert by id, so that is harmless). A watermark
+ * older than the tombstone retention gets a full sync flagged {@code reset}.
+ * <p>
+ * Uploads apply each offline edit in its own transaction through the same service
+ * methods as the REST endpoints. Updates and deletes carry the version the client
+ * last saw; if the row has moved on, the change is not applied and the current row
+ * is returned as a conflict for the client to resolve.
+ */
+@Service
+public class SyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncService.class);
+
+    public static final String JOBS = "jobs";
+    public static final String CUSTOMERS = "customers";
+    public static final String EMPLOYEES = "employees";
+    public static final String EXPENSES = "expenses";
+    public static final String PAYMENTS = "payments";
+    public static final String CONTRACTS = "contracts";
+    public static final String FINANCIALS = "financials";
+    public static final String DELETED = "deleted";
+
+    public static final String APPLIED = "applied";
+    public static final String CONFLICT = "conflict";
+    public static final String ERROR = "error";
+
+    private static final String UPSERT = "upsert";
+    private static final String DELETE = "delete";
+    private static final String TOKEN_VERSION = "v1";
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final String INSERT_TOMBSTONE =
+            "INSERT INTO sync_tombstones (user_id, entity_type, entity_id, deleted_at) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ContractRepository contractRepository;
+
+    @Autowired
+    private JobFinancialsRepository jobFinancialsRepository;
+
+    @Autowired
+    private SyncTombstoneRepository syncTombstoneRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ContractService contractService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${sync.default-limit:200}")
+    private int defaultLimit;
+
+    @Value("${sync.max-limit:1000}")
+    private int maxLimit;
+
+    @Value("${sync.max-upload:100}")
+    private int maxUpload;
+
+    @Value("${sync.overlap-ms:10000}")
+    private long overlapMs;
+
+    @Value("${sync.tombstone-retention-days:30}")
+    private long tombstoneRetentionDays;
+
+    // In response order; tombstones last, so a client applies upserts before deletes
+    private final Map<String, Source<?>> sources = new LinkedHashMap<>();
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate readTemplate;
+    // Sync rows are flat: related entities are referenced by id and synced as their own type
+    private ObjectMapper syncMapper;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readTemplate = new TransactionTemplate(transactionManager);
+        readTemplate.setReadOnly(true);
+
+        syncMapper = objectMapper.copy()
+                .addMixIn(Job.class, JobRow.class)
+                .addMixIn(Customer.class, CustomerRow.class)
+                .addMixIn(Expense.class, ExpenseRow.class)
+                .addMixIn(Contract.class, ContractRow.class);
+
+        sources.put(JOBS, new Source<>(jobRepository::findChangedSince, Job::getUpdatedAt, Job::getId,
+                jobs -> jobRepository.fetchReceiptImages(jobs)));
+        sources.put(CUSTOMERS, new Source<>(customerRepository::findChangedSince, Customer::getUpdatedAt, Customer::getId, null));
+        sources.put(EMPLOYEES, new Source<>(employeeRepository::findChangedSince, Employee::getUpdatedAt, Employee::getId, null));
+        sources.put(EXPENSES, new Source<>(expenseRepository::findChangedSince, Expense::getUpdatedAt, Expense::getId, null));
+        sources.put(PAYMENTS, new Source<>(paymentRepository::findChangedSince, Payment::getUpdatedAt, Payment::getId, null));
+        sources.put(CONTRACTS, new Source<>(contractRepository::findChangedSince, Contract::getUpdatedAt, Contract::getId, null));
+        sources.put(FINANCIALS, new Source<>(jobFinancialsRepository::findChangedSince, JobFinancials::getUpdatedAt,
+                JobFinancials::getJobId, null));
+        sources.put(DELETED, new Source<>(syncTombstoneRepository::findChangedSince, SyncTombstone::getDeletedAt,
+                SyncTombstone::getId, null));
+
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_DELETE, new TombstoneListener());
+    }
+
+    /**
+     * The rows written since {@code since} (a previous {@code watermark}, or null for
+     * a full sync), at most {@code limit} per type. {@code hasMore} means some type was
+     * cut short: call again with the new watermark right away.
+     */
+    public Map<String, Object> getChanges(Long userId, String since, Integer limit) {
+        int pageSize = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        Map<String, Cursor> cursors = since != null && !since.trim().isEmpty() ? decode(since.trim()) : new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        Cursor deletes = cursors.get(DELETED);
+        // Tombstones older than the retention period are gone: the client cannot tell what it missed
+        boolean reset = deletes == null || deletes.at.isBefore(now.minusDays(tombstoneRetentionDays));
+        if (reset) {
+            cursors.clear();
+        }
+        LocalDateTime horizon = now.minus(Duration.ofMillis(overlapMs));
+
+        Map<String, Object> rows = new LinkedHashMap<>();
+        Map<String, Cursor> next = new LinkedHashMap<>();
+        boolean hasMore = Boolean.TRUE.equals(readTemplate.execute(status -> {
+            boolean truncated = false;
+            for (Map.Entry<String, Source<?>> entry : sources.entrySet()) {
+                truncated |= read(entry.getKey(), entry.getValue(), userId, cursors.get(entry.getKey()), pageSize, horizon, rows, next);
+            }
+            return truncated;
+        }));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("watermark", encode(next));
+        result.put("hasMore", hasMore);
+        result.put("reset", reset);
+        result.putAll(rows);
+        return result;
+    }
+
+    /**
+     * Applies offline edits in order, each in its own transaction. Every change gets a
+     * result: {@code applied} with the row as now stored, {@code conflict} with the
+     * current row (absent, with {@code deleted}, when it no longer exists), or
+     * {@code error} with a message.
+     */
+    public Map<String, Object> applyChanges(SyncBatchDto batch, Long userId) {
+        List<SyncChangeDto> changes = batch.getChanges() != null ? batch.getChanges() : Collections.emptyList();
+        if (changes.size() > maxUpload) {
+            throw new IllegalArgumentException("At most " + maxUpload + " changes can be uploaded at once");
+        }
+        logger.info("Applying {} offline changes for user {}", changes.size(), userId);
+
+        // Client ids of rows created in this upload, so later changes can refer to them
+        Map<String, Long> created = new HashMap<>();
+        List<Map<String, Object>> results = new ArrayList<>();
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put(APPLIED, 0);
+        counts.put(CONFLICT, 0);
+        counts.put(ERROR, 0);
+        for (int i = 0; i < changes.size(); i++) {
+            Map<String, Object> result = apply(changes.get(i), userId, created);
+            result.put("index", i);
+            results.add(result);
+            counts.merge((String) result.get("status"), 1, Integer::sum);
+        }
+        logger.info("Offline changes for user {}: {}", userId, counts);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("results", results);
+        response.putAll(counts);
+        return response;
+    }
+
+    @Scheduled(cron = "${sync.tombstones.purge-cron:0 45 3 * * *}")
+    public void purgeTombstones() {
+        int deleted = syncTombstoneRepository.deleteDeletedBefore(LocalDateTime.now().minusDays(tombstoneRetentionDays));
+        if (deleted > 0) {
+            logger.info("Purged {} expired sync tombstones", deleted);
+        }
+    }
+
+    private <T> boolean read(String type, Source<T> source, Long userId, Cursor after, int pageSize,
+                             LocalDateTime horizon, Map<String, Object> rows, Map<String, Cursor> next) {
+        Cursor from = after != null ? after : new Cursor(ORIGIN, 0L);
+        // One extra row tells whether the type was cut short
+        List<T> page = source.query.find(userId, from.at, from.id, PageRequest.of(0, pageSize + 1));
+        boolean truncated = page.size() > pageSize;
+        if (truncated) {
+            page = page.subList(0, pageSize);
+        }
+        if (!page.isEmpty() && source.prefetch != null) {
+            source.prefetch.accept(page);
+        }
+        rows.put(type, DELETED.equals(type) ? tombstones(page) : syncMapper.valueToTree(page));
+        if (truncated) {
+            T last = page.get(page.size() - 1);
+            next.put(type, new Cursor(source.updatedAt.apply(last), source.id.apply(last)));
+        } else {
+            next.put(type, from.at.isBefore(horizon) ? new Cursor(horizon, 0L) : from);
+        }
+        return truncated;
+    }
+
+    private static List<Map<String, Object>> tombstones(List<?> page) {
+        List<Map<String, Object>> deleted = new ArrayList<>();
+        for (Object row : page) {
+            SyncTombstone tombstone = (SyncTombstone) row;
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("type", tombstone.getEntityType());
+            entry.put("id", tombstone.getEntityId());
+            entry.put("deletedAt", tombstone.getDeletedAt());
+            deleted.add(entry);
+        }
+        return deleted;
+    }
+
+    private Map<String, Object> apply(SyncChangeDto change, Long userId, Map<String, Long> created) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("type", change.getType());
+        result.put("id", change.getId());
+        if (change.getClientId() != null) {
+            result.put("clientId", change.getClientId());
+        }
+        try {
+            validate(change);
+            transactionTemplate.executeWithoutResult(status -> applyInTransaction(change, userId, created, result));
+            if (change.getClientId() != null && change.getId() == null && APPLIED.equals(result.get("status"))) {
+                created.put(change.getClientId(), (Long) result.get("id"));
+            }
+        } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+            // Written by someone else between the version check and the commit
+            logger.info("Offline change to {} {} for user {} lost a race: {}", change.getType(), change.getId(), userId, e.getMessage());
+            result.put("status", CONFLICT);
+            readTemplate.executeWithoutResult(status -> describe(result, find(change.getType(), change.getId(), userId)));
+        } catch (DataIntegrityViolationException | IllegalArgumentException | IllegalStateException e) {
+            result.put("status", ERROR);
+            result.put("error", e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Error applying offline change to {} {} for user {}", change.getType(), change.getId(), userId, e);
+            result.put("status", ERROR);
+            result.put("error", e.getMessage());
+        }
+        return result;
+    }
+
+    private void validate(SyncChangeDto change) {
+        if (change.getType() == null || !sources.containsKey(change.getType()) || FINANCIALS.equals(change.getType())
+                || DELETED.equals(change.getType())) {
+            throw new IllegalArgumentException("Unknown sync type: " + change.getType());
+        }
+        String action = change.getAction() != null ? change.getAction() : UPSERT;
+        if (!UPSERT.equals(action) && !DELETE.equals(action)) {
+            throw new IllegalArgumentException("Action must be 'upsert' or 'delete'");
+        }
+        if (change.getId() == null && DELETE.equals(action)) {
+            throw new IllegalArgumentException("An id is required to delete");
+        }
+        if (change.getId() != null && change.getVersion() == null) {
+            throw new IllegalArgumentException("The version last seen is required to update or delete");
+        }
+        if (change.getClientId() != null && change.getClientId().length() > 100) {
+            throw new IllegalArgumentException("clientId must be at most 100 characters");
+        }
+    }
+
+    private void applyInTransaction(SyncChangeDto change, Long userId, Map<String, Long> created, Map<String, Object> result) {
+        String type = change.getType();
+        Map<String, Object> data = resolve(change.getData(), created);
+        if (change.getId() == null) {
+            describe(result, create(type, data, change.getData(), userId, change.getClientId()));
+            result.put("status", APPLIED);
+            return;
+        }
+
+        Object current = find(type, change.getId(), userId);
+        boolean delete = DELETE.equals(change.getAction());
+        if (current == null) {
+            // Already gone: a delete has nothing left to do, an update nothing to apply to
+            result.put("status", delete ? APPLIED : CONFLICT);
+            result.put("deleted", true);
+            return;
+        }
+        if (!change.getVersion().equals(versionOf(current))) {
+            result.put("status", CONFLICT);
+            describe(result, current);
+            return;
+        }
+        if (delete) {
+            delete(type, change.getId(), userId);
+            result.put("status", APPLIED);
+            result.put("deleted", true);
+            return;
+        }
+        describe(result, update(type, current, data, userId));
+        result.put("status", APPLIED);
+    }
+
+    // The row as stored: flushed first so the version reflects this write
+    private void describe(Map<String, Object> result, Object entity) {
+        if (entity == null) {
+            result.put("deleted", true);
+            return;
+        }
+        entityManager.flush();
+        result.put("id", idOf(entity));
+        result.put("version", versionOf(entity));
+        result.put("entity", syncMapper.valueToTree(entity));
+    }
+
+    // A value naming an earlier create's clientId in an "...Id" field becomes that row's id
+    private static Map<String, Object> resolve(Map<String, Object> data, Map<String, Long> created) {
+        Map<String, Object> resolved = data != null ? new LinkedHashMap<>(data) : new LinkedHashMap<>();
+        for (Map.Entry<String, Object> field : resolved.entrySet()) {
+            if (field.getKey().endsWith("Id") && field.getValue() instanceof String && created.containsKey(field.getValue())) {
+                field.setValue(created.get(field.getValue()));
+            }
+        }
+        return resolved;
+    }
+
+    private Object create(String type, Map<String, Object> data, Map<String, Object> rawData, Long userId, String clientId) {
+        if (PAYMENTS.equals(type)) {
+            // Payments have their own Idempotency-Key handling
+            return paymentService.createPayment(objectMapper.convertValue(data, PaymentDto.class), userId, clientId);
+        }
+        String scope = "sync-" + type;
+        String requestHash = clientId != null ? requestHash(rawData) : null;
+        if (clientId != null) {
+            Optional<IdempotencyKey> existing = idempotencyKeyRepository.findByUserIdAndScopeAndIdempotencyKey(userId, scope, clientId);
+            if (existing.isPresent()) {
+                if (!existing.get().getRequestHash().equals(requestHash)) {
+                    throw new IllegalArgumentException("clientId was already used for a different change");
+                }
+                Object replay = find(type, existing.get().getResourceId(), userId);
+                if (replay == null) {
+                    throw new IllegalArgumentException("The entity created with this clientId has been deleted");
+                }
+                logger.info("Offline create {} {} replayed, returning {}", type, clientId, existing.get().getResourceId());
+                return replay;
+            }
+        }
+
+        Object entity;
+        switch (type) {
+            case JOBS:
+                entity = jobService.createJob(objectMapper.convertValue(data, JobDto.class), userId);
+                break;
+            case CUSTOMERS:
+                entity = customerService.createCustomer(objectMapper.convertValue(data, CustomerDto.class), userId);
+                break;
+            case EMPLOYEES:
+                entity = employeeService.createEmployee(objectMapper.convertValue(data, EmployeeDto.class), userId);
+                break;
+            case EXPENSES:
+                entity = expenseService.createExpense(objectMapper.convertValue(data, ExpenseDto.class), userId);
+                break;
+            case CONTRACTS:
+                entity = contractService.createContract(objectMapper.convertValue(data, ContractDto.class), userId);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown sync type: " + type);
+        }
+        if (clientId != null) {
+            // Unique per (user, scope, key): a concurrent duplicate fails here and rolls back
+            idempotencyKeyRepository.saveAndFlush(new IdempotencyKey(userId, scope, clientId, requestHash, idOf(entity)));
+        }
+        return entity;
+    }
+
+    private Object update(String type, Object entity, Map<String, Object> data, Long userId) {
+        switch (type) {
+            case JOBS:
+                return jobService.updateJobFromDto((Job) entity, objectMapper.convertValue(data, JobDto.class));
+            case CUSTOMERS:
+                return customerService.updateCustomerFromDto((Customer) entity, objectMapper.convertValue(data, CustomerDto.class));
+            case EMPLOYEES:
+                return employeeService.updateEmployee(((Employee) entity).getId(), objectMapper.convertValue(data, EmployeeDto.class), userId);
+            case EXPENSES:
+                return expenseService.updateExpenseFromDto((Expense) entity, objectMapper.convertValue(data, ExpenseDto.class));
+            case CONTRACTS:
+                return contractService.updateContract(((Contract) entity).getId(), objectMapper.convertValue(data, ContractDto.class), userId);
+            case PAYMENTS:
+                throw new IllegalArgumentException("Payments cannot be edited; delete the payment and record a new one");
+            default:
+                throw new IllegalArgumentException("Unknown sync type: " + type);
+        }
+    }
+
+    private void delete(String type, Long id, Long userId) {
+        switch (type) {
+            case JOBS:
+                jobService.deleteJobById(id, userId);
+                break;
+            case CUSTOMERS:
+                customerService.deleteCustomerById(id, userId);
+                break;
+            case EMPLOYEES:
+                employeeService.deleteEmployee(id, userId);
+                break;
+            case EXPENSES:
+                expenseService.deleteExpenseById(id, userId);
+                break;
+            case PAYMENTS:
+                paymentService.deletePayment(id, userId);
+                break;
+            case CONTRACTS:
+                contractService.deleteContract(id, userId);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown sync type: " + type);
+        }
+    }
+
+    private Object find(String type, Long id, Long userId) {
+        switch (type) {
+            case JOBS:
+                return jobRepository.findByIdAndUserId(id, userId).orElse(null);
+            case CUSTOMERS:
+                return customerRepository.findByIdAndUserId(id, userId).orElse(null);
+            case EMPLOYEES:
+                return employeeRepository.findByIdAndUserId(id, userId).orElse(null);
+            case EXPENSES:
+                return expenseRepository.findByIdAndUserId(id, userId).orElse(null);
+            case PAYMENTS:
+                return paymentRepository.findById(id).filter(payment -> userId.equals(ownerOf(payment))).orElse(null);
+            case CONTRACTS:
+                return contractRepository.findByIdAndUserId(id, userId).orElse(null);
+            default:
+                throw new IllegalArgumentException("Unknown sync type: " + type);
+        }
+    }
+
+    private String requestHash(Map<String, Object> data) {
+        try {
+            return ScanService.sha256(objectMapper.writeValueAsString(data).getBytes(StandardCharsets.UTF_8));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid change data");
+        }
+    }
+
+    private static Long idOf(Object entity) {
+        if (entity instanceof Job) {
+            return ((Job) entity).getId();
+        } else if (entity instanceof Customer) {
+            return ((Customer) entity).getId();
+        } else if (entity instanceof Employee) {
+            return ((Employee) entity).getId();
+        } else if (entity instanceof Expense) {
+            return ((Expense) entity).getId();
+        } else if (entity instanceof Payment) {
+            return ((Payment) entity).getId();
+        } else if (entity instanceof Contract) {
+            return ((Contract) entity).getId();
+        }
+        return null;
+    }
+
+    private static Long versionOf(Object entity) {
+        if (entity instanceof Job) {
+            return ((Job) entity).getVersion();
+        } else if (entity instanceof Customer) {
+            return ((Customer) entity).getVersion();
+        } else if (entity instanceof Employee) {
+            return ((Employee) entity).getVersion();
+        } else if (entity instanceof Expense) {
+            return ((Expense) entity).getVersion();
+        } else if (entity instanceof Payment) {
+            return ((Payment) entity).getVersion();
+        } else if (entity instanceof Contract) {
+            return ((Contract) entity).getVersion();
+        }
+        return null;
+    }
+
+    // Payments written before payments.user_id existed carry their tenant only on the job
+    private static Long ownerOf(Payment payment) {
+        if (payment.getUserId() != null) {
+            return payment.getUserId();
+        }
+        return payment.getJob() != null ? payment.getJob().getUserId() : null;
+    }
+
+    private static String encode(Map<String, Cursor> cursors) {
+        StringBuilder token = new StringBuilder(TOKEN_VERSION);
+        for (Map.Entry<String, Cursor> entry : cursors.entrySet()) {
+            token.append(';').append(entry.getKey()).append('=')
+                    .append(entry.getValue().at).append(',').append(entry.getValue().id);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Types missing from the token (added since it was issued) start from the beginning
+    private static Map<String, Cursor> decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(";");
+            if (!TOKEN_VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid sync token");
+            }
+            Map<String, Cursor> cursors = new HashMap<>();
+            for (int i = 1; i < parts.length; i++) {
+                int equals = parts[i].indexOf('=');
+                int comma = parts[i].lastIndexOf(',');
+                cursors.put(parts[i].substring(0, equals), new Cursor(LocalDateTime.parse(parts[i].substring(equals + 1, comma)),
+                        Long.parseLong(parts[i].substring(comma + 1))));
+            }
+            return cursors;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+    }
+
+    /** A keyset position: rows after (at, id) are returned next. */
+    private static final class Cursor {
+        private final LocalDateTime at;
+        private final long id;
+
+        Cursor(LocalDateTime at, long id) {
+            this.at = at;
+            this.id = id;
+        }
+    }
+
+    @FunctionalInterface
+    private interface KeysetQuery<T> {
+        List<T> find(Long userId, LocalDateTime after, Long afterId, Pageable pageable);
+    }
+
+    /** How one sync type is read: the keyset query, the row's position, and what to load alongside. */
+    private static final class Source<T> {
+        private final KeysetQuery<T> query;
+        private final Function<T, LocalDateTime> updatedAt;
+        private final Function<T, Long> id;
+        private final Consumer<List<T>> prefetch;
+
+        Source(KeysetQuery<T> query, Function<T, LocalDateTime> updatedAt, Function<T, Long> id, Consumer<List<T>> prefetch) {
+            this.query = query;
+            this.updatedAt = updatedAt;
+            this.id = id;
+            this.prefetch = prefetch;
+        }
+    }
+
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "customer", "sales", "payments", "financials", "profitability"})
+    private abstract static class JobRow {
+    }
+
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "stats", "roles"})
+    private abstract static class CustomerRow {
+    }
+
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "jobTitle", "customerName"})
+    private abstract static class ExpenseRow {
+    }
+
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "job", "customer"})
+    private abstract static class ContractRow {
+    }
+
+    /**
+     * Writes a tombstone for every synced row Hibernate deletes, cascades included,
+     * on the deleting session's connection so it commits or rolls back with the delete.
+     */
+    private static class TombstoneListener implements PostDeleteEventListener {
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            Object entity = event.getEntity();
+            String type;
+            Long userId;
+            if (entity instanceof Job) {
+                type = JOBS;
+                userId = ((Job) entity).getUserId();
+            } else if (entity instanceof Customer) {
+                type = CUSTOMERS;
+                userId = ((Customer) entity).getUserId();
+            } else if (entity instanceof Employee) {
+                type = EMPLOYEES;
+                userId = ((Employee) entity).getUserId();
+            } else if (entity instanceof Expense) {
+                type = EXPENSES;
+                userId = ((Expense) entity).getUserId();
+            } else if (entity instanceof Payment) {
+                type = PAYMENTS;
+                userId = ownerOf((Payment) entity);
+            } else if (entity instanceof Contract) {
+                type = CONTRACTS;
+                userId = ((Contract) entity).getUserId();
+            } else {
+                return;
+            }
+            if (userId == null) {
+                return;
+            }
+            Long id = (Long) event.getId();
+            event.getSession().doWork(connection -> {
+                try (PreparedStatement insert = connection.prepareStatement(INSERT_TOMBSTONE)) {
+                    insert.setLong(1, userId);
+                    insert.setString(2, type);
+                    insert.setLong(3, id);
+                    insert.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+                    insert.executeUpdate();
+                }
+            });
+        }
+
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return false;
+        }
+    }
+}
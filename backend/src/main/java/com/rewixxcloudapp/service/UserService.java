@@ -5,6 +5,7 @@ import com.rewixxcloudapp.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
 import java.util.Optional;
@@ -47,6 +48,7 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    @Transactional
     public void deleteUser(Long id) {
         if (id == null) {
             throw new IllegalArgumentException("User ID cannot be null");
@@ -63,6 +65,7 @@ public class UserService {
         return userRepository.existsByUsername(username);
     }
 
+    @Transactional
     public void updatePassword(Long userId, String newPassword) {
         Optional<User> userOpt = userRepository.findById(userId);
         if (userOpt.isEmpty()) {
@@ -0,0 +1,45 @@
+package com.rewixxcloudapp.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * HTTP validators for single-resource GETs. The weak ETag is built from the
+ * resource's id and the updated-at timestamps of everything the response embeds,
+ * so it changes whenever the JSON could. Spring answers a matching If-None-Match
+ * (or If-Modified-Since) with 304 and no body before anything is serialized.
+ */
+public final class HttpCaching {
+
+    // Per-user data: browsers may keep a copy but must revalidate it on every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private HttpCaching() {
+    }
+
+    /**
+     * A 200 builder carrying Cache-Control, a weak ETag and Last-Modified (the latest
+     * of the timestamps). Null timestamps (rows not written since the column was
+     * added) count as 0, which stays stable until the next write sets them.
+     */
+    public static ResponseEntity.BodyBuilder validated(String resource, LocalDateTime... updatedAt) {
+        StringBuilder tag = new StringBuilder("W/\"").append(resource);
+        long lastModified = 0;
+        for (LocalDateTime timestamp : updatedAt) {
+            long millis = timestamp != null ? timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+            tag.append('-').append(Long.toString(millis, 36));
+            lastModified = Math.max(lastModified, millis);
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .varyBy("Authorization")
+                .eTag(tag.append('"').toString());
+        if (lastModified > 0) {
+            builder.lastModified(lastModified);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,65 @@
+package com.rewixxcloudapp.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money arithmetic on {@code long} cents. Totals are accumulated in cents and
+ * converted to {@link BigDecimal} (scale 2) only at the edges (entities, JSON).
+ * Every rounding step is half-up to the cent, so contracts, payments and reports
+ * agree to the penny. Overflow throws instead of wrapping.
+ */
+public final class Money {
+
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+
+    /** Rates are held in basis points: 600 = 6.00%. */
+    public static final long BASIS_POINTS = 10_000;
+
+    private Money() {
+    }
+
+    public static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        // scaleByPowerOfTen keeps the compact long form, unlike unscaledValue()
+        return amount.setScale(2, ROUNDING).scaleByPowerOfTen(2).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /** Unit price times a whole quantity (quantities may be negative for returns). */
+    public static long times(long unitCents, long quantity) {
+        return Math.multiplyExact(unitCents, quantity);
+    }
+
+    public static long times(BigDecimal unitPrice, long quantity) {
+        return times(toCents(unitPrice), quantity);
+    }
+
+    /** {@code cents * basisPoints / 10000}, rounded half-up (away from zero on ties). */
+    public static long applyRate(long cents, long basisPoints) {
+        long product = Math.multiplyExact(cents, basisPoints);
+        long quotient = product / BASIS_POINTS;
+        long remainder = product % BASIS_POINTS;
+        if (Math.abs(remainder) * 2 >= BASIS_POINTS) {
+            quotient += Long.signum(product);
+        }
+        return quotient;
+    }
+
+    /** Percent such as {@code 6} or {@code 6.25} to basis points, half-up. */
+    public static long percentToBasisPoints(BigDecimal percent) {
+        if (percent == null) {
+            return 0;
+        }
+        return percent.movePointRight(2).setScale(0, ROUNDING).longValueExact();
+    }
+
+    public static BigDecimal basisPointsToPercent(long basisPoints) {
+        return BigDecimal.valueOf(basisPoints, 2);
+    }
+}
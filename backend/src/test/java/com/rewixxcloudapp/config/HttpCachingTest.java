@@ -0,0 +1,124 @@
+package com.rewixxcloudapp.config;
+
+import com.rewixxcloudapp.dto.JobDto;
+import com.rewixxcloudapp.dto.MaterialDto;
+import com.rewixxcloudapp.dto.PaymentDto;
+import com.rewixxcloudapp.dto.PurchaseDto;
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.entity.PaymentType;
+import com.rewixxcloudapp.entity.Product;
+import com.rewixxcloudapp.repository.ProductRepository;
+import com.rewixxcloudapp.service.JobService;
+import com.rewixxcloudapp.service.PaymentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Job detail over real HTTP: bytes on the wire with and without gzip, and
+ * revalidation with the ETag answered by an empty 304 until the job or anything
+ * it embeds changes.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "bulkhead.enabled=false"
+})
+public class HttpCachingTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    public void testJobDetailIsCompressedAndRevalidated() throws Exception {
+        long userId = System.nanoTime();
+        JobDto dto = new JobDto("Caching Test Job", "Kitchen remodel", "IN_PROGRESS");
+        dto.setJobPrice(new BigDecimal("5000.00"));
+        dto.setIncludeTax(false);
+        Job job = jobService.createJob(dto, userId);
+        Product product = productRepository.save(new Product("Caching Test Stud 2x4x8", "Kiln-dried stud", new BigDecimal("4.25")));
+        List<MaterialDto> items = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            items.add(new MaterialDto(product.getId(), i + 1, null));
+        }
+        PurchaseDto purchase = new PurchaseDto();
+        purchase.setItems(items);
+        jobService.addPurchaseToJob(job.getId(), purchase, userId);
+        String token = jwtUtil.generateToken(userId, "caching@example.com");
+        String path = "/api/jobs/" + job.getId();
+
+        HttpResponse<byte[]> plain = get(path, token, "identity", null);
+        HttpResponse<byte[]> gzipped = get(path, token, "gzip", null);
+        assertEquals(200, plain.statusCode());
+        assertEquals("gzip", gzipped.headers().firstValue("Content-Encoding").orElse(null));
+        // Same JSON either way; the 40 near-identical sale items compress to under a quarter
+        byte[] inflated = new GZIPInputStream(new ByteArrayInputStream(gzipped.body())).readAllBytes();
+        assertEquals(plain.body().length, inflated.length);
+        assertTrue(plain.body().length > 8_000, "Uncompressed body was " + plain.body().length + " bytes");
+        assertTrue(gzipped.body().length * 4 < plain.body().length,
+                "gzip body was " + gzipped.body().length + " of " + plain.body().length + " bytes");
+
+        String etag = plain.headers().firstValue("ETag").orElseThrow();
+        assertTrue(etag.startsWith("W/\""));
+        assertTrue(plain.headers().firstValue("Cache-Control").orElseThrow().contains("no-cache"));
+        HttpResponse<byte[]> revalidated = get(path, token, "gzip", etag);
+        assertEquals(304, revalidated.statusCode());
+        assertEquals(0, revalidated.body().length);
+
+        // A payment changes the job's balance, so the old tag no longer matches
+        paymentService.createPayment(new PaymentDto(job.getId(), PaymentType.CASH, new BigDecimal("100.00")), userId);
+        HttpResponse<byte[]> changed = get(path, token, "identity", etag);
+        assertEquals(200, changed.statusCode());
+        etag = changed.headers().firstValue("ETag").orElseThrow();
+        assertEquals(304, get(path, token, "identity", etag).statusCode());
+
+        // So does renaming a product the job's materials embed, though neither the job nor its totals change
+        Thread.sleep(5);
+        product.setName("Caching Test Stud 2x4x10");
+        productRepository.save(product);
+        HttpResponse<byte[]> renamed = get(path, token, "identity", etag);
+        assertEquals(200, renamed.statusCode());
+        assertTrue(new String(renamed.body(), StandardCharsets.UTF_8).contains("Caching Test Stud 2x4x10"));
+        assertNotEquals(etag, renamed.headers().firstValue("ETag").orElseThrow());
+
+        // Another tenant gets a 404, not the cached representation
+        assertEquals(404, get(path, jwtUtil.generateToken(userId + 1, "other@example.com"), "identity", etag).statusCode());
+    }
+
+    private HttpResponse<byte[]> get(String path, String token, String acceptEncoding, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept-Encoding", acceptEncoding)
+                .GET();
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,230 @@
+package com.rewixxcloudapp.config;
+
+import com.rewixxcloudapp.Application;
+import com.rewixxcloudapp.entity.Product;
+import com.rewixxcloudapp.repository.ProductRepository;
+import com.rewixxcloudapp.service.CacheInvalidationBus;
+import com.rewixxcloudapp.service.ClusterLockService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two app instances on one database, as behind a load balancer: a token issued by
+ * one is accepted by the other, an upload through one is served by the other, a
+ * cached entity changed on one is evicted on the other, and a cluster lock is held
+ * by one node at a time. The instances start concurrently, taking turns at the
+ * startup migration, and share a directory standing in for the shared volume (or
+ * bucket) of a real deployment.
+ */
+public class MultiNodeDeploymentTest {
+
+    @TempDir
+    static Path sharedUploads;
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeAll
+    public static void startNodes() {
+        CompletableFuture<ConfigurableApplicationContext> startingA = CompletableFuture.supplyAsync(MultiNodeDeploymentTest::start);
+        CompletableFuture<ConfigurableApplicationContext> startingB = CompletableFuture.supplyAsync(MultiNodeDeploymentTest::start);
+        nodeA = startingA.join();
+        nodeB = startingB.join();
+    }
+
+    @AfterAll
+    public static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    // Arguments, not default properties: these must override application.properties
+    private static ConfigurableApplicationContext start(String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--bulkhead.enabled=false",
+                "--cache.invalidation.channel=jdbc",
+                "--cache.invalidation.poll-interval-ms=200",
+                "--storage.type=local",
+                "--storage.local.root=" + sharedUploads));
+        args.addAll(Arrays.asList(extraArgs));
+        return new SpringApplicationBuilder(Application.class).run(args.toArray(new String[0]));
+    }
+
+    @Test
+    public void testNodesStartingTogetherBothMigrateBeforeServing() {
+        assertTrue(nodeA.getBean(DatabaseMigration.class).isCompleted());
+        assertTrue(nodeB.getBean(DatabaseMigration.class).isCompleted());
+        assertNull(nodeA.getBean(ClusterLockService.class).getOwner(DatabaseMigration.MIGRATION_LOCK));
+    }
+
+    @Test
+    public void testNodeThatCannotGetTheMigrationLockFailsToStart() {
+        ClusterLockService lockOnA = nodeA.getBean(ClusterLockService.class);
+        assertTrue(lockOnA.tryAcquire(DatabaseMigration.MIGRATION_LOCK, Duration.ofMinutes(1)));
+        try {
+            Exception failure = assertThrows(Exception.class, () -> start("--migration.lock.max-wait-minutes=0").close());
+            assertTrue(Stream.iterate((Throwable) failure, Objects::nonNull, Throwable::getCause)
+                    .anyMatch(cause -> String.valueOf(cause.getMessage()).contains("migration lock")), failure::toString);
+        } finally {
+            lockOnA.release(DatabaseMigration.MIGRATION_LOCK);
+        }
+    }
+
+    @Test
+    public void testTokenIssuedByOneNodeIsAcceptedByTheOther() throws Exception {
+        String token = nodeA.getBean(JwtUtil.class).generateToken(System.nanoTime(), "nodes@example.com");
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(uri(nodeB, "/api/sync"))
+                .header("Authorization", "Bearer " + token).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        assertTrue(response.headers().firstValue("Set-Cookie").isEmpty());
+    }
+
+    @Test
+    public void testUploadThroughOneNodeIsServedByTheOther() throws Exception {
+        byte[] image = new byte[2048];
+        Arrays.fill(image, (byte) 7);
+        String boundary = UUID.randomUUID().toString();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"logo.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(image);
+        body.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        HttpResponse<String> upload = httpClient.send(HttpRequest.newBuilder(uri(nodeA, "/api/logo/upload"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray())).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, upload.statusCode(), upload.body());
+        Matcher url = Pattern.compile("\"url\":\"([^\"]+)\"").matcher(upload.body());
+        assertTrue(url.find());
+        Matcher filename = Pattern.compile("\"filename\":\"([^\"]+)\"").matcher(upload.body());
+        assertTrue(filename.find());
+
+        HttpResponse<byte[]> served = httpClient.send(HttpRequest.newBuilder(uri(nodeB, url.group(1))).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, served.statusCode());
+        assertArrayEquals(image, served.body());
+        assertEquals("image/png", served.headers().firstValue("Content-Type").orElse(null));
+
+        httpClient.send(HttpRequest.newBuilder(uri(nodeB, "/api/logo?filename=" + filename.group(1))).DELETE().build(),
+                HttpResponse.BodyHandlers.discarding());
+        assertEquals(404, httpClient.send(HttpRequest.newBuilder(uri(nodeA, url.group(1))).GET().build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    @Test
+    public void testCachedEntityChangedOnOneNodeIsEvictedOnTheOther() throws Exception {
+        ProductRepository productsOnA = nodeA.getBean(ProductRepository.class);
+        ProductRepository productsOnB = nodeB.getBean(ProductRepository.class);
+        Product product = productsOnA.save(new Product("Multi Node Product " + System.nanoTime(), null, BigDecimal.TEN));
+        // Loaded into node B's second-level cache
+        assertEquals(0, BigDecimal.TEN.compareTo(productsOnB.findById(product.getId()).orElseThrow().getUnitPrice()));
+        long receivedBefore = nodeB.getBean(CacheInvalidationBus.class).getReceivedCount();
+
+        product.setUnitPrice(BigDecimal.ONE);
+        productsOnA.save(product);
+        assertEventually(() -> BigDecimal.ONE.compareTo(productsOnB.findById(product.getId()).orElseThrow().getUnitPrice()) == 0);
+        assertTrue(nodeB.getBean(CacheInvalidationBus.class).getReceivedCount() > receivedBefore);
+    }
+
+    @Test
+    public void testInvalidationCommittedBelowAnIdAlreadySeenIsStillApplied() throws Exception {
+        ProductRepository productsOnB = nodeB.getBean(ProductRepository.class);
+        JdbcTemplate jdbcTemplate = nodeA.getBean(JdbcTemplate.class);
+        Product product = nodeA.getBean(ProductRepository.class)
+                .save(new Product("Late Invalidation Product " + System.nanoTime(), null, BigDecimal.TEN));
+        assertEquals(0, BigDecimal.TEN.compareTo(productsOnB.findById(product.getId()).orElseThrow().getUnitPrice()));
+        CacheInvalidationBus busOnB = nodeB.getBean(CacheInvalidationBus.class);
+
+        // A third node's later row is committed and read first...
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM cache_invalidations", Long.class);
+        long receivedBefore = busOnB.getReceivedCount();
+        insertInvalidation(jdbcTemplate, maxId + 2000, "test:unrelated", "x");
+        assertEventually(() -> busOnB.getReceivedCount() > receivedBefore);
+
+        // ...then its earlier row, which must not be skipped
+        jdbcTemplate.update("UPDATE products SET unit_price = ? WHERE id = ?", BigDecimal.ONE, product.getId());
+        insertInvalidation(jdbcTemplate, maxId + 1000, "entity:" + Product.class.getName(), product.getId().toString());
+        assertEventually(() -> BigDecimal.ONE.compareTo(productsOnB.findById(product.getId()).orElseThrow().getUnitPrice()) == 0);
+    }
+
+    @Test
+    public void testClusterLockIsHeldByOneNodeAtATime() throws Exception {
+        ClusterLockService lockOnA = nodeA.getBean(ClusterLockService.class);
+        ClusterLockService lockOnB = nodeB.getBean(ClusterLockService.class);
+        String name = "multi-node-test-" + System.nanoTime();
+        assertTrue(lockOnA.tryAcquire(name, Duration.ofMinutes(1)));
+        assertFalse(lockOnB.tryAcquire(name, Duration.ofMinutes(1)));
+        assertFalse(lockOnB.runExclusively(name, Duration.ofMinutes(1), () -> fail("Ran while the lock was held")));
+        assertEquals(lockOnA.getNodeId(), lockOnB.getOwner(name));
+
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return lockOnB.acquire(name, Duration.ofMinutes(1), Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(300);
+        assertFalse(waiting.isDone());
+        lockOnA.release(name);
+        assertTrue(waiting.get(10, TimeUnit.SECONDS));
+        assertEquals(lockOnB.getNodeId(), lockOnA.getOwner(name));
+
+        // A lease that ran out is taken over
+        lockOnB.tryAcquire(name, Duration.ofMillis(-1));
+        assertTrue(lockOnA.tryAcquire(name, Duration.ofMinutes(1)));
+        lockOnA.release(name);
+    }
+
+    private static void insertInvalidation(JdbcTemplate jdbcTemplate, long id, String cacheName, String key) {
+        jdbcTemplate.update("INSERT INTO cache_invalidations (id, node_id, cache_name, cache_key, created_at) " +
+                "VALUES (?, 'third-node', ?, ?, ?)", id, cacheName, key, new Timestamp(System.currentTimeMillis()));
+    }
+
+    private static URI uri(ConfigurableApplicationContext node, String path) {
+        return URI.create("http://localhost:" + node.getEnvironment().getProperty("local.server.port") + path);
+    }
+
+    private static void assertEventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition not met within 10s");
+            Thread.sleep(100);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.rewixxcloudapp.config;
+
+import com.rewixxcloudapp.dto.JobDto;
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.service.JobService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Two databases: the usual one as primary and a second in-memory one standing in
+ * for a replica, filled with a copy of the primary. The copy's job title is then
+ * changed on the replica only, so each read shows which database answered it.
+ */
+@SpringBootTest(properties = {
+        "replica.urls=jdbc:h2:mem:rewixxreplica;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "replica.lag-check-interval-ms=3600000",
+        "replica.stickiness-ms=300"
+})
+@AutoConfigureMockMvc
+@Import(ReplicaRoutingTest.ReadThenWriteController.class)
+public class ReplicaRoutingTest {
+
+    private static final String REPLICA = "replica-1";
+
+    @TempDir
+    Path dumpDir;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testReadOnlyTransactionsUseACaughtUpReplicaUnlessTheTenantJustWrote() throws Exception {
+        ReplicaRoutingDataSource routing = dataSource.unwrap(ReplicaRoutingDataSource.class);
+        JdbcTemplate primary = new JdbcTemplate(dataSource);
+        JdbcTemplate replica = new JdbcTemplate(routing.getResolvedDataSources().get(REPLICA));
+        // Empty replica: no heartbeat to measure, so no reads
+        assertNull(routing.getLag(REPLICA));
+
+        long userId = System.nanoTime();
+        JobDto jobDto = new JobDto("Primary Title", "Deck", "IN_PROGRESS");
+        jobDto.setJobPrice(new BigDecimal("400.00"));
+        jobDto.setIncludeTax(false);
+        Job job = jobService.createJob(jobDto, userId);
+
+        String dump = dumpDir.resolve("primary.sql").toString();
+        primary.execute("SCRIPT TO '" + dump + "'");
+        replica.execute("RUNSCRIPT FROM '" + dump + "'");
+        replica.update("UPDATE jobs SET title = 'Replica Title' WHERE id = ?", job.getId());
+
+        // Too far behind: reads stay on the primary
+        setReplicaHeartbeat(replica, System.currentTimeMillis() - 3600000);
+        replicaLagMonitor.check();
+        assertTrue(routing.getLag(REPLICA) > routing.getMaxLagMs());
+        assertEquals("Primary Title", listedTitleAsTenant(job.getId(), userId));
+
+        // Caught up: the tenant's list is read from the replica, work without a tenant is not
+        setReplicaHeartbeat(replica, System.currentTimeMillis());
+        replicaLagMonitor.check();
+        assertTrue(routing.getLag(REPLICA) <= routing.getMaxLagMs());
+        assertEquals("Replica Title", listedTitleAsTenant(job.getId(), userId));
+        assertEquals("Primary Title", listedTitle(job.getId(), userId));
+
+        // POST /list only reads: it is served from the replica and does not pin the tenant to the primary
+        String token = jwtUtil.generateToken(userId, "replica@example.com");
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/jobs/list")
+                            .header("Authorization", "Bearer " + token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"page\":0,\"pageSize\":10}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.jobs[?(@.id == " + job.getId() + ")].title").value("Replica Title"));
+        }
+
+        // One request (one open session) reading and then writing: the read may use the replica, the write must not
+        mockMvc.perform(get("/api/test/replica/jobs/" + job.getId() + "/rename")
+                        .param("title", "Renamed Title")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Replica Title"));
+        String title = "SELECT title FROM jobs WHERE id = ?";
+        assertEquals("Renamed Title", primary.queryForObject(title, String.class, job.getId()));
+        assertEquals("Replica Title", replica.queryForObject(title, String.class, job.getId()));
+
+        // A write keeps the tenant on the primary until the stickiness window has passed
+        ReplicaRoutingDataSource.bindTenant(userId);
+        try {
+            JobDto update = new JobDto();
+            update.setTitle("Updated Title");
+            jobService.updateJobFromDto(jobService.getJobById(job.getId(), userId).orElseThrow(), update);
+        } finally {
+            ReplicaRoutingDataSource.unbindTenant();
+        }
+        assertEquals("Updated Title", listedTitleAsTenant(job.getId(), userId));
+        Thread.sleep(routing.getStickinessMs() + routing.getLag(REPLICA) + 200);
+        assertEquals("Replica Title", listedTitleAsTenant(job.getId(), userId));
+    }
+
+    /** A GET that reads a list and then saves, as in-view sessions serve them. */
+    @RestController
+    static class ReadThenWriteController {
+
+        @Autowired
+        private JobService jobService;
+
+        @Autowired
+        private JwtUtil jwtUtil;
+
+        @GetMapping("/api/test/replica/jobs/{id}/rename")
+        @SuppressWarnings("unchecked")
+        public String rename(@PathVariable Long id, @RequestParam String title,
+                             @RequestHeader("Authorization") String authorization) {
+            Long userId = jwtUtil.getUserIdFromToken(authorization.substring(7));
+            List<Job> jobs = (List<Job>) jobService.getJobsList(0, 10, "", null, userId).get("jobs");
+            String listed = jobs.stream().filter(job -> job.getId().equals(id)).findFirst().orElseThrow().getTitle();
+            JobDto update = new JobDto();
+            update.setTitle(title);
+            jobService.updateJobFromDto(jobService.getJobById(id, userId).orElseThrow(), update);
+            return listed;
+        }
+    }
+
+    private String listedTitleAsTenant(Long jobId, Long userId) {
+        ReplicaRoutingDataSource.bindTenant(userId);
+        try {
+            return listedTitle(jobId, userId);
+        } finally {
+            ReplicaRoutingDataSource.unbindTenant();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private String listedTitle(Long jobId, Long userId) {
+        List<Job> jobs = (List<Job>) jobService.getJobsList(0, 10, "", null, userId).get("jobs");
+        for (Job job : jobs) {
+            if (job.getId().equals(jobId)) {
+                return job.getTitle();
+            }
+        }
+        return null;
+    }
+
+    private static void setReplicaHeartbeat(JdbcTemplate replica, long millis) {
+        replica.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", new Timestamp(millis));
+    }
+}
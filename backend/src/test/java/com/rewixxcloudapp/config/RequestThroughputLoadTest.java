@@ -0,0 +1,139 @@
+package com.rewixxcloudapp.config;
+
+import com.rewixxcloudapp.dto.JobDto;
+import com.rewixxcloudapp.service.JobService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Closed-loop load test: N clients each post /api/jobs/list back to back for a
+ * fixed duration, then throughput and latency percentiles are logged. Run once
+ * per mode and compare (virtual needs a Java 21 JDK):
+ *
+ *   mvn test -Dtest=RequestThroughputLoadTest -Dloadtest=true
+ *   mvn -Pjava21 test -Dtest=RequestThroughputLoadTest -Dloadtest=true -Dspring.threads.virtual.enabled=true
+ *
+ * -Dloadtest.clients (default 1000) and -Dloadtest.seconds (default 20) size the run.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "bulkhead.enabled=false"
+})
+public class RequestThroughputLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestThroughputLoadTest.class);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Test
+    public void testJobListUnderConcurrentClients() throws Exception {
+        int clients = Integer.getInteger("loadtest.clients", 1000);
+        int seconds = Integer.getInteger("loadtest.seconds", 20);
+
+        long userId = System.nanoTime();
+        for (int i = 0; i < 50; i++) {
+            JobDto dto = new JobDto("Load Test Job " + i, null, "IN_PROGRESS");
+            dto.setJobPrice(new BigDecimal("100.00"));
+            jobService.createJob(dto, userId);
+        }
+        String token = jwtUtil.generateToken(userId, "loadtest@example.com");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/jobs/list"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"page\":0,\"pageSize\":20}"))
+                .build();
+
+        // One blocking platform thread per client; the HttpClient keeps its own executor
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        List<long[]> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(clients);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        for (int c = 0; c < clients; c++) {
+            pool.execute(() -> {
+                long[] samples = new long[256];
+                int count = 0;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long started = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                            if (count == samples.length) {
+                                samples = Arrays.copyOf(samples, count * 2);
+                            }
+                            samples[count++] = System.nanoTime() - started;
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    latencies.add(Arrays.copyOf(samples, count));
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(seconds + 120, TimeUnit.SECONDS));
+        pool.shutdownNow();
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).toArray();
+        int total = all.length;
+        Arrays.sort(all);
+
+        logger.info(String.format("Load test mode=%s clients=%d seconds=%d requests=%d errors=%d throughput=%.0f req/s " +
+                        "p50=%.1f ms p99=%.1f ms max=%.1f ms", virtualThreads ? "virtual" : "platform", clients, seconds, total,
+                errors.get(), (double) total / seconds, percentile(all, 0.50), percentile(all, 0.99), percentile(all, 1.0)));
+        assertTrue(total > 0);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000d;
+    }
+}
@@ -0,0 +1,84 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.dto.AccountSettingsDto;
+import com.rewixxcloudapp.dto.AccountSettingsView;
+import com.rewixxcloudapp.entity.AuthUser;
+import com.rewixxcloudapp.repository.AccountSettingsRepository;
+import com.rewixxcloudapp.repository.AuthUserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Statement counts are global; keep the scan and report workers' polling and the financials check out of them
+@SpringBootTest
+public class AccountSettingsServiceTest {
+
+    @Autowired
+    private AccountSettingsService accountSettingsService;
+
+    @Autowired
+    private AuthUserRepository authUserRepository;
+
+    @Autowired
+    private AccountSettingsRepository accountSettingsRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testSettingsViewIsServedWithoutQueriesAndRefreshedOnUpdate() {
+        AuthUser user = new AuthUser();
+        user.setEmail("settings-" + System.nanoTime() + "@example.com");
+        user.setPasswordHash("x");
+        user = authUserRepository.save(user);
+
+        AccountSettingsView first = accountSettingsService.getSettingsView(user.getId());
+        assertEquals(user.getEmail(), first.getEmail());
+        // Defaults are shown without writing a settings row
+        assertTrue(accountSettingsRepository.findByUserId(user.getId()).isEmpty());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long statementsBefore = statistics.getPrepareStatementCount();
+        assertSame(first, accountSettingsService.getSettingsView(user.getId()));
+        assertEquals(statementsBefore, statistics.getPrepareStatementCount());
+
+        AccountSettingsDto dto = new AccountSettingsDto();
+        dto.setCompanyName("Renamed Co");
+        accountSettingsService.updateAccountSettings(dto, user.getId());
+        assertEquals("Renamed Co", accountSettingsService.getSettingsView(user.getId()).getCompanyName());
+
+        accountSettingsService.syncEmail(user.getId(), "changed-" + user.getEmail());
+        assertEquals("changed-" + user.getEmail(), accountSettingsService.getSettingsView(user.getId()).getEmail());
+    }
+
+    @Test
+    public void testEmailSyncRefreshesDefaultsOfTenantWithoutSettingsRow() {
+        AuthUser user = createUser();
+        AuthUser other = createUser();
+        AccountSettingsView before = accountSettingsService.getSettingsView(user.getId());
+        // Defaults have no id or timestamp; the validator must still tell tenants apart
+        assertNotEquals(before.contentTag(), accountSettingsService.getSettingsView(other.getId()).contentTag());
+
+        user.setEmail("renamed-" + user.getEmail());
+        authUserRepository.save(user);
+        accountSettingsService.syncEmail(user.getId(), user.getEmail());
+
+        AccountSettingsView after = accountSettingsService.getSettingsView(user.getId());
+        assertEquals(user.getEmail(), after.getEmail());
+        assertNotEquals(before.contentTag(), after.contentTag());
+        assertTrue(accountSettingsRepository.findByUserId(user.getId()).isEmpty());
+    }
+
+    private AuthUser createUser() {
+        AuthUser user = new AuthUser();
+        user.setEmail("settings-" + System.nanoTime() + "@example.com");
+        user.setPasswordHash("x");
+        return authUserRepository.save(user);
+    }
+}
@@ -0,0 +1,104 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.service.BulkheadService.EndpointClass;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "bulkhead.rate.burst=10",
+        "bulkhead.rate.tokens-per-second=0.01",
+        "bulkhead.reports.max-concurrent=1",
+        "bulkhead.reports.max-per-tenant=1",
+        "bulkhead.reports.max-wait-ms=100",
+        "bulkhead.reports.cost=5"
+})
+@AutoConfigureMockMvc
+public class BulkheadServiceTest {
+
+    @Autowired
+    private BulkheadService bulkheadService;
+
+    @Autowired
+    private StreamTicketService streamTicketService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testTenantLimitsAndClassSaturation() {
+        BulkheadService.Permit permit = bulkheadService.acquire(EndpointClass.REPORTS, "user:1");
+
+        // Same tenant over its own share: 429 without waiting
+        BulkheadService.RejectedException perTenant = assertThrows(BulkheadService.RejectedException.class,
+                () -> bulkheadService.acquire(EndpointClass.REPORTS, "user:1"));
+        assertEquals(429, perTenant.getStatus());
+
+        // Another tenant waits for the single slot, then gets 503
+        long started = System.currentTimeMillis();
+        BulkheadService.RejectedException busy = assertThrows(BulkheadService.RejectedException.class,
+                () -> bulkheadService.acquire(EndpointClass.REPORTS, "user:2"));
+        assertEquals(503, busy.getStatus());
+        assertTrue(System.currentTimeMillis() - started >= 90);
+
+        // CRUD has its own semaphore and is unaffected
+        bulkheadService.acquire(EndpointClass.CRUD, "user:3").release();
+
+        permit.release();
+        bulkheadService.acquire(EndpointClass.REPORTS, "user:2").release();
+
+        // Both report attempts used up user:1's burst of 10
+        BulkheadService.RejectedException rate = assertThrows(BulkheadService.RejectedException.class,
+                () -> bulkheadService.acquire(EndpointClass.REPORTS, "user:1"));
+        assertEquals(429, rate.getStatus());
+        assertTrue(rate.getRetryAfterSeconds() >= 1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFilterRejectsWithRetryAfter() throws Exception {
+        // Unauthenticated requests are limited per address; two reports use the burst
+        mockMvc.perform(revenueReport())
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(revenueReport())
+                .andExpect(status().isUnauthorized());
+        // Readable by the frontend on another origin
+        mockMvc.perform(revenueReport().header("Origin", "http://localhost:3000"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(header().string("Access-Control-Expose-Headers", containsString("Retry-After")));
+
+        // A change stream opened with a ticket from the same address counts against its user, not the address
+        String ticket = streamTicketService.issue(System.nanoTime());
+        mockMvc.perform(get("/api/changes/stream").param("ticket", ticket).with(request -> {
+                    request.setRemoteAddr("10.0.0.7");
+                    return request;
+                }))
+                .andExpect(status().isOk());
+
+        Map<String, Object> reports = (Map<String, Object>) ((Map<String, Object>) bulkheadService.getStatistics().get("classes")).get("reports");
+        assertTrue((Long) reports.get("throttled") >= 1);
+        assertEquals(0, reports.get("active"));
+    }
+
+    private MockHttpServletRequestBuilder revenueReport() {
+        return get("/api/reports/revenue")
+                .param("startDate", "2024-01-01")
+                .param("endDate", "2024-12-31")
+                .with(request -> {
+                    request.setRemoteAddr("10.0.0.7");
+                    return request;
+                });
+    }
+}
@@ -0,0 +1,159 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.config.JwtUtil;
+import com.rewixxcloudapp.dto.ChangeEvent;
+import com.rewixxcloudapp.dto.ContractDto;
+import com.rewixxcloudapp.dto.ExpenseDto;
+import com.rewixxcloudapp.dto.JobDto;
+import com.rewixxcloudapp.dto.PaymentDto;
+import com.rewixxcloudapp.entity.Expense;
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.entity.PaymentType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Committed writes reach the tenant's feed once, rolled-back ones never; a stream
+ * resumed with Last-Event-ID replays what it missed and then follows live writes.
+ * The stream is opened with a single-use ticket.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "bulkhead.enabled=false"
+})
+public class ChangeFeedServiceTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ContractService contractService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWritesAreFedAndResumable() throws Exception {
+        long userId = System.nanoTime();
+        String start = (String) changeFeedService.getChanges(userId, null).get("lastEventId");
+
+        JobDto jobDto = new JobDto("Feed Test Job", "Deck", "IN_PROGRESS");
+        jobDto.setJobPrice(new BigDecimal("500.00"));
+        jobDto.setIncludeTax(false);
+        Job job = jobService.createJob(jobDto, userId);
+        paymentService.createPayment(new PaymentDto(job.getId(), PaymentType.CASH, new BigDecimal("100.00")), userId);
+        String afterPayment = (String) changeFeedService.getChanges(userId, start).get("lastEventId");
+        // Overpaying rolls back, so nothing is announced
+        assertThrows(IllegalArgumentException.class, () ->
+                paymentService.createPayment(new PaymentDto(job.getId(), PaymentType.CASH, new BigDecimal("900.00")), userId));
+        ExpenseDto expenseDto = new ExpenseDto("EQUIPMENT", new BigDecimal("40.00"), LocalDate.now());
+        expenseDto.setJobId(job.getId());
+        Expense expense = expenseService.createExpense(expenseDto, userId);
+        expenseService.deleteExpenseById(expense.getId(), userId);
+        ContractDto contractDto = new ContractDto();
+        contractDto.setJobId(job.getId());
+        contractService.createContract(contractDto, userId);
+
+        Map<String, Object> changes = changeFeedService.getChanges(userId, start);
+        List<ChangeEvent> events = (List<ChangeEvent>) changes.get("events");
+        assertEquals(List.of("job:created", "payment:created", "expense:created", "expense:deleted", "contract:created"),
+                describe(events));
+        assertEquals(false, changes.get("reset"));
+        events.subList(1, events.size()).forEach(event -> assertEquals(job.getId(), event.getJobId()));
+        // Identified once by the instance that committed them
+        assertEquals(1, events.stream().map(ChangeEvent::getOrigin).distinct().count());
+        assertEquals(events.size(), events.stream().map(ChangeEvent::getId).distinct().count());
+        assertEquals(3, ((List<ChangeEvent>) changeFeedService.getChanges(userId, afterPayment).get("events")).size());
+        // Other tenants see none of it; a resume from another instance must reload
+        assertTrue(((List<ChangeEvent>) changeFeedService.getChanges(userId + 1, start).get("events")).isEmpty());
+        assertEquals(true, changeFeedService.getChanges(userId, "othernode-" + Long.MAX_VALUE).get("reset"));
+        String node = start.substring(0, start.lastIndexOf('-'));
+        assertThrows(IllegalArgumentException.class, () -> changeFeedService.getChanges(userId, node + "-x"));
+
+        // EventSource authenticates with a single-use ticket, never the JWT itself
+        HttpClient client = HttpClient.newHttpClient();
+        String token = jwtUtil.generateToken(userId, "feed@example.com");
+        HttpResponse<String> issued = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/changes/ticket"))
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, issued.statusCode(), issued.body());
+        Matcher ticket = Pattern.compile("\"ticket\":\"([^\"]+)\"").matcher(issued.body());
+        assertTrue(ticket.find());
+        assertEquals(401, openStream(client, "access_token=" + token, afterPayment).statusCode());
+
+        // The stream replays the last three, then delivers a live update
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        HttpResponse<Stream<String>> response = openStream(client, "ticket=" + ticket.group(1), afterPayment);
+        assertEquals(200, response.statusCode(), () -> response.body().collect(Collectors.joining("\n")));
+        Thread reader = new Thread(() -> response.body().filter(line -> line.startsWith("data:")).forEach(lines::add));
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            for (String expected : List.of("expense", "expense", "contract")) {
+                assertTrue(poll(lines).contains("\"type\":\"" + expected + "\""));
+            }
+            JobDto update = new JobDto();
+            update.setTitle("Feed Test Job (renamed)");
+            jobService.updateJobFromDto(jobService.getJobById(job.getId(), userId).orElseThrow(), update);
+            String live = poll(lines);
+            assertTrue(live.contains("\"type\":\"job\"") && live.contains("\"action\":\"updated\""), live);
+            assertFalse(live.contains("userId"));
+        } finally {
+            response.body().close();
+            reader.join(5000);
+        }
+        HttpResponse<Stream<String>> reused = openStream(client, "ticket=" + ticket.group(1), afterPayment);
+        reused.body().close();
+        assertEquals(401, reused.statusCode());
+    }
+
+    private HttpResponse<Stream<String>> openStream(HttpClient client, String query, String lastEventId) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/changes/stream?" + query))
+                .header("Accept", "text/event-stream")
+                .header("Last-Event-ID", lastEventId)
+                .GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofLines());
+    }
+
+    private static String poll(BlockingQueue<String> lines) throws InterruptedException {
+        String line = lines.poll(10, TimeUnit.SECONDS);
+        assertNotNull(line, "No event received");
+        return line;
+    }
+
+    private static List<String> describe(List<ChangeEvent> events) {
+        return events.stream().map(event -> event.getType() + ":" + event.getAction()).collect(Collectors.toList());
+    }
+}
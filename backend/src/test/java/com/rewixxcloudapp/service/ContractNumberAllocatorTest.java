@@ -0,0 +1,105 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.dto.ContractDto;
+import com.rewixxcloudapp.entity.Contract;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ContractNumberAllocatorTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContractNumberAllocatorTest.class);
+
+    @Autowired
+    private ContractService contractService;
+
+    @Autowired
+    private ContractNumberAllocator contractNumberAllocator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testParallelCreatesGetUniqueNumbers() throws Exception {
+        long userId = System.nanoTime();
+        int threads = 8;
+        int perThread = 25;
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        ContractDto dto = new ContractDto();
+                        dto.setCustomerName("Parallel Customer");
+                        Contract contract = contractService.createContract(dto, userId);
+                        assertTrue(numbers.add(contract.getContractNumber()), "Duplicate " + contract.getContractNumber());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Created {} contracts on {} threads in {} ms ({} /s)", threads * perThread, threads, elapsedMs,
+                elapsedMs > 0 ? threads * perThread * 1000L / elapsedMs : threads * perThread);
+
+        assertEquals(threads * perThread, numbers.size());
+    }
+
+    @Test
+    public void testNumbersAreNotReusedAfterDelete() {
+        long userId = System.nanoTime();
+        int year = LocalDate.now().getYear();
+
+        ContractDto dto = new ContractDto();
+        dto.setCustomerName("Delete Customer");
+        Contract first = contractService.createContract(dto, userId);
+        assertEquals(String.format("CTR-%d-%04d", year, 1), first.getContractNumber());
+
+        contractService.deleteContract(first.getId(), userId);
+        Contract second = contractService.createContract(dto, userId);
+        assertEquals(String.format("CTR-%d-%04d", year, 2), second.getContractNumber());
+        assertEquals(3, contractNumberAllocator.next(userId, year));
+    }
+
+    @Test
+    public void testRolledBackReservationIsHandedOutAgain() {
+        long userId = System.nanoTime();
+        int year = LocalDate.now().getYear();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        assertEquals(1, contractNumberAllocator.next(userId, year));
+        // Reserved quickly after the first, so the block doubles; none of it survives the rollback
+        Long rolledBack = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return contractNumberAllocator.next(userId, year);
+        });
+        assertEquals(2, rolledBack);
+        assertEquals(2, contractNumberAllocator.next(userId, year));
+        assertEquals(3, contractNumberAllocator.next(userId, year));
+        assertEquals(4, contractNumberAllocator.next(userId, year));
+    }
+}
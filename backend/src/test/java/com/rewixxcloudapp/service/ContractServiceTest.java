@@ -0,0 +1,146 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.dto.ContractDto;
+import com.rewixxcloudapp.dto.JobDto;
+import com.rewixxcloudapp.entity.Contract;
+import com.rewixxcloudapp.entity.ContractStatus;
+import com.rewixxcloudapp.entity.Customer;
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.entity.JobStatus;
+import com.rewixxcloudapp.entity.Payment;
+import com.rewixxcloudapp.entity.PaymentType;
+import com.rewixxcloudapp.repository.ContractRepository;
+import com.rewixxcloudapp.repository.CustomerRepository;
+import com.rewixxcloudapp.repository.JobRepository;
+import com.rewixxcloudapp.repository.PaymentRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Statement counts are global; keep the scan and report workers' polling and the financials check out of them
+@SpringBootTest
+public class ContractServiceTest {
+
+    private static final int CONTRACT_COUNT = 40;
+
+    @Autowired
+    private ContractService contractService;
+
+    @Autowired
+    private ContractRepository contractRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private JobFinancialsService jobFinancialsService;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testContractsListUsesConstantNumberOfQueries() {
+        long userId = System.nanoTime();
+        for (int i = 0; i < CONTRACT_COUNT; i++) {
+            Customer customer = new Customer("contract-customer-" + userId + "-" + i, "password", "Customer " + i);
+            customer.setUserId(userId);
+            customer = customerRepository.save(customer);
+
+            Job job = new Job("Job " + i, null, JobStatus.IN_PROGRESS);
+            job.setUserId(userId);
+            job.setCustomer(customer);
+            job.setJobPrice(BigDecimal.valueOf(100));
+            job.setIncludeTax(false);
+            job = jobRepository.save(job);
+            // Even jobs are paid in full, odd jobs half
+            paymentRepository.save(new Payment(job, PaymentType.CASH, BigDecimal.valueOf(i % 2 == 0 ? 100 : 50)));
+
+            Contract contract = new Contract();
+            contract.setUserId(userId);
+            contract.setCustomer(customer);
+            contract.setJob(job);
+            contract.setContractNumber("CTR-TEST-" + i);
+            contract.setContractDate(LocalDate.now().minusDays(i));
+            contractRepository.save(contract);
+        }
+
+        // Jobs and payments were saved straight through the repositories; backfill their summaries
+        assertTrue(jobFinancialsService.checkConsistency() >= CONTRACT_COUNT);
+
+        // The tenant's tax rate is cached once per tenant, not per page
+        pricingService.taxRateBasisPoints(userId);
+
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        Statistics statistics = sessionFactory.getStatistics();
+        long statementsBefore = statistics.getPrepareStatementCount();
+
+        Map<String, Object> result = contractService.getContractsList(0, CONTRACT_COUNT, null, userId);
+
+        long statements = statistics.getPrepareStatementCount() - statementsBefore;
+        List<Contract> contracts = (List<Contract>) result.get("contracts");
+        assertEquals(CONTRACT_COUNT, contracts.size());
+        for (Contract contract : contracts) {
+            assertEquals(0, new BigDecimal("100").compareTo(contract.getTotalPrice()));
+            boolean even = Integer.parseInt(contract.getContractNumber().substring("CTR-TEST-".length())) % 2 == 0;
+            assertEquals(even ? ContractStatus.PAID : ContractStatus.PARTIAL, contract.getStatus());
+        }
+        // Page query, count query and one financials lookup, however many contracts
+        assertTrue(statements <= 3, "Expected at most 3 statements but was " + statements);
+    }
+
+    @Test
+    public void testContractWritesAndReadsUseOneTransaction() {
+        long userId = System.nanoTime();
+        JobDto jobDto = new JobDto("Deck Job", "Old boards", "IN_PROGRESS");
+        jobDto.setJobPrice(new BigDecimal("250.00"));
+        jobDto.setIncludeTax(false);
+        Job job = jobService.createJob(jobDto, userId);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long transactionsBefore = statistics.getTransactionCount();
+        long flushesBefore = statistics.getFlushCount();
+        ContractDto dto = new ContractDto();
+        dto.setJobId(job.getId());
+        dto.setCustomerName("Deck Customer");
+        dto.setScopeOfWork("Replace the deck boards");
+        Contract contract = contractService.createContract(dto, userId);
+        // Seeding and advancing the new tenant's contract counter, the job and the contract share one
+        assertEquals(1, statistics.getTransactionCount() - transactionsBefore);
+        assertEquals(1, statistics.getFlushCount() - flushesBefore);
+        assertEquals("Replace the deck boards", jobRepository.findById(job.getId()).orElseThrow().getDescription());
+
+        // Syncing price and status from the job changes the loaded contract; read-only, none of it is flushed
+        transactionsBefore = statistics.getTransactionCount();
+        flushesBefore = statistics.getFlushCount();
+        long updatesBefore = statistics.getEntityUpdateCount();
+        Contract read = contractService.getContractById(contract.getId(), userId).orElseThrow();
+        assertEquals(1, statistics.getTransactionCount() - transactionsBefore);
+        assertEquals(0, statistics.getFlushCount() - flushesBefore);
+        assertEquals(0, statistics.getEntityUpdateCount() - updatesBefore);
+        assertEquals(0, new BigDecimal("250").compareTo(read.getTotalPrice()));
+    }
+}
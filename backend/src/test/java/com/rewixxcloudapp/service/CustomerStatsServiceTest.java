@@ -0,0 +1,152 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.dto.CustomerDto;
+import com.rewixxcloudapp.dto.JobDto;
+import com.rewixxcloudapp.dto.PaymentDto;
+import com.rewixxcloudapp.entity.Customer;
+import com.rewixxcloudapp.entity.CustomerStats;
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.entity.Payment;
+import com.rewixxcloudapp.entity.PaymentType;
+import com.rewixxcloudapp.repository.CustomerStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class CustomerStatsServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 3);
+
+    @Autowired
+    private CustomerStatsService customerStatsService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private CustomerStatsRepository customerStatsRepository;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStatsFollowJobAndPaymentWrites() {
+        long userId = System.nanoTime();
+        // Two customers with the same name must not be merged
+        Customer ann = createCustomer(userId, "ann", "Same Name");
+        Customer bob = createCustomer(userId, "bob", "Same Name");
+        Customer idle = createCustomer(userId, "idle", "Idle Customer");
+
+        Job finished = createJob(userId, ann, "100.00", DAY, DAY.plusDays(2));
+        Job started = createJob(userId, ann, "50.00", DAY.plusDays(5), null);
+        createJob(userId, bob, "300.00", DAY, null);
+        pay(userId, finished, "40.00", DAY.plusDays(7));
+        Payment deposit = pay(userId, started, "50.00", DAY.plusDays(3));
+
+        CustomerStats annStats = stats(ann);
+        assertAmount("150.00", annStats.getLifetimeRevenue());
+        assertAmount("90.00", annStats.getPaid());
+        assertAmount("60.00", annStats.getOutstandingBalance());
+        assertEquals(2, annStats.getJobCount());
+        assertEquals(DAY.plusDays(7), annStats.getLastActivityDate());
+        // 5 days after the end date, and a deposit before the start date counted as 0
+        assertEquals(new BigDecimal("2.5"), annStats.getAveragePaymentLagDays());
+        assertEquals(0, stats(idle).getJobCount());
+
+        Map<String, Object> byRevenue = customerService.getCustomerInsights(0, 10, "", "lifetimeRevenue", false, userId);
+        assertEquals(List.of(bob.getId(), ann.getId(), idle.getId()), ids(byRevenue));
+        assertEquals(3L, byRevenue.get("totalCustomers"));
+        assertEquals(List.of(idle.getId(), ann.getId()),
+                ids(customerService.getCustomerInsights(0, 2, "", "lifetimeRevenue", true, userId)));
+        assertEquals(List.of(ann.getId(), bob.getId(), idle.getId()),
+                ids(customerService.getCustomerInsights(0, 10, "", "lastActivity", false, userId)));
+        assertThrows(IllegalArgumentException.class,
+                () -> customerService.getCustomerInsights(0, 10, "", "name; DROP", false, userId));
+
+        // The plain list carries the same stats
+        List<Customer> listed = (List<Customer>) customerService.getCustomersList(0, 10, "same", userId).get("customers");
+        assertEquals(2, listed.size());
+        listed.forEach(customer -> assertNotNull(customer.getStats()));
+
+        // Moving a job updates both customers; deleting a payment gives its amount back
+        JobDto move = new JobDto();
+        move.setCustomerId(bob.getId());
+        jobService.updateJobFromDto(jobService.getJobById(started.getId(), userId).orElseThrow(), move);
+        paymentService.deletePayment(deposit.getId(), userId);
+        annStats = stats(ann);
+        CustomerStats bobStats = stats(bob);
+        assertAmount("100.00", annStats.getLifetimeRevenue());
+        assertEquals(1, annStats.getJobCount());
+        assertAmount("350.00", bobStats.getLifetimeRevenue());
+        assertAmount("350.00", bobStats.getOutstandingBalance());
+        assertEquals(2, bobStats.getJobCount());
+
+        // Period top customers are keyed by id, so both "Same Name" customers are listed
+        Map<String, Object> insights = reportService.generateBusinessInsightsReport(DAY.minusDays(1), DAY.plusDays(30), userId);
+        List<Map<String, Object>> top = (List<Map<String, Object>>) insights.get("topCustomers");
+        assertEquals(2, top.size());
+        List<Map<String, Object>> lifetime = (List<Map<String, Object>>) insights.get("topCustomersLifetime");
+        assertEquals(bob.getId(), lifetime.get(0).get("customerId"));
+
+        // The consistency check repairs a row that drifted
+        CustomerStats drifted = stats(ann);
+        drifted.setPaidCents(1L);
+        drifted.setJobCount(7);
+        customerStatsRepository.saveAndFlush(drifted);
+        customerStatsService.checkConsistency();
+        assertEquals(1, stats(ann).getJobCount());
+        assertAmount("40.00", stats(ann).getPaid());
+    }
+
+    private Customer createCustomer(long userId, String username, String name) {
+        CustomerDto dto = new CustomerDto();
+        dto.setUsername(username + "-" + userId + "@example.com");
+        dto.setName(name);
+        return customerService.createCustomer(dto, userId);
+    }
+
+    private Job createJob(long userId, Customer customer, String price, LocalDate start, LocalDate end) {
+        JobDto dto = new JobDto("Stats Job", null, "IN_PROGRESS");
+        dto.setCustomerId(customer.getId());
+        dto.setJobPrice(new BigDecimal(price));
+        dto.setIncludeTax(false);
+        dto.setStartDate(start);
+        dto.setEndDate(end);
+        return jobService.createJob(dto, userId);
+    }
+
+    private Payment pay(long userId, Job job, String amount, LocalDate date) {
+        PaymentDto dto = new PaymentDto(job.getId(), PaymentType.CASH, new BigDecimal(amount));
+        dto.setPaymentDate(date.atTime(10, 0));
+        return paymentService.createPayment(dto, userId);
+    }
+
+    private CustomerStats stats(Customer customer) {
+        return customerStatsRepository.findById(customer.getId()).orElseThrow();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> ids(Map<String, Object> page) {
+        return ((List<Customer>) page.get("customers")).stream().map(Customer::getId).collect(Collectors.toList());
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "Expected " + expected + " but was " + actual);
+    }
+}
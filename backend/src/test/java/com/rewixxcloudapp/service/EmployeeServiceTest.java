@@ -0,0 +1,92 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.dto.EmployeeDto;
+import com.rewixxcloudapp.entity.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class EmployeeServiceTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDirectoryPagesWithCursorAndPrefixSearch() {
+        long userId = System.nanoTime();
+        for (String name : new String[]{"Zoë Adams", "adam Brown", "Adam Brown", "Bea Carter", "Carl Diaz"}) {
+            employeeService.createEmployee(new EmployeeDto(name), userId);
+        }
+        EmployeeDto withPhone = new EmployeeDto("Dana Evans");
+        withPhone.setPhone("(555) 123-4567");
+        Employee dana = employeeService.createEmployee(withPhone, userId);
+        employeeService.toggleEmployeeStatus(dana.getId(), userId);
+
+        // Pages of two walk the whole directory in (normalized name, id) order without gaps or repeats
+        List<String> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Map<String, Object> page = employeeService.getEmployeesPage(null, null, cursor, 2, userId);
+            walked.addAll(names((List<Employee>) page.get("employees")));
+            cursor = (String) page.get("nextCursor");
+            assertEquals(cursor != null, page.get("hasMore"));
+            pages++;
+        } while (cursor != null);
+        assertEquals(3, pages);
+        assertEquals(List.of("adam Brown", "Adam Brown", "Bea Carter", "Carl Diaz", "Dana Evans", "Zoë Adams"), walked);
+
+        // Active filter, accent-insensitive name prefix, phone digit prefix
+        Map<String, Object> active = employeeService.getEmployeesPage(null, true, null, 50, userId);
+        assertEquals(5, ((List<Employee>) active.get("employees")).size());
+        assertEquals(List.of("Zoë Adams"),
+                names((List<Employee>) employeeService.getEmployeesPage("zoe", null, null, 10, userId).get("employees")));
+        assertEquals(List.of("adam Brown", "Adam Brown"),
+                names((List<Employee>) employeeService.getEmployeesPage("ADAM b", null, null, 10, userId).get("employees")));
+        assertEquals(List.of("Dana Evans"),
+                names((List<Employee>) employeeService.getEmployeesPage("555-12", false, null, 10, userId).get("employees")));
+        // Pages match the start of any word, not a substring
+        assertEquals(List.of("adam Brown", "Adam Brown"),
+                names((List<Employee>) employeeService.getEmployeesPage("brown", null, null, 10, userId).get("employees")));
+        assertTrue(((List<Employee>) employeeService.getEmployeesPage("rown", null, null, 10, userId).get("employees")).isEmpty());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> employeeService.getEmployeesPage(null, null, "not a cursor", 10, userId));
+        // The cursor carries search_name, so a NULL would silently skip rows
+        assertEquals("NO", jdbcTemplate.queryForObject("SELECT IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS " +
+                "WHERE LOWER(TABLE_NAME) = 'employees' AND LOWER(COLUMN_NAME) = 'search_name'", String.class));
+    }
+
+    @Test
+    public void testUnpagedSearchMatchesSubstringsOfNameEmailAndPhone() {
+        long userId = System.nanoTime();
+        EmployeeDto john = new EmployeeDto("John Smith");
+        john.setEmail("jsmith@crew.example.com");
+        john.setPhone("555-867-5309");
+        employeeService.createEmployee(john, userId);
+        employeeService.createEmployee(new EmployeeDto("Maria Lopez"), userId);
+
+        assertEquals(List.of("John Smith"), names(employeeService.searchEmployees("Smith", userId)));
+        assertEquals(List.of("John Smith"), names(employeeService.searchEmployees("mit", userId)));
+        assertEquals(List.of("John Smith"), names(employeeService.searchEmployees("crew.example", userId)));
+        assertEquals(List.of("John Smith"), names(employeeService.searchEmployees("867", userId)));
+        assertEquals(List.of("Maria Lopez"), names(employeeService.searchEmployees("LOPEZ", userId)));
+    }
+
+    private static List<String> names(List<Employee> employees) {
+        return employees.stream().map(Employee::getName).collect(Collectors.toList());
+    }
+}
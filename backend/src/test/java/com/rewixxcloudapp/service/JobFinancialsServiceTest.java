@@ -0,0 +1,163 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.dto.AccountSettingsDto;
+import com.rewixxcloudapp.dto.CustomerDto;
+import com.rewixxcloudapp.dto.JobDto;
+import com.rewixxcloudapp.dto.MaterialDto;
+import com.rewixxcloudapp.dto.PaymentDto;
+import com.rewixxcloudapp.entity.AuthUser;
+import com.rewixxcloudapp.entity.Customer;
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.entity.JobFinancials;
+import com.rewixxcloudapp.entity.PaymentType;
+import com.rewixxcloudapp.entity.Product;
+import com.rewixxcloudapp.entity.Sale;
+import com.rewixxcloudapp.repository.AuthUserRepository;
+import com.rewixxcloudapp.repository.CustomerStatsRepository;
+import com.rewixxcloudapp.repository.JobFinancialsRepository;
+import com.rewixxcloudapp.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class JobFinancialsServiceTest {
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private JobFinancialsService jobFinancialsService;
+
+    @Autowired
+    private JobFinancialsRepository jobFinancialsRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private AccountSettingsService accountSettingsService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private AuthUserRepository authUserRepository;
+
+    @Autowired
+    private CustomerStatsRepository customerStatsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testSummaryFollowsJobMaterialAndPaymentWrites() {
+        long userId = System.nanoTime();
+        Product product = productRepository.save(new Product("Financials Test Pipe", null, new BigDecimal("5.00")));
+
+        JobDto dto = new JobDto("Financials Test Job", null, "IN_PROGRESS");
+        dto.setJobPrice(new BigDecimal("100.00"));
+        dto.setIncludeTax(false);
+        Job job = jobService.createJob(dto, userId);
+        assertFinancials(job.getId(), 10_000, 0, 0);
+
+        Sale sale = jobService.addMaterialToJob(job.getId(), new MaterialDto(product.getId(), 3, null), userId);
+        assertFinancials(job.getId(), 10_000, 0, 1_500);
+
+        jobService.updateMaterialInJob(job.getId(), sale.getId(), new MaterialDto(product.getId(), 2, null), userId);
+        assertFinancials(job.getId(), 10_000, 0, 1_000);
+
+        JobDto update = new JobDto();
+        update.setJobPrice(new BigDecimal("200.00"));
+        Job updated = jobService.updateJobFromDto(jobService.getJobById(job.getId(), userId).orElseThrow(), update);
+        assertEquals(20_000L, updated.getFinancials().getTotalCents());
+        assertFinancials(job.getId(), 20_000, 0, 1_000);
+
+        paymentService.createPayment(new PaymentDto(job.getId(), PaymentType.CASH, new BigDecimal("50.00")), userId);
+        assertFinancials(job.getId(), 20_000, 5_000, 1_000);
+        assertEquals(0, new BigDecimal("150.00").compareTo(
+                jobService.getJobById(job.getId(), userId).orElseThrow().getFinancials().getBalance()));
+
+        jobService.removeMaterialFromJob(job.getId(), sale.getId(), userId);
+        assertFinancials(job.getId(), 20_000, 5_000, 0);
+
+        jobService.deleteJobById(job.getId(), userId);
+        assertTrue(jobFinancialsRepository.findById(job.getId()).isEmpty());
+    }
+
+    @Test
+    public void testConsistencyCheckRepairsDrift() {
+        long userId = System.nanoTime();
+        JobDto dto = new JobDto("Drift Test Job", null, "IN_PROGRESS");
+        dto.setJobPrice(new BigDecimal("80.00"));
+        dto.setIncludeTax(false);
+        Job drifted = jobService.createJob(dto, userId);
+        Job missing = jobService.createJob(dto, userId);
+        paymentService.createPayment(new PaymentDto(drifted.getId(), PaymentType.CASH, new BigDecimal("30.00")), userId);
+
+        jdbcTemplate.update("UPDATE job_financials SET paid_cents = 999, total_cents = 1 WHERE job_id = ?", drifted.getId());
+        jdbcTemplate.update("DELETE FROM job_financials WHERE job_id = ?", missing.getId());
+
+        assertTrue(jobFinancialsService.checkConsistency() >= 2);
+        assertFinancials(drifted.getId(), 8_000, 3_000, 0);
+        assertFinancials(missing.getId(), 8_000, 0, 0);
+        // Nothing left to repair for these jobs
+        jobFinancialsService.checkConsistency();
+        assertFinancials(drifted.getId(), 8_000, 3_000, 0);
+    }
+
+    @Test
+    public void testTaxRateChangeRepricesTotals() {
+        AuthUser user = new AuthUser();
+        user.setEmail("tax-rate-" + System.nanoTime() + "@example.com");
+        user.setPasswordHash("x");
+        Long userId = authUserRepository.save(user).getId();
+        CustomerDto customerDto = new CustomerDto();
+        customerDto.setUsername("tax-rate-customer-" + userId + "@example.com");
+        customerDto.setName("Tax Rate Customer");
+        Customer customer = customerService.createCustomer(customerDto, userId);
+
+        JobDto dto = new JobDto("Taxed Job", null, "IN_PROGRESS");
+        dto.setCustomerId(customer.getId());
+        dto.setJobPrice(new BigDecimal("100.00"));
+        dto.setIncludeTax(true);
+        Job taxed = jobService.createJob(dto, userId);
+        dto.setIncludeTax(false);
+        Job untaxed = jobService.createJob(dto, userId);
+        // Default rate of 6%
+        assertFinancials(taxed.getId(), 10_600, 0, 0);
+        paymentService.createPayment(new PaymentDto(taxed.getId(), PaymentType.CASH, new BigDecimal("50.00")), userId);
+
+        AccountSettingsDto settings = new AccountSettingsDto();
+        settings.setTaxRatePercent(new BigDecimal("10"));
+        accountSettingsService.updateAccountSettings(settings, userId);
+
+        assertFinancials(taxed.getId(), 11_000, 5_000, 0);
+        assertFinancials(untaxed.getId(), 10_000, 0, 0);
+        assertEquals(0, new BigDecimal("60.00").compareTo(
+                jobService.getJobById(taxed.getId(), userId).orElseThrow().getFinancials().getBalance()));
+        assertEquals(21_000L, customerStatsRepository.findById(customer.getId()).orElseThrow().getLifetimeRevenueCents());
+        assertEquals(16_000L, customerStatsRepository.findById(customer.getId()).orElseThrow().getOutstandingCents());
+
+        // The payment guard allows exactly the re-priced balance
+        assertThrows(IllegalArgumentException.class, () -> paymentService.createPayment(
+                new PaymentDto(taxed.getId(), PaymentType.CASH, new BigDecimal("60.01")), userId));
+        paymentService.createPayment(new PaymentDto(taxed.getId(), PaymentType.CASH, new BigDecimal("60.00")), userId);
+        assertFinancials(taxed.getId(), 11_000, 11_000, 0);
+    }
+
+    private void assertFinancials(Long jobId, long totalCents, long paidCents, long materialsCents) {
+        JobFinancials financials = jobFinancialsRepository.findById(jobId).orElseThrow();
+        assertEquals(totalCents, financials.getTotalCents());
+        assertEquals(paidCents, financials.getPaidCents());
+        assertEquals(materialsCents, financials.getMaterialsCents());
+    }
+}
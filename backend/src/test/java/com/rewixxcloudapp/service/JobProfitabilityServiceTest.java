@@ -0,0 +1,104 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.dto.ExpenseDto;
+import com.rewixxcloudapp.dto.JobDto;
+import com.rewixxcloudapp.dto.JobProfitView;
+import com.rewixxcloudapp.dto.MaterialDto;
+import com.rewixxcloudapp.dto.PaymentDto;
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.entity.PaymentType;
+import com.rewixxcloudapp.entity.Product;
+import com.rewixxcloudapp.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class JobProfitabilityServiceTest {
+
+    @Autowired
+    private JobProfitabilityService jobProfitabilityService;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testJobProfitAndLoss() {
+        long userId = System.nanoTime();
+        Product product = productRepository.save(new Product("P&L Test Pipe", null, new BigDecimal("10.00")));
+        Job job = createJob(userId, "P&L Test Job", "500.00");
+        jobService.addMaterialToJob(job.getId(), new MaterialDto(product.getId(), 3, null), userId);
+        // Two materials-used rows and two labor rows: nothing may be counted twice by the joins
+        jobService.addMaterialToJob(job.getId(), new MaterialDto(product.getId(), 2, null), userId);
+        expenseService.createExpense(labor(job, "6", "25.00"), userId);
+        expenseService.createExpense(labor(job, "2", "25.00"), userId);
+        ExpenseDto equipment = new ExpenseDto("EQUIPMENT", new BigDecimal("50.00"), LocalDate.now());
+        equipment.setJobId(job.getId());
+        expenseService.createExpense(equipment, userId);
+        paymentService.createPayment(new PaymentDto(job.getId(), PaymentType.CASH, new BigDecimal("100.00")), userId);
+        paymentService.createPayment(new PaymentDto(job.getId(), PaymentType.CASH, new BigDecimal("50.00")), userId);
+
+        JobProfitView pnl = jobProfitabilityService.getJobProfitability(job.getId(), userId).orElseThrow();
+        assertAmount("600.00", pnl.getRevenue());
+        assertAmount("50.00", pnl.getMaterialsCost());
+        assertAmount("200.00", pnl.getLaborCost());
+        assertEquals(0, new BigDecimal("8").compareTo(pnl.getLaborHours()));
+        assertAmount("50.00", pnl.getExpensesByType().get("EQUIPMENT"));
+        assertAmount("250.00", pnl.getExpenses());
+        assertAmount("300.00", pnl.getGrossProfit());
+        assertEquals(new BigDecimal("50.0"), pnl.getMarginPercent());
+        assertAmount("150.00", pnl.getPaid());
+        assertAmount("450.00", pnl.getBalance());
+        assertTrue(jobProfitabilityService.getJobProfitability(job.getId(), userId + 1).isEmpty());
+
+        // The list carries the P&L of every row when asked, and not otherwise
+        Job idle = createJob(userId, "P&L Idle Job", "80.00");
+        List<Job> page = (List<Job>) jobService.getJobsList(0, 10, "", "All", true, userId).get("jobs");
+        assertEquals(2, page.size());
+        for (Job row : page) {
+            assertNotNull(row.getProfitability());
+        }
+        Job idleRow = page.stream().filter(j -> j.getId().equals(idle.getId())).findFirst().orElseThrow();
+        assertEquals(new BigDecimal("100.0"), idleRow.getProfitability().getMarginPercent());
+        Map<String, Object> plain = jobService.getJobsList(0, 10, "", "All", userId);
+        assertNull(((List<Job>) plain.get("jobs")).get(0).getProfitability());
+    }
+
+    private Job createJob(long userId, String title, String price) {
+        JobDto dto = new JobDto(title, null, "IN_PROGRESS");
+        dto.setJobPrice(new BigDecimal(price));
+        dto.setCustomMaterialCost(title.contains("Idle") ? null : new BigDecimal("100.00"));
+        dto.setIncludeTax(false);
+        return jobService.createJob(dto, userId);
+    }
+
+    private static ExpenseDto labor(Job job, String hours, String rate) {
+        ExpenseDto dto = new ExpenseDto("LABOR", new BigDecimal(hours).multiply(new BigDecimal(rate)), LocalDate.now());
+        dto.setEmployeeName("P&L Worker");
+        dto.setHoursWorked(new BigDecimal(hours));
+        dto.setHourlyRate(new BigDecimal(rate));
+        dto.setJobId(job.getId());
+        return dto;
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "Expected " + expected + " but was " + actual);
+    }
+}
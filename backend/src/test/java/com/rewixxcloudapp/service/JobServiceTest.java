@@ -0,0 +1,181 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.dto.ContractDto;
+import com.rewixxcloudapp.dto.JobDto;
+import com.rewixxcloudapp.dto.MaterialBatchDto;
+import com.rewixxcloudapp.dto.MaterialDto;
+import com.rewixxcloudapp.dto.PurchaseDto;
+import com.rewixxcloudapp.entity.Contract;
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.entity.Product;
+import com.rewixxcloudapp.entity.Sale;
+import com.rewixxcloudapp.repository.ContractRepository;
+import com.rewixxcloudapp.repository.JobFinancialsRepository;
+import com.rewixxcloudapp.repository.ProductRepository;
+import com.rewixxcloudapp.repository.SaleItemRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Statement counts are global; keep the scan and report workers' polling and the financials check out of them
+@SpringBootTest
+public class JobServiceTest {
+
+    private static final int MATERIAL_COUNT = 60;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SaleItemRepository saleItemRepository;
+
+    @Autowired
+    private JobFinancialsRepository jobFinancialsRepository;
+
+    @Autowired
+    private ContractService contractService;
+
+    @Autowired
+    private ContractRepository contractRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMaterialEditDoesNotLoadTheOtherSales() {
+        long userId = System.nanoTime();
+        Product product = productRepository.save(new Product("Batch Test Fitting", null, new BigDecimal("2.50")));
+        Job job = createJob(userId);
+
+        MaterialBatchDto batch = new MaterialBatchDto();
+        for (int i = 0; i < MATERIAL_COUNT; i++) {
+            batch.getAdd().add(new MaterialDto(product.getId(), 1, null));
+        }
+        List<Sale> added = (List<Sale>) jobService.applyMaterialBatch(job.getId(), batch, userId).get("added");
+        assertEquals(MATERIAL_COUNT, added.size());
+        assertEquals(MATERIAL_COUNT * 250L, jobFinancialsRepository.findById(job.getId()).orElseThrow().getMaterialsCents());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long statementsBefore = statistics.getPrepareStatementCount();
+        jobService.updateMaterialInJob(job.getId(), added.get(0).getId(), new MaterialDto(product.getId(), 4, null), userId);
+        long statements = statistics.getPrepareStatementCount() - statementsBefore;
+
+        assertEquals(MATERIAL_COUNT * 250L + 750, jobFinancialsRepository.findById(job.getId()).orElseThrow().getMaterialsCents());
+        // Ownership + sale lookup, item update and the financials refresh; none of the other 59 sales
+        assertTrue(statements <= 8, "Expected at most 8 statements but was " + statements);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMaterialBatchIsAllOrNothing() {
+        long userId = System.nanoTime();
+        Product product = productRepository.save(new Product("Batch Test Valve", null, new BigDecimal("10.00")));
+        Job job = createJob(userId);
+
+        MaterialBatchDto create = new MaterialBatchDto();
+        create.getAdd().add(new MaterialDto(product.getId(), 1, null));
+        create.getAdd().add(new MaterialDto(product.getId(), 2, null));
+        List<Sale> sales = (List<Sale>) jobService.applyMaterialBatch(job.getId(), create, userId).get("added");
+        Long kept = sales.get(0).getId();
+        Long removed = sales.get(1).getId();
+
+        // Unknown product: the update and removal in the same batch roll back too
+        MaterialBatchDto failing = new MaterialBatchDto();
+        MaterialDto update = new MaterialDto(product.getId(), 5, null);
+        update.setSaleId(kept);
+        failing.getUpdate().add(update);
+        failing.getRemove().add(removed);
+        failing.getAdd().add(new MaterialDto(-1L, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> jobService.applyMaterialBatch(job.getId(), failing, userId));
+        assertEquals(3_000L, jobFinancialsRepository.findById(job.getId()).orElseThrow().getMaterialsCents());
+
+        // Another tenant cannot touch the job's sales
+        MaterialBatchDto foreign = new MaterialBatchDto();
+        foreign.getRemove().add(removed);
+        assertThrows(IllegalArgumentException.class, () -> jobService.applyMaterialBatch(job.getId(), foreign, userId + 1));
+
+        failing.getAdd().clear();
+        Map<String, Object> result = jobService.applyMaterialBatch(job.getId(), failing, userId);
+        assertEquals(List.of(removed), result.get("removed"));
+        assertEquals(5_000L, jobFinancialsRepository.findById(job.getId()).orElseThrow().getMaterialsCents());
+        assertEquals(5, saleItemRepository.findAll().stream()
+                .filter(item -> item.getSale().getId().equals(kept)).findFirst().orElseThrow().getQuantity());
+    }
+
+    @Test
+    public void testPurchaseIsOneSaleWithManyLines() {
+        long userId = System.nanoTime();
+        Product pipe = productRepository.save(new Product("Purchase Test Pipe", null, new BigDecimal("3.00")));
+        Product elbow = productRepository.save(new Product("Purchase Test Elbow", null, new BigDecimal("0.75")));
+        Job job = createJob(userId);
+
+        PurchaseDto purchase = new PurchaseDto();
+        for (int i = 0; i < 20; i++) {
+            purchase.getItems().add(new MaterialDto(i % 2 == 0 ? pipe.getId() : elbow.getId(), 2, null));
+        }
+        Sale sale = jobService.addPurchaseToJob(job.getId(), purchase, userId);
+        assertEquals(20, sale.getSaleItems().size());
+        assertTrue(sale.getSaleItems().stream().allMatch(item -> item.getId() != null));
+        // 10 x 2 x 3.00 + 10 x 2 x 0.75
+        assertEquals(7_500L, jobFinancialsRepository.findById(job.getId()).orElseThrow().getMaterialsCents());
+
+        // With several lines the item has to be named
+        MaterialDto update = new MaterialDto(pipe.getId(), 1, null);
+        assertThrows(IllegalArgumentException.class, () -> jobService.updateMaterialInJob(job.getId(), sale.getId(), update, userId));
+        Long pipeLine = sale.getSaleItems().stream()
+                .filter(item -> item.getProduct().getId().equals(pipe.getId())).findFirst().orElseThrow().getId();
+        update.setSaleItemId(pipeLine);
+        jobService.updateMaterialInJob(job.getId(), sale.getId(), update, userId);
+        jobService.removeMaterialItemFromJob(job.getId(), sale.getId(), pipeLine, userId);
+        assertEquals(6_900L, jobFinancialsRepository.findById(job.getId()).orElseThrow().getMaterialsCents());
+    }
+
+    @Test
+    public void testJobEditAndContractSyncCommitTogether() {
+        long userId = System.nanoTime();
+        Job job = createJob(userId);
+        ContractDto contractDto = new ContractDto();
+        contractDto.setJobId(job.getId());
+        Contract contract = contractService.createContract(contractDto, userId);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long transactionsBefore = statistics.getTransactionCount();
+        long flushesBefore = statistics.getFlushCount();
+        JobDto edit = new JobDto();
+        edit.setDescription("Replace the gutters");
+        jobService.updateJobFromDto(jobService.getJobById(job.getId(), userId).orElseThrow(), edit);
+        // The read, then the job, its contract and its financials in one transaction and one flush
+        assertEquals(2, statistics.getTransactionCount() - transactionsBefore);
+        assertEquals(1, statistics.getFlushCount() - flushesBefore);
+        assertEquals("Replace the gutters", contractRepository.findById(contract.getId()).orElseThrow().getScopeOfWork());
+
+        // An unknown customer fails the edit after the contract was synced; neither is kept
+        JobDto failing = new JobDto();
+        failing.setDescription("Never saved");
+        failing.setCustomerId(-1L);
+        assertThrows(IllegalArgumentException.class, () ->
+                jobService.updateJobFromDto(jobService.getJobById(job.getId(), userId).orElseThrow(), failing));
+        assertEquals("Replace the gutters", contractRepository.findById(contract.getId()).orElseThrow().getScopeOfWork());
+        assertEquals("Replace the gutters", jobService.getJobById(job.getId(), userId).orElseThrow().getDescription());
+    }
+
+    private Job createJob(long userId) {
+        JobDto dto = new JobDto("Materials Test Job", null, "IN_PROGRESS");
+        dto.setJobPrice(new BigDecimal("100.00"));
+        dto.setIncludeTax(false);
+        return jobService.createJob(dto, userId);
+    }
+}
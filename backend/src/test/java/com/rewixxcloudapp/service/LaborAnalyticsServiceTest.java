@@ -0,0 +1,115 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.dto.EmployeeDto;
+import com.rewixxcloudapp.dto.ExpenseDto;
+import com.rewixxcloudapp.dto.JobDto;
+import com.rewixxcloudapp.entity.Customer;
+import com.rewixxcloudapp.entity.Employee;
+import com.rewixxcloudapp.entity.Expense;
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.repository.CustomerRepository;
+import com.rewixxcloudapp.repository.ExpenseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class LaborAnalyticsServiceTest {
+
+    // Monday 2024-04-01 to Friday 2024-04-05: five weekdays, 40 hours of capacity
+    private static final LocalDate START = LocalDate.of(2024, 4, 1);
+    private static final LocalDate END = LocalDate.of(2024, 4, 5);
+
+    @Autowired
+    private LaborAnalyticsService laborAnalyticsService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLaborIsAggregatedPerEmployeeFromRecordedExpenses() {
+        long userId = System.nanoTime();
+        Customer customer = new Customer("labor-" + userId + "@example.com", null, "Labor Customer");
+        customer.setUserId(userId);
+        customer = customerRepository.save(customer);
+        JobDto jobDto = new JobDto("Labor Test Job", null, "IN_PROGRESS");
+        jobDto.setCustomerId(customer.getId());
+        jobDto.setStartDate(START);
+        Job job = jobService.createJob(jobDto, userId);
+
+        Employee ana = employeeService.createEmployee(new EmployeeDto("Ana"), userId);
+        // Entered by name (any case) and linked to Ana's record
+        Expense anaMonday = expenseService.createExpense(labor("ana", "8", "30.00", START, job.getId()), userId);
+        assertEquals(ana.getId(), anaMonday.getEmployeeId());
+        assertEquals("Ana", anaMonday.getEmployeeName());
+        expenseService.createExpense(labor("Ana", "4", "30.00", START.plusDays(1), job.getId()), userId);
+        // Logged before Ben's record existed; creating Ben links it
+        Expense benEarly = expenseService.createExpense(labor("Ben", "10", "20.00", START.plusDays(2), null), userId);
+        assertNull(benEarly.getEmployeeId());
+        Employee ben = employeeService.createEmployee(new EmployeeDto("Ben"), userId);
+        assertEquals(ben.getId(), expenseRepository.findById(benEarly.getId()).orElseThrow().getEmployeeId());
+
+        Map<String, Object> analytics = laborAnalyticsService.getLaborAnalytics(START, END, userId);
+        List<Map<String, Object>> byEmployee = (List<Map<String, Object>>) analytics.get("byEmployee");
+        assertEquals(2, byEmployee.size());
+        Map<String, Object> anaRow = byEmployee.get(0);
+        assertEquals(ana.getId(), ((Number) anaRow.get("employeeId")).longValue());
+        assertEquals(0, new BigDecimal("12").compareTo((BigDecimal) anaRow.get("hours")));
+        assertEquals(0, new BigDecimal("360.00").compareTo((BigDecimal) anaRow.get("laborCost")));
+        assertEquals(0, new BigDecimal("30.0").compareTo((BigDecimal) anaRow.get("utilization")));
+        assertEquals(2L, anaRow.get("daysWorked"));
+
+        Map<String, Object> summary = (Map<String, Object>) analytics.get("summary");
+        assertEquals(0, new BigDecimal("560.00").compareTo((BigDecimal) summary.get("totalLaborCost")));
+        assertEquals(0, new BigDecimal("40").compareTo((BigDecimal) summary.get("capacityHoursPerEmployee")));
+        List<Map<String, Object>> byCustomer = (List<Map<String, Object>>) analytics.get("byCustomer");
+        assertEquals(1, byCustomer.size());
+        assertEquals(0, new BigDecimal("360.00").compareTo((BigDecimal) byCustomer.get(0).get("laborCost")));
+
+        // The labor report costs jobs from their recorded labor rather than a flat rate
+        Map<String, Object> laborReport = reportService.generateLaborReport(START, END, userId);
+        Map<String, Object> laborSummary = (Map<String, Object>) laborReport.get("summary");
+        assertEquals(0, new BigDecimal("360.00").compareTo((BigDecimal) laborSummary.get("totalLaborCost")));
+        assertEquals(0, new BigDecimal("30.00").compareTo((BigDecimal) laborSummary.get("averageHourlyRate")));
+
+        // Deleting Ana removes her linked expenses and leaves Ben's alone
+        employeeService.deleteEmployee(ana.getId(), userId);
+        List<Map<String, Object>> remaining = laborAnalyticsService.getLaborByEmployee(START, END, userId);
+        assertEquals(1, remaining.size());
+        assertEquals(ben.getId(), ((Number) remaining.get(0).get("employeeId")).longValue());
+    }
+
+    private ExpenseDto labor(String employeeName, String hours, String rate, LocalDate date, Long jobId) {
+        BigDecimal hoursWorked = new BigDecimal(hours);
+        BigDecimal hourlyRate = new BigDecimal(rate);
+        ExpenseDto dto = new ExpenseDto("LABOR", hoursWorked.multiply(hourlyRate), date);
+        dto.setEmployeeName(employeeName);
+        dto.setHoursWorked(hoursWorked);
+        dto.setHourlyRate(hourlyRate);
+        dto.setJobId(jobId);
+        return dto;
+    }
+}
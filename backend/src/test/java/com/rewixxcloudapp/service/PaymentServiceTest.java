@@ -0,0 +1,126 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.dto.PaymentDto;
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.entity.JobStatus;
+import com.rewixxcloudapp.entity.Payment;
+import com.rewixxcloudapp.entity.PaymentType;
+import com.rewixxcloudapp.repository.JobFinancialsRepository;
+import com.rewixxcloudapp.repository.JobRepository;
+import com.rewixxcloudapp.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class PaymentServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentServiceTest.class);
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JobFinancialsRepository jobFinancialsRepository;
+
+    @Test
+    public void testConcurrentPaymentsNeverOverpayJob() throws Exception {
+        long userId = System.nanoTime();
+        Job job = createJob(userId, 100);
+        int attempts = 32;
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        long start = System.nanoTime();
+        runConcurrently(attempts, i -> {
+            try {
+                paymentService.createPayment(new PaymentDto(job.getId(), PaymentType.CASH, BigDecimal.TEN), userId);
+                accepted.incrementAndGet();
+            } catch (IllegalArgumentException e) {
+                rejected.incrementAndGet();
+            }
+            return null;
+        });
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        logger.info("{} concurrent payments ({} accepted, {} rejected) in {} ms", attempts, accepted.get(), rejected.get(), elapsedMs);
+
+        assertEquals(10, accepted.get());
+        assertEquals(attempts - 10, rejected.get());
+        assertEquals(0, new BigDecimal("100").compareTo(paymentRepository.getTotalPaidByJobId(job.getId())));
+        assertEquals(10_000L, jobFinancialsRepository.findById(job.getId()).orElseThrow().getPaidCents());
+    }
+
+    @Test
+    public void testRetriesWithSameIdempotencyKeyCreateOnePayment() throws Exception {
+        long userId = System.nanoTime();
+        Job job = createJob(userId, 100);
+        Set<Long> paymentIds = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(8, i -> {
+            Payment payment = paymentService.createPayment(
+                    new PaymentDto(job.getId(), PaymentType.CASH, new BigDecimal("25.00")), userId, "retry-key-1");
+            paymentIds.add(payment.getId());
+            return null;
+        });
+        // A late retry is answered from the key table
+        paymentIds.add(paymentService.createPayment(
+                new PaymentDto(job.getId(), PaymentType.CASH, new BigDecimal("25.00")), userId, "retry-key-1").getId());
+
+        assertEquals(1, paymentIds.size());
+        assertEquals(1, paymentRepository.findByJobId(job.getId()).size());
+        assertThrows(IllegalArgumentException.class, () -> paymentService.createPayment(
+                new PaymentDto(job.getId(), PaymentType.CASH, new BigDecimal("30.00")), userId, "retry-key-1"));
+
+        paymentService.deletePayment(paymentIds.iterator().next(), userId);
+        assertEquals(0L, jobFinancialsRepository.findById(job.getId()).orElseThrow().getPaidCents());
+    }
+
+    private Job createJob(long userId, int price) {
+        Job job = new Job("Payment Test Job", null, JobStatus.IN_PROGRESS);
+        job.setUserId(userId);
+        job.setJobPrice(BigDecimal.valueOf(price));
+        job.setIncludeTax(false);
+        return jobRepository.save(job);
+    }
+
+    private interface Attempt {
+        Void run(int index) throws Exception;
+    }
+
+    private void runConcurrently(int count, Attempt attempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                futures.add(executor.submit((Callable<Void>) () -> attempt.run(index)));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductCatalogIndexTest {
+
+    private Product product(long id, String name, String barcode) {
+        Product product = new Product(name, null, BigDecimal.ONE);
+        product.setId(id);
+        product.setBarcode(barcode);
+        return product;
+    }
+
+    @Test
+    public void testPrefixSearchRanksWholeNamePrefixFirst() {
+        ProductCatalogIndex index = new ProductCatalogIndex();
+        index.rebuild(Arrays.asList(
+                product(1, "Wood Stud 2x4", null),
+                product(2, "2x4 Stud 8ft", null),
+                product(3, "Drywall Screws", null)));
+
+        List<Product> results = index.search("2x4 st", 10);
+        assertEquals(2, results.size());
+        assertEquals(2L, results.get(0).getId());
+        assertTrue(index.search("scr", 10).stream().anyMatch(p -> p.getId() == 3L));
+    }
+
+    @Test
+    public void testTrigramFallbackAndIncrementalUpdates() {
+        ProductCatalogIndex index = new ProductCatalogIndex();
+        index.rebuild(Arrays.asList(product(1, "Drywall Screws", "012345")));
+
+        assertEquals(1, index.search("drywal screws", 10).size());
+        assertEquals(1L, index.findByBarcode("012345").getId());
+
+        index.upsert(product(1, "Deck Screws", "999"));
+        assertTrue(index.search("drywall", 10).isEmpty());
+        assertNull(index.findByBarcode("012345"));
+        assertEquals(1, index.findByExactName("deck screws").size());
+
+        index.remove(1L);
+        assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,115 @@
+package com.rewixxcloudapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rewixxcloudapp.dto.JobDto;
+import com.rewixxcloudapp.entity.ReportJob;
+import com.rewixxcloudapp.entity.ReportJobStatus;
+import com.rewixxcloudapp.repository.ReportJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ReportJobServiceTest {
+
+    private static final LocalDate START = LocalDate.now().minusYears(5);
+    private static final LocalDate END = LocalDate.now();
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private ReportJobRepository reportJobRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testIdenticalRequestsShareOneRun() throws Exception {
+        long userId = System.nanoTime();
+        JobDto dto = new JobDto("Report Job Test", null, "COMPLETED");
+        dto.setJobPrice(new BigDecimal("250.00"));
+        dto.setIncludeTax(false);
+        jobService.createJob(dto, userId);
+
+        ReportJob first = reportJobService.submit("comprehensive", START, END, userId);
+        ReportJob second = reportJobService.submit("comprehensive", START, END, userId);
+        assertEquals(first.getId(), second.getId());
+        assertNotEquals(first.getId(), reportJobService.submit("comprehensive", START, END, userId + 1).getId());
+
+        assertTrue(reportJobService.claim(first.getId(), "test-worker"));
+        assertFalse(reportJobService.claim(first.getId(), "other-worker"));
+        reportJobService.run(first.getId(), "test-worker");
+
+        ReportJob done = reportJobService.getJob(first.getId(), userId).orElseThrow();
+        assertEquals(ReportJobStatus.COMPLETED, done.getStatus());
+        assertEquals(100, done.getProgress());
+        JsonNode report = objectMapper.readTree(reportJobService.decompress(reportJobService.getCompressedResult(done).orElseThrow()));
+        for (String section : new String[]{"revenue", "labor", "expenses", "insights", "period"}) {
+            assertTrue(report.has(section), "Missing section " + section);
+        }
+
+        // Finished runs release the key: the next request is a fresh run
+        assertNotEquals(first.getId(), reportJobService.submit("comprehensive", START, END, userId).getId());
+    }
+
+    @Test
+    public void testCancellation() {
+        long userId = System.nanoTime();
+
+        ReportJob pending = reportJobService.submit("revenue", START, END, userId);
+        assertEquals(ReportJobStatus.CANCELLED, reportJobService.cancel(pending).getStatus());
+        assertThrows(IllegalArgumentException.class, () -> reportJobService.cancel(pending));
+
+        // A running job stops at the next section boundary and stores nothing
+        ReportJob running = reportJobService.submit("comprehensive", START, END, userId);
+        assertTrue(reportJobService.claim(running.getId(), "test-worker"));
+        assertTrue(reportJobService.cancel(running).getCancelRequested());
+        reportJobService.run(running.getId(), "test-worker");
+        ReportJob cancelled = reportJobService.getJob(running.getId(), userId).orElseThrow();
+        assertEquals(ReportJobStatus.CANCELLED, cancelled.getStatus());
+        assertTrue(reportJobService.getCompressedResult(cancelled).isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> reportJobService.submit("payroll", START, END, userId));
+        assertThrows(IllegalArgumentException.class, () -> reportJobService.submit("revenue", END, START, userId));
+    }
+
+    @Test
+    public void testStaleJobIsFinishedOnlyByItsNewWorkerAndFailsAfterMaxAttempts() {
+        long userId = System.nanoTime();
+        ReportJob job = reportJobService.submit("revenue", START, END, userId);
+        assertTrue(reportJobService.claim(job.getId(), "worker-a"));
+
+        // No heartbeat from worker-a: the job goes back on the queue and worker-b takes it
+        LocalDateTime future = LocalDateTime.now().plusMinutes(1);
+        assertEquals(1, reportJobRepository.heartbeat("worker-a", LocalDateTime.now(), ReportJobStatus.RUNNING));
+        assertEquals(0, reportJobRepository.failStale(future, LocalDateTime.now(), 2, "stale", ReportJobStatus.RUNNING, ReportJobStatus.FAILED));
+        assertEquals(1, reportJobRepository.releaseStale(future, LocalDateTime.now(), 2, ReportJobStatus.PENDING, ReportJobStatus.RUNNING));
+        assertTrue(reportJobService.claim(job.getId(), "worker-b"));
+
+        // worker-a finishing late must not overwrite worker-b's run
+        reportJobService.run(job.getId(), "worker-a");
+        ReportJob stillRunning = reportJobService.getJob(job.getId(), userId).orElseThrow();
+        assertEquals(ReportJobStatus.RUNNING, stillRunning.getStatus());
+        assertTrue(reportJobService.getCompressedResult(stillRunning).isEmpty());
+
+        // Second claim used up the attempts: stale again, it fails instead of running a third time
+        assertEquals(0, reportJobRepository.releaseStale(future, LocalDateTime.now(), 2, ReportJobStatus.PENDING, ReportJobStatus.RUNNING));
+        assertEquals(1, reportJobRepository.failStale(future, LocalDateTime.now(), 2, "stale", ReportJobStatus.RUNNING, ReportJobStatus.FAILED));
+        ReportJob failed = reportJobService.getJob(job.getId(), userId).orElseThrow();
+        assertEquals(ReportJobStatus.FAILED, failed.getStatus());
+        assertEquals(2, failed.getAttempts());
+        reportJobService.run(job.getId(), "worker-b");
+        assertEquals(ReportJobStatus.FAILED, reportJobService.getJob(job.getId(), userId).orElseThrow().getStatus());
+    }
+}
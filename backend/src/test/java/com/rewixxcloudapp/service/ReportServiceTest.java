@@ -0,0 +1,97 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.dto.ExpenseDto;
+import com.rewixxcloudapp.dto.JobDto;
+import com.rewixxcloudapp.dto.MaterialDto;
+import com.rewixxcloudapp.dto.PaymentDto;
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.entity.PaymentType;
+import com.rewixxcloudapp.entity.Product;
+import com.rewixxcloudapp.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ReportServiceTest {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTrendReportBucketsAndZeroFills() {
+        long userId = System.nanoTime();
+        Product product = productRepository.save(new Product("Trend Test Pipe", null, new BigDecimal("10.00")));
+
+        // January and March jobs; February stays empty
+        Job january = createJob(userId, LocalDate.of(2024, 1, 10), "COMPLETED");
+        jobService.addMaterialToJob(january.getId(), new MaterialDto(product.getId(), 3, null), userId);
+        createJob(userId, LocalDate.of(2024, 3, 5), "IN_PROGRESS");
+        createJob(userId, LocalDate.of(2024, 3, 20), "COMPLETED");
+        paymentService.createPayment(new PaymentDto(january.getId(), PaymentType.CASH, new BigDecimal("40.00")), userId);
+        jdbcTemplate.update("UPDATE payments SET payment_date = ? WHERE job_id = ?",
+                Timestamp.valueOf("2024-03-15 12:00:00"), january.getId());
+        expenseService.createExpense(new ExpenseDto("EQUIPMENT", new BigDecimal("75.50"), LocalDate.of(2024, 3, 31)), userId);
+
+        Map<String, Object> trend = reportService.generateTrendReport(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 4, 30), "month", userId);
+
+        assertEquals(List.of(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1), LocalDate.of(2024, 4, 1)),
+                trend.get("buckets"));
+        assertAmounts(List.of("30.00", "0.00", "0.00", "0.00"), (List<BigDecimal>) trend.get("revenue"));
+        assertAmounts(List.of("0.00", "0.00", "40.00", "0.00"), (List<BigDecimal>) trend.get("paymentsReceived"));
+        Map<String, Object> expenses = (Map<String, Object>) trend.get("expenses");
+        assertAmounts(List.of("0.00", "0.00", "75.50", "0.00"),
+                (List<BigDecimal>) ((Map<String, Object>) expenses.get("byType")).get("EQUIPMENT"));
+        Map<String, Object> jobs = (Map<String, Object>) trend.get("jobs");
+        assertArrayEquals(new long[]{1, 0, 2, 0}, (long[]) jobs.get("total"));
+        assertArrayEquals(new long[]{1, 0, 1, 0}, ((Map<String, long[]>) jobs.get("byStatus")).get("COMPLETED"));
+
+        // Weeks start on Monday: Wednesday 2024-01-10 falls in the week of the 8th
+        Map<String, Object> weekly = reportService.generateTrendReport(LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 20), "week", userId);
+        assertEquals(List.of(LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 15)), weekly.get("buckets"));
+        assertArrayEquals(new long[]{1, 0}, (long[]) ((Map<String, Object>) weekly.get("jobs")).get("total"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> reportService.generateTrendReport(LocalDate.of(2000, 1, 1), LocalDate.of(2024, 1, 1), "day", userId));
+    }
+
+    private Job createJob(long userId, LocalDate startDate, String status) {
+        JobDto dto = new JobDto("Trend Test Job", null, status);
+        dto.setJobPrice(new BigDecimal("100.00"));
+        dto.setIncludeTax(false);
+        dto.setStartDate(startDate);
+        return jobService.createJob(dto, userId);
+    }
+
+    private static void assertAmounts(List<String> expected, List<BigDecimal> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(0, new BigDecimal(expected.get(i)).compareTo(actual.get(i)), "Bucket " + i + ": " + actual);
+        }
+    }
+}
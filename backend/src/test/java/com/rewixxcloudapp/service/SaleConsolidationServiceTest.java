@@ -0,0 +1,108 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.dto.JobDto;
+import com.rewixxcloudapp.dto.MaterialBatchDto;
+import com.rewixxcloudapp.dto.MaterialDto;
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.entity.Product;
+import com.rewixxcloudapp.repository.JobFinancialsRepository;
+import com.rewixxcloudapp.repository.ProductRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Statement counts are global; keep the scan and report workers' polling and the financials check out of them
+@SpringBootTest
+public class SaleConsolidationServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SaleConsolidationServiceTest.class);
+    private static final int JOB_COUNT = 4;
+    private static final int MATERIALS_PER_JOB = 25;
+
+    @Autowired
+    private SaleConsolidationService saleConsolidationService;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JobFinancialsRepository jobFinancialsRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testConsolidationSpeedsUpReportTraversal() {
+        long userId = System.nanoTime();
+        Product product = productRepository.save(new Product("Consolidation Test Wire", null, new BigDecimal("1.25")));
+        List<Job> jobs = new ArrayList<>();
+        for (int j = 0; j < JOB_COUNT; j++) {
+            JobDto dto = new JobDto("Consolidation Job " + j, null, "IN_PROGRESS");
+            dto.setStartDate(LocalDate.now());
+            dto.setEndDate(LocalDate.now());
+            Job job = jobService.createJob(dto, userId);
+            // The old one-sale-per-material shape
+            MaterialBatchDto batch = new MaterialBatchDto();
+            for (int i = 0; i < MATERIALS_PER_JOB; i++) {
+                batch.getAdd().add(new MaterialDto(product.getId(), i + 1, null));
+            }
+            jobService.applyMaterialBatch(job.getId(), batch, userId);
+            jobs.add(job);
+        }
+
+        long[] before = measureExpensesReport(userId);
+        assertTrue(saleConsolidationService.consolidate() >= JOB_COUNT * (MATERIALS_PER_JOB - 1));
+        long[] after = measureExpensesReport(userId);
+
+        logger.info("Expenses report over {} jobs x {} materials: {} statements / {} us before consolidation, {} statements / {} us after",
+                JOB_COUNT, MATERIALS_PER_JOB, before[0], before[1], after[0], after[1]);
+        assertEquals(before[2], after[2], "Report totals must not change");
+        // One item collection per job instead of one per material
+        assertTrue(after[0] + JOB_COUNT * (MATERIALS_PER_JOB - 1) <= before[0],
+                "Expected " + JOB_COUNT * (MATERIALS_PER_JOB - 1) + " fewer statements, was " + before[0] + " -> " + after[0]);
+        for (Job job : jobs) {
+            // 1.25 * (1 + ... + 25)
+            assertEquals(40_625L, jobFinancialsRepository.findById(job.getId()).orElseThrow().getMaterialsCents());
+        }
+    }
+
+    // [statements, elapsed microseconds, billable cents]
+    private long[] measureExpensesReport(long userId) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // In the app the open session spans the request; reports walk lazy collections
+        TransactionTemplate request = new TransactionTemplate(transactionManager);
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long started = System.nanoTime();
+        Map<String, Object> report = request.execute(status ->
+                reportService.generateExpensesReport(LocalDate.now().minusDays(1), LocalDate.now().plusDays(1), userId));
+        long elapsedMicros = (System.nanoTime() - started) / 1_000;
+        long statements = statistics.getPrepareStatementCount() - statementsBefore;
+        @SuppressWarnings("unchecked")
+        BigDecimal billable = (BigDecimal) ((Map<String, Object>) report.get("summary")).get("totalBillableExpenses");
+        return new long[]{statements, elapsedMicros, billable.movePointRight(2).longValueExact()};
+    }
+}
@@ -0,0 +1,119 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.entity.ScanJob;
+import com.rewixxcloudapp.entity.ScanJobStatus;
+import com.rewixxcloudapp.repository.ScanJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "scanner.client=stub",
+        "scanner.worker.enabled=true",
+        "scanner.worker.poll-interval-ms=50"
+})
+public class ScanServiceTest {
+
+    @Autowired
+    private ScanService scanService;
+
+    @Autowired
+    private ScanJobRepository scanJobRepository;
+
+    @Autowired
+    private StubScannerClient stubScannerClient;
+
+    @Autowired
+    private ScanWorker scanWorker;
+
+    @Autowired
+    private FileStorage fileStorage;
+
+    @Test
+    public void testScanIsProcessedOnceAndThenServedFromCache() throws Exception {
+        byte[] image = ("receipt-" + System.nanoTime()).getBytes();
+        int callsBefore = stubScannerClient.getReceiptCalls();
+
+        ScanJob first = scanService.submitScan(new MockMultipartFile("file", "receipt.jpg", "image/jpeg", image), null, 1L);
+        assertEquals(ScanJobStatus.PENDING, first.getStatus());
+
+        ScanJob completed = waitForStatus(first.getId(), ScanJobStatus.COMPLETED);
+        assertFalse(completed.getCached());
+        assertEquals(callsBefore + 1, stubScannerClient.getReceiptCalls());
+
+        Map<String, Object> response = scanService.toResponse(completed);
+        assertNotNull(response.get("expenseDraft"));
+        assertEquals(2, ((List<?>) response.get("materialDrafts")).size());
+
+        ScanJob second = scanService.submitScan(new MockMultipartFile("file", "copy.jpg", "image/jpeg", image), null, 1L);
+        assertEquals(ScanJobStatus.COMPLETED, second.getStatus());
+        assertTrue(second.getCached());
+        assertEquals(callsBefore + 1, stubScannerClient.getReceiptCalls());
+    }
+
+    @Test
+    public void testOfTwoIdenticalScansClaimedTogetherTheEarlierOneRuns() throws Exception {
+        byte[] image = ("receipt-" + System.nanoTime()).getBytes();
+        String hash = ScanService.sha256(image);
+        fileStorage.store("scans/" + hash + ".jpg", image, "image/jpeg");
+        ScanJob earlier = scanJobRepository.save(claimedScan(hash));
+        ScanJob later = scanJobRepository.save(claimedScan(hash));
+        int callsBefore = stubScannerClient.getReceiptCalls();
+
+        // The earlier one goes ahead although the later one is also in progress...
+        scanWorker.process(earlier.getId());
+        ScanJob done = scanJobRepository.findById(earlier.getId()).orElseThrow();
+        assertEquals(ScanJobStatus.COMPLETED, done.getStatus());
+        assertFalse(done.getCached());
+        assertEquals(callsBefore + 1, stubScannerClient.getReceiptCalls());
+
+        // ...and the later one is answered from its result
+        scanWorker.process(later.getId());
+        ScanJob reused = scanJobRepository.findById(later.getId()).orElseThrow();
+        assertEquals(ScanJobStatus.COMPLETED, reused.getStatus());
+        assertTrue(reused.getCached());
+        assertEquals(callsBefore + 1, stubScannerClient.getReceiptCalls());
+
+        List<Map<String, Object>> responses = scanService.toResponses(List.of(done, reused));
+        assertEquals(2, ((List<?>) responses.get(0).get("materialDrafts")).size());
+        assertEquals(responses.get(0).get("receipt"), responses.get(1).get("receipt"));
+    }
+
+    @Test
+    public void testRejectsNonImageUpload() {
+        MockMultipartFile file = new MockMultipartFile("file", "notes.txt", "text/plain", "hello".getBytes());
+        assertThrows(IllegalArgumentException.class, () -> scanService.submitScan(file, null, 1L));
+    }
+
+    private static ScanJob claimedScan(String hash) {
+        ScanJob scan = new ScanJob();
+        scan.setUserId(1L);
+        scan.setContentHash(hash);
+        scan.setImagePath("scans/" + hash + ".jpg");
+        scan.setOriginalFilename("receipt.jpg");
+        scan.setContentType("image/jpeg");
+        scan.setStatus(ScanJobStatus.PROCESSING);
+        scan.setAttempts(1);
+        scan.setStartedAt(LocalDateTime.now());
+        return scan;
+    }
+
+    private ScanJob waitForStatus(Long scanId, ScanJobStatus status) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            ScanJob scan = scanJobRepository.findById(scanId).orElseThrow();
+            if (scan.getStatus() == status) {
+                return scan;
+            }
+            Thread.sleep(50);
+        }
+        fail("Scan " + scanId + " did not reach " + status);
+        return null;
+    }
+}
@@ -0,0 +1,40 @@
+package com.rewixxcloudapp.service;
+
+import com.rewixxcloudapp.entity.Product;
+import com.rewixxcloudapp.repository.ProductRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testProductReadsAreServedFromSecondLevelCache() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Product saved = productRepository.save(new Product("Cache Test Product " + System.nanoTime(), null, BigDecimal.TEN));
+
+        productRepository.findById(saved.getId());
+        long hitsBefore = statistics.getSecondLevelCacheHitCount();
+        productRepository.findById(saved.getId());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > hitsBefore);
+
+        // Updates go through the cache (READ_WRITE), so readers never see the old price
+        saved.setUnitPrice(BigDecimal.ONE);
+        productRepository.save(saved);
+        assertEquals(0, BigDecimal.ONE.compareTo(productRepository.findById(saved.getId()).orElseThrow().getUnitPrice()));
+    }
+}
@@ -0,0 +1,154 @@
+package com.rewixxcloudapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.rewixxcloudapp.dto.ExpenseDto;
+import com.rewixxcloudapp.dto.JobDto;
+import com.rewixxcloudapp.dto.PaymentDto;
+import com.rewixxcloudapp.dto.SyncBatchDto;
+import com.rewixxcloudapp.dto.SyncChangeDto;
+import com.rewixxcloudapp.entity.Expense;
+import com.rewixxcloudapp.entity.Job;
+import com.rewixxcloudapp.entity.PaymentType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A delta sync returns what changed since the watermark, deletes included, in
+ * pages; offline edits apply only on top of the version the client last saw.
+ */
+@SpringBootTest
+public class SyncServiceTest {
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Test
+    public void testChangesAreSyncedInPagesWithDeletes() {
+        long userId = System.nanoTime();
+        Map<String, Object> initial = syncService.getChanges(userId, null, null);
+        assertEquals(true, initial.get("reset"));
+        assertEquals(0, ((JsonNode) initial.get(SyncService.JOBS)).size());
+
+        List<Long> jobIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            JobDto jobDto = new JobDto("Sync Test Job " + i, "Roof", "IN_PROGRESS");
+            jobDto.setJobPrice(new BigDecimal("300.00"));
+            jobDto.setIncludeTax(false);
+            jobIds.add(jobService.createJob(jobDto, userId).getId());
+        }
+        paymentService.createPayment(new PaymentDto(jobIds.get(0), PaymentType.CASH, new BigDecimal("50.00")), userId);
+        ExpenseDto expenseDto = new ExpenseDto("EQUIPMENT", new BigDecimal("20.00"), LocalDate.now());
+        expenseDto.setJobId(jobIds.get(0));
+        Expense expense = expenseService.createExpense(expenseDto, userId);
+
+        // Two jobs per page: the first page is cut short, the second finishes
+        Map<String, Object> first = syncService.getChanges(userId, (String) initial.get("watermark"), 2);
+        assertEquals(false, first.get("reset"));
+        assertEquals(true, first.get("hasMore"));
+        JsonNode firstJobs = (JsonNode) first.get(SyncService.JOBS);
+        assertEquals(2, firstJobs.size());
+        assertFalse(firstJobs.get(0).has("customer"));
+        assertEquals(1, ((JsonNode) first.get(SyncService.PAYMENTS)).size());
+        assertEquals(1, ((JsonNode) first.get(SyncService.EXPENSES)).size());
+        Map<String, Object> second = syncService.getChanges(userId, (String) first.get("watermark"), 2);
+        assertEquals(false, second.get("hasMore"));
+        List<Long> synced = new ArrayList<>();
+        firstJobs.forEach(job -> synced.add(job.get("id").asLong()));
+        ((JsonNode) second.get(SyncService.JOBS)).forEach(job -> synced.add(job.get("id").asLong()));
+        assertTrue(synced.containsAll(jobIds));
+        // Other tenants see none of it
+        assertEquals(0, ((JsonNode) syncService.getChanges(userId + 1, null, null).get(SyncService.JOBS)).size());
+
+        expenseService.deleteExpenseById(expense.getId(), userId);
+        List<?> deleted = (List<?>) syncService.getChanges(userId, (String) second.get("watermark"), null).get(SyncService.DELETED);
+        assertTrue(deleted.stream().anyMatch(entry -> SyncService.EXPENSES.equals(((Map<?, ?>) entry).get("type"))
+                && expense.getId().equals(((Map<?, ?>) entry).get("id"))));
+
+        assertThrows(IllegalArgumentException.class, () -> syncService.getChanges(userId, "not-a-token", null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testOfflineEditsAreVersionChecked() {
+        long userId = System.nanoTime();
+        JobDto jobDto = new JobDto("Offline Job", "Fence", "IN_PROGRESS");
+        jobDto.setJobPrice(new BigDecimal("800.00"));
+        jobDto.setIncludeTax(false);
+        Job job = jobService.createJob(jobDto, userId);
+        long seen = jobService.getJobById(job.getId(), userId).orElseThrow().getVersion();
+
+        // A new job and an expense on it, linked by client id, then an edit of the existing job
+        Map<String, Object> newJob = new HashMap<>();
+        newJob.put("title", "Created Offline");
+        newJob.put("status", "IN_PROGRESS");
+        Map<String, Object> newExpense = new HashMap<>();
+        newExpense.put("type", "EQUIPMENT");
+        newExpense.put("amount", "15.00");
+        newExpense.put("expenseDate", LocalDate.now().toString());
+        newExpense.put("jobId", "job-1");
+        SyncBatchDto batch = batch(
+                change(SyncService.JOBS, null, null, "job-1", newJob),
+                change(SyncService.EXPENSES, null, null, "expense-1", newExpense),
+                change(SyncService.JOBS, job.getId(), seen, null, Map.of("title", "Renamed Offline")));
+        Map<String, Object> response = syncService.applyChanges(batch, userId);
+        assertEquals(3, response.get(SyncService.APPLIED), response.toString());
+        List<Map<String, Object>> results = (List<Map<String, Object>>) response.get("results");
+        Long createdJobId = (Long) results.get(0).get("id");
+        assertEquals(createdJobId.longValue(), ((JsonNode) results.get(1).get("entity")).get("jobId").asLong());
+        assertEquals(seen + 1, results.get(2).get("version"));
+
+        // Uploading the same batch again: the creates replay, the edit is now stale
+        Map<String, Object> retry = syncService.applyChanges(batch, userId);
+        List<Map<String, Object>> retried = (List<Map<String, Object>>) retry.get("results");
+        assertEquals(createdJobId, retried.get(0).get("id"));
+        assertEquals(results.get(1).get("id"), retried.get(1).get("id"));
+        assertEquals(SyncService.CONFLICT, retried.get(2).get("status"));
+        assertEquals("Renamed Offline", ((JsonNode) retried.get(2).get("entity")).get("title").asText());
+        assertEquals(2, ((JsonNode) syncService.getChanges(userId, null, null).get(SyncService.JOBS)).size());
+
+        // Another tenant cannot touch the row; its owner deletes it with the current version
+        Map<String, Object> foreign = syncService.applyChanges(batch(
+                change(SyncService.JOBS, job.getId(), seen + 1, null, null)), userId + 1);
+        assertEquals(true, ((List<Map<String, Object>>) foreign.get("results")).get(0).get("deleted"));
+        assertTrue(jobService.getJobById(job.getId(), userId).isPresent());
+        SyncChangeDto delete = change(SyncService.JOBS, job.getId(), seen + 1, null, null);
+        delete.setAction("delete");
+        assertEquals(1, syncService.applyChanges(batch(delete), userId).get(SyncService.APPLIED));
+        assertFalse(jobService.getJobById(job.getId(), userId).isPresent());
+    }
+
+    private static SyncChangeDto change(String type, Long id, Long version, String clientId, Map<String, Object> data) {
+        SyncChangeDto change = new SyncChangeDto();
+        change.setType(type);
+        change.setId(id);
+        change.setVersion(version);
+        change.setClientId(clientId);
+        change.setData(data);
+        return change;
+    }
+
+    private static SyncBatchDto batch(SyncChangeDto... changes) {
+        SyncBatchDto batch = new SyncBatchDto();
+        batch.setChanges(List.of(changes));
+        return batch;
+    }
+}
@@ -0,0 +1,40 @@
+package com.rewixxcloudapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    @Test
+    public void testConversionsRoundHalfUpToTheCent() {
+        assertEquals(1235, Money.toCents(new BigDecimal("12.345")));
+        assertEquals(-1235, Money.toCents(new BigDecimal("-12.345")));
+        assertEquals(1200, Money.toCents(new BigDecimal("12")));
+        assertEquals(0, Money.toCents(null));
+        assertEquals(new BigDecimal("12.34"), Money.toDecimal(1234));
+    }
+
+    @Test
+    public void testTaxMatchesBigDecimalHalfUp() {
+        long[] amounts = {0, 1, 8, 9, 25, 99, 12345, 999999, -8, -12345};
+        long[] rates = {600, 625, 825, 1000};
+        for (long cents : amounts) {
+            for (long rate : rates) {
+                BigDecimal expected = Money.toDecimal(cents)
+                        .multiply(Money.basisPointsToPercent(rate))
+                        .movePointLeft(2)
+                        .setScale(2, Money.ROUNDING);
+                assertEquals(Money.toCents(expected), Money.applyRate(cents, rate), cents + " @ " + rate);
+            }
+        }
+        assertEquals(625, Money.percentToBasisPoints(new BigDecimal("6.25")));
+    }
+
+    @Test
+    public void testOverflowThrows() {
+        assertThrows(ArithmeticException.class, () -> Money.times(Long.MAX_VALUE / 2, 3));
+    }
+}
@@ -27,6 +27,7 @@ import { AuthProvider, useAuth } from "./AuthContext";
 import Login from "./Pages/Auth/Login";
 import Register from "./Pages/Auth/Register";
 import { QueryClient, QueryClientProvider } from "@tanstack/react-query";
+import useChangeFeed from "./hooks/useChangeFeed";
 
 const queryClient = new QueryClient({
   defaultOptions: {
@@ -64,6 +65,9 @@ function AppContent() {
   const [sidebarCollapsed, setSidebarCollapsed] = useState(true);
   const screens = useBreakpoint();
   const [previousToken, setPreviousToken] = useState(token);
+
+  // Server-pushed changes keep cached lists current
+  useChangeFeed(token);
   
   // Clear all cached queries ONLY when token actually changes (user logs in/out)
   // This prevents unnecessary cache clearing when navigating between pages
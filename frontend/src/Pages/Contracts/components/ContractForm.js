@@ -6,6 +6,7 @@ import * as customerService from "../../Customers/services/customerService";
 import * as jobService from "../../Jobs/services/jobService";
 import * as accountSettingsService from "../../../services/accountSettingsService";
 import { useAuth } from "../../../AuthContext";
+import useTaxRate from "../../../hooks/useTaxRate";
 import dayjs from "dayjs";
 
 const { TextArea } = Input;
@@ -52,6 +53,7 @@ const ContractForm = ({ form, onValuesChange, setSelectedCustomer, setSelectedJo
     queryFn: () => accountSettingsService.getAccountSettings(),
     enabled: !!token,
   });
+  const { taxRate } = useTaxRate();
 
   useEffect(() => {
     if (accountSettings) {
@@ -93,7 +95,7 @@ const ContractForm = ({ form, onValuesChange, setSelectedCustomer, setSelectedJo
       const materialCost = job.customMaterialCost || 0;
       const jobPrice = job.jobPrice || 0;
       const subtotal = materialCost + jobPrice;
-      const tax = job.includeTax ? subtotal * 0.06 : 0;
+      const tax = job.includeTax ? subtotal * taxRate : 0;
       const totalJobCost = subtotal + tax;
 
       // Calculate payment status from job payments
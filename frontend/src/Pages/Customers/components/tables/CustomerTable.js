@@ -129,6 +129,23 @@ const CustomerTable = ({ onDelete }) => {
         </>
       ),
     },
+    {
+      title: "Lifetime Revenue",
+      key: "lifetimeRevenue",
+      render: (_, customer) =>
+        `$${Number(customer.stats?.lifetimeRevenue || 0).toFixed(2)}`,
+    },
+    {
+      title: "Outstanding",
+      key: "outstandingBalance",
+      render: (_, customer) =>
+        `$${Number(customer.stats?.outstandingBalance || 0).toFixed(2)}`,
+    },
+    {
+      title: "Last Activity",
+      key: "lastActivity",
+      render: (_, customer) => customer.stats?.lastActivityDate || "-",
+    },
     {
       title: "Actions",
       key: "actions",
@@ -36,6 +36,7 @@ import * as contractService from "../Contracts/services/contractService";
 import * as accountSettingsService from "../../services/accountSettingsService";
 import { useAuth } from "../../AuthContext";
 import config from "../../config";
+import useTaxRate from "../../hooks/useTaxRate";
 
 const { Title, Text } = Typography;
 const { RangePicker } = DatePicker;
@@ -43,6 +44,7 @@ const { RangePicker } = DatePicker;
 const Dashboard = () => {
   const navigate = useNavigate();
   const { token } = useAuth();
+  const { taxRate } = useTaxRate();
 
   // Date range state - default to last 30 days
   // Add 1 day to end date to account for timezone differences (server may store in UTC)
@@ -181,7 +183,7 @@ const Dashboard = () => {
         : 0;
     const jobPrice = Number(job.jobPrice) || 0;
     const subtotal = billingMaterialCost + jobPrice;
-    const taxAmount = job.includeTax ? subtotal * 0.06 : 0;
+    const taxAmount = job.includeTax ? subtotal * taxRate : 0;
     return subtotal + taxAmount;
   };
 
@@ -297,7 +299,7 @@ const Dashboard = () => {
       recentJobs,
       topCustomers,
     };
-  }, [jobs, expenses, contracts, customers, employees, dateRange]);
+  }, [jobs, expenses, contracts, customers, employees, dateRange, taxRate]);
 
   // Loading state
   const isLoading =
@@ -7,6 +7,17 @@ export const getAllEmployees = (search = "") => {
   });
 };
 
+// One page of the directory: prefix search on name or phone digits, optional active filter.
+// Pass the returned nextCursor back as cursor to fetch the following page.
+export const searchEmployeesPage = ({ searchTerm = "", active, cursor, limit = 20 } = {}) => {
+  return Backend.post("api/employees/list", {
+    searchTerm,
+    active,
+    cursor,
+    limit
+  });
+};
+
 export const getActiveEmployees = () => {
   return Backend.get("api/employees/active");
 };
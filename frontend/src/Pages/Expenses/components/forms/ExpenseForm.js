@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from "react";
+import React, { useState, useEffect, useCallback } from "react";
 import { Button, Input, DatePicker, Select, InputNumber } from "antd";
 import dayjs from "dayjs";
 import { useQuery } from "@tanstack/react-query";
@@ -47,27 +47,42 @@ const ExpenseForm = ({ onSubmit, onCancel, initialData, isLoading }) => {
 
   const jobs = jobsData?.jobs || [];
 
-  // Fetch employees for dropdown using the same /list endpoint as the Employees page
+  // Employees for the dropdown: searched on the server (name or phone prefix, active only),
+  // so the picker stays fast for tenants with thousands of workers
+  const [employeeSearch, setEmployeeSearch] = useState("");
+  const debouncedEmployeeSearch = useCallback(
+    (() => {
+      let timeoutId;
+      return (value) => {
+        clearTimeout(timeoutId);
+        timeoutId = setTimeout(() => {
+          setEmployeeSearch(value);
+        }, 300); // 300ms delay
+      };
+    })(),
+    []
+  );
   const {
     data: employeesData,
     isLoading: employeesLoading,
     error: employeesError,
   } = useQuery({
-    queryKey: ["employees", "for-expenses"],
+    queryKey: ["employees", "for-expenses", employeeSearch],
     queryFn: async () => {
       try {
-        // Reuse the POST /api/employees/list endpoint to get all employees
-        const response = await employeeService.getAllEmployees("");
-        // response can be either an array or an object with employees property
-        const list =
-          Array.isArray(response) ? response : Array.isArray(response?.employees) ? response.employees : [];
-        return list;
+        const response = await employeeService.searchEmployeesPage({
+          searchTerm: employeeSearch,
+          active: true,
+          limit: 20,
+        });
+        return Array.isArray(response?.employees) ? response.employees : [];
       } catch (error) {
         console.error("Error fetching employees for expenses:", error);
         throw error;
       }
     },
     staleTime: 30000,
+    placeholderData: (previousData) => previousData,
   });
 
   const employees = Array.isArray(employeesData) ? employeesData : [];
@@ -174,9 +189,8 @@ const ExpenseForm = ({ onSubmit, onCancel, initialData, isLoading }) => {
               showSearch
               loading={employeesLoading}
               notFoundContent={employeesLoading ? "Loading..." : "No employees found"}
-              filterOption={(input, option) =>
-                option.children.toLowerCase().includes(input.toLowerCase())
-              }
+              filterOption={false}
+              onSearch={debouncedEmployeeSearch}
             >
               {employees.map(employee => (
                 <Option key={employee.id} value={employee.name}>
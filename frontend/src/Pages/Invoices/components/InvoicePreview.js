@@ -2,6 +2,7 @@ import React from "react";
 import { Card, Empty } from "antd";
 import { FileTextOutlined } from "@ant-design/icons";
 import config from "../../../config";
+import { DEFAULT_TAX_RATE_PERCENT } from "../../../hooks/useTaxRate";
 
 const InvoicePreview = ({ data, accountSettings, isMobile = false }) => {
   if (!data || !data.customerName) {
@@ -43,6 +44,7 @@ const InvoicePreview = ({ data, accountSettings, isMobile = false }) => {
     lineItems,
     subtotal,
     taxAmount,
+    taxRatePercent = DEFAULT_TAX_RATE_PERCENT,
     grandTotal,
     includeTax,
     notes,
@@ -389,7 +391,7 @@ const InvoicePreview = ({ data, accountSettings, isMobile = false }) => {
                   borderBottom: `1px solid ${colors.border}`,
                 }}
               >
-                <span style={{ color: colors.textLight }}>Tax (6%):</span>
+                <span style={{ color: colors.textLight }}>Tax ({taxRatePercent}%):</span>
                 <span style={{ fontWeight: "bold", color: colors.text }}>
                   {formatCurrency(taxAmount)}
                 </span>
@@ -36,6 +36,7 @@ import * as jobService from "../Jobs/services/jobService";
 import { useAuth } from "../../AuthContext";
 import InvoicePreview from "./components/InvoicePreview";
 import { generateInvoicePDF } from "./utils/invoicePdfGenerator";
+import useTaxRate from "../../hooks/useTaxRate";
 import dayjs from "dayjs";
 
 const { useBreakpoint } = Grid;
@@ -65,6 +66,7 @@ const InvoicesPage = () => {
     queryFn: () => accountSettingsService.getAccountSettings(),
     enabled: !!token,
   });
+  const { taxRate, taxRatePercent, taxLabel } = useTaxRate();
 
   // Fetch customers
   const { data: customersData, isLoading: customersLoading } = useQuery({
@@ -87,7 +89,7 @@ const InvoicesPage = () => {
     (sum, item) => sum + (item.quantity || 0) * (item.unitPrice || 0),
     0
   );
-  const taxAmount = includeTax ? subtotal * 0.06 : 0;
+  const taxAmount = includeTax ? subtotal * taxRate : 0;
   const grandTotal = subtotal + taxAmount;
 
   const updatePreview = () => {
@@ -102,6 +104,7 @@ const InvoicesPage = () => {
       lineItems,
       subtotal,
       taxAmount,
+      taxRatePercent,
       grandTotal,
       includeTax,
       invoiceDate: values.invoiceDate
@@ -278,6 +281,7 @@ const InvoicesPage = () => {
       lineItems,
       subtotal,
       taxAmount,
+      taxRatePercent,
       grandTotal,
       includeTax,
       invoiceDate: values.invoiceDate
@@ -680,7 +684,7 @@ const InvoicesPage = () => {
                 <Divider />
 
                 <div className="flex items-center justify-between mb-2">
-                  <span>Include Tax (6%)</span>
+                  <span>Include {taxLabel}</span>
                   <Switch
                     checked={includeTax}
                     onChange={(checked) => {
@@ -705,7 +709,7 @@ const InvoicesPage = () => {
                   </Row>
                   {includeTax && (
                     <Row justify="space-between" style={{ marginBottom: 8 }}>
-                      <Col>Tax (6%):</Col>
+                      <Col>{taxLabel}:</Col>
                       <Col>
                         <strong>${taxAmount.toFixed(2)}</strong>
                       </Col>
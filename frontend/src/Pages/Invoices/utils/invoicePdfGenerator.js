@@ -1,4 +1,5 @@
 import { jsPDF } from "jspdf";
+import { DEFAULT_TAX_RATE_PERCENT } from "../../../hooks/useTaxRate";
 
 // Helper function to load image as base64
 const loadImageAsBase64 = (url) => {
@@ -311,7 +312,7 @@ export const generateInvoicePDF = async (invoice, accountSettings) => {
 
   // Tax
   if (invoice.includeTax) {
-    doc.text("Tax (6%):", totalsX, yPos);
+    doc.text(`Tax (${invoice.taxRatePercent ?? DEFAULT_TAX_RATE_PERCENT}%):`, totalsX, yPos);
     doc.text(formatCurrency(invoice.taxAmount), totalsValueX, yPos, {
       align: "right",
     });
@@ -11,6 +11,7 @@ import ReceiptTableModal from "./modals/ReceiptTableModal";
 import InvoicePreview from "../../Invoices/components/InvoicePreview";
 import { generateInvoicePDF } from "../../Invoices/utils/invoicePdfGenerator";
 import useJobs from "../hooks/useJobs";
+import useTaxRate from "../../../hooks/useTaxRate";
 import dayjs from "dayjs";
 
 const { TextArea } = Input;
@@ -40,6 +41,7 @@ const JobsListView = () => {
     queryFn: () => accountSettingsService.getAccountSettings(),
     enabled: !!token,
   });
+  const { taxRate, taxRatePercent, taxLabel } = useTaxRate();
 
   const {
     filteredJobs,
@@ -84,7 +86,7 @@ const JobsListView = () => {
     return invoiceLineItems.reduce((sum, item) => sum + (item.quantity || 0) * (item.unitPrice || 0), 0);
   }, [invoiceLineItems]);
 
-  const invoiceTaxAmount = invoiceIncludeTax ? invoiceSubtotal * 0.06 : 0;
+  const invoiceTaxAmount = invoiceIncludeTax ? invoiceSubtotal * taxRate : 0;
   const invoiceGrandTotal = invoiceSubtotal + invoiceTaxAmount;
 
   // Handle opening invoice drawer for a standalone invoice (no job)
@@ -202,13 +204,14 @@ const JobsListView = () => {
       lineItems: invoiceLineItems,
       subtotal: invoiceSubtotal,
       taxAmount: invoiceTaxAmount,
+      taxRatePercent,
       grandTotal: invoiceGrandTotal,
       includeTax: invoiceIncludeTax,
       notes: values.notes,
       scopeOfWork: invoiceJob ? (invoiceIncludeScope ? invoiceJob?.description : null) : (manualScopeOfWork || null),
       showItemizedList: showItemizedList,
     });
-  }, [accountSettings, invoiceForm, invoiceLineItems, invoiceSubtotal, invoiceTaxAmount, invoiceGrandTotal, invoiceIncludeTax, invoiceIncludeScope, invoiceJob, showItemizedList, manualScopeOfWork]);
+  }, [accountSettings, invoiceForm, invoiceLineItems, invoiceSubtotal, invoiceTaxAmount, taxRatePercent, invoiceGrandTotal, invoiceIncludeTax, invoiceIncludeScope, invoiceJob, showItemizedList, manualScopeOfWork]);
 
   // Auto-update preview when scope toggle, tax toggle, itemized toggle, or manual scope changes
   useEffect(() => {
@@ -279,6 +282,7 @@ const JobsListView = () => {
       lineItems: invoiceLineItems,
       subtotal: invoiceSubtotal,
       taxAmount: invoiceTaxAmount,
+      taxRatePercent,
       grandTotal: invoiceGrandTotal,
       includeTax: invoiceIncludeTax,
       notes: values.notes,
@@ -710,7 +714,7 @@ const JobsListView = () => {
                       </div>
                       <div className="flex justify-between items-center">
                         <span className="flex items-center gap-2">
-                          Include Tax (6%):
+                          Include {taxLabel}:
                           <Switch
                             size="small"
                             checked={invoiceIncludeTax}
@@ -894,7 +898,7 @@ const JobsListView = () => {
                     <Row gutter={16} align="middle">
                       <Col span={12}>
                         <div className="flex items-center gap-3">
-                          <span>Include Tax (6%):</span>
+                          <span>Include {taxLabel}:</span>
                           <Switch
                             checked={invoiceIncludeTax}
                             onChange={(checked) => setInvoiceIncludeTax(checked)}
@@ -905,7 +909,7 @@ const JobsListView = () => {
                         <div className="text-right space-y-1">
                           <div>Subtotal: <span className="font-semibold">${invoiceSubtotal.toFixed(2)}</span></div>
                           {invoiceIncludeTax && (
-                            <div>Tax (6%): <span className="font-semibold">${invoiceTaxAmount.toFixed(2)}</span></div>
+                            <div>{taxLabel}: <span className="font-semibold">${invoiceTaxAmount.toFixed(2)}</span></div>
                           )}
                           <div className="text-lg">
                             <span className="font-bold">Total: </span>
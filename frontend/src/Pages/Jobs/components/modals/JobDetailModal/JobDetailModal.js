@@ -7,6 +7,7 @@ import JobInfoSection from "./JobInfoSection";
 import MaterialsSection from "./MaterialsSection";
 import PaymentsSection from "./PaymentsSection";
 import ReceiptLoadingModal from "./ReceiptLoadingModal";
+import useTaxRate from "../../../../../hooks/useTaxRate";
 
 const JobDetailModal = ({
   job,
@@ -37,6 +38,7 @@ const JobDetailModal = ({
   const [liveMaterialCost, setLiveMaterialCost] = useState(job?.customMaterialCost || 0);
   const [liveJobPrice, setLiveJobPrice] = useState(job?.jobPrice || 0);
   const [liveIncludeTax, setLiveIncludeTax] = useState(job?.includeTax || false);
+  const { taxRate } = useTaxRate();
 
   // Callback to update live costs from JobInfoSection
   const handleLiveCostUpdate = useCallback((updates) => {
@@ -94,9 +96,9 @@ const JobDetailModal = ({
     const materialCost = liveMaterialCost || 0;
     const jobPriceVal = liveJobPrice || 0;
     const subtotal = materialCost + jobPriceVal;
-    const tax = liveIncludeTax ? subtotal * 0.06 : 0;
+    const tax = liveIncludeTax ? subtotal * taxRate : 0;
     return subtotal + tax;
-  }, [liveMaterialCost, liveJobPrice, liveIncludeTax]);
+  }, [liveMaterialCost, liveJobPrice, liveIncludeTax, taxRate]);
 
   if (!isOpen || !job) return null;
 
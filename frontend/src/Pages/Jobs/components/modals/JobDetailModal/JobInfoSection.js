@@ -1,4 +1,5 @@
 import React, { useState, useEffect, useRef, useImperativeHandle, forwardRef } from "react";
+import useTaxRate from "../../../../../hooks/useTaxRate";
 
 const DESCRIPTION_TRUNCATE_LENGTH = 300;
 
@@ -6,6 +7,7 @@ const JobInfoSection = forwardRef(({ job, totalCost, actualMaterialCost, onCompl
   const [isEditingNotes, setIsEditingNotes] = useState(false);
   const [notes, setNotes] = useState(job.description || "");
   const [isSavingNotes, setIsSavingNotes] = useState(false);
+  const { taxRate, taxLabel } = useTaxRate();
   const [isDescriptionExpanded, setIsDescriptionExpanded] = useState(false);
 
   const [isEditingAddress, setIsEditingAddress] = useState(false);
@@ -237,7 +239,7 @@ const JobInfoSection = forwardRef(({ job, totalCost, actualMaterialCost, onCompl
   const billingMaterialCost = job.customMaterialCost !== undefined && job.customMaterialCost !== null ? job.customMaterialCost : 0; // Manual material cost for billing
   const currentJobPrice = job.jobPrice || 0;
   const subtotal = billingMaterialCost + currentJobPrice; // Total cost only includes manual material cost + job price
-  const taxAmount = includeTax ? subtotal * 0.06 : 0;
+  const taxAmount = includeTax ? subtotal * taxRate : 0;
   const totalJobCost = subtotal + taxAmount;
 
   return (
@@ -342,7 +344,7 @@ const JobInfoSection = forwardRef(({ job, totalCost, actualMaterialCost, onCompl
             />
           </div>
           <div className="bg-gray-50 p-2 rounded border border-gray-200">
-            <h4 className="font-medium text-gray-600 mb-1 text-xs">Tax (6%)</h4>
+            <h4 className="font-medium text-gray-600 mb-1 text-xs">{taxLabel}</h4>
             <div className="flex items-center gap-2 mt-2">
               <label className="relative inline-flex items-center cursor-pointer">
                 <input
@@ -376,7 +378,7 @@ const JobInfoSection = forwardRef(({ job, totalCost, actualMaterialCost, onCompl
             </div>
             {includeTax && (
               <div className="flex justify-between">
-                <span className="text-gray-600">Tax (6%):</span>
+                <span className="text-gray-600">{taxLabel}:</span>
                 <span className="font-semibold">${taxAmount.toFixed(2)}</span>
               </div>
             )}
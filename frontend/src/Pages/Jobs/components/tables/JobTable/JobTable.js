@@ -5,6 +5,7 @@ import * as customerService from "../../../../Customers/services/customerService
 import JobTableColumns from "./JobTableColumns";
 import JobEditModal from "./JobEditModal";
 import JobDeleteConfirm from "./JobDeleteConfirm";
+import useTaxRate from "../../../../../hooks/useTaxRate";
 
 const JobTable = ({
   jobs,
@@ -20,6 +21,7 @@ const JobTable = ({
   const [filteredCustomers, setFilteredCustomers] = useState([]);
   const [showCustomerDropdown, setShowCustomerDropdown] = useState({});
   const [jobToDelete, setJobToDelete] = useState(null);
+  const { taxRate } = useTaxRate();
 
   // Fetch customers when component mounts
   useEffect(() => {
@@ -101,7 +103,8 @@ const JobTable = ({
     onDelete: setJobToDelete,
     onSaveEdit: handleSaveEdit,
     onCancelEdit: handleCancelEdit,
-    onCreateInvoice
+    onCreateInvoice,
+    taxRate
   });
 
   // Helper functions for mobile view
@@ -113,7 +116,7 @@ const JobTable = ({
         : 0;
       const jobPrice = Number(job.jobPrice) || 0;
       const subtotal = billingMaterialCost + jobPrice;
-      const taxAmount = job.includeTax ? subtotal * 0.06 : 0;
+      const taxAmount = job.includeTax ? subtotal * taxRate : 0;
       const totalCost = subtotal + taxAmount;
       const totalPaid = Array.isArray(job.payments) && job.payments.length > 0
         ? job.payments.reduce((sum, payment) => sum + (Number(payment.amount) || 0), 0)
@@ -134,7 +137,7 @@ const JobTable = ({
         : 0;
       const jobPrice = Number(job.jobPrice) || 0;
       const subtotal = billingMaterialCost + jobPrice;
-      const taxAmount = job.includeTax ? subtotal * 0.06 : 0;
+      const taxAmount = job.includeTax ? subtotal * taxRate : 0;
       return subtotal + taxAmount;
     } catch (e) {
       return 0;
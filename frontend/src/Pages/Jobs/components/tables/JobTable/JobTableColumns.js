@@ -35,7 +35,8 @@ const JobTableColumns = ({
   onDelete,
   onSaveEdit,
   onCancelEdit,
-  onCreateInvoice
+  onCreateInvoice,
+  taxRate
 }) => {
   const getStatusStyle = (status) => {
     if (status === "IN_PROGRESS") {
@@ -83,7 +84,7 @@ const JobTableColumns = ({
         : 0;
       const jobPrice = Number(job.jobPrice) || 0;
       const subtotal = billingMaterialCost + jobPrice;
-      const taxAmount = job.includeTax ? subtotal * 0.06 : 0;
+      const taxAmount = job.includeTax ? subtotal * taxRate : 0;
       const totalCost = subtotal + taxAmount;
 
       // Calculate total paid from payments
@@ -114,7 +115,7 @@ const JobTableColumns = ({
         : 0;
       const jobPrice = Number(job.jobPrice) || 0;
       const subtotal = billingMaterialCost + jobPrice;
-      const taxAmount = job.includeTax ? subtotal * 0.06 : 0;
+      const taxAmount = job.includeTax ? subtotal * taxRate : 0;
       const totalCost = subtotal + taxAmount;
       
       return totalCost;
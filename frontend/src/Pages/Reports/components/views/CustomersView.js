@@ -31,6 +31,7 @@ import {
 } from "@ant-design/icons";
 import dayjs from "dayjs";
 import { generateInvoicePDF } from "../../services/invoiceGenerator";
+import useTaxRate from "../../../../hooks/useTaxRate";
 
 const { Text, Title } = Typography;
 
@@ -43,9 +44,10 @@ const CustomersView = ({
   const [searchTerm, setSearchTerm] = useState("");
   const [selectedCustomer, setSelectedCustomer] = useState(null);
   const [profileModalVisible, setProfileModalVisible] = useState(false);
+  const { taxRate, taxRatePercent } = useTaxRate();
 
   // Calculate total cost for a job (matches JobTableColumns.js calculation)
-  // Total = customMaterialCost + jobPrice + tax (6% if includeTax)
+  // Total = customMaterialCost + jobPrice + tax (tenant rate if includeTax)
   const computeTotalCost = (job) => {
     if (!job) return 0;
     const billingMaterialCost = job.customMaterialCost !== undefined && job.customMaterialCost !== null
@@ -53,7 +55,7 @@ const CustomersView = ({
       : 0;
     const jobPrice = Number(job.jobPrice) || 0;
     const subtotal = billingMaterialCost + jobPrice;
-    const taxAmount = job.includeTax ? subtotal * 0.06 : 0;
+    const taxAmount = job.includeTax ? subtotal * taxRate : 0;
     return subtotal + taxAmount;
   };
 
@@ -107,7 +109,7 @@ const CustomersView = ({
       customersWithJobs,
       totalRevenue,
     };
-  }, [filteredCustomers, jobs]);
+  }, [filteredCustomers, jobs, taxRate]);
 
   // Handle customer profile view
   const handleViewProfile = (customer) => {
@@ -118,7 +120,7 @@ const CustomersView = ({
   // Handle export invoice for job
   const handleExportInvoice = async (job) => {
     try {
-      await generateInvoicePDF(job, accountSettings);
+      await generateInvoicePDF(job, accountSettings, taxRatePercent);
     } catch (error) {
       console.error("Error generating invoice:", error);
     }
@@ -32,6 +32,7 @@ import {
 import { useNavigate } from "react-router-dom";
 import dayjs from "dayjs";
 import { generateInvoicePDF } from "../../services/invoiceGenerator";
+import useTaxRate from "../../../../hooks/useTaxRate";
 import { generateContractPDF } from "../../../Contracts/utils/pdfGenerator";
 
 const { RangePicker } = DatePicker;
@@ -51,9 +52,10 @@ const JobsView = ({
   const [dateRange, setDateRange] = useState([]);
   const [selectedJob, setSelectedJob] = useState(null);
   const [detailModalVisible, setDetailModalVisible] = useState(false);
+  const { taxRate, taxRatePercent, taxLabel } = useTaxRate();
 
   // Calculate total cost for a job (matches JobTableColumns.js calculation)
-  // Total = customMaterialCost + jobPrice + tax (6% if includeTax)
+  // Total = customMaterialCost + jobPrice + tax (tenant rate if includeTax)
   const computeTotalCost = (job) => {
     if (!job) return 0;
     const billingMaterialCost = job.customMaterialCost !== undefined && job.customMaterialCost !== null
@@ -61,7 +63,7 @@ const JobsView = ({
       : 0;
     const jobPrice = Number(job.jobPrice) || 0;
     const subtotal = billingMaterialCost + jobPrice;
-    const taxAmount = job.includeTax ? subtotal * 0.06 : 0;
+    const taxAmount = job.includeTax ? subtotal * taxRate : 0;
     return subtotal + taxAmount;
   };
 
@@ -134,7 +136,7 @@ const JobsView = ({
       totalPaid,
       outstanding: totalRevenue - totalPaid,
     };
-  }, [filteredJobs]);
+  }, [filteredJobs, taxRate]);
 
   // Check if a job has a contract
   const getJobContract = (jobId) => {
@@ -145,7 +147,7 @@ const JobsView = ({
   const handleExportInvoice = async (job) => {
     try {
       message.loading({ content: 'Generating invoice...', key: 'invoice' });
-      await generateInvoicePDF(job, accountSettings);
+      await generateInvoicePDF(job, accountSettings, taxRatePercent);
       message.success({ content: 'Invoice generated successfully!', key: 'invoice' });
     } catch (error) {
       console.error('Error generating invoice:', error);
@@ -563,9 +565,9 @@ const JobsView = ({
               <Descriptions.Item label="Material Cost (Billing)">
                 ${(Number(selectedJob.customMaterialCost) || 0).toLocaleString('en-US', { minimumFractionDigits: 2 })}
               </Descriptions.Item>
-              <Descriptions.Item label="Tax (6%)">
+              <Descriptions.Item label={taxLabel}>
                 {selectedJob.includeTax ? (
-                  <Text>${(((Number(selectedJob.customMaterialCost) || 0) + (Number(selectedJob.jobPrice) || 0)) * 0.06).toLocaleString('en-US', { minimumFractionDigits: 2 })}</Text>
+                  <Text>${(((Number(selectedJob.customMaterialCost) || 0) + (Number(selectedJob.jobPrice) || 0)) * taxRate).toLocaleString('en-US', { minimumFractionDigits: 2 })}</Text>
                 ) : (
                   <Text type="secondary">Not included</Text>
                 )}
@@ -31,6 +31,7 @@ import * as contractService from "../Contracts/services/contractService";
 import * as accountSettingsService from "../../services/accountSettingsService";
 import { useAuth } from "../../AuthContext";
 import config from "../../config";
+import useTaxRate from "../../hooks/useTaxRate";
 import JobsView from "./components/views/JobsView";
 import CustomersView from "./components/views/CustomersView";
 import EmployeesView from "./components/views/EmployeesView";
@@ -50,6 +51,7 @@ const Reports = () => {
     dayjs(),
   ]);
   const { token } = useAuth();
+  const { taxRate, taxLabel } = useTaxRate();
 
   // Fetch customers
   const { data: customersData, isLoading: customersLoading } = useQuery({
@@ -174,7 +176,7 @@ const Reports = () => {
           }
 
           const subtotal = jobPrice + billingMaterialCost;
-          const taxAmount = job.includeTax ? subtotal * 0.06 : 0;
+          const taxAmount = job.includeTax ? subtotal * taxRate : 0;
 
           totalJobPrice += jobPrice;
           totalBillingMaterialCost += billingMaterialCost;
@@ -205,7 +207,7 @@ const Reports = () => {
           { Category: "REVENUE BREAKDOWN", Metric: "", Value: "" },
           { Category: "", Metric: "Total Job Price", Value: `$${totalJobPrice.toFixed(2)}` },
           { Category: "", Metric: "Total Material Cost (Billing)", Value: `$${totalBillingMaterialCost.toFixed(2)}` },
-          { Category: "", Metric: "Total Tax (6%)", Value: `$${totalTaxAmount.toFixed(2)}` },
+          { Category: "", Metric: `Total ${taxLabel}`, Value: `$${totalTaxAmount.toFixed(2)}` },
           { Category: "", Metric: "TOTAL REVENUE", Value: `$${totalRevenue.toFixed(2)}` },
           { Category: "", Metric: "", Value: "" },
           { Category: "COSTS & PROFIT", Metric: "", Value: "" },
@@ -242,7 +244,7 @@ const Reports = () => {
           }
 
           const subtotal = jobPrice + billingMaterialCost;
-          const taxAmount = job.includeTax ? subtotal * 0.06 : 0;
+          const taxAmount = job.includeTax ? subtotal * taxRate : 0;
           const totalCost = subtotal + taxAmount;
           const paidAmount = job.payments?.reduce((sum, p) => sum + (parseFloat(p.amount) || 0), 0) || 0;
           const outstanding = totalCost - paidAmount;
@@ -1,4 +1,5 @@
 import { jsPDF } from "jspdf";
+import { DEFAULT_TAX_RATE_PERCENT } from "../../../hooks/useTaxRate";
 
 // Helper function to load image as base64
 const loadImageAsBase64 = (url) => {
@@ -23,7 +24,7 @@ const loadImageAsBase64 = (url) => {
   });
 };
 
-export const generateInvoicePDF = async (job, accountSettings) => {
+export const generateInvoicePDF = async (job, accountSettings, taxRatePercent = DEFAULT_TAX_RATE_PERCENT) => {
   const doc = new jsPDF();
   const pageWidth = doc.internal.pageSize.getWidth();
   const margin = 20;
@@ -221,7 +222,7 @@ export const generateInvoicePDF = async (job, accountSettings) => {
     : 0;
   const jobPrice = Number(job.jobPrice) || 0;
   const subtotal = billingMaterialCost + jobPrice;
-  const taxAmount = job.includeTax ? subtotal * 0.06 : 0;
+  const taxAmount = job.includeTax ? subtotal * taxRatePercent / 100 : 0;
   const totalCost = subtotal + taxAmount;
 
   // Labor and Services (Job Price)
@@ -255,9 +256,9 @@ export const generateInvoicePDF = async (job, accountSettings) => {
   doc.text(`$${subtotal.toFixed(2)}`, pageWidth - 30, yPos);
   yPos += 8;
 
-  // Tax (6%) if applicable
+  // Tax if applicable
   if (job.includeTax) {
-    doc.text("Tax (6%):", totalsX, yPos);
+    doc.text(`Tax (${taxRatePercent}%):`, totalsX, yPos);
     doc.text(`$${taxAmount.toFixed(2)}`, pageWidth - 30, yPos);
     yPos += 8;
   }
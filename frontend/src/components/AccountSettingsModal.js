@@ -1,9 +1,10 @@
 import React, { useState, useEffect } from "react";
-import { Modal, Form, Input, Button, message, Upload, Divider } from "antd";
+import { Modal, Form, Input, InputNumber, Button, message, Upload, Divider } from "antd";
 import { UploadOutlined, DeleteOutlined, LockOutlined } from "@ant-design/icons";
 import { useMutation, useQueryClient } from "@tanstack/react-query";
 import * as accountSettingsService from "../services/accountSettingsService";
 import config from "../config";
+import { DEFAULT_TAX_RATE_PERCENT } from "../hooks/useTaxRate";
 
 const AccountSettingsModal = ({ open, onClose, currentSettings, onPasswordChangeClick }) => {
   const [form] = Form.useForm();
@@ -19,6 +20,7 @@ const AccountSettingsModal = ({ open, onClose, currentSettings, onPasswordChange
         email: currentSettings.email || "",
         phone: currentSettings.phone || "",
         address: currentSettings.address || "",
+        taxRatePercent: currentSettings.taxRatePercent ?? DEFAULT_TAX_RATE_PERCENT,
       });
       setLogoUrl(currentSettings.logoUrl || null);
     }
@@ -153,6 +155,17 @@ const AccountSettingsModal = ({ open, onClose, currentSettings, onPasswordChange
           />
         </Form.Item>
 
+        <Form.Item
+          label="Sales Tax Rate"
+          name="taxRatePercent"
+          rules={[{ required: true, message: "Tax rate is required" }]}
+        >
+          <InputNumber size="large" min={0} max={100} step={0.25} precision={2} addonAfter="%" style={{ width: "100%" }} />
+        </Form.Item>
+        <div style={{ fontSize: "12px", color: "#8c8c8c", marginTop: "-16px", marginBottom: "16px" }}>
+          Applied to jobs and invoices marked as taxable
+        </div>
+
         <Form.Item label="Company Logo">
           <div style={{ marginTop: 8 }}>
             {logoUrl ? (
@@ -0,0 +1,89 @@
+import { useEffect, useRef } from "react";
+import { useQueryClient } from "@tanstack/react-query";
+import config from "../config";
+import * as changeFeedService from "../services/changeFeedService";
+
+// Cached queries each kind of change can make stale
+const AFFECTED_QUERIES = {
+  job: () => [["jobs"], ["customers"]],
+  payment: (event) => [["payments", event.jobId], ["jobs"], ["customers"]],
+  expense: () => [["expenses"], ["jobs"]],
+  contract: () => [["contracts"], ["jobs"]],
+};
+
+// Pause before opening a new stream after one fails, so an outage is not a request loop
+const RECONNECT_DELAY_MS = 3000;
+
+/**
+ * Subscribes to the backend change feed and refreshes only the queries a change
+ * touches, instead of refetching lists on a timer. Each stream is opened with a
+ * fresh single-use ticket; when it drops, a new ticket reopens it and resumes from
+ * the last event seen. A "reset" (events missed) refreshes everything.
+ */
+const useChangeFeed = (token) => {
+  const queryClient = useQueryClient();
+  const lastEventId = useRef(null);
+
+  useEffect(() => {
+    if (!token || typeof EventSource === "undefined") {
+      return undefined;
+    }
+    let source = null;
+    let retry = null;
+    let closed = false;
+
+    const open = async () => {
+      let ticket;
+      try {
+        ({ ticket } = await changeFeedService.getStreamTicket());
+      } catch (error) {
+        if (!closed) {
+          retry = setTimeout(open, RECONNECT_DELAY_MS);
+        }
+        return;
+      }
+      if (closed) {
+        return;
+      }
+      const params = new URLSearchParams({ ticket });
+      if (lastEventId.current) {
+        params.set("lastEventId", lastEventId.current);
+      }
+      source = new EventSource(`${config.SPRING_API_BASE}/api/changes/stream?${params}`);
+
+      source.addEventListener("ready", (e) => {
+        lastEventId.current = e.lastEventId;
+      });
+      source.addEventListener("reset", (e) => {
+        lastEventId.current = e.lastEventId;
+        queryClient.invalidateQueries();
+      });
+      source.addEventListener("change", (e) => {
+        lastEventId.current = e.lastEventId;
+        const event = JSON.parse(e.data);
+        const affected = AFFECTED_QUERIES[event.type];
+        if (affected) {
+          affected(event).forEach((queryKey) => queryClient.invalidateQueries({ queryKey }));
+        }
+      });
+      // The browser's own reconnect would reuse the spent ticket, so reopen with a new one
+      source.onerror = () => {
+        source.close();
+        if (!closed) {
+          retry = setTimeout(open, RECONNECT_DELAY_MS);
+        }
+      };
+    };
+    open();
+
+    return () => {
+      closed = true;
+      clearTimeout(retry);
+      if (source) {
+        source.close();
+      }
+    };
+  }, [token, queryClient]);
+};
+
+export default useChangeFeed;
@@ -0,0 +1,31 @@
+import { useQuery } from "@tanstack/react-query";
+import * as accountSettingsService from "../services/accountSettingsService";
+import { useAuth } from "../AuthContext";
+
+// Same as pricing.default-tax-rate-percent on the server: used when the tenant has not set a rate
+export const DEFAULT_TAX_RATE_PERCENT = 6;
+
+/**
+ * The tenant's sales tax rate from account settings, the rate the backend prices
+ * jobs and checks payments with. Shares the cached accountSettings query with the
+ * navigation bar, so it costs no extra request.
+ */
+const useTaxRate = () => {
+  const { token } = useAuth();
+  const { data: accountSettings } = useQuery({
+    queryKey: ["accountSettings", token],
+    queryFn: () => accountSettingsService.getAccountSettings(),
+    enabled: !!token,
+  });
+
+  const taxRatePercent = accountSettings?.taxRatePercent != null
+    ? Number(accountSettings.taxRatePercent)
+    : DEFAULT_TAX_RATE_PERCENT;
+  return {
+    taxRate: taxRatePercent / 100,
+    taxRatePercent,
+    taxLabel: `Tax (${taxRatePercent}%)`,
+  };
+};
+
+export default useTaxRate;
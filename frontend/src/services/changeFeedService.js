@@ -0,0 +1,6 @@
+import Backend from "../Backend";
+
+// A single-use ticket for opening the change stream, which cannot send the JWT as a header
+export const getStreamTicket = () => {
+  return Backend.post("api/changes/ticket");
+};